@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.common;
+
+/**
+ * Merges and estimates the serialized Flajolet-Martin bit vectors produced by the
+ * NumDistinctValueEstimator of compute_stats, e.g. "{0, 1, 3}{0, 2}". The bit vectors
+ * of two data sets are merged with a bitwise OR, so the number of distinct values of a
+ * union (e.g. several partitions) can be estimated without double counting.
+ * This is used by both the metastore and the optimizer, which cannot depend on ql.
+ */
+public final class NumDistinctValueBitVectors {
+
+  /** Same as in NumDistinctValueEstimator. */
+  private static final int BIT_VECTOR_SIZE = 31;
+  private static final double PHI = 0.77351;
+
+  private NumDistinctValueBitVectors() {
+  }
+
+  /**
+   * @return The bit vectors, one int per vector; null if the string is not valid.
+   */
+  public static int[] parse(String s) {
+    if (s == null || s.isEmpty()) {
+      return null;
+    }
+    int count = 0;
+    for (int i = 0; i < s.length(); ++i) {
+      if (s.charAt(i) == '{') {
+        ++count;
+      }
+    }
+    if (count == 0) {
+      return null;
+    }
+    int[] vectors = new int[count];
+    int vectorIndex = -1, bit = -1;
+    for (int i = 0; i < s.length(); ++i) {
+      char c = s.charAt(i);
+      if (c >= '0' && c <= '9') {
+        bit = (bit == -1 ? 0 : bit * 10) + (c - '0');
+        if (bit >= BIT_VECTOR_SIZE) {
+          return null;
+        }
+        continue;
+      }
+      if (bit != -1) {
+        if (vectorIndex < 0) {
+          return null;
+        }
+        vectors[vectorIndex] |= 1 << bit;
+        bit = -1;
+      }
+      if (c == '{') {
+        ++vectorIndex;
+      }
+    }
+    return bit == -1 ? vectors : null;
+  }
+
+  public static String serialize(int[] vectors) {
+    StringBuilder sb = new StringBuilder();
+    for (int vector : vectors) {
+      sb.append('{');
+      boolean isFirst = true;
+      for (int bit = 0; bit < BIT_VECTOR_SIZE; ++bit) {
+        if ((vector & (1 << bit)) == 0) continue;
+        if (!isFirst) {
+          sb.append(", ");
+        }
+        isFirst = false;
+        sb.append(bit);
+      }
+      sb.append('}');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Merges two serialized bit vectors.
+   * @return The merged bit vectors; null if either one is missing or they are incompatible.
+   */
+  public static String merge(String a, String b) {
+    int[] va = parse(a), vb = parse(b);
+    if (va == null || vb == null || va.length != vb.length) {
+      return null;
+    }
+    for (int i = 0; i < va.length; ++i) {
+      va[i] |= vb[i];
+    }
+    return serialize(va);
+  }
+
+  /**
+   * Estimates the number of distinct values the same way as NumDistinctValueEstimator.
+   * @return The estimate; -1 if the string is not valid.
+   */
+  public static long estimate(String s) {
+    int[] vectors = parse(s);
+    if (vectors == null) {
+      return -1;
+    }
+    int sumLeastSigZero = 0;
+    for (int vector : vectors) {
+      sumLeastSigZero += Integer.numberOfTrailingZeros(~vector);
+    }
+    double avgLeastSigZero =
+        (double)sumLeastSigZero / vectors.length - (Math.log(PHI) / Math.log(2.0));
+    return (long)Math.pow(2.0, avgLeastSigZero);
+  }
+}
@@ -0,0 +1,126 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.common.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram : A lock-free histogram of non-negative values (e.g. latencies in microseconds,
+ * or result sizes), cheap enough to be updated on every call from many threads.
+ *
+ * Values are counted in log-linear buckets: every power of two is split into SUB_BUCKETS
+ * linear buckets, so percentiles are accurate to within 1/SUB_BUCKETS of the value.
+ * Percentiles are computed when read, from a snapshot that is not atomic with respect to
+ * concurrent updates; this is good enough for monitoring.
+ */
+public class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  public void update(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    buckets.incrementAndGet(getBucket(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+    long curMax = max.get();
+    while (value > curMax && !max.compareAndSet(curMax, value)) {
+      curMax = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getSum() {
+    return sum.get();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public double getMean() {
+    long n = count.get();
+    return n == 0 ? 0 : (double)sum.get() / n;
+  }
+
+  /**
+   * @param percentile The percentile, between 0 and 1 (e.g. 0.99).
+   * @return The upper bound of the bucket the percentile falls into, capped by the max value;
+   *         0 if there were no updates.
+   */
+  public long getPercentile(double percentile) {
+    long[] snapshot = new long[BUCKET_COUNT];
+    long total = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      snapshot[i] = buckets.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long)Math.ceil(percentile * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(getBucketUpperBound(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKET_COUNT; ++i) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  static int getBucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int)value;
+    }
+    int msb = 63 - Long.numberOfLeadingZeros(value);
+    int shift = msb - SUB_BUCKET_BITS;
+    int subBucket = (int)((value >>> shift) & (SUB_BUCKETS - 1));
+    return (shift + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long getBucketUpperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowerBound = ((long)(SUB_BUCKETS + bucket % SUB_BUCKETS)) << shift;
+    return lowerBound + (1L << shift) - 1;
+  }
+}
@@ -0,0 +1,167 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.common.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+/**
+ * Read-only MBean exposing the histograms and gauges of the metrics subsystem. Unlike
+ * MetricsMBeanImpl, updates do not take any lock; the exposed values are computed when read.
+ *
+ * For a histogram named h, the attributes are h.count, h.mean, h.p50, h.p99 and h.max.
+ * For a gauge named g, the attribute is g.
+ */
+public class HistogramsMBeanImpl implements DynamicMBean {
+
+  private static final String[] HISTOGRAM_SUFFIXES = { ".count", ".mean", ".p50", ".p99", ".max" };
+
+  private static final MBeanOperationInfo[] ops = {new MBeanOperationInfo("reset",
+      "Resets all the histograms", null, "void", MBeanOperationInfo.ACTION)};
+
+  private final ConcurrentMap<String, Histogram> histograms =
+      new ConcurrentHashMap<String, Histogram>();
+  private final ConcurrentMap<String, AtomicLong> gauges =
+      new ConcurrentHashMap<String, AtomicLong>();
+
+  public Histogram getHistogram(String name) {
+    Histogram histogram = histograms.get(name);
+    if (histogram == null) {
+      histogram = new Histogram();
+      Histogram old = histograms.putIfAbsent(name, histogram);
+      if (old != null) {
+        histogram = old;
+      }
+    }
+    return histogram;
+  }
+
+  public AtomicLong getGauge(String name) {
+    AtomicLong gauge = gauges.get(name);
+    if (gauge == null) {
+      gauge = new AtomicLong();
+      AtomicLong old = gauges.putIfAbsent(name, gauge);
+      if (old != null) {
+        gauge = old;
+      }
+    }
+    return gauge;
+  }
+
+  @Override
+  public Object getAttribute(String attribute) throws AttributeNotFoundException {
+    AtomicLong gauge = gauges.get(attribute);
+    if (gauge != null) {
+      return gauge.get();
+    }
+    int ix = attribute.lastIndexOf('.');
+    Histogram histogram = ix < 0 ? null : histograms.get(attribute.substring(0, ix));
+    if (histogram != null) {
+      String suffix = attribute.substring(ix);
+      if (suffix.equals(".count")) {
+        return histogram.getCount();
+      } else if (suffix.equals(".mean")) {
+        return histogram.getMean();
+      } else if (suffix.equals(".p50")) {
+        return histogram.getPercentile(0.5);
+      } else if (suffix.equals(".p99")) {
+        return histogram.getPercentile(0.99);
+      } else if (suffix.equals(".max")) {
+        return histogram.getMax();
+      }
+    }
+    throw new AttributeNotFoundException("Key [" + attribute + "] not found/tracked");
+  }
+
+  @Override
+  public AttributeList getAttributes(String[] attributes) {
+    AttributeList results = new AttributeList();
+    for (String attribute : attributes) {
+      try {
+        results.add(new Attribute(attribute, getAttribute(attribute)));
+      } catch (AttributeNotFoundException e) {
+        // skip it, like MetricsMBeanImpl does for unknown keys
+      }
+    }
+    return results;
+  }
+
+  @Override
+  public MBeanInfo getMBeanInfo() {
+    List<MBeanAttributeInfo> infos = new ArrayList<MBeanAttributeInfo>();
+    for (String name : histograms.keySet()) {
+      for (String suffix : HISTOGRAM_SUFFIXES) {
+        String type = suffix.equals(".mean") ? Double.class.getName() : Long.class.getName();
+        infos.add(new MBeanAttributeInfo(name + suffix, type, name + suffix, true, false, false));
+      }
+    }
+    for (String name : gauges.keySet()) {
+      infos.add(new MBeanAttributeInfo(name, Long.class.getName(), name, true, false, false));
+    }
+    return new MBeanInfo(this.getClass().getName(), "metrics histograms",
+        infos.toArray(new MBeanAttributeInfo[infos.size()]), null, ops, null);
+  }
+
+  @Override
+  public Object invoke(String name, Object[] args, String[] signature)
+      throws MBeanException, ReflectionException {
+    if (name.equals("reset")) {
+      reset();
+      return null;
+    }
+    throw new ReflectionException(new NoSuchMethodException(name));
+  }
+
+  @Override
+  public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+    throw new AttributeNotFoundException("Attribute [" + attribute.getName() + "] is read-only");
+  }
+
+  @Override
+  public AttributeList setAttributes(AttributeList attributes) {
+    return new AttributeList();
+  }
+
+  /**
+   * Resets the histograms. Gauges track the current state (e.g. calls in flight), so they
+   * are left alone.
+   */
+  public void reset() {
+    for (Histogram histogram : histograms.values()) {
+      histogram.reset();
+    }
+  }
+
+  void clear() {
+    histograms.clear();
+    gauges.clear();
+  }
+}
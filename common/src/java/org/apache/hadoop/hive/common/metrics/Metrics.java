@@ -37,6 +37,8 @@
  *                      named "scopes" that record the number of times they've been
  *                      instantiated and amount of time(in milliseconds) spent inside
  *                      the scopes.
+ *                      (iv) Using the updateHistogram method to track the distribution of a
+ *                      named value (e.g. a result size), exposed via a separate jmx bean.
  */
 public class Metrics {
 
@@ -49,6 +51,9 @@ private Metrics() {
    * Instantiating a named scope and then closing it exposes two counters:
    *   (i) a "number of calls" counter ( &lt;name&gt;.n ), and
    *  (ii) a "number of msecs spent between scope open and close" counter. ( &lt;name&gt;.t)
+   * It also updates a histogram of the usecs spent in the scope ( &lt;name&gt;.latency_us ),
+   * and a gauge of the number of scopes with that name currently open on all threads
+   * ( &lt;name&gt;.active ).
    */
   public static class MetricsScope {
 
@@ -56,9 +61,12 @@ public static class MetricsScope {
     final String numCounter;
     final String timeCounter;
     final String avgTimeCounter;
-    
+    final String latencyHistogram;
+    final String activeGauge;
+
     private boolean isOpen = false;
     private Long startTime = null;
+    private long startNanos;
 
     /**
      * Instantiates a named scope - intended to only be called by Metrics, so locally scoped.
@@ -70,6 +78,8 @@ private MetricsScope(String name) throws IOException {
       this.numCounter = name + ".n";
       this.timeCounter = name + ".t";
       this.avgTimeCounter = name + ".avg_t";
+      this.latencyHistogram = name + ".latency_us";
+      this.activeGauge = name + ".active";
       open();
     }
 
@@ -90,6 +100,8 @@ public void open() throws IOException {
       if (!isOpen) {
         isOpen = true;
         startTime = System.currentTimeMillis();
+        startNanos = System.nanoTime();
+        histograms.getGauge(activeGauge).incrementAndGet();
       } else {
         throw new IOException("Scope named " + name + " is not closed, cannot be opened.");
       }
@@ -102,6 +114,8 @@ public void open() throws IOException {
     public void close() throws IOException {
       if (isOpen) {
         Long endTime = System.currentTimeMillis();
+        histograms.getGauge(activeGauge).decrementAndGet();
+        histograms.getHistogram(latencyHistogram).update((System.nanoTime() - startNanos) / 1000);
         synchronized(metrics) {
           Long num = Metrics.incrementCounter(numCounter);
           Long time = Metrics.incrementCounter(timeCounter, endTime - startTime);
@@ -130,12 +144,16 @@ public void reopen() throws IOException {
   }
 
   private static final MetricsMBean metrics = new MetricsMBeanImpl();
+  private static final HistogramsMBeanImpl histograms = new HistogramsMBeanImpl();
 
   private static final ObjectName oname;
+  private static final ObjectName histogramsOname;
   static {
     try {
       oname = new ObjectName(
           "org.apache.hadoop.hive.common.metrics:type=MetricsMBean");      
+      histogramsOname = new ObjectName(
+          "org.apache.hadoop.hive.common.metrics:type=HistogramsMBean");
     } catch (MalformedObjectNameException mone) {
       throw new RuntimeException(mone);
     }
@@ -157,6 +175,7 @@ public static void init() throws Exception {
       if (!initialized) {
         MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
         mbs.registerMBean(metrics, oname);
+        mbs.registerMBean(histograms, histogramsOname);
         initialized = true;
       }
     }
@@ -200,6 +219,16 @@ public static Object get(String name) throws IOException{
     return metrics.get(name);
   }
 
+  /**
+   * Adds a value to the named histogram, creating it if needed.
+   */
+  public static void updateHistogram(String name, long value) {
+    if (!initialized) {
+      return;
+    }
+    histograms.getHistogram(name).update(value);
+  }
+
   public static MetricsScope startScope(String name) throws IOException{
     if (!initialized) {
       return null;
@@ -245,7 +274,11 @@ static void uninit() throws Exception {
         if (mbs.isRegistered(oname)) {
           mbs.unregisterMBean(oname);
         }
+        if (mbs.isRegistered(histogramsOname)) {
+          mbs.unregisterMBean(histogramsOname);
+        }
         metrics.clear();
+        histograms.clear();
         initialized = false;
       }
     }
@@ -175,6 +175,7 @@ public void setSparkConfigUpdated(boolean isSparkConfigUpdated) {
   public static final HiveConf.ConfVars[] metaConfVars = {
       HiveConf.ConfVars.METASTORE_TRY_DIRECT_SQL,
       HiveConf.ConfVars.METASTORE_TRY_DIRECT_SQL_DDL,
+      HiveConf.ConfVars.METASTORE_TRY_DIRECT_SQL_WRITES,
       HiveConf.ConfVars.METASTORE_CLIENT_SOCKET_TIMEOUT
   };
 
@@ -387,6 +388,19 @@ public static enum ConfVars {
     METASTORE_CLIENT_SOCKET_TIMEOUT("hive.metastore.client.socket.timeout", "600s",
         new TimeValidator(TimeUnit.SECONDS),
         "MetaStore Client socket timeout in seconds"),
+    METASTORE_CLIENT_POOL_ENABLED("hive.metastore.client.pool.enabled", false,
+        "Whether metastore clients borrow a connection from a pool shared by the process for each\n" +
+        "call, instead of each keeping its own connection open. Meant for HiveServer2, so that many\n" +
+        "sessions need few metastore connections and server threads. Connections are only shared\n" +
+        "by the sessions of the same user. Session level metastore configuration (set metaconf:)\n" +
+        "is not supported in this mode."),
+    METASTORE_CLIENT_POOL_MAX_CONNECTIONS("hive.metastore.client.pool.max.connections", 64,
+        "Maximum number of connections in the metastore client pool. When all of them are in use,\n" +
+        "calls wait for one to be released, for up to hive.metastore.client.socket.timeout."),
+    METASTORE_CLIENT_POOL_VALIDATION_INTERVAL("hive.metastore.client.pool.validation.interval", "30s",
+        new TimeValidator(TimeUnit.MILLISECONDS),
+        "Pooled metastore connections that were idle for longer than this are checked before\n" +
+        "being reused."),
     METASTOREPWD("javax.jdo.option.ConnectionPassword", "mine",
         "password to use against metastore database"),
     METASTORECONNECTURLHOOK("hive.metastore.ds.connection.url.hook", "",
@@ -551,6 +565,26 @@ public static enum ConfVars {
         "select query has incorrect syntax or something similar inside a transaction, the\n" +
         "entire transaction will fail and fall-back to DataNucleus will not be possible. You\n" +
         "should disable the usage of direct SQL inside transactions if that happens in your case."),
+    METASTORE_TRY_DIRECT_SQL_WRITES("hive.metastore.try.direct.sql.writes", false,
+        "Whether the Hive metastore should use batched direct SQL inserts and updates, instead\n" +
+        "of the DataNucleus, when adding or altering many partitions at once. Only used when\n" +
+        "hive.metastore.try.direct.sql is enabled. The writes are rolled back to a savepoint and\n" +
+        "retried via the DataNucleus if they fail."),
+    METASTORE_AGGREGATE_STATS_CACHE_ENABLED("hive.metastore.aggregate.stats.cache.enabled", false,
+        "Whether the metastore should cache partition column statistics in memory, and serve\n" +
+        "aggregate stats requests (used e.g. by CBO) from the cache instead of aggregating them\n" +
+        "in the backing database on every request. The cache is updated as partition stats are\n" +
+        "written through this metastore; stats written through other metastore instances are\n" +
+        "only seen after hive.metastore.aggregate.stats.cache.ttl."),
+    METASTORE_AGGREGATE_STATS_CACHE_MAX_ENTRIES("hive.metastore.aggregate.stats.cache.max.entries",
+        1000000,
+        "Maximum number of partition column statistics entries kept in the aggregate stats cache,\n" +
+        "counting each cached table as one more entry. Least recently used tables are evicted\n" +
+        "when the limit is reached. Requests for more entries are not cached."),
+    METASTORE_AGGREGATE_STATS_CACHE_TTL("hive.metastore.aggregate.stats.cache.ttl", "600s",
+        new TimeValidator(TimeUnit.SECONDS),
+        "How long cached column statistics are used before being reloaded. Bounds how stale the\n" +
+        "cache can be when other metastore instances write to the same database."),
     METASTORE_ORM_RETRIEVE_MAPNULLS_AS_EMPTY_STRINGS("hive.metastore.orm.retrieveMapNullsAsEmptyStrings",false,
         "Thrift does not support nulls in maps, so any nulls present in maps retrieved from ORM must " +
         "either be pruned or converted to empty strings. Some backing dbs such as Oracle persist empty strings " +
@@ -593,6 +627,10 @@ public static enum ConfVars {
         "Username to use against metastore database"),
     METASTORE_END_FUNCTION_LISTENERS("hive.metastore.end.function.listeners", "",
         "List of comma separated listeners for the end of metastore functions."),
+    METASTORE_SLOW_CALL_LOG_THRESHOLD("hive.metastore.slow.call.log.threshold", "0ms",
+        new TimeValidator(TimeUnit.MILLISECONDS),
+        "Metastore calls that take longer than this are logged, with the time spent in each\n" +
+        "ObjectStore step and whether it used direct SQL or the ORM. 0 disables the log."),
     METASTORE_PART_INHERIT_TBL_PROPS("hive.metastore.partition.inherit.table.properties", "",
         "List of comma separated keys occurring in table properties which will get inherited to newly created partitions. \n" +
         "* implies all the keys will get inherited."),
@@ -695,6 +733,13 @@ public static enum ConfVars {
     HIVEALIAS("hive.alias", "", ""),
     HIVEMAPSIDEAGGREGATE("hive.map.aggr", true, "Whether to use map-side aggregation in Hive Group By queries"),
     HIVEGROUPBYSKEW("hive.groupby.skewindata", false, "Whether there is skew in data to optimize group by queries"),
+    HIVEGROUPBYSKEWSPREAD("hive.groupby.skewindata.spread", 0,
+        "When \"hive.groupby.skewindata\" is set and this is greater than 1, the first shuffle of\n" +
+        "a group by with keys and without distinct partitions the rows by their keys rather than\n" +
+        "randomly, except for the keys the map tasks find to be frequent by sampling them: the\n" +
+        "rows of such a key are spread over this many reducers. The second shuffle merges the\n" +
+        "partial aggregations as usual. This keeps the benefit of aggregating the rows of a key\n" +
+        "in the first reducers for the keys that are not skewed."),
     HIVEJOINEMITINTERVAL("hive.join.emit.interval", 1000,
         "How many rows in the right-most join operand Hive should buffer before emitting the join result."),
     HIVEJOINCACHESIZE("hive.join.cache.size", 25000,
@@ -778,6 +823,34 @@ public static enum ConfVars {
 	"for all tables."),
     HIVEQUERYRESULTFILEFORMAT("hive.query.result.fileformat", "TextFile", new StringSet("TextFile", "SequenceFile", "RCfile"),
         "Default file format for storing result of the query."),
+    HIVE_QUERY_RESULTS_CACHE_ENABLED("hive.query.results.cache.enabled", false,
+        "Whether HiveServer2 keeps the results of queries in a cache, and serves the results of a\n" +
+        "query from the cache when the same query is run again on the same input tables and\n" +
+        "partitions, without running its jobs. Queries using non-deterministic functions or reading\n" +
+        "external, temporary or non-native tables are not cached."),
+    HIVE_QUERY_RESULTS_CACHE_DIRECTORY("hive.query.results.cache.directory", "/tmp/hive/_resultscache_",
+        "Directory the results cache moves the query results to. Each HiveServer2 instance uses its\n" +
+        "own subdirectory, which is deleted when it stops. It must be on the same file system as\n" +
+        "hive.exec.scratchdir."),
+    HIVE_QUERY_RESULTS_CACHE_MAX_SIZE("hive.query.results.cache.max.size", 2147483648L,
+        "Maximum total size in bytes of the results in the cache. The least recently used results\n" +
+        "are evicted to make room for new ones."),
+    HIVE_QUERY_RESULTS_CACHE_MAX_ENTRY_SIZE("hive.query.results.cache.max.entry.size", 10485760L,
+        "Maximum size in bytes of the results of a query that are added to the cache."),
+    HIVE_QUERY_RESULTS_CACHE_MAX_ENTRY_LIFETIME("hive.query.results.cache.max.entry.lifetime", "3600s",
+        new TimeValidator(TimeUnit.SECONDS),
+        "Maximum time the results of a query are served from the cache."),
+    HIVE_COMPILED_PLAN_CACHE_ENABLED("hive.compiled.plan.cache.enabled", false,
+        "Whether to reuse the compiled plans of the queries a session runs again with the same\n" +
+        "text, database and configuration. Only plans that fetch the rows of a single table\n" +
+        "without launching any job are reused (see hive.fetch.task.conversion), after checking\n" +
+        "that the table and its selected partitions did not change since they were compiled.\n" +
+        "The plans are kept per session rather than for the whole of HiveServer2: they resolve\n" +
+        "the temporary functions and tables of the session, and are dropped whenever the session\n" +
+        "runs a statement that is not a query. The tasks of the plans that launch jobs can only\n" +
+        "run once; the results of such queries are shared by hive.query.results.cache.enabled."),
+    HIVE_COMPILED_PLAN_CACHE_MAX_ENTRIES("hive.compiled.plan.cache.max.entries", 100,
+        "Maximum number of compiled plans each session keeps for hive.compiled.plan.cache.enabled."),
     HIVECHECKFILEFORMAT("hive.fileformat.check", true, "Whether to check file format or not when loading data files"),
 
     // default serde for rcfile
@@ -1159,6 +1232,9 @@ public static enum ConfVars {
         "number of reducers are few, so the number of files anyway are small. However, with this optimization,\n" +
         "we are increasing the number of files possibly by a big margin. So, we merge aggressively."),
     HIVEOPTCORRELATION("hive.optimize.correlation", false, "exploit intra-query correlations."),
+    HIVE_SHARED_SCAN_OPTIMIZATION("hive.optimize.shared.scan", false,
+        "Whether to merge the scans of the same partitions of a table by several branches of a\n" +
+        "query, so that the table is read once. Only used by Tez."),
 
     HIVE_HADOOP_SUPPORTS_SUBDIRECTORIES("hive.mapred.supports.subdirectories", false,
         "Whether the version of Hadoop which is running supports sub-directories for tables/partitions. \n" +
@@ -1252,6 +1328,10 @@ public static enum ConfVars {
     HIVE_STATS_NDV_ERROR("hive.stats.ndv.error", (float)20.0,
         "Standard error expressed in percentage. Provides a tradeoff between accuracy and compute cost. \n" +
         "A lower value for error indicates higher accuracy and a higher compute cost."),
+    HIVE_STATS_NDV_BITVECTORS("hive.stats.ndv.bitvectors", false,
+        "Whether to store the bit vectors used for NDV estimation with the column statistics.\n" +
+        "They let the metastore and the optimizer merge the NDVs of several partitions, instead of\n" +
+        "using the largest one, at the cost of bigger column statistics."),
     HIVE_STATS_KEY_PREFIX_MAX_LENGTH("hive.stats.key.prefix.max.length", 150,
         "Determines if when the prefix of the key used for intermediate stats collection\n" +
         "exceeds a certain length, a hash of the key is used instead.  If the value < 0 then hashing"),
@@ -1729,6 +1809,19 @@ public static enum ConfVars {
         new TimeValidator(TimeUnit.SECONDS),
         "Keepalive time (in seconds) for an idle worker thread. When the number of workers exceeds min workers, " +
         "excessive threads are killed after this time interval."),
+    HIVE_SERVER2_THRIFT_RESULTSET_SERIALIZE_IN_TASKS("hive.server2.thrift.resultset.serialize.in.tasks", false,
+        "Whether the final tasks of the queries run by HiveServer2 write the query results in a binary\n" +
+        "format (LazyBinarySerDe in SequenceFiles) instead of delimited text. HiveServer2 then builds the\n" +
+        "result sets from the binary values, without parsing and unescaping every field of every row."),
+    HIVE_SERVER2_THRIFT_NONBLOCKING("hive.server2.thrift.nonblocking", false,
+        "Whether the binary mode of HiveServer2 serves its connections with selector threads instead of\n" +
+        "a worker thread per connection, so that idle connections don't hold a thread. Worker threads,\n" +
+        "at most hive.server2.thrift.max.worker.threads, are then only used during the SASL handshake\n" +
+        "and to process the requests. Not supported with SSL or NOSASL authentication, which keep a\n" +
+        "thread per connection."),
+    HIVE_SERVER2_THRIFT_SELECTOR_THREADS("hive.server2.thrift.selector.threads", 2,
+        "Number of selector threads reading and writing the connections of HiveServer2 when\n" +
+        "hive.server2.thrift.nonblocking is set."),
     // Configuration for async thread pool in SessionManager
     HIVE_SERVER2_ASYNC_EXEC_THREADS("hive.server2.async.exec.threads", 100,
         "Number of threads in the async thread pool for HiveServer2"),
@@ -1742,6 +1835,40 @@ public static enum ConfVars {
         new TimeValidator(TimeUnit.SECONDS),
         "Time that an idle HiveServer2 async thread (from the thread pool) will wait for a new task\n" +
         "to arrive before terminating"),
+    HIVE_SERVER2_WORKLOAD_QUEUES("hive.server2.workload.queues", "",
+        "Comma separated list of the queues the async queries of HiveServer2 wait in for a thread of\n" +
+        "the async thread pool. If empty, all the queries wait in a single queue, in order. Each queue\n" +
+        "<name> is configured with:\n" +
+        "  hive.server2.workload.queue.<name>.users: comma separated users whose queries go to the\n" +
+        "    queue, unless they choose another one with hive.server2.workload.queue;\n" +
+        "  hive.server2.workload.queue.<name>.groups: comma separated groups whose queries go to the\n" +
+        "    queue, likewise;\n" +
+        "  hive.server2.workload.queue.<name>.max.concurrent: maximum number of its queries that run\n" +
+        "    at the same time (default: hive.server2.async.exec.threads);\n" +
+        "  hive.server2.workload.queue.<name>.max.waiting: maximum number of its queries that wait\n" +
+        "    for a thread before new ones are rejected (default: hive.server2.async.exec.wait.queue.size);\n" +
+        "  hive.server2.workload.queue.<name>.priority: when a thread is free, it goes to the waiting\n" +
+        "    query of the queue with the highest priority (default: 0).\n" +
+        "Queries that don't go to any other queue go to the 'default' queue, which is created if it\n" +
+        "isn't listed."),
+    HIVE_SERVER2_WORKLOAD_QUEUE("hive.server2.workload.queue", "",
+        "The queue of hive.server2.workload.queues the async queries of the session wait in. The user\n" +
+        "must be allowed to use it, if the queue has users or groups."),
+    HIVE_SERVER2_METRICS_ENABLED("hive.server2.metrics.enabled", false,
+        "Whether HiveServer2 exposes its metrics (e.g. the time queries waited in each workload\n" +
+        "queue) through JMX."),
+    HIVE_SERVER2_PARALLEL_COMPILATION("hive.driver.parallel.compilation", false,
+        "Whether queries of different HiveServer2 sessions can be compiled in parallel. Queries of\n" +
+        "the same session are always compiled one at a time. When false, a single query is compiled\n" +
+        "at a time in the whole HiveServer2 process."),
+    HIVE_SERVER2_PARALLEL_COMPILATION_LIMIT("hive.driver.parallel.compilation.global.limit", -1,
+        "Maximum number of queries compiled at the same time in HiveServer2 when\n" +
+        "hive.driver.parallel.compilation is set. A value of 0 or less means no limit."),
+    HIVE_SERVER2_EARLY_FETCH("hive.server2.early.fetch", false,
+        "Whether the async queries of HiveServer2 are reported finished, and their results can be fetched,\n" +
+        "as soon as their last task completed, while their post-execution hooks run and their locks are\n" +
+        "released in the background. A failure after the results are available is then only logged.\n" +
+        "Closing the query waits for the background work to complete."),
     HIVE_SERVER2_LONG_POLLING_TIMEOUT("hive.server2.long.polling.timeout", "5000ms",
         new TimeValidator(TimeUnit.MILLISECONDS),
         "Time that HiveServer2 will wait before responding to asynchronous calls that use long polling"),
@@ -1807,6 +1934,13 @@ public static enum ConfVars {
         "client implementations that retrieve the available tables and supported table types\n" +
         "  HIVE : Exposes Hive's native table types like MANAGED_TABLE, EXTERNAL_TABLE, VIRTUAL_VIEW\n" +
         "  CLASSIC : More generic types like TABLE and VIEW"),
+    HIVE_SERVER2_METADATA_FETCH_THREADS("hive.server2.metadata.fetch.threads", 4,
+        "Number of batches of tables the GetTables and GetColumns operations of HiveServer2 fetch from\n" +
+        "the metastore in parallel. Only used with hive.metastore.client.pool.enabled and a remote\n" +
+        "metastore, as the metastore client of a session can't be used by several threads otherwise."),
+    HIVE_SERVER2_METADATA_FETCH_POOL_SIZE("hive.server2.metadata.fetch.pool.size", 16,
+        "Maximum number of threads HiveServer2 fetches the batches of tables of all the GetTables and\n" +
+        "GetColumns operations with. When they are all busy, an operation fetches its next batch itself."),
     HIVE_SERVER2_SESSION_HOOK("hive.server2.session.hook", "", ""),
     HIVE_SERVER2_USE_SSL("hive.server2.use.SSL", false,
         "Set this to true for using SSL encryption in HiveServer2."),
@@ -1957,6 +2091,19 @@ public static enum ConfVars {
         "This flag is used in HiveServer2 to enable a user to use HiveServer2 without\n" +
         "turning on Tez for HiveServer2. The user could potentially want to run queries\n" +
         "over Tez without the pool of sessions."),
+    HIVE_SERVER2_TEZ_SESSIONS_MAX_PER_QUEUE("hive.server2.tez.sessions.max.per.queue", 0,
+        "When greater than 0, the pool of Tez sessions is elastic: it opens more sessions on a\n" +
+        "queue while all of them are busy, up to this many per queue, and it keeps a spare idle\n" +
+        "session opened ahead of the next query. The sessions of queues chosen with\n" +
+        "tez.queue.name are pooled as well, rather than opened for each user session, when\n" +
+        "doAs is off. When 0, the pool only has the fixed sessions of\n" +
+        "\"hive.server2.tez.default.queues\"."),
+    HIVE_SERVER2_TEZ_SESSIONS_IDLE_TIMEOUT("hive.server2.tez.sessions.idle.timeout", "10m",
+        new TimeValidator(TimeUnit.SECONDS),
+        "The time after which the elastic pool closes an idle session beyond the\n" +
+        "\"hive.server2.tez.sessions.per.default.queue\" sessions of a default queue. The pool\n" +
+        "also reopens the idle sessions whose application master has shut down, so that queries\n" +
+        "after an idle period don't wait for a new one."),
 
     HIVE_QUOTEDID_SUPPORT("hive.support.quoted.identifiers", "column",
         new StringSet("none", "column"),
@@ -1996,6 +2143,14 @@ public static enum ConfVars {
     TEZ_MIN_PARTITION_FACTOR("hive.tez.min.partition.factor", 0.25f,
         "When auto reducer parallelism is enabled this factor will be used to put a lower limit to the number\n" +
         "of reducers that tez specifies."),
+    TEZ_UNSORTED_SHUFFLE("hive.tez.unsorted.shuffle", false,
+        "Whether to shuffle the input of a reduce-side group by without sorting it when the group by\n" +
+        "is the only operator of the reducer that needs its input, in which case the group by aggregates\n" +
+        "its groups in a hash table. Not used for distinct aggregations, grouping sets or vectorized reducers."),
+    TEZ_UNSORTED_SHUFFLE_MAX_SIZE("hive.tez.unsorted.shuffle.max.size", 100000000L,
+        "The largest estimated size, in bytes, of the groups aggregated by each reducer for which\n" +
+        "hive.tez.unsorted.shuffle is used. The groups of a reducer with an unsorted input stay in memory\n" +
+        "until the end of its input."),
     TEZ_DYNAMIC_PARTITION_PRUNING(
         "hive.tez.dynamic.partition.pruning", true,
         "When dynamic pruning is enabled, joins on partition keys will be processed by sending\n" +
@@ -2005,6 +2160,25 @@ public static enum ConfVars {
         "Maximum size of events sent by processors in dynamic pruning. If this size is crossed no pruning will take place."),
     TEZ_DYNAMIC_PARTITION_PRUNING_MAX_DATA_SIZE("hive.tez.dynamic.partition.pruning.max.data.size", 100*1024*1024L,
         "Maximum total data size of events in dynamic pruning."),
+    TEZ_DYNAMIC_SEMIJOIN_REDUCTION("hive.tez.dynamic.semijoin.reduction", false,
+        "When dynamic semijoin reduction is enabled, joins on columns other than partition keys send a\n" +
+        "bloom filter and the range of the keys of one side to the Tez application master, which uses the\n" +
+        "range to skip the splits of the other side and hands the filter to its tasks to drop the rows\n" +
+        "that can't join as they are read. Needs hive.tez.dynamic.partition.pruning."),
+    TEZ_DYNAMIC_SEMIJOIN_REDUCTION_MAX_ENTRIES("hive.tez.dynamic.semijoin.reduction.max.entries", 10000000L,
+        "Maximum number of distinct keys expected in the bloom filter of a dynamic semijoin reduction.\n" +
+        "The reduction is not planned when the statistics expect more keys, or don't know how many, nor\n" +
+        "when the filter for that many keys would be bigger than hive.tez.dynamic.partition.pruning.max.event.size\n" +
+        "or hive.tez.dynamic.partition.pruning.max.data.size."),
+    TEZ_MAPJOIN_CACHE_ACROSS_QUERIES("hive.tez.mapjoin.cache.across.queries", false,
+        "Whether the hash tables of the map joins are kept in the reused Tez containers for the next\n" +
+        "queries of the session that broadcast the same rows, which are the same columns of the same files\n" +
+        "of a table, filtered the same way. Lists the files of the small tables at compile time."),
+    TEZ_MAPJOIN_CACHE_MEMORY_FRACTION("hive.tez.mapjoin.cache.memory.fraction", (float) 0.3,
+        "The fraction of the heap of a Tez container that the hash tables kept for the next queries\n" +
+        "may take, by their size in memory. The least recently used ones are dropped past it. Only the\n" +
+        "optimized hash tables (hive.mapjoin.optimized.hashtable) are kept, as the size of the others\n" +
+        "isn't known."),
     TEZ_SMB_NUMBER_WAVES(
         "hive.tez.smb.number.waves",
         (float) 0.5,
@@ -2040,6 +2214,16 @@ public static enum ConfVars {
       "Channel logging level for remote Spark driver.  One of {DEBUG, ERROR, INFO, TRACE, WARN}."),
     SPARK_RPC_SASL_MECHANISM("hive.spark.client.rpc.sasl.mechanisms", "DIGEST-MD5",
       "Name of the SASL mechanism to use for authentication."),
+    SPARK_USE_GROUPBY_SHUFFLE("hive.spark.use.groupby.shuffle", true,
+      "Whether the shuffle of a group by uses the groupByKey transformation of Spark. groupByKey\n" +
+      "avoids sorting the input of the reducers, but keeps all the values of a key in memory at\n" +
+      "once, which can run the reducers out of memory when the keys are skewed. When this is off,\n" +
+      "the input of the reducers is sorted and the values of each key are streamed to the reducer\n" +
+      "instead, like for a shuffle join."),
+    SPARK_MERGE_SMALL_TABLE_WORKS("hive.spark.merge.small.table.works", false,
+      "Whether the small tables of the map joins that don't depend on each other are loaded by a\n" +
+      "single Spark job. Otherwise each map join waits for the job of its own small tables, and the\n" +
+      "jobs are submitted one after the other."),
     NWAYJOINREORDER("hive.reorder.nway.joins", true,
       "Runs reordering of tables within single n-way join (i.e.: picks streamtable)"),
     HIVE_LOG_N_RECORDS("hive.log.every.n.records", 0L, new RangeValidator(0L, null),
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.common;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NumDistinctValueBitVectors}
+ */
+public class TestNumDistinctValueBitVectors {
+
+  @Test
+  public void testParseAndSerialize() throws Exception {
+    int[] vectors = NumDistinctValueBitVectors.parse("{0, 1, 3}{}{2,30}");
+    Assert.assertArrayEquals(new int[] { 0xb, 0, (1 << 30) | 4 }, vectors);
+    Assert.assertEquals("{0, 1, 3}{}{2, 30}", NumDistinctValueBitVectors.serialize(vectors));
+    Assert.assertNull(NumDistinctValueBitVectors.parse(null));
+    Assert.assertNull(NumDistinctValueBitVectors.parse("123"));
+    Assert.assertNull(NumDistinctValueBitVectors.parse("{31}"));
+    Assert.assertEquals(-1, NumDistinctValueBitVectors.estimate("foo"));
+  }
+
+  @Test
+  public void testMerge() throws Exception {
+    String a = "{0, 1}{0}", b = "{0, 2}{0, 1, 2}";
+    Assert.assertEquals("{0, 1, 2}{0, 1, 2}", NumDistinctValueBitVectors.merge(a, b));
+    Assert.assertNull(NumDistinctValueBitVectors.merge(a, null));
+    Assert.assertNull(NumDistinctValueBitVectors.merge(a, "{0}"));
+    // The merged estimate is never smaller than the estimates of the inputs.
+    long merged = NumDistinctValueBitVectors.estimate(NumDistinctValueBitVectors.merge(a, b));
+    Assert.assertTrue(merged >= NumDistinctValueBitVectors.estimate(a));
+    Assert.assertTrue(merged >= NumDistinctValueBitVectors.estimate(b));
+    // Merging the same data set does not change the estimate.
+    Assert.assertEquals(NumDistinctValueBitVectors.estimate(b),
+        NumDistinctValueBitVectors.estimate(NumDistinctValueBitVectors.merge(b, b)));
+  }
+}
@@ -107,6 +107,51 @@ public void testMetricsMBean() throws Exception {
     assertEquals(Long.valueOf(0), v);
   }
   
+  @Test
+  public void testHistogram() throws Exception {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getPercentile(0.5));
+    for (long i = 1; i <= 1000; i++) {
+      histogram.update(i);
+    }
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1000, histogram.getMax());
+    assertEquals(500.5, histogram.getMean(), 0.001);
+    // percentiles are accurate to within 1/8 of the value
+    long p50 = histogram.getPercentile(0.5);
+    assertTrue(p50 >= 500 && p50 <= 500 * 9 / 8);
+    long p99 = histogram.getPercentile(0.99);
+    assertTrue(p99 >= 990 && p99 <= 1000);
+    assertEquals(1, histogram.getPercentile(0.0001));
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+  }
+
+  @Test
+  public void testHistogramsMBean() throws Exception {
+    MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+    final ObjectName oname = new ObjectName(
+        "org.apache.hadoop.hive.common.metrics:type=HistogramsMBean");
+    Metrics.updateHistogram("bar.size", 3);
+    Metrics.updateHistogram("bar.size", 5);
+    assertEquals(Long.valueOf(2), mbs.getAttribute(oname, "bar.size.count"));
+    assertEquals(Long.valueOf(5), mbs.getAttribute(oname, "bar.size.max"));
+    assertEquals(Double.valueOf(4), mbs.getAttribute(oname, "bar.size.mean"));
+
+    // scopes track their latency and the number of open scopes
+    MetricsScope barScope = Metrics.startScope("bar");
+    assertEquals(Long.valueOf(1), mbs.getAttribute(oname, "bar.active"));
+    Thread.sleep(periodMs + 1);
+    barScope.close();
+    assertEquals(Long.valueOf(0), mbs.getAttribute(oname, "bar.active"));
+    assertEquals(Long.valueOf(1), mbs.getAttribute(oname, "bar.latency_us.count"));
+    assertTrue((Long)mbs.getAttribute(oname, "bar.latency_us.p99") > periodMs * 1000);
+
+    mbs.invoke(oname, "reset", new Object[0], new String[0]);
+    assertEquals(Long.valueOf(0), mbs.getAttribute(oname, "bar.size.count"));
+  }
+
   private <T> void expectIOE(Callable<T> c) throws Exception {
     try {
       T t = c.call();
@@ -0,0 +1,274 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
+import org.apache.hadoop.hive.metastore.api.Order;
+import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.SerDeInfo;
+import org.apache.hadoop.hive.metastore.api.SkewedInfo;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.ql.io.HiveInputFormat;
+import org.apache.hadoop.hive.ql.io.HiveOutputFormat;
+import org.apache.hadoop.hive.serde.serdeConstants;
+import org.apache.hadoop.hive.serde2.lazy.LazySimpleSerDe;
+import org.apache.hadoop.util.StringUtils;
+
+/**
+ * Runs the metastore tests against an embedded metastore that adds and alters partitions
+ * via direct SQL (hive.metastore.try.direct.sql.writes), and checks the batched writes,
+ * the ID allocation and the fallback to DataNucleus directly.
+ */
+public class TestEmbeddedHiveMetaStoreDirectSqlWrites extends TestHiveMetaStore {
+  private static final String DB_NAME = "directsqlwritesdb";
+  private static final String TBL_NAME = "directsqlwritestbl";
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    hiveConf.setBoolVar(HiveConf.ConfVars.METASTORE_TRY_DIRECT_SQL, true);
+    hiveConf.setBoolVar(HiveConf.ConfVars.METASTORE_TRY_DIRECT_SQL_WRITES, true);
+    warehouse = new Warehouse(hiveConf);
+    try {
+      client = new HiveMetaStoreClient(hiveConf, null);
+    } catch (Throwable e) {
+      System.err.println("Unable to open the metastore");
+      System.err.println(StringUtils.stringifyException(e));
+      throw new Exception(e);
+    }
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      super.tearDown();
+      client.close();
+    } catch (Throwable e) {
+      System.err.println("Unable to close metastore");
+      System.err.println(StringUtils.stringifyException(e));
+      throw new Exception(e);
+    }
+  }
+
+  public void testBatchedAddPartitions() throws Exception {
+    Table tbl = createPartitionedTable();
+    List<Partition> parts = new ArrayList<Partition>();
+    for (int i = 0; i < 10; ++i) {
+      parts.add(makePartition(tbl, "2015-01-01", String.valueOf(i)));
+    }
+    // Some partitions with columns of their own, which need new column descriptors.
+    List<FieldSchema> otherCols = Arrays.asList(
+        new FieldSchema("name", serdeConstants.STRING_TYPE_NAME, ""),
+        new FieldSchema("income", serdeConstants.BIGINT_TYPE_NAME, "widened"));
+    parts.get(3).getSd().setCols(otherCols);
+    parts.get(7).getSd().setCols(new ArrayList<FieldSchema>(otherCols));
+    parts.get(5).getParameters().put("p5", "v5");
+    parts.get(5).getSd().getSerdeInfo().getParameters().put("field.delim", ",");
+    parts.get(5).getSd().setSortCols(Arrays.asList(new Order("name", 1)));
+    client.add_partitions(parts);
+
+    List<Partition> added = client.listPartitions(DB_NAME, TBL_NAME, (short) -1);
+    assertEquals(parts.size(), added.size());
+    for (Partition expected : parts) {
+      Partition part = client.getPartition(DB_NAME, TBL_NAME, expected.getValues());
+      assertEquals(expected.getSd().getLocation(), part.getSd().getLocation());
+      assertEquals(expected.getSd().getCols(), part.getSd().getCols());
+      assertEquals(expected.getSd().getBucketCols(), part.getSd().getBucketCols());
+      assertEquals(expected.getSd().getSortCols(), part.getSd().getSortCols());
+      assertEquals(expected.getSd().getSerdeInfo().getParameters(),
+          part.getSd().getSerdeInfo().getParameters());
+      assertEquals(expected.getParameters().get("p5"), part.getParameters().get("p5"));
+    }
+    client.dropTable(DB_NAME, TBL_NAME);
+    client.dropDatabase(DB_NAME);
+  }
+
+  public void testMixedAddPartitions() throws Exception {
+    // Single adds go through DataNucleus, batched adds through SQL; the IDs must not clash.
+    Table tbl = createPartitionedTable();
+    List<Partition> expected = new ArrayList<Partition>();
+    for (int round = 0; round < 3; ++round) {
+      Partition single = makePartition(tbl, "2015-01-0" + (round + 1), "single");
+      client.add_partition(single);
+      expected.add(single);
+      List<Partition> batch = new ArrayList<Partition>();
+      for (int i = 0; i < 3; ++i) {
+        batch.add(makePartition(tbl, "2015-01-0" + (round + 1), String.valueOf(i)));
+      }
+      client.add_partitions(batch);
+      expected.addAll(batch);
+    }
+    assertEquals(expected.size(),
+        client.listPartitions(DB_NAME, TBL_NAME, (short) -1).size());
+    for (Partition part : expected) {
+      assertEquals(part.getSd().getLocation(),
+          client.getPartition(DB_NAME, TBL_NAME, part.getValues()).getSd().getLocation());
+    }
+    client.dropTable(DB_NAME, TBL_NAME);
+    assertEquals(0, client.getTables(DB_NAME, "*").size());
+    client.dropDatabase(DB_NAME);
+  }
+
+  public void testBatchedAlterPartitions() throws Exception {
+    Table tbl = createPartitionedTable();
+    List<Partition> parts = new ArrayList<Partition>();
+    for (int i = 0; i < 5; ++i) {
+      parts.add(makePartition(tbl, "2015-01-01", String.valueOf(i)));
+    }
+    client.add_partitions(parts);
+
+    List<Partition> newParts = new ArrayList<Partition>();
+    for (int i = 0; i < parts.size(); ++i) {
+      Partition part = client.getPartition(DB_NAME, TBL_NAME, parts.get(i).getValues());
+      part.getParameters().put("retention", String.valueOf(i));
+      part.getSd().setLocation(part.getSd().getLocation() + "_moved");
+      part.getSd().setNumBuckets(i + 2);
+      part.getSd().setBucketCols(Arrays.asList("income", "name"));
+      part.getSd().getSerdeInfo().getParameters().put("abc", String.valueOf(i));
+      newParts.add(part);
+    }
+    client.alter_partitions(DB_NAME, TBL_NAME, newParts);
+
+    for (int i = 0; i < newParts.size(); ++i) {
+      Partition part = client.getPartition(DB_NAME, TBL_NAME, parts.get(i).getValues());
+      assertEquals(String.valueOf(i), part.getParameters().get("retention"));
+      assertEquals(newParts.get(i).getSd().getLocation(), part.getSd().getLocation());
+      assertEquals(i + 2, part.getSd().getNumBuckets());
+      assertEquals(Arrays.asList("income", "name"), part.getSd().getBucketCols());
+      assertEquals(String.valueOf(i), part.getSd().getSerdeInfo().getParameters().get("abc"));
+    }
+    client.dropTable(DB_NAME, TBL_NAME);
+    client.dropDatabase(DB_NAME);
+  }
+
+  public void testUnsupportedWritesUseDataNucleus() throws Exception {
+    // Skewed info and changed columns are not written via SQL; DN must still handle them.
+    Table tbl = createPartitionedTable();
+    Partition skewed = makePartition(tbl, "2015-01-01", "skewed");
+    SkewedInfo skewedInfo = new SkewedInfo();
+    skewedInfo.setSkewedColNames(Arrays.asList("name"));
+    skewedInfo.setSkewedColValues(Arrays.asList(Arrays.asList("a")));
+    skewedInfo.setSkewedColValueLocationMaps(new HashMap<List<String>, String>());
+    skewed.getSd().setSkewedInfo(skewedInfo);
+    Partition plain = makePartition(tbl, "2015-01-01", "plain");
+    client.add_partitions(Arrays.asList(skewed, plain));
+    assertEquals(Arrays.asList("name"), client.getPartition(DB_NAME, TBL_NAME,
+        skewed.getValues()).getSd().getSkewedInfo().getSkewedColNames());
+
+    Partition altered = client.getPartition(DB_NAME, TBL_NAME, plain.getValues());
+    altered.getSd().setCols(Arrays.asList(
+        new FieldSchema("name", serdeConstants.STRING_TYPE_NAME, "")));
+    altered.getParameters().put("a", "b");
+    client.alter_partitions(DB_NAME, TBL_NAME, Arrays.asList(altered));
+    Partition result = client.getPartition(DB_NAME, TBL_NAME, plain.getValues());
+    assertEquals(1, result.getSd().getCols().size());
+    assertEquals("b", result.getParameters().get("a"));
+    client.dropTable(DB_NAME, TBL_NAME);
+    client.dropDatabase(DB_NAME);
+  }
+
+  public void testFailedSqlWriteIsRolledBack() throws Exception {
+    Table tbl = createPartitionedTable();
+    Partition existing = makePartition(tbl, "2015-01-01", "existing");
+    client.add_partition(existing);
+
+    // Bypass the existence checks in HMSHandler so that the SQL insert itself fails; the
+    // DataNucleus retry fails as well, and nothing of the batch must remain.
+    ObjectStore store = new ObjectStore();
+    store.setConf(hiveConf);
+    Partition added = makePartition(tbl, "2015-01-01", "added");
+    boolean isFailed = false;
+    try {
+      store.addPartitions(DB_NAME, TBL_NAME,
+          Arrays.asList(added, makePartition(tbl, "2015-01-01", "existing")));
+    } catch (Exception e) {
+      isFailed = true;
+    } finally {
+      store.shutdown();
+    }
+    assertTrue("Adding an existing partition should have failed", isFailed);
+    try {
+      client.getPartition(DB_NAME, TBL_NAME, added.getValues());
+      fail("Partition from the failed batch should not exist");
+    } catch (NoSuchObjectException e) {
+      // expected
+    }
+
+    // The metastore is still usable, and the IDs reserved by the failed batch are not reused.
+    client.add_partitions(Arrays.asList(added, makePartition(tbl, "2015-01-02", "next")));
+    assertEquals(3, client.listPartitions(DB_NAME, TBL_NAME, (short) -1).size());
+    client.dropTable(DB_NAME, TBL_NAME);
+    client.dropDatabase(DB_NAME);
+  }
+
+  private Table createPartitionedTable() throws Exception {
+    client.dropDatabase(DB_NAME, true, true, true);
+    Database db = new Database();
+    db.setName(DB_NAME);
+    client.createDatabase(db);
+
+    StorageDescriptor sd = new StorageDescriptor();
+    sd.setCols(Arrays.asList(
+        new FieldSchema("name", serdeConstants.STRING_TYPE_NAME, ""),
+        new FieldSchema("income", serdeConstants.INT_TYPE_NAME, "")));
+    sd.setCompressed(false);
+    sd.setNumBuckets(1);
+    sd.setParameters(new HashMap<String, String>());
+    sd.getParameters().put("test_param_1", "Use this for comments etc");
+    sd.setBucketCols(Arrays.asList("name"));
+    sd.setSortCols(new ArrayList<Order>());
+    sd.setSerdeInfo(new SerDeInfo());
+    sd.getSerdeInfo().setName(TBL_NAME);
+    sd.getSerdeInfo().setParameters(new HashMap<String, String>());
+    sd.getSerdeInfo().getParameters().put(serdeConstants.SERIALIZATION_FORMAT, "1");
+    sd.getSerdeInfo().setSerializationLib(LazySimpleSerDe.class.getName());
+    sd.setInputFormat(HiveInputFormat.class.getName());
+    sd.setOutputFormat(HiveOutputFormat.class.getName());
+
+    Table tbl = new Table();
+    tbl.setDbName(DB_NAME);
+    tbl.setTableName(TBL_NAME);
+    tbl.setSd(sd);
+    tbl.setPartitionKeys(Arrays.asList(
+        new FieldSchema("ds", serdeConstants.STRING_TYPE_NAME, ""),
+        new FieldSchema("hr", serdeConstants.STRING_TYPE_NAME, "")));
+    client.createTable(tbl);
+    return client.getTable(DB_NAME, TBL_NAME);
+  }
+
+  private static Partition makePartition(Table tbl, String ds, String hr) {
+    Partition part = new Partition();
+    part.setDbName(DB_NAME);
+    part.setTableName(TBL_NAME);
+    part.setValues(Arrays.asList(ds, hr));
+    part.setParameters(new HashMap<String, String>());
+    part.setSd(tbl.getSd().deepCopy());
+    part.getSd().setLocation(tbl.getSd().getLocation() + "/ds=" + ds + "/hr=" + hr);
+    return part;
+  }
+}
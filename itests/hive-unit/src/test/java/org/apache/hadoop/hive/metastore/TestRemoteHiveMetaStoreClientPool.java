@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.metastore;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+
+/**
+ * Runs the remote metastore tests through pooled client connections, with a pool small
+ * enough that connections are shared by the test clients.
+ */
+public class TestRemoteHiveMetaStoreClientPool extends TestRemoteHiveMetaStore {
+  private final Map<String, String> savedProperties = new HashMap<String, String>();
+
+  public TestRemoteHiveMetaStoreClientPool() {
+    super();
+    isThriftClient = true;
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    // Set per test and restored in tearDown, so that they don't leak into other tests.
+    setProperty(ConfVars.METASTORE_CLIENT_POOL_ENABLED.varname, "true");
+    setProperty(ConfVars.METASTORE_CLIENT_POOL_MAX_CONNECTIONS.varname, "2");
+    setProperty(ConfVars.METASTORE_EXECUTE_SET_UGI.varname, "true");
+    super.setUp();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    try {
+      super.tearDown();
+    } finally {
+      for (Map.Entry<String, String> e : savedProperties.entrySet()) {
+        if (e.getValue() == null) {
+          System.clearProperty(e.getKey());
+        } else {
+          System.setProperty(e.getKey(), e.getValue());
+        }
+      }
+      savedProperties.clear();
+    }
+  }
+
+  private void setProperty(String name, String value) {
+    if (!savedProperties.containsKey(name)) {
+      savedProperties.put(name, System.getProperty(name));
+    }
+    System.setProperty(name, value);
+  }
+}
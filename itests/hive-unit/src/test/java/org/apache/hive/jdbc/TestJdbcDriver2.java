@@ -359,6 +359,69 @@ public void testDataTypes2() throws Exception {
     }
   }
 
+  /**
+   * Reads the same results with the row sets fetched ahead on a background thread and an
+   * adaptive fetch size, and checks that they match the results fetched synchronously.
+   */
+  @Test
+  public void testPrefetchResults() throws Exception {
+    String query = "select under_col, value from " + tableName;
+    Statement stmt = con.createStatement();
+    stmt.setFetchSize(7);
+    List<String> expected = new ArrayList<String>();
+    ResultSet res = stmt.executeQuery(query);
+    while (res.next()) {
+      expected.add(res.getInt(1) + ":" + res.getString(2));
+    }
+    stmt.close();
+    assertTrue(expected.size() > 7);
+
+    Connection prefetchCon = getConnection("default;prefetchQueueSize=2;fetchTargetBytes=100");
+    try {
+      stmt = prefetchCon.createStatement();
+      stmt.setFetchSize(7);
+      List<String> actual = new ArrayList<String>();
+      res = stmt.executeQuery(query);
+      while (res.next()) {
+        actual.add(res.getInt(1) + ":" + res.getString(2));
+      }
+      assertFalse(res.next());
+      assertEquals(expected, actual);
+
+      // re-executing the statement stops the prefetching of the unread results
+      res = stmt.executeQuery(query);
+      assertTrue(res.next());
+      stmt.setMaxRows(10);
+      res = stmt.executeQuery(query);
+      int rows = 0;
+      while (res.next()) {
+        ++rows;
+      }
+      assertEquals(10, rows);
+      stmt.close();
+    } finally {
+      prefetchCon.close();
+    }
+  }
+
+  /**
+   * Checks the profile of a query once its results are read.
+   */
+  @Test
+  public void testQueryProfile() throws Exception {
+    HiveStatement stmt = (HiveStatement) con.createStatement();
+    ResultSet res = stmt.executeQuery("select under_col, value from " + tableName);
+    int rows = 0;
+    while (res.next()) {
+      ++rows;
+    }
+    Map<String, Long> profile = stmt.getQueryProfile();
+    assertTrue(profile.toString(), profile.containsKey("time.compile"));
+    assertEquals(Long.valueOf(rows), profile.get("fetch.rows"));
+    assertTrue(profile.get("fetch.calls") > 0);
+    stmt.close();
+  }
+
   @Test
   public void testErrorDiag() throws SQLException {
     Statement stmt = con.createStatement();
@@ -979,6 +1042,19 @@ private void doTestSelectAll(String tableName, int maxRows, int fetchSize) throw
     assertTrue("Statement should be closed", stmt.isClosed());
   }
 
+  /**
+   * Runs testDataTypes with the query results written by the tasks with LazyBinarySerDe,
+   * which must give the same result set as the default text format.
+   */
+  @Test
+  public void testDataTypesSerializedInTasks() throws Exception {
+    Statement stmt = con.createStatement();
+    stmt.execute("set " + ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_SERIALIZE_IN_TASKS.varname
+        + "=true");
+    stmt.close();
+    testDataTypes();
+  }
+
   @Test
   public void testErrorMessages() throws SQLException {
     String invalidSyntaxSQLState = "42000";
@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hive.service.cli.thrift;
+
+import static org.junit.Assert.assertNotNull;
+
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hive.service.auth.HiveAuthFactory.AuthTypes;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+
+/**
+ * TestThriftNonblockingCLIService.
+ * This tests ThriftCLIService started in binary mode, with the nonblocking server.
+ */
+public class TestThriftNonblockingCLIService extends ThriftCLIServiceTest {
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    ThriftCLIServiceTest.setUpBeforeClass();
+
+    assertNotNull(port);
+    assertNotNull(hiveServer2);
+    assertNotNull(hiveConf);
+
+    hiveConf.setBoolVar(ConfVars.HIVE_SERVER2_ENABLE_DOAS, false);
+    hiveConf.setVar(ConfVars.HIVE_SERVER2_THRIFT_BIND_HOST, host);
+    hiveConf.setIntVar(ConfVars.HIVE_SERVER2_THRIFT_PORT, port);
+    hiveConf.setVar(ConfVars.HIVE_SERVER2_AUTHENTICATION, AuthTypes.NONE.toString());
+    hiveConf.setVar(ConfVars.HIVE_SERVER2_TRANSPORT_MODE, "binary");
+    hiveConf.setBoolVar(ConfVars.HIVE_SERVER2_THRIFT_NONBLOCKING, true);
+    hiveConf.setIntVar(ConfVars.HIVE_SERVER2_THRIFT_SELECTOR_THREADS, 1);
+
+    startHiveServer2WithConf(hiveConf);
+
+    client = getServiceClientInternal();
+  }
+
+  @AfterClass
+  public static void tearDownAfterClass() throws Exception {
+    ThriftCLIServiceTest.tearDownAfterClass();
+  }
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+  }
+
+  @Override
+  @After
+  public void tearDown() throws Exception {
+  }
+}
@@ -108,6 +108,8 @@ public class HiveConnection implements java.sql.Connection {
   private TSessionHandle sessHandle = null;
   private final List<TProtocolVersion> supportedProtocols = new LinkedList<TProtocolVersion>();
   private int loginTimeout = 0;
+  private int prefetchQueueSize = 0;
+  private long fetchTargetBytes = 0;
   private TProtocolVersion protocol;
 
   public HiveConnection(String uri, Properties info) throws SQLException {
@@ -142,6 +144,8 @@ public HiveConnection(String uri, Properties info) throws SQLException {
     }
 
     isEmbeddedMode = connParams.isEmbeddedMode();
+    prefetchQueueSize = (int) getNonNegativeSessionVar(JdbcConnectionParams.PREFETCH_QUEUE_SIZE);
+    fetchTargetBytes = getNonNegativeSessionVar(JdbcConnectionParams.FETCH_TARGET_BYTES);
 
     if (isEmbeddedMode) {
       EmbeddedThriftBinaryCLIService embeddedClient = new EmbeddedThriftBinaryCLIService();
@@ -173,6 +177,7 @@ public HiveConnection(String uri, Properties info) throws SQLException {
     supportedProtocols.add(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V5);
     supportedProtocols.add(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V6);
     supportedProtocols.add(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V7);
+    supportedProtocols.add(TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V8);
 
     // open client session
     openSession();
@@ -515,6 +520,22 @@ private String getSessionValue(String varName, String varDefault) {
     return varValue;
   }
 
+  private long getNonNegativeSessionVar(String name) throws SQLException {
+    String value = sessConfMap.get(name);
+    if (value == null) {
+      return 0;
+    }
+    try {
+      long result = Long.parseLong(value.trim());
+      if (result >= 0 && result <= Integer.MAX_VALUE) {
+        return result;
+      }
+    } catch (NumberFormatException e) {
+      // fall through
+    }
+    throw new SQLException("Invalid value for " + name + " in the JDBC URL: " + value);
+  }
+
   // copy loginTimeout from driver manager. Thrift timeout needs to be in millis
   private void setupLoginTimeout() {
     long timeOut = TimeUnit.SECONDS.toMillis(DriverManager.getLoginTimeout());
@@ -1230,4 +1251,12 @@ public <T> T unwrap(Class<T> iface) throws SQLException {
   public TProtocolVersion getProtocol() {
     return protocol;
   }
+
+  int getPrefetchQueueSize() {
+    return prefetchQueueSize;
+  }
+
+  long getFetchTargetBytes() {
+    return fetchTargetBytes;
+  }
 }
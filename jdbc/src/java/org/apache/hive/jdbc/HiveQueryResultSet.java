@@ -28,6 +28,9 @@
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
@@ -61,12 +64,24 @@ public class HiveQueryResultSet extends HiveBaseResultSet {
 
   public static final Log LOG = LogFactory.getLog(HiveQueryResultSet.class);
 
+  /** Upper bound of the fetch size when it is adapted to fetchTargetBytes. */
+  private static final int MAX_ADAPTIVE_FETCH_SIZE = 10000;
+  /** Number of rows of a row set looked at to estimate the row width. */
+  private static final int ROW_WIDTH_SAMPLE_SIZE = 100;
+  /** How often the prefetch thread checks whether it was stopped while the queue is full. */
+  private static final long PREFETCH_OFFER_TIMEOUT_MS = 1000;
+  /** How long closing waits for a fetch in progress before giving up on the prefetch thread. */
+  private static final long PREFETCH_STOP_TIMEOUT_MS = 10000;
+
   private TCLIService.Iface client;
   private TOperationHandle stmtHandle;
   private TSessionHandle sessHandle;
   private int maxRows;
-  private int fetchSize;
+  private volatile int fetchSize;
   private int rowsFetched = 0;
+  private int prefetchQueueSize;
+  private long fetchTargetBytes;
+  private RowSetPrefetcher prefetcher = null;
 
   private RowSet fetchedRows;
   private Iterator<Object[]> fetchedRowsItr;
@@ -101,6 +116,8 @@ public static class Builder {
     private boolean emptyResultSet = false;
     private boolean isScrollable = false;
     private ReentrantLock transportLock = null;
+    private int prefetchQueueSize = 0;
+    private long fetchTargetBytes = 0;
 
     public Builder(Statement statement) throws SQLException {
       this.statement = statement;
@@ -174,6 +191,25 @@ public Builder setTransportLock(ReentrantLock transportLock) {
       return this;
     }
 
+    /**
+     * @param prefetchQueueSize The number of row sets fetched ahead on a background thread, or 0
+     *          to fetch each row set when the previous one is consumed. Scrollable result sets
+     *          are never prefetched.
+     */
+    public Builder setPrefetchQueueSize(int prefetchQueueSize) {
+      this.prefetchQueueSize = prefetchQueueSize;
+      return this;
+    }
+
+    /**
+     * @param fetchTargetBytes When prefetching, the approximate size of a row set; the fetch
+     *          size is adapted to the observed row width. 0 to always use the fetch size.
+     */
+    public Builder setFetchTargetBytes(long fetchTargetBytes) {
+      this.fetchTargetBytes = fetchTargetBytes;
+      return this;
+    }
+
     public HiveQueryResultSet build() throws SQLException {
       return new HiveQueryResultSet(this);
     }
@@ -207,6 +243,8 @@ protected HiveQueryResultSet(Builder builder) throws SQLException {
     }
     this.isScrollable = builder.isScrollable;
     this.protocol = builder.getProtocolVersion();
+    this.prefetchQueueSize = builder.isScrollable ? 0 : builder.prefetchQueueSize;
+    this.fetchTargetBytes = builder.fetchTargetBytes;
   }
 
   /**
@@ -313,6 +351,7 @@ private void setSchema(List<String> colNames, List<String> colTypes,
 
   @Override
   public void close() throws SQLException {
+    stopPrefetching();
     if (this.statement != null && (this.statement instanceof HiveStatement)) {
       HiveStatement s = (HiveStatement) this.statement;
       s.closeClientOperation();
@@ -349,23 +388,14 @@ public boolean next() throws SQLException {
         fetchFirst = false;
       }
       if (fetchedRows == null || !fetchedRowsItr.hasNext()) {
-        TFetchResultsReq fetchReq = new TFetchResultsReq(stmtHandle,
-            orientation, fetchSize);
-        TFetchResultsResp fetchResp;
-        if (transportLock == null) {
-          fetchResp = client.FetchResults(fetchReq);
-        } else {
-          transportLock.lock();
-          try {
-            fetchResp = client.FetchResults(fetchReq);
-          } finally {
-            transportLock.unlock();
+        if (prefetchQueueSize > 0) {
+          if (prefetcher == null) {
+            prefetcher = new RowSetPrefetcher(prefetchQueueSize);
           }
+          fetchedRows = prefetcher.take();
+        } else {
+          fetchedRows = fetchRows(orientation, fetchSize);
         }
-        Utils.verifySuccessWithInfo(fetchResp.getStatus());
-
-        TRowSet results = fetchResp.getResults();
-        fetchedRows = RowSetFactory.create(results, protocol);
         fetchedRowsItr = fetchedRows.iterator();
       }
 
@@ -391,6 +421,194 @@ public boolean next() throws SQLException {
     return true;
   }
 
+  /**
+   * Stops the background fetching of row sets, if any, before the operation is closed.
+   */
+  void stopPrefetching() {
+    if (prefetcher != null) {
+      prefetcher.stop();
+      prefetcher = null;
+    }
+  }
+
+  private RowSet fetchRows(TFetchOrientation orientation, int rows) throws Exception {
+    TFetchResultsReq fetchReq = new TFetchResultsReq(stmtHandle, orientation, rows);
+    TFetchResultsResp fetchResp;
+    if (transportLock == null) {
+      fetchResp = client.FetchResults(fetchReq);
+    } else {
+      transportLock.lock();
+      try {
+        fetchResp = client.FetchResults(fetchReq);
+      } finally {
+        transportLock.unlock();
+      }
+    }
+    Utils.verifySuccessWithInfo(fetchResp.getStatus());
+
+    TRowSet results = fetchResp.getResults();
+    return RowSetFactory.create(results, protocol);
+  }
+
+  /**
+   * @return The number of rows that makes a row set of about fetchTargetBytes, based on the
+   *         width of the first rows of the given row set.
+   */
+  private int getAdaptiveFetchSize(RowSet rowSet) {
+    long bytes = 0;
+    int sampled = 0;
+    for (Object[] row : rowSet) {
+      for (Object field : row) {
+        bytes += estimateSize(field);
+      }
+      if (++sampled == ROW_WIDTH_SAMPLE_SIZE) {
+        break;
+      }
+    }
+    if (sampled == 0) {
+      return fetchSize;
+    }
+    long rowBytes = Math.max(1, bytes / sampled);
+    return (int) Math.max(1, Math.min(MAX_ADAPTIVE_FETCH_SIZE, fetchTargetBytes / rowBytes));
+  }
+
+  private static long estimateSize(Object field) {
+    if (field instanceof String) {
+      return ((String) field).length();
+    } else if (field instanceof byte[]) {
+      return ((byte[]) field).length;
+    }
+    return 8;
+  }
+
+  /**
+   * Fetches the next row sets on a background thread while the application consumes the
+   * current one, so that the round trips to HiveServer2 overlap with the processing of the
+   * rows. At most prefetchQueueSize row sets are held by the client at a time. The thread
+   * stops after the empty row set that ends the results, after maxRows rows, or after an
+   * error, which is rethrown by next().
+   */
+  private class RowSetPrefetcher implements Runnable {
+    private final BlockingQueue<Object> queue;
+    private final Thread thread;
+    private volatile boolean stopped = false;
+    /** The empty row set that ended the results, returned again by any later take(). */
+    private RowSet lastRowSet = null;
+    private SQLException failure = null;
+
+    RowSetPrefetcher(int queueSize) {
+      queue = new ArrayBlockingQueue<Object>(queueSize);
+      thread = new Thread(this, "HiveQueryResultSet-prefetch");
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    @Override
+    public void run() {
+      int rows = fetchSize;
+      long received = 0;
+      try {
+        while (!stopped) {
+          RowSet rowSet = fetchRows(TFetchOrientation.FETCH_NEXT, rows);
+          int numRows = rowSet.numRows();
+          if (fetchTargetBytes > 0 && numRows > 0) {
+            rows = getAdaptiveFetchSize(rowSet);
+            if (LOG.isDebugEnabled()) {
+              LOG.debug("Adapted the fetch size to " + rows + " rows");
+            }
+          } else {
+            rows = fetchSize;
+          }
+          if (!enqueue(rowSet)) {
+            return;
+          }
+          received += numRows;
+          if (numRows == 0 || (maxRows > 0 && received >= maxRows)) {
+            return;
+          }
+        }
+      } catch (InterruptedException e) {
+        // stopped by close()
+      } catch (Exception e) {
+        SQLException error = e instanceof SQLException ? (SQLException) e
+            : new SQLException("Error retrieving next row", e);
+        try {
+          enqueue(error);
+        } catch (InterruptedException ie) {
+          // stopped by close()
+        }
+      }
+    }
+
+    /**
+     * Waits for room in the queue, but not past stop(): the interrupt may be missed while
+     * the thread is not waiting, e.g. while it is in a thrift read. Also gives up once the
+     * connection is closed, for result sets that the application never closes.
+     * @return Whether the item was queued; false if the prefetcher was stopped.
+     */
+    private boolean enqueue(Object item) throws InterruptedException {
+      while (!stopped) {
+        if (queue.offer(item, PREFETCH_OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+        if (isConnectionClosed()) {
+          stopped = true;
+        }
+      }
+      return false;
+    }
+
+    private boolean isConnectionClosed() {
+      try {
+        return statement != null && statement.getConnection().isClosed();
+      } catch (SQLException e) {
+        return true;
+      }
+    }
+
+    RowSet take() throws SQLException {
+      if (failure != null) {
+        throw failure;
+      }
+      if (lastRowSet != null) {
+        return lastRowSet;
+      }
+      Object item;
+      try {
+        item = queue.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted while retrieving next row", e);
+      }
+      if (item instanceof SQLException) {
+        failure = (SQLException) item;
+        throw failure;
+      }
+      RowSet rowSet = (RowSet) item;
+      if (rowSet.numRows() == 0) {
+        lastRowSet = rowSet;
+      }
+      return rowSet;
+    }
+
+    /**
+     * Stops fetching, and waits a bounded time for the fetch in progress, if any, to
+     * complete; a fetch that takes longer is left to finish (or time out) on its own.
+     */
+    void stop() {
+      stopped = true;
+      thread.interrupt();
+      try {
+        thread.join(PREFETCH_STOP_TIMEOUT_MS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      if (thread.isAlive()) {
+        LOG.warn("Gave up waiting for the prefetch of the results to stop");
+      }
+    }
+  }
+
   @Override
   public ResultSetMetaData getMetaData() throws SQLException {
     if (isClosed) {
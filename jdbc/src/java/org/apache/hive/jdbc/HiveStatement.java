@@ -25,6 +25,7 @@
 import java.sql.SQLWarning;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantLock;
@@ -45,6 +46,7 @@
 import org.apache.hive.service.cli.thrift.TFetchResultsReq;
 import org.apache.hive.service.cli.thrift.TFetchResultsResp;
 import org.apache.hive.service.cli.thrift.TFetchOrientation;
+import org.apache.hive.service.cli.thrift.TProtocolVersion;
 
 /**
  * HiveStatement.
@@ -185,6 +187,10 @@ public void clearWarnings() throws SQLException {
   }
 
   void closeClientOperation() throws SQLException {
+    if (resultSet instanceof HiveQueryResultSet) {
+      // the prefetching thread must not fetch from a closed operation
+      ((HiveQueryResultSet) resultSet).stopPrefetching();
+    }
     transportLock.lock();
     try {
       if (stmtHandle != null) {
@@ -320,6 +326,8 @@ public boolean execute(String sql) throws SQLException {
     resultSet =  new HiveQueryResultSet.Builder(this).setClient(client).setSessionHandle(sessHandle)
         .setStmtHandle(stmtHandle).setMaxRows(maxRows).setFetchSize(fetchSize)
         .setScrollable(isScrollableResultset).setTransportLock(transportLock)
+        .setPrefetchQueueSize(connection.getPrefetchQueueSize())
+        .setFetchTargetBytes(connection.getFetchTargetBytes())
         .build();
     return true;
   }
@@ -843,6 +851,51 @@ public List<String> getQueryLog(boolean incremental, int fetchSize)
     return logs;
   }
 
+  /**
+   * Get the profile of the last SQL statement executed: how long its steps took (compilation,
+   * lock acquisition, execution, fetching, ...), the metastore calls it made and the counters
+   * of its jobs, by name. Times are in milliseconds.
+   * This method is a public API for usage outside of Hive, although it is not part of the
+   * interface java.sql.Statement. The profile can be fetched until the statement is closed.
+   * @return the values of the profile, by name. Empty if no statement was executed.
+   * @throws SQLFeatureNotSupportedException if the server does not serve query profiles
+   * @throws SQLException
+   */
+  public Map<String, Long> getQueryProfile() throws SQLException {
+    checkConnection("getQueryProfile");
+    // older servers take any unknown fetch type for the query output, and would rewind it
+    if (connection.getProtocol().getValue()
+        < TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V8.getValue()) {
+      throw new SQLFeatureNotSupportedException("Query profiles are not supported by the server");
+    }
+    Map<String, Long> profile = new LinkedHashMap<String, Long>();
+    TFetchResultsResp tFetchResultsResp;
+    transportLock.lock();
+    try {
+      if (stmtHandle == null) {
+        return profile;
+      }
+      TFetchResultsReq tFetchResultsReq = new TFetchResultsReq(stmtHandle,
+          TFetchOrientation.FETCH_FIRST, Integer.MAX_VALUE);
+      tFetchResultsReq.setFetchType((short)2);
+      tFetchResultsResp = client.FetchResults(tFetchResultsReq);
+      Utils.verifySuccessWithInfo(tFetchResultsResp.getStatus());
+    } catch (SQLException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new SQLException("Error when getting query profile: " + e, e);
+    } finally {
+      transportLock.unlock();
+    }
+
+    RowSet rowSet = RowSetFactory.create(tFetchResultsResp.getResults(),
+        connection.getProtocol());
+    for (Object[] row : rowSet) {
+      profile.put(String.valueOf(row[0]), (Long) row[1]);
+    }
+    return profile;
+  }
+
   private TFetchOrientation getFetchOrientation(boolean incremental) {
     if (incremental) {
       return TFetchOrientation.FETCH_NEXT;
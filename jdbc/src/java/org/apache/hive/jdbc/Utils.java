@@ -98,6 +98,12 @@ public static class JdbcConnectionParams {
     // Default namespace value on ZooKeeper.
     // This value is used if the param "zooKeeperNamespace" is not specified in the JDBC Uri.
     static final String ZOOKEEPER_DEFAULT_NAMESPACE = "hiveserver2";
+    // Number of row sets that the result sets fetch ahead on a background thread.
+    // 0 (the default) fetches a row set only when the previous one has been consumed.
+    static final String PREFETCH_QUEUE_SIZE = "prefetchQueueSize";
+    // When prefetching, the approximate size in bytes of a fetched row set; the fetch size is
+    // adapted to the observed width of the rows. 0 (the default) uses the statement fetch size.
+    static final String FETCH_TARGET_BYTES = "fetchTargetBytes";
 
     // Non-configurable params:
     // Currently supports JKS keystore format
@@ -0,0 +1,2 @@
+ALTER TABLE "APP"."TAB_COL_STATS" ADD COLUMN "BIT_VECTOR" LONG VARCHAR;
+ALTER TABLE "APP"."PART_COL_STATS" ADD COLUMN "BIT_VECTOR" LONG VARCHAR;
@@ -80,6 +80,7 @@ CREATE TABLE PART_COL_STATS
     DB_NAME varchar(128) NOT NULL,
     BIG_DECIMAL_HIGH_VALUE varchar(255) NULL,
     BIG_DECIMAL_LOW_VALUE varchar(255) NULL,
+    BIT_VECTOR text NULL,
     DOUBLE_HIGH_VALUE float NULL,
     DOUBLE_LOW_VALUE float NULL,
     LAST_ANALYZED bigint NOT NULL,
@@ -223,6 +224,7 @@ CREATE TABLE TAB_COL_STATS
     DB_NAME varchar(128) NOT NULL,
     BIG_DECIMAL_HIGH_VALUE varchar(255) NULL,
     BIG_DECIMAL_LOW_VALUE varchar(255) NULL,
+    BIT_VECTOR text NULL,
     DOUBLE_HIGH_VALUE float NULL,
     DOUBLE_LOW_VALUE float NULL,
     LAST_ANALYZED bigint NOT NULL,
@@ -0,0 +1,2 @@
+ALTER TABLE `TAB_COL_STATS` ADD `BIT_VECTOR` mediumtext;
+ALTER TABLE `PART_COL_STATS` ADD `BIT_VECTOR` mediumtext;
@@ -0,0 +1,2 @@
+ALTER TABLE "TAB_COL_STATS" ADD COLUMN "BIT_VECTOR" text;
+ALTER TABLE "PART_COL_STATS" ADD COLUMN "BIT_VECTOR" text;
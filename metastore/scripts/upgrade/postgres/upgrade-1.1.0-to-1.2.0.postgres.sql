@@ -1,6 +1,6 @@
 SELECT 'Upgrading MetaStore schema from 1.1.0 to 1.2.0';
 
-
+\i 021-HIVE-16997.postgres.sql;
 UPDATE "VERSION" SET "SCHEMA_VERSION"='1.2.0', "VERSION_COMMENT"='Hive release version 1.2.0' where "VER_ID"=1;
 SELECT 'Finished upgrading MetaStore schema from 1.1.0 to 1.2.0';
 
@@ -4082,8 +4082,8 @@ void swap(BooleanColumnStatsData &a, BooleanColumnStatsData &b) {
   swap(a.numNulls, b.numNulls);
 }
 
-const char* DoubleColumnStatsData::ascii_fingerprint = "DA7C011321D74C48396AA002E61A0CBB";
-const uint8_t DoubleColumnStatsData::binary_fingerprint[16] = {0xDA,0x7C,0x01,0x13,0x21,0xD7,0x4C,0x48,0x39,0x6A,0xA0,0x02,0xE6,0x1A,0x0C,0xBB};
+const char* DoubleColumnStatsData::ascii_fingerprint = "87A6EDA81686B9A70A1837CF23CBAF23";
+const uint8_t DoubleColumnStatsData::binary_fingerprint[16] = {0x87,0xA6,0xED,0xA8,0x16,0x86,0xB9,0xA7,0x0A,0x18,0x37,0xCF,0x23,0xCB,0xAF,0x23};
 
 uint32_t DoubleColumnStatsData::read(::apache::thrift::protocol::TProtocol* iprot) {
 
@@ -4139,6 +4139,14 @@ uint32_t DoubleColumnStatsData::read(::apache::thrift::protocol::TProtocol* ipro
           xfer += iprot->skip(ftype);
         }
         break;
+      case 5:
+        if (ftype == ::apache::thrift::protocol::T_STRING) {
+          xfer += iprot->readString(this->bitVectors);
+          this->__isset.bitVectors = true;
+        } else {
+          xfer += iprot->skip(ftype);
+        }
+        break;
       default:
         xfer += iprot->skip(ftype);
         break;
@@ -4177,6 +4185,11 @@ uint32_t DoubleColumnStatsData::write(::apache::thrift::protocol::TProtocol* opr
   xfer += oprot->writeI64(this->numDVs);
   xfer += oprot->writeFieldEnd();
 
+  if (this->__isset.bitVectors) {
+    xfer += oprot->writeFieldBegin("bitVectors", ::apache::thrift::protocol::T_STRING, 5);
+    xfer += oprot->writeString(this->bitVectors);
+    xfer += oprot->writeFieldEnd();
+  }
   xfer += oprot->writeFieldStop();
   xfer += oprot->writeStructEnd();
   return xfer;
@@ -4188,11 +4201,12 @@ void swap(DoubleColumnStatsData &a, DoubleColumnStatsData &b) {
   swap(a.highValue, b.highValue);
   swap(a.numNulls, b.numNulls);
   swap(a.numDVs, b.numDVs);
+  swap(a.bitVectors, b.bitVectors);
   swap(a.__isset, b.__isset);
 }
 
-const char* LongColumnStatsData::ascii_fingerprint = "E685FC220B24E3B8B93604790DCB9AEA";
-const uint8_t LongColumnStatsData::binary_fingerprint[16] = {0xE6,0x85,0xFC,0x22,0x0B,0x24,0xE3,0xB8,0xB9,0x36,0x04,0x79,0x0D,0xCB,0x9A,0xEA};
+const char* LongColumnStatsData::ascii_fingerprint = "96ECAB9EC9548DFC9CC0BAFC4D7343D0";
+const uint8_t LongColumnStatsData::binary_fingerprint[16] = {0x96,0xEC,0xAB,0x9E,0xC9,0x54,0x8D,0xFC,0x9C,0xC0,0xBA,0xFC,0x4D,0x73,0x43,0xD0};
 
 uint32_t LongColumnStatsData::read(::apache::thrift::protocol::TProtocol* iprot) {
 
@@ -4248,6 +4262,14 @@ uint32_t LongColumnStatsData::read(::apache::thrift::protocol::TProtocol* iprot)
           xfer += iprot->skip(ftype);
         }
         break;
+      case 5:
+        if (ftype == ::apache::thrift::protocol::T_STRING) {
+          xfer += iprot->readString(this->bitVectors);
+          this->__isset.bitVectors = true;
+        } else {
+          xfer += iprot->skip(ftype);
+        }
+        break;
       default:
         xfer += iprot->skip(ftype);
         break;
@@ -4286,6 +4308,11 @@ uint32_t LongColumnStatsData::write(::apache::thrift::protocol::TProtocol* oprot
   xfer += oprot->writeI64(this->numDVs);
   xfer += oprot->writeFieldEnd();
 
+  if (this->__isset.bitVectors) {
+    xfer += oprot->writeFieldBegin("bitVectors", ::apache::thrift::protocol::T_STRING, 5);
+    xfer += oprot->writeString(this->bitVectors);
+    xfer += oprot->writeFieldEnd();
+  }
   xfer += oprot->writeFieldStop();
   xfer += oprot->writeStructEnd();
   return xfer;
@@ -4297,11 +4324,12 @@ void swap(LongColumnStatsData &a, LongColumnStatsData &b) {
   swap(a.highValue, b.highValue);
   swap(a.numNulls, b.numNulls);
   swap(a.numDVs, b.numDVs);
+  swap(a.bitVectors, b.bitVectors);
   swap(a.__isset, b.__isset);
 }
 
-const char* StringColumnStatsData::ascii_fingerprint = "D017B08C3DF12C3AB98788B2E67DAAB3";
-const uint8_t StringColumnStatsData::binary_fingerprint[16] = {0xD0,0x17,0xB0,0x8C,0x3D,0xF1,0x2C,0x3A,0xB9,0x87,0x88,0xB2,0xE6,0x7D,0xAA,0xB3};
+const char* StringColumnStatsData::ascii_fingerprint = "B2856EF1462A6025124B566ED65864AF";
+const uint8_t StringColumnStatsData::binary_fingerprint[16] = {0xB2,0x85,0x6E,0xF1,0x46,0x2A,0x60,0x25,0x12,0x4B,0x56,0x6E,0xD6,0x58,0x64,0xAF};
 
 uint32_t StringColumnStatsData::read(::apache::thrift::protocol::TProtocol* iprot) {
 
@@ -4359,6 +4387,14 @@ uint32_t StringColumnStatsData::read(::apache::thrift::protocol::TProtocol* ipro
           xfer += iprot->skip(ftype);
         }
         break;
+      case 5:
+        if (ftype == ::apache::thrift::protocol::T_STRING) {
+          xfer += iprot->readString(this->bitVectors);
+          this->__isset.bitVectors = true;
+        } else {
+          xfer += iprot->skip(ftype);
+        }
+        break;
       default:
         xfer += iprot->skip(ftype);
         break;
@@ -4399,6 +4435,11 @@ uint32_t StringColumnStatsData::write(::apache::thrift::protocol::TProtocol* opr
   xfer += oprot->writeI64(this->numDVs);
   xfer += oprot->writeFieldEnd();
 
+  if (this->__isset.bitVectors) {
+    xfer += oprot->writeFieldBegin("bitVectors", ::apache::thrift::protocol::T_STRING, 5);
+    xfer += oprot->writeString(this->bitVectors);
+    xfer += oprot->writeFieldEnd();
+  }
   xfer += oprot->writeFieldStop();
   xfer += oprot->writeStructEnd();
   return xfer;
@@ -4410,6 +4451,8 @@ void swap(StringColumnStatsData &a, StringColumnStatsData &b) {
   swap(a.avgColLen, b.avgColLen);
   swap(a.numNulls, b.numNulls);
   swap(a.numDVs, b.numDVs);
+  swap(a.bitVectors, b.bitVectors);
+  swap(a.__isset, b.__isset);
 }
 
 const char* BinaryColumnStatsData::ascii_fingerprint = "22B0CB67183FCDB945892B9974518D06";
@@ -4588,8 +4631,8 @@ void swap(Decimal &a, Decimal &b) {
   swap(a.scale, b.scale);
 }
 
-const char* DecimalColumnStatsData::ascii_fingerprint = "B6D47E7A28922BFA93FE05E9F1B04748";
-const uint8_t DecimalColumnStatsData::binary_fingerprint[16] = {0xB6,0xD4,0x7E,0x7A,0x28,0x92,0x2B,0xFA,0x93,0xFE,0x05,0xE9,0xF1,0xB0,0x47,0x48};
+const char* DecimalColumnStatsData::ascii_fingerprint = "B9A00732B4E8C503C7C539EA1603DBD5";
+const uint8_t DecimalColumnStatsData::binary_fingerprint[16] = {0xB9,0xA0,0x07,0x32,0xB4,0xE8,0xC5,0x03,0xC7,0xC5,0x39,0xEA,0x16,0x03,0xDB,0xD5};
 
 uint32_t DecimalColumnStatsData::read(::apache::thrift::protocol::TProtocol* iprot) {
 
@@ -4645,6 +4688,14 @@ uint32_t DecimalColumnStatsData::read(::apache::thrift::protocol::TProtocol* ipr
           xfer += iprot->skip(ftype);
         }
         break;
+      case 5:
+        if (ftype == ::apache::thrift::protocol::T_STRING) {
+          xfer += iprot->readString(this->bitVectors);
+          this->__isset.bitVectors = true;
+        } else {
+          xfer += iprot->skip(ftype);
+        }
+        break;
       default:
         xfer += iprot->skip(ftype);
         break;
@@ -4683,6 +4734,11 @@ uint32_t DecimalColumnStatsData::write(::apache::thrift::protocol::TProtocol* op
   xfer += oprot->writeI64(this->numDVs);
   xfer += oprot->writeFieldEnd();
 
+  if (this->__isset.bitVectors) {
+    xfer += oprot->writeFieldBegin("bitVectors", ::apache::thrift::protocol::T_STRING, 5);
+    xfer += oprot->writeString(this->bitVectors);
+    xfer += oprot->writeFieldEnd();
+  }
   xfer += oprot->writeFieldStop();
   xfer += oprot->writeStructEnd();
   return xfer;
@@ -4694,11 +4750,12 @@ void swap(DecimalColumnStatsData &a, DecimalColumnStatsData &b) {
   swap(a.highValue, b.highValue);
   swap(a.numNulls, b.numNulls);
   swap(a.numDVs, b.numDVs);
+  swap(a.bitVectors, b.bitVectors);
   swap(a.__isset, b.__isset);
 }
 
-const char* ColumnStatisticsData::ascii_fingerprint = "D079ACEA6EE0998D0A45CB65FF1EAADD";
-const uint8_t ColumnStatisticsData::binary_fingerprint[16] = {0xD0,0x79,0xAC,0xEA,0x6E,0xE0,0x99,0x8D,0x0A,0x45,0xCB,0x65,0xFF,0x1E,0xAA,0xDD};
+const char* ColumnStatisticsData::ascii_fingerprint = "FEF5BBABD5DCB692077C326787E9469B";
+const uint8_t ColumnStatisticsData::binary_fingerprint[16] = {0xFE,0xF5,0xBB,0xAB,0xD5,0xDC,0xB6,0x92,0x07,0x7C,0x32,0x67,0x87,0xE9,0x46,0x9B};
 
 uint32_t ColumnStatisticsData::read(::apache::thrift::protocol::TProtocol* iprot) {
 
@@ -4824,8 +4881,8 @@ void swap(ColumnStatisticsData &a, ColumnStatisticsData &b) {
   swap(a.__isset, b.__isset);
 }
 
-const char* ColumnStatisticsObj::ascii_fingerprint = "E49E62CFC71682004614EFEDAC3CD3F4";
-const uint8_t ColumnStatisticsObj::binary_fingerprint[16] = {0xE4,0x9E,0x62,0xCF,0xC7,0x16,0x82,0x00,0x46,0x14,0xEF,0xED,0xAC,0x3C,0xD3,0xF4};
+const char* ColumnStatisticsObj::ascii_fingerprint = "11FC8C8C15F23DB018B2330E15385C7E";
+const uint8_t ColumnStatisticsObj::binary_fingerprint[16] = {0x11,0xFC,0x8C,0x8C,0x15,0xF2,0x3D,0xB0,0x18,0xB2,0x33,0x0E,0x15,0x38,0x5C,0x7E};
 
 uint32_t ColumnStatisticsObj::read(::apache::thrift::protocol::TProtocol* iprot) {
 
@@ -5045,8 +5102,8 @@ void swap(ColumnStatisticsDesc &a, ColumnStatisticsDesc &b) {
   swap(a.__isset, b.__isset);
 }
 
-const char* ColumnStatistics::ascii_fingerprint = "6682E234199B2CD3807B1ED420C6A7F8";
-const uint8_t ColumnStatistics::binary_fingerprint[16] = {0x66,0x82,0xE2,0x34,0x19,0x9B,0x2C,0xD3,0x80,0x7B,0x1E,0xD4,0x20,0xC6,0xA7,0xF8};
+const char* ColumnStatistics::ascii_fingerprint = "EB90AA107B7FEFDD3F77D05D2E5DCA42";
+const uint8_t ColumnStatistics::binary_fingerprint[16] = {0xEB,0x90,0xAA,0x10,0x7B,0x7F,0xEF,0xDD,0x3F,0x77,0xD0,0x5D,0x2E,0x5D,0xCA,0x42};
 
 uint32_t ColumnStatistics::read(::apache::thrift::protocol::TProtocol* iprot) {
 
@@ -5145,8 +5202,8 @@ void swap(ColumnStatistics &a, ColumnStatistics &b) {
   swap(a.statsObj, b.statsObj);
 }
 
-const char* AggrStats::ascii_fingerprint = "399BDBAF7503E0BFB5E1D99C83D790CD";
-const uint8_t AggrStats::binary_fingerprint[16] = {0x39,0x9B,0xDB,0xAF,0x75,0x03,0xE0,0xBF,0xB5,0xE1,0xD9,0x9C,0x83,0xD7,0x90,0xCD};
+const char* AggrStats::ascii_fingerprint = "975092327443689B6F9EFF04A0D2B79F";
+const uint8_t AggrStats::binary_fingerprint[16] = {0x97,0x50,0x92,0x32,0x74,0x43,0x68,0x9B,0x6F,0x9E,0xFF,0x04,0xA0,0xD2,0xB7,0x9F};
 
 uint32_t AggrStats::read(::apache::thrift::protocol::TProtocol* iprot) {
 
@@ -5245,8 +5302,8 @@ void swap(AggrStats &a, AggrStats &b) {
   swap(a.partsFound, b.partsFound);
 }
 
-const char* SetPartitionsStatsRequest::ascii_fingerprint = "635C0DA9A947DA57AAE693A5DFB86569";
-const uint8_t SetPartitionsStatsRequest::binary_fingerprint[16] = {0x63,0x5C,0x0D,0xA9,0xA9,0x47,0xDA,0x57,0xAA,0xE6,0x93,0xA5,0xDF,0xB8,0x65,0x69};
+const char* SetPartitionsStatsRequest::ascii_fingerprint = "BF378AC5DF7B7FB42A4EEF90BF25BC40";
+const uint8_t SetPartitionsStatsRequest::binary_fingerprint[16] = {0xBF,0x37,0x8A,0xC5,0xDF,0x7B,0x7F,0xB4,0x2A,0x4E,0xEF,0x90,0xBF,0x25,0xBC,0x40};
 
 uint32_t SetPartitionsStatsRequest::read(::apache::thrift::protocol::TProtocol* iprot) {
 
@@ -5759,8 +5816,8 @@ void swap(PartitionsByExprRequest &a, PartitionsByExprRequest &b) {
   swap(a.__isset, b.__isset);
 }
 
-const char* TableStatsResult::ascii_fingerprint = "CE3E8F0D9B310B8D33CB7A89A75F3E05";
-const uint8_t TableStatsResult::binary_fingerprint[16] = {0xCE,0x3E,0x8F,0x0D,0x9B,0x31,0x0B,0x8D,0x33,0xCB,0x7A,0x89,0xA7,0x5F,0x3E,0x05};
+const char* TableStatsResult::ascii_fingerprint = "EB535AEEA89E1754606948F0C36ED80E";
+const uint8_t TableStatsResult::binary_fingerprint[16] = {0xEB,0x53,0x5A,0xEE,0xA8,0x9E,0x17,0x54,0x60,0x69,0x48,0xF0,0xC3,0x6E,0xD8,0x0E};
 
 uint32_t TableStatsResult::read(::apache::thrift::protocol::TProtocol* iprot) {
 
@@ -5843,8 +5900,8 @@ void swap(TableStatsResult &a, TableStatsResult &b) {
   swap(a.tableStats, b.tableStats);
 }
 
-const char* PartitionsStatsResult::ascii_fingerprint = "FF175B50C5EF6F442D3AF25B06435A39";
-const uint8_t PartitionsStatsResult::binary_fingerprint[16] = {0xFF,0x17,0x5B,0x50,0xC5,0xEF,0x6F,0x44,0x2D,0x3A,0xF2,0x5B,0x06,0x43,0x5A,0x39};
+const char* PartitionsStatsResult::ascii_fingerprint = "E5A85E21DD25B324ECD327D24FC44F2E";
+const uint8_t PartitionsStatsResult::binary_fingerprint[16] = {0xE5,0xA8,0x5E,0x21,0xDD,0x25,0xB3,0x24,0xEC,0xD3,0x27,0xD2,0x4F,0xC4,0x4F,0x2E};
 
 uint32_t PartitionsStatsResult::read(::apache::thrift::protocol::TProtocol* iprot) {
 
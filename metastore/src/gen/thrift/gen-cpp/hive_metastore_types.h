@@ -2287,18 +2287,19 @@ class BooleanColumnStatsData {
 void swap(BooleanColumnStatsData &a, BooleanColumnStatsData &b);
 
 typedef struct _DoubleColumnStatsData__isset {
-  _DoubleColumnStatsData__isset() : lowValue(false), highValue(false) {}
+  _DoubleColumnStatsData__isset() : lowValue(false), highValue(false), bitVectors(false) {}
   bool lowValue;
   bool highValue;
+  bool bitVectors;
 } _DoubleColumnStatsData__isset;
 
 class DoubleColumnStatsData {
  public:
 
-  static const char* ascii_fingerprint; // = "DA7C011321D74C48396AA002E61A0CBB";
-  static const uint8_t binary_fingerprint[16]; // = {0xDA,0x7C,0x01,0x13,0x21,0xD7,0x4C,0x48,0x39,0x6A,0xA0,0x02,0xE6,0x1A,0x0C,0xBB};
+  static const char* ascii_fingerprint; // = "87A6EDA81686B9A70A1837CF23CBAF23";
+  static const uint8_t binary_fingerprint[16]; // = {0x87,0xA6,0xED,0xA8,0x16,0x86,0xB9,0xA7,0x0A,0x18,0x37,0xCF,0x23,0xCB,0xAF,0x23};
 
-  DoubleColumnStatsData() : lowValue(0), highValue(0), numNulls(0), numDVs(0) {
+  DoubleColumnStatsData() : lowValue(0), highValue(0), numNulls(0), numDVs(0), bitVectors() {
   }
 
   virtual ~DoubleColumnStatsData() throw() {}
@@ -2307,6 +2308,7 @@ class DoubleColumnStatsData {
   double highValue;
   int64_t numNulls;
   int64_t numDVs;
+  std::string bitVectors;
 
   _DoubleColumnStatsData__isset __isset;
 
@@ -2328,6 +2330,11 @@ class DoubleColumnStatsData {
     numDVs = val;
   }
 
+  void __set_bitVectors(const std::string& val) {
+    bitVectors = val;
+    __isset.bitVectors = true;
+  }
+
   bool operator == (const DoubleColumnStatsData & rhs) const
   {
     if (__isset.lowValue != rhs.__isset.lowValue)
@@ -2342,6 +2349,10 @@ class DoubleColumnStatsData {
       return false;
     if (!(numDVs == rhs.numDVs))
       return false;
+    if (__isset.bitVectors != rhs.__isset.bitVectors)
+      return false;
+    else if (__isset.bitVectors && !(bitVectors == rhs.bitVectors))
+      return false;
     return true;
   }
   bool operator != (const DoubleColumnStatsData &rhs) const {
@@ -2358,18 +2369,19 @@ class DoubleColumnStatsData {
 void swap(DoubleColumnStatsData &a, DoubleColumnStatsData &b);
 
 typedef struct _LongColumnStatsData__isset {
-  _LongColumnStatsData__isset() : lowValue(false), highValue(false) {}
+  _LongColumnStatsData__isset() : lowValue(false), highValue(false), bitVectors(false) {}
   bool lowValue;
   bool highValue;
+  bool bitVectors;
 } _LongColumnStatsData__isset;
 
 class LongColumnStatsData {
  public:
 
-  static const char* ascii_fingerprint; // = "E685FC220B24E3B8B93604790DCB9AEA";
-  static const uint8_t binary_fingerprint[16]; // = {0xE6,0x85,0xFC,0x22,0x0B,0x24,0xE3,0xB8,0xB9,0x36,0x04,0x79,0x0D,0xCB,0x9A,0xEA};
+  static const char* ascii_fingerprint; // = "96ECAB9EC9548DFC9CC0BAFC4D7343D0";
+  static const uint8_t binary_fingerprint[16]; // = {0x96,0xEC,0xAB,0x9E,0xC9,0x54,0x8D,0xFC,0x9C,0xC0,0xBA,0xFC,0x4D,0x73,0x43,0xD0};
 
-  LongColumnStatsData() : lowValue(0), highValue(0), numNulls(0), numDVs(0) {
+  LongColumnStatsData() : lowValue(0), highValue(0), numNulls(0), numDVs(0), bitVectors() {
   }
 
   virtual ~LongColumnStatsData() throw() {}
@@ -2378,6 +2390,7 @@ class LongColumnStatsData {
   int64_t highValue;
   int64_t numNulls;
   int64_t numDVs;
+  std::string bitVectors;
 
   _LongColumnStatsData__isset __isset;
 
@@ -2399,6 +2412,11 @@ class LongColumnStatsData {
     numDVs = val;
   }
 
+  void __set_bitVectors(const std::string& val) {
+    bitVectors = val;
+    __isset.bitVectors = true;
+  }
+
   bool operator == (const LongColumnStatsData & rhs) const
   {
     if (__isset.lowValue != rhs.__isset.lowValue)
@@ -2413,6 +2431,10 @@ class LongColumnStatsData {
       return false;
     if (!(numDVs == rhs.numDVs))
       return false;
+    if (__isset.bitVectors != rhs.__isset.bitVectors)
+      return false;
+    else if (__isset.bitVectors && !(bitVectors == rhs.bitVectors))
+      return false;
     return true;
   }
   bool operator != (const LongColumnStatsData &rhs) const {
@@ -2428,14 +2450,18 @@ class LongColumnStatsData {
 
 void swap(LongColumnStatsData &a, LongColumnStatsData &b);
 
+typedef struct _StringColumnStatsData__isset {
+  _StringColumnStatsData__isset() : bitVectors(false) {}
+  bool bitVectors;
+} _StringColumnStatsData__isset;
 
 class StringColumnStatsData {
  public:
 
-  static const char* ascii_fingerprint; // = "D017B08C3DF12C3AB98788B2E67DAAB3";
-  static const uint8_t binary_fingerprint[16]; // = {0xD0,0x17,0xB0,0x8C,0x3D,0xF1,0x2C,0x3A,0xB9,0x87,0x88,0xB2,0xE6,0x7D,0xAA,0xB3};
+  static const char* ascii_fingerprint; // = "B2856EF1462A6025124B566ED65864AF";
+  static const uint8_t binary_fingerprint[16]; // = {0xB2,0x85,0x6E,0xF1,0x46,0x2A,0x60,0x25,0x12,0x4B,0x56,0x6E,0xD6,0x58,0x64,0xAF};
 
-  StringColumnStatsData() : maxColLen(0), avgColLen(0), numNulls(0), numDVs(0) {
+  StringColumnStatsData() : maxColLen(0), avgColLen(0), numNulls(0), numDVs(0), bitVectors() {
   }
 
   virtual ~StringColumnStatsData() throw() {}
@@ -2444,6 +2470,9 @@ class StringColumnStatsData {
   double avgColLen;
   int64_t numNulls;
   int64_t numDVs;
+  std::string bitVectors;
+
+  _StringColumnStatsData__isset __isset;
 
   void __set_maxColLen(const int64_t val) {
     maxColLen = val;
@@ -2461,6 +2490,11 @@ class StringColumnStatsData {
     numDVs = val;
   }
 
+  void __set_bitVectors(const std::string& val) {
+    bitVectors = val;
+    __isset.bitVectors = true;
+  }
+
   bool operator == (const StringColumnStatsData & rhs) const
   {
     if (!(maxColLen == rhs.maxColLen))
@@ -2471,6 +2505,10 @@ class StringColumnStatsData {
       return false;
     if (!(numDVs == rhs.numDVs))
       return false;
+    if (__isset.bitVectors != rhs.__isset.bitVectors)
+      return false;
+    else if (__isset.bitVectors && !(bitVectors == rhs.bitVectors))
+      return false;
     return true;
   }
   bool operator != (const StringColumnStatsData &rhs) const {
@@ -2582,18 +2620,19 @@ class Decimal {
 void swap(Decimal &a, Decimal &b);
 
 typedef struct _DecimalColumnStatsData__isset {
-  _DecimalColumnStatsData__isset() : lowValue(false), highValue(false) {}
+  _DecimalColumnStatsData__isset() : lowValue(false), highValue(false), bitVectors(false) {}
   bool lowValue;
   bool highValue;
+  bool bitVectors;
 } _DecimalColumnStatsData__isset;
 
 class DecimalColumnStatsData {
  public:
 
-  static const char* ascii_fingerprint; // = "B6D47E7A28922BFA93FE05E9F1B04748";
-  static const uint8_t binary_fingerprint[16]; // = {0xB6,0xD4,0x7E,0x7A,0x28,0x92,0x2B,0xFA,0x93,0xFE,0x05,0xE9,0xF1,0xB0,0x47,0x48};
+  static const char* ascii_fingerprint; // = "B9A00732B4E8C503C7C539EA1603DBD5";
+  static const uint8_t binary_fingerprint[16]; // = {0xB9,0xA0,0x07,0x32,0xB4,0xE8,0xC5,0x03,0xC7,0xC5,0x39,0xEA,0x16,0x03,0xDB,0xD5};
 
-  DecimalColumnStatsData() : numNulls(0), numDVs(0) {
+  DecimalColumnStatsData() : numNulls(0), numDVs(0), bitVectors() {
   }
 
   virtual ~DecimalColumnStatsData() throw() {}
@@ -2602,6 +2641,7 @@ class DecimalColumnStatsData {
   Decimal highValue;
   int64_t numNulls;
   int64_t numDVs;
+  std::string bitVectors;
 
   _DecimalColumnStatsData__isset __isset;
 
@@ -2623,6 +2663,11 @@ class DecimalColumnStatsData {
     numDVs = val;
   }
 
+  void __set_bitVectors(const std::string& val) {
+    bitVectors = val;
+    __isset.bitVectors = true;
+  }
+
   bool operator == (const DecimalColumnStatsData & rhs) const
   {
     if (__isset.lowValue != rhs.__isset.lowValue)
@@ -2637,6 +2682,10 @@ class DecimalColumnStatsData {
       return false;
     if (!(numDVs == rhs.numDVs))
       return false;
+    if (__isset.bitVectors != rhs.__isset.bitVectors)
+      return false;
+    else if (__isset.bitVectors && !(bitVectors == rhs.bitVectors))
+      return false;
     return true;
   }
   bool operator != (const DecimalColumnStatsData &rhs) const {
@@ -2665,8 +2714,8 @@ typedef struct _ColumnStatisticsData__isset {
 class ColumnStatisticsData {
  public:
 
-  static const char* ascii_fingerprint; // = "D079ACEA6EE0998D0A45CB65FF1EAADD";
-  static const uint8_t binary_fingerprint[16]; // = {0xD0,0x79,0xAC,0xEA,0x6E,0xE0,0x99,0x8D,0x0A,0x45,0xCB,0x65,0xFF,0x1E,0xAA,0xDD};
+  static const char* ascii_fingerprint; // = "FEF5BBABD5DCB692077C326787E9469B";
+  static const uint8_t binary_fingerprint[16]; // = {0xFE,0xF5,0xBB,0xAB,0xD5,0xDC,0xB6,0x92,0x07,0x7C,0x32,0x67,0x87,0xE9,0x46,0x9B};
 
   ColumnStatisticsData() {
   }
@@ -2739,8 +2788,8 @@ void swap(ColumnStatisticsData &a, ColumnStatisticsData &b);
 class ColumnStatisticsObj {
  public:
 
-  static const char* ascii_fingerprint; // = "E49E62CFC71682004614EFEDAC3CD3F4";
-  static const uint8_t binary_fingerprint[16]; // = {0xE4,0x9E,0x62,0xCF,0xC7,0x16,0x82,0x00,0x46,0x14,0xEF,0xED,0xAC,0x3C,0xD3,0xF4};
+  static const char* ascii_fingerprint; // = "11FC8C8C15F23DB018B2330E15385C7E";
+  static const uint8_t binary_fingerprint[16]; // = {0x11,0xFC,0x8C,0x8C,0x15,0xF2,0x3D,0xB0,0x18,0xB2,0x33,0x0E,0x15,0x38,0x5C,0x7E};
 
   ColumnStatisticsObj() : colName(), colType() {
   }
@@ -2868,8 +2917,8 @@ void swap(ColumnStatisticsDesc &a, ColumnStatisticsDesc &b);
 class ColumnStatistics {
  public:
 
-  static const char* ascii_fingerprint; // = "6682E234199B2CD3807B1ED420C6A7F8";
-  static const uint8_t binary_fingerprint[16]; // = {0x66,0x82,0xE2,0x34,0x19,0x9B,0x2C,0xD3,0x80,0x7B,0x1E,0xD4,0x20,0xC6,0xA7,0xF8};
+  static const char* ascii_fingerprint; // = "EB90AA107B7FEFDD3F77D05D2E5DCA42";
+  static const uint8_t binary_fingerprint[16]; // = {0xEB,0x90,0xAA,0x10,0x7B,0x7F,0xEF,0xDD,0x3F,0x77,0xD0,0x5D,0x2E,0x5D,0xCA,0x42};
 
   ColumnStatistics() {
   }
@@ -2912,8 +2961,8 @@ void swap(ColumnStatistics &a, ColumnStatistics &b);
 class AggrStats {
  public:
 
-  static const char* ascii_fingerprint; // = "399BDBAF7503E0BFB5E1D99C83D790CD";
-  static const uint8_t binary_fingerprint[16]; // = {0x39,0x9B,0xDB,0xAF,0x75,0x03,0xE0,0xBF,0xB5,0xE1,0xD9,0x9C,0x83,0xD7,0x90,0xCD};
+  static const char* ascii_fingerprint; // = "975092327443689B6F9EFF04A0D2B79F";
+  static const uint8_t binary_fingerprint[16]; // = {0x97,0x50,0x92,0x32,0x74,0x43,0x68,0x9B,0x6F,0x9E,0xFF,0x04,0xA0,0xD2,0xB7,0x9F};
 
   AggrStats() : partsFound(0) {
   }
@@ -2956,8 +3005,8 @@ void swap(AggrStats &a, AggrStats &b);
 class SetPartitionsStatsRequest {
  public:
 
-  static const char* ascii_fingerprint; // = "635C0DA9A947DA57AAE693A5DFB86569";
-  static const uint8_t binary_fingerprint[16]; // = {0x63,0x5C,0x0D,0xA9,0xA9,0x47,0xDA,0x57,0xAA,0xE6,0x93,0xA5,0xDF,0xB8,0x65,0x69};
+  static const char* ascii_fingerprint; // = "BF378AC5DF7B7FB42A4EEF90BF25BC40";
+  static const uint8_t binary_fingerprint[16]; // = {0xBF,0x37,0x8A,0xC5,0xDF,0x7B,0x7F,0xB4,0x2A,0x4E,0xEF,0x90,0xBF,0x25,0xBC,0x40};
 
   SetPartitionsStatsRequest() {
   }
@@ -3209,8 +3258,8 @@ void swap(PartitionsByExprRequest &a, PartitionsByExprRequest &b);
 class TableStatsResult {
  public:
 
-  static const char* ascii_fingerprint; // = "CE3E8F0D9B310B8D33CB7A89A75F3E05";
-  static const uint8_t binary_fingerprint[16]; // = {0xCE,0x3E,0x8F,0x0D,0x9B,0x31,0x0B,0x8D,0x33,0xCB,0x7A,0x89,0xA7,0x5F,0x3E,0x05};
+  static const char* ascii_fingerprint; // = "EB535AEEA89E1754606948F0C36ED80E";
+  static const uint8_t binary_fingerprint[16]; // = {0xEB,0x53,0x5A,0xEE,0xA8,0x9E,0x17,0x54,0x60,0x69,0x48,0xF0,0xC3,0x6E,0xD8,0x0E};
 
   TableStatsResult() {
   }
@@ -3246,8 +3295,8 @@ void swap(TableStatsResult &a, TableStatsResult &b);
 class PartitionsStatsResult {
  public:
 
-  static const char* ascii_fingerprint; // = "FF175B50C5EF6F442D3AF25B06435A39";
-  static const uint8_t binary_fingerprint[16]; // = {0xFF,0x17,0x5B,0x50,0xC5,0xEF,0x6F,0x44,0x2D,0x3A,0xF2,0x5B,0x06,0x43,0x5A,0x39};
+  static const char* ascii_fingerprint; // = "E5A85E21DD25B324ECD327D24FC44F2E";
+  static const uint8_t binary_fingerprint[16]; // = {0xE5,0xA8,0x5E,0x21,0xDD,0x25,0xB3,0x24,0xEC,0xD3,0x27,0xD2,0x4F,0xC4,0x4F,0x2E};
 
   PartitionsStatsResult() {
   }
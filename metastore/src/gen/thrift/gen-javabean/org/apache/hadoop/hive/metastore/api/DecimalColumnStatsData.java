@@ -38,6 +38,7 @@ public class DecimalColumnStatsData implements org.apache.thrift.TBase<DecimalCo
   private static final org.apache.thrift.protocol.TField HIGH_VALUE_FIELD_DESC = new org.apache.thrift.protocol.TField("highValue", org.apache.thrift.protocol.TType.STRUCT, (short)2);
   private static final org.apache.thrift.protocol.TField NUM_NULLS_FIELD_DESC = new org.apache.thrift.protocol.TField("numNulls", org.apache.thrift.protocol.TType.I64, (short)3);
   private static final org.apache.thrift.protocol.TField NUM_DVS_FIELD_DESC = new org.apache.thrift.protocol.TField("numDVs", org.apache.thrift.protocol.TType.I64, (short)4);
+  private static final org.apache.thrift.protocol.TField BIT_VECTORS_FIELD_DESC = new org.apache.thrift.protocol.TField("bitVectors", org.apache.thrift.protocol.TType.STRING, (short)5);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
   static {
@@ -49,13 +50,15 @@ public class DecimalColumnStatsData implements org.apache.thrift.TBase<DecimalCo
   private Decimal highValue; // optional
   private long numNulls; // required
   private long numDVs; // required
+  private String bitVectors; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
     LOW_VALUE((short)1, "lowValue"),
     HIGH_VALUE((short)2, "highValue"),
     NUM_NULLS((short)3, "numNulls"),
-    NUM_DVS((short)4, "numDVs");
+    NUM_DVS((short)4, "numDVs"),
+    BIT_VECTORS((short)5, "bitVectors");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -78,6 +81,8 @@ public static _Fields findByThriftId(int fieldId) {
           return NUM_NULLS;
         case 4: // NUM_DVS
           return NUM_DVS;
+        case 5: // BIT_VECTORS
+          return BIT_VECTORS;
         default:
           return null;
       }
@@ -121,7 +126,7 @@ public String getFieldName() {
   private static final int __NUMNULLS_ISSET_ID = 0;
   private static final int __NUMDVS_ISSET_ID = 1;
   private byte __isset_bitfield = 0;
-  private _Fields optionals[] = {_Fields.LOW_VALUE,_Fields.HIGH_VALUE};
+  private _Fields optionals[] = {_Fields.LOW_VALUE,_Fields.HIGH_VALUE,_Fields.BIT_VECTORS};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -133,6 +138,8 @@ public String getFieldName() {
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
     tmpMap.put(_Fields.NUM_DVS, new org.apache.thrift.meta_data.FieldMetaData("numDVs", org.apache.thrift.TFieldRequirementType.REQUIRED, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
+    tmpMap.put(_Fields.BIT_VECTORS, new org.apache.thrift.meta_data.FieldMetaData("bitVectors", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(DecimalColumnStatsData.class, metaDataMap);
   }
@@ -164,6 +171,9 @@ public DecimalColumnStatsData(DecimalColumnStatsData other) {
     }
     this.numNulls = other.numNulls;
     this.numDVs = other.numDVs;
+    if (other.isSetBitVectors()) {
+      this.bitVectors = other.bitVectors;
+    }
   }
 
   public DecimalColumnStatsData deepCopy() {
@@ -178,6 +188,7 @@ public void clear() {
     this.numNulls = 0;
     setNumDVsIsSet(false);
     this.numDVs = 0;
+    this.bitVectors = null;
   }
 
   public Decimal getLowValue() {
@@ -270,6 +281,29 @@ public void setNumDVsIsSet(boolean value) {
     __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __NUMDVS_ISSET_ID, value);
   }
 
+  public String getBitVectors() {
+    return this.bitVectors;
+  }
+
+  public void setBitVectors(String bitVectors) {
+    this.bitVectors = bitVectors;
+  }
+
+  public void unsetBitVectors() {
+    this.bitVectors = null;
+  }
+
+  /** Returns true if field bitVectors is set (has been assigned a value) and false otherwise */
+  public boolean isSetBitVectors() {
+    return this.bitVectors != null;
+  }
+
+  public void setBitVectorsIsSet(boolean value) {
+    if (!value) {
+      this.bitVectors = null;
+    }
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case LOW_VALUE:
@@ -304,6 +338,14 @@ public void setFieldValue(_Fields field, Object value) {
       }
       break;
 
+    case BIT_VECTORS:
+      if (value == null) {
+        unsetBitVectors();
+      } else {
+        setBitVectors((String)value);
+      }
+      break;
+
     }
   }
 
@@ -321,6 +363,9 @@ public Object getFieldValue(_Fields field) {
     case NUM_DVS:
       return Long.valueOf(getNumDVs());
 
+    case BIT_VECTORS:
+      return getBitVectors();
+
     }
     throw new IllegalStateException();
   }
@@ -340,6 +385,8 @@ public boolean isSet(_Fields field) {
       return isSetNumNulls();
     case NUM_DVS:
       return isSetNumDVs();
+    case BIT_VECTORS:
+      return isSetBitVectors();
     }
     throw new IllegalStateException();
   }
@@ -393,6 +440,15 @@ public boolean equals(DecimalColumnStatsData that) {
         return false;
     }
 
+    boolean this_present_bitVectors = true && this.isSetBitVectors();
+    boolean that_present_bitVectors = true && that.isSetBitVectors();
+    if (this_present_bitVectors || that_present_bitVectors) {
+      if (!(this_present_bitVectors && that_present_bitVectors))
+        return false;
+      if (!this.bitVectors.equals(that.bitVectors))
+        return false;
+    }
+
     return true;
   }
 
@@ -420,6 +476,11 @@ public int hashCode() {
     if (present_numDVs)
       builder.append(numDVs);
 
+    boolean present_bitVectors = true && (isSetBitVectors());
+    builder.append(present_bitVectors);
+    if (present_bitVectors)
+      builder.append(bitVectors);
+
     return builder.toHashCode();
   }
 
@@ -471,6 +532,16 @@ public int compareTo(DecimalColumnStatsData other) {
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetBitVectors()).compareTo(typedOther.isSetBitVectors());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetBitVectors()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.bitVectors, typedOther.bitVectors);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -518,6 +589,16 @@ public String toString() {
     sb.append("numDVs:");
     sb.append(this.numDVs);
     first = false;
+    if (isSetBitVectors()) {
+      if (!first) sb.append(", ");
+      sb.append("bitVectors:");
+      if (this.bitVectors == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.bitVectors);
+      }
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -611,6 +692,14 @@ public void read(org.apache.thrift.protocol.TProtocol iprot, DecimalColumnStatsD
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 5: // BIT_VECTORS
+            if (schemeField.type == org.apache.thrift.protocol.TType.STRING) {
+              struct.bitVectors = iprot.readString();
+              struct.setBitVectorsIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -644,6 +733,13 @@ public void write(org.apache.thrift.protocol.TProtocol oprot, DecimalColumnStats
       oprot.writeFieldBegin(NUM_DVS_FIELD_DESC);
       oprot.writeI64(struct.numDVs);
       oprot.writeFieldEnd();
+      if (struct.bitVectors != null) {
+        if (struct.isSetBitVectors()) {
+          oprot.writeFieldBegin(BIT_VECTORS_FIELD_DESC);
+          oprot.writeString(struct.bitVectors);
+          oprot.writeFieldEnd();
+        }
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -670,13 +766,19 @@ public void write(org.apache.thrift.protocol.TProtocol prot, DecimalColumnStatsD
       if (struct.isSetHighValue()) {
         optionals.set(1);
       }
-      oprot.writeBitSet(optionals, 2);
+      if (struct.isSetBitVectors()) {
+        optionals.set(2);
+      }
+      oprot.writeBitSet(optionals, 3);
       if (struct.isSetLowValue()) {
         struct.lowValue.write(oprot);
       }
       if (struct.isSetHighValue()) {
         struct.highValue.write(oprot);
       }
+      if (struct.isSetBitVectors()) {
+        oprot.writeString(struct.bitVectors);
+      }
     }
 
     @Override
@@ -686,7 +788,7 @@ public void read(org.apache.thrift.protocol.TProtocol prot, DecimalColumnStatsDa
       struct.setNumNullsIsSet(true);
       struct.numDVs = iprot.readI64();
       struct.setNumDVsIsSet(true);
-      BitSet incoming = iprot.readBitSet(2);
+      BitSet incoming = iprot.readBitSet(3);
       if (incoming.get(0)) {
         struct.lowValue = new Decimal();
         struct.lowValue.read(iprot);
@@ -697,6 +799,10 @@ public void read(org.apache.thrift.protocol.TProtocol prot, DecimalColumnStatsDa
         struct.highValue.read(iprot);
         struct.setHighValueIsSet(true);
       }
+      if (incoming.get(2)) {
+        struct.bitVectors = iprot.readString();
+        struct.setBitVectorsIsSet(true);
+      }
     }
   }
 
@@ -38,6 +38,7 @@ public class DoubleColumnStatsData implements org.apache.thrift.TBase<DoubleColu
   private static final org.apache.thrift.protocol.TField HIGH_VALUE_FIELD_DESC = new org.apache.thrift.protocol.TField("highValue", org.apache.thrift.protocol.TType.DOUBLE, (short)2);
   private static final org.apache.thrift.protocol.TField NUM_NULLS_FIELD_DESC = new org.apache.thrift.protocol.TField("numNulls", org.apache.thrift.protocol.TType.I64, (short)3);
   private static final org.apache.thrift.protocol.TField NUM_DVS_FIELD_DESC = new org.apache.thrift.protocol.TField("numDVs", org.apache.thrift.protocol.TType.I64, (short)4);
+  private static final org.apache.thrift.protocol.TField BIT_VECTORS_FIELD_DESC = new org.apache.thrift.protocol.TField("bitVectors", org.apache.thrift.protocol.TType.STRING, (short)5);
 
   private static final Map<Class<? extends IScheme>, SchemeFactory> schemes = new HashMap<Class<? extends IScheme>, SchemeFactory>();
   static {
@@ -49,13 +50,15 @@ public class DoubleColumnStatsData implements org.apache.thrift.TBase<DoubleColu
   private double highValue; // optional
   private long numNulls; // required
   private long numDVs; // required
+  private String bitVectors; // optional
 
   /** The set of fields this struct contains, along with convenience methods for finding and manipulating them. */
   public enum _Fields implements org.apache.thrift.TFieldIdEnum {
     LOW_VALUE((short)1, "lowValue"),
     HIGH_VALUE((short)2, "highValue"),
     NUM_NULLS((short)3, "numNulls"),
-    NUM_DVS((short)4, "numDVs");
+    NUM_DVS((short)4, "numDVs"),
+    BIT_VECTORS((short)5, "bitVectors");
 
     private static final Map<String, _Fields> byName = new HashMap<String, _Fields>();
 
@@ -78,6 +81,8 @@ public static _Fields findByThriftId(int fieldId) {
           return NUM_NULLS;
         case 4: // NUM_DVS
           return NUM_DVS;
+        case 5: // BIT_VECTORS
+          return BIT_VECTORS;
         default:
           return null;
       }
@@ -123,7 +128,7 @@ public String getFieldName() {
   private static final int __NUMNULLS_ISSET_ID = 2;
   private static final int __NUMDVS_ISSET_ID = 3;
   private byte __isset_bitfield = 0;
-  private _Fields optionals[] = {_Fields.LOW_VALUE,_Fields.HIGH_VALUE};
+  private _Fields optionals[] = {_Fields.LOW_VALUE,_Fields.HIGH_VALUE,_Fields.BIT_VECTORS};
   public static final Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> metaDataMap;
   static {
     Map<_Fields, org.apache.thrift.meta_data.FieldMetaData> tmpMap = new EnumMap<_Fields, org.apache.thrift.meta_data.FieldMetaData>(_Fields.class);
@@ -135,6 +140,8 @@ public String getFieldName() {
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
     tmpMap.put(_Fields.NUM_DVS, new org.apache.thrift.meta_data.FieldMetaData("numDVs", org.apache.thrift.TFieldRequirementType.REQUIRED, 
         new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.I64)));
+    tmpMap.put(_Fields.BIT_VECTORS, new org.apache.thrift.meta_data.FieldMetaData("bitVectors", org.apache.thrift.TFieldRequirementType.OPTIONAL, 
+        new org.apache.thrift.meta_data.FieldValueMetaData(org.apache.thrift.protocol.TType.STRING)));
     metaDataMap = Collections.unmodifiableMap(tmpMap);
     org.apache.thrift.meta_data.FieldMetaData.addStructMetaDataMap(DoubleColumnStatsData.class, metaDataMap);
   }
@@ -162,6 +169,9 @@ public DoubleColumnStatsData(DoubleColumnStatsData other) {
     this.highValue = other.highValue;
     this.numNulls = other.numNulls;
     this.numDVs = other.numDVs;
+    if (other.isSetBitVectors()) {
+      this.bitVectors = other.bitVectors;
+    }
   }
 
   public DoubleColumnStatsData deepCopy() {
@@ -178,6 +188,7 @@ public void clear() {
     this.numNulls = 0;
     setNumDVsIsSet(false);
     this.numDVs = 0;
+    this.bitVectors = null;
   }
 
   public double getLowValue() {
@@ -268,6 +279,29 @@ public void setNumDVsIsSet(boolean value) {
     __isset_bitfield = EncodingUtils.setBit(__isset_bitfield, __NUMDVS_ISSET_ID, value);
   }
 
+  public String getBitVectors() {
+    return this.bitVectors;
+  }
+
+  public void setBitVectors(String bitVectors) {
+    this.bitVectors = bitVectors;
+  }
+
+  public void unsetBitVectors() {
+    this.bitVectors = null;
+  }
+
+  /** Returns true if field bitVectors is set (has been assigned a value) and false otherwise */
+  public boolean isSetBitVectors() {
+    return this.bitVectors != null;
+  }
+
+  public void setBitVectorsIsSet(boolean value) {
+    if (!value) {
+      this.bitVectors = null;
+    }
+  }
+
   public void setFieldValue(_Fields field, Object value) {
     switch (field) {
     case LOW_VALUE:
@@ -302,6 +336,14 @@ public void setFieldValue(_Fields field, Object value) {
       }
       break;
 
+    case BIT_VECTORS:
+      if (value == null) {
+        unsetBitVectors();
+      } else {
+        setBitVectors((String)value);
+      }
+      break;
+
     }
   }
 
@@ -319,6 +361,9 @@ public Object getFieldValue(_Fields field) {
     case NUM_DVS:
       return Long.valueOf(getNumDVs());
 
+    case BIT_VECTORS:
+      return getBitVectors();
+
     }
     throw new IllegalStateException();
   }
@@ -338,6 +383,8 @@ public boolean isSet(_Fields field) {
       return isSetNumNulls();
     case NUM_DVS:
       return isSetNumDVs();
+    case BIT_VECTORS:
+      return isSetBitVectors();
     }
     throw new IllegalStateException();
   }
@@ -391,6 +438,15 @@ public boolean equals(DoubleColumnStatsData that) {
         return false;
     }
 
+    boolean this_present_bitVectors = true && this.isSetBitVectors();
+    boolean that_present_bitVectors = true && that.isSetBitVectors();
+    if (this_present_bitVectors || that_present_bitVectors) {
+      if (!(this_present_bitVectors && that_present_bitVectors))
+        return false;
+      if (!this.bitVectors.equals(that.bitVectors))
+        return false;
+    }
+
     return true;
   }
 
@@ -418,6 +474,11 @@ public int hashCode() {
     if (present_numDVs)
       builder.append(numDVs);
 
+    boolean present_bitVectors = true && (isSetBitVectors());
+    builder.append(present_bitVectors);
+    if (present_bitVectors)
+      builder.append(bitVectors);
+
     return builder.toHashCode();
   }
 
@@ -469,6 +530,16 @@ public int compareTo(DoubleColumnStatsData other) {
         return lastComparison;
       }
     }
+    lastComparison = Boolean.valueOf(isSetBitVectors()).compareTo(typedOther.isSetBitVectors());
+    if (lastComparison != 0) {
+      return lastComparison;
+    }
+    if (isSetBitVectors()) {
+      lastComparison = org.apache.thrift.TBaseHelper.compareTo(this.bitVectors, typedOther.bitVectors);
+      if (lastComparison != 0) {
+        return lastComparison;
+      }
+    }
     return 0;
   }
 
@@ -508,6 +579,16 @@ public String toString() {
     sb.append("numDVs:");
     sb.append(this.numDVs);
     first = false;
+    if (isSetBitVectors()) {
+      if (!first) sb.append(", ");
+      sb.append("bitVectors:");
+      if (this.bitVectors == null) {
+        sb.append("null");
+      } else {
+        sb.append(this.bitVectors);
+      }
+      first = false;
+    }
     sb.append(")");
     return sb.toString();
   }
@@ -593,6 +674,14 @@ public void read(org.apache.thrift.protocol.TProtocol iprot, DoubleColumnStatsDa
               org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
             }
             break;
+          case 5: // BIT_VECTORS
+            if (schemeField.type == org.apache.thrift.protocol.TType.STRING) {
+              struct.bitVectors = iprot.readString();
+              struct.setBitVectorsIsSet(true);
+            } else { 
+              org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
+            }
+            break;
           default:
             org.apache.thrift.protocol.TProtocolUtil.skip(iprot, schemeField.type);
         }
@@ -622,6 +711,13 @@ public void write(org.apache.thrift.protocol.TProtocol oprot, DoubleColumnStatsD
       oprot.writeFieldBegin(NUM_DVS_FIELD_DESC);
       oprot.writeI64(struct.numDVs);
       oprot.writeFieldEnd();
+      if (struct.bitVectors != null) {
+        if (struct.isSetBitVectors()) {
+          oprot.writeFieldBegin(BIT_VECTORS_FIELD_DESC);
+          oprot.writeString(struct.bitVectors);
+          oprot.writeFieldEnd();
+        }
+      }
       oprot.writeFieldStop();
       oprot.writeStructEnd();
     }
@@ -648,13 +744,19 @@ public void write(org.apache.thrift.protocol.TProtocol prot, DoubleColumnStatsDa
       if (struct.isSetHighValue()) {
         optionals.set(1);
       }
-      oprot.writeBitSet(optionals, 2);
+      if (struct.isSetBitVectors()) {
+        optionals.set(2);
+      }
+      oprot.writeBitSet(optionals, 3);
       if (struct.isSetLowValue()) {
         oprot.writeDouble(struct.lowValue);
       }
       if (struct.isSetHighValue()) {
         oprot.writeDouble(struct.highValue);
       }
+      if (struct.isSetBitVectors()) {
+        oprot.writeString(struct.bitVectors);
+      }
     }
 
     @Override
@@ -664,7 +766,7 @@ public void read(org.apache.thrift.protocol.TProtocol prot, DoubleColumnStatsDat
       struct.setNumNullsIsSet(true);
       struct.numDVs = iprot.readI64();
       struct.setNumDVsIsSet(true);
-      BitSet incoming = iprot.readBitSet(2);
+      BitSet incoming = iprot.readBitSet(3);
       if (incoming.get(0)) {
         struct.lowValue = iprot.readDouble();
         struct.setLowValueIsSet(true);
@@ -673,6 +775,10 @@ public void read(org.apache.thrift.protocol.TProtocol prot, DoubleColumnStatsDat
         struct.highValue = iprot.readDouble();
         struct.setHighValueIsSet(true);
       }
+      if (incoming.get(2)) {
+        struct.bitVectors = iprot.readString();
+        struct.setBitVectorsIsSet(true);
+      }
     }
   }
 
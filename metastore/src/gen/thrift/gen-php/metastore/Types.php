@@ -5339,6 +5339,7 @@ class DoubleColumnStatsData {
   public $highValue = null;
   public $numNulls = null;
   public $numDVs = null;
+  public $bitVectors = null;
 
   public function __construct($vals=null) {
     if (!isset(self::$_TSPEC)) {
@@ -5359,6 +5360,10 @@ class DoubleColumnStatsData {
           'var' => 'numDVs',
           'type' => TType::I64,
           ),
+        5 => array(
+          'var' => 'bitVectors',
+          'type' => TType::STRING,
+          ),
         );
     }
     if (is_array($vals)) {
@@ -5374,6 +5379,9 @@ class DoubleColumnStatsData {
       if (isset($vals['numDVs'])) {
         $this->numDVs = $vals['numDVs'];
       }
+      if (isset($vals['bitVectors'])) {
+        $this->bitVectors = $vals['bitVectors'];
+      }
     }
   }
 
@@ -5424,6 +5432,13 @@ class DoubleColumnStatsData {
             $xfer += $input->skip($ftype);
           }
           break;
+        case 5:
+          if ($ftype == TType::STRING) {
+            $xfer += $input->readString($this->bitVectors);
+          } else {
+            $xfer += $input->skip($ftype);
+          }
+          break;
         default:
           $xfer += $input->skip($ftype);
           break;
@@ -5457,6 +5472,11 @@ class DoubleColumnStatsData {
       $xfer += $output->writeI64($this->numDVs);
       $xfer += $output->writeFieldEnd();
     }
+    if ($this->bitVectors !== null) {
+      $xfer += $output->writeFieldBegin('bitVectors', TType::STRING, 5);
+      $xfer += $output->writeString($this->bitVectors);
+      $xfer += $output->writeFieldEnd();
+    }
     $xfer += $output->writeFieldStop();
     $xfer += $output->writeStructEnd();
     return $xfer;
@@ -5471,6 +5491,7 @@ class LongColumnStatsData {
   public $highValue = null;
   public $numNulls = null;
   public $numDVs = null;
+  public $bitVectors = null;
 
   public function __construct($vals=null) {
     if (!isset(self::$_TSPEC)) {
@@ -5491,6 +5512,10 @@ class LongColumnStatsData {
           'var' => 'numDVs',
           'type' => TType::I64,
           ),
+        5 => array(
+          'var' => 'bitVectors',
+          'type' => TType::STRING,
+          ),
         );
     }
     if (is_array($vals)) {
@@ -5506,6 +5531,9 @@ class LongColumnStatsData {
       if (isset($vals['numDVs'])) {
         $this->numDVs = $vals['numDVs'];
       }
+      if (isset($vals['bitVectors'])) {
+        $this->bitVectors = $vals['bitVectors'];
+      }
     }
   }
 
@@ -5556,6 +5584,13 @@ class LongColumnStatsData {
             $xfer += $input->skip($ftype);
           }
           break;
+        case 5:
+          if ($ftype == TType::STRING) {
+            $xfer += $input->readString($this->bitVectors);
+          } else {
+            $xfer += $input->skip($ftype);
+          }
+          break;
         default:
           $xfer += $input->skip($ftype);
           break;
@@ -5589,6 +5624,11 @@ class LongColumnStatsData {
       $xfer += $output->writeI64($this->numDVs);
       $xfer += $output->writeFieldEnd();
     }
+    if ($this->bitVectors !== null) {
+      $xfer += $output->writeFieldBegin('bitVectors', TType::STRING, 5);
+      $xfer += $output->writeString($this->bitVectors);
+      $xfer += $output->writeFieldEnd();
+    }
     $xfer += $output->writeFieldStop();
     $xfer += $output->writeStructEnd();
     return $xfer;
@@ -5603,6 +5643,7 @@ class StringColumnStatsData {
   public $avgColLen = null;
   public $numNulls = null;
   public $numDVs = null;
+  public $bitVectors = null;
 
   public function __construct($vals=null) {
     if (!isset(self::$_TSPEC)) {
@@ -5623,6 +5664,10 @@ class StringColumnStatsData {
           'var' => 'numDVs',
           'type' => TType::I64,
           ),
+        5 => array(
+          'var' => 'bitVectors',
+          'type' => TType::STRING,
+          ),
         );
     }
     if (is_array($vals)) {
@@ -5638,6 +5683,9 @@ class StringColumnStatsData {
       if (isset($vals['numDVs'])) {
         $this->numDVs = $vals['numDVs'];
       }
+      if (isset($vals['bitVectors'])) {
+        $this->bitVectors = $vals['bitVectors'];
+      }
     }
   }
 
@@ -5688,6 +5736,13 @@ class StringColumnStatsData {
             $xfer += $input->skip($ftype);
           }
           break;
+        case 5:
+          if ($ftype == TType::STRING) {
+            $xfer += $input->readString($this->bitVectors);
+          } else {
+            $xfer += $input->skip($ftype);
+          }
+          break;
         default:
           $xfer += $input->skip($ftype);
           break;
@@ -5721,6 +5776,11 @@ class StringColumnStatsData {
       $xfer += $output->writeI64($this->numDVs);
       $xfer += $output->writeFieldEnd();
     }
+    if ($this->bitVectors !== null) {
+      $xfer += $output->writeFieldBegin('bitVectors', TType::STRING, 5);
+      $xfer += $output->writeString($this->bitVectors);
+      $xfer += $output->writeFieldEnd();
+    }
     $xfer += $output->writeFieldStop();
     $xfer += $output->writeStructEnd();
     return $xfer;
@@ -5939,6 +5999,7 @@ class DecimalColumnStatsData {
   public $highValue = null;
   public $numNulls = null;
   public $numDVs = null;
+  public $bitVectors = null;
 
   public function __construct($vals=null) {
     if (!isset(self::$_TSPEC)) {
@@ -5961,6 +6022,10 @@ class DecimalColumnStatsData {
           'var' => 'numDVs',
           'type' => TType::I64,
           ),
+        5 => array(
+          'var' => 'bitVectors',
+          'type' => TType::STRING,
+          ),
         );
     }
     if (is_array($vals)) {
@@ -5976,6 +6041,9 @@ class DecimalColumnStatsData {
       if (isset($vals['numDVs'])) {
         $this->numDVs = $vals['numDVs'];
       }
+      if (isset($vals['bitVectors'])) {
+        $this->bitVectors = $vals['bitVectors'];
+      }
     }
   }
 
@@ -6028,6 +6096,13 @@ class DecimalColumnStatsData {
             $xfer += $input->skip($ftype);
           }
           break;
+        case 5:
+          if ($ftype == TType::STRING) {
+            $xfer += $input->readString($this->bitVectors);
+          } else {
+            $xfer += $input->skip($ftype);
+          }
+          break;
         default:
           $xfer += $input->skip($ftype);
           break;
@@ -6067,6 +6142,11 @@ class DecimalColumnStatsData {
       $xfer += $output->writeI64($this->numDVs);
       $xfer += $output->writeFieldEnd();
     }
+    if ($this->bitVectors !== null) {
+      $xfer += $output->writeFieldBegin('bitVectors', TType::STRING, 5);
+      $xfer += $output->writeString($this->bitVectors);
+      $xfer += $output->writeFieldEnd();
+    }
     $xfer += $output->writeFieldStop();
     $xfer += $output->writeStructEnd();
     return $xfer;
@@ -3582,6 +3582,7 @@ class DoubleColumnStatsData:
    - highValue
    - numNulls
    - numDVs
+   - bitVectors
   """
 
   thrift_spec = (
@@ -3590,13 +3591,15 @@ class DoubleColumnStatsData:
     (2, TType.DOUBLE, 'highValue', None, None, ), # 2
     (3, TType.I64, 'numNulls', None, None, ), # 3
     (4, TType.I64, 'numDVs', None, None, ), # 4
+    (5, TType.STRING, 'bitVectors', None, None, ), # 5
   )
 
-  def __init__(self, lowValue=None, highValue=None, numNulls=None, numDVs=None,):
+  def __init__(self, lowValue=None, highValue=None, numNulls=None, numDVs=None, bitVectors=None,):
     self.lowValue = lowValue
     self.highValue = highValue
     self.numNulls = numNulls
     self.numDVs = numDVs
+    self.bitVectors = bitVectors
 
   def read(self, iprot):
     if iprot.__class__ == TBinaryProtocol.TBinaryProtocolAccelerated and isinstance(iprot.trans, TTransport.CReadableTransport) and self.thrift_spec is not None and fastbinary is not None:
@@ -3627,6 +3630,11 @@ def read(self, iprot):
           self.numDVs = iprot.readI64();
         else:
           iprot.skip(ftype)
+      elif fid == 5:
+        if ftype == TType.STRING:
+          self.bitVectors = iprot.readString();
+        else:
+          iprot.skip(ftype)
       else:
         iprot.skip(ftype)
       iprot.readFieldEnd()
@@ -3653,6 +3661,10 @@ def write(self, oprot):
       oprot.writeFieldBegin('numDVs', TType.I64, 4)
       oprot.writeI64(self.numDVs)
       oprot.writeFieldEnd()
+    if self.bitVectors is not None:
+      oprot.writeFieldBegin('bitVectors', TType.STRING, 5)
+      oprot.writeString(self.bitVectors)
+      oprot.writeFieldEnd()
     oprot.writeFieldStop()
     oprot.writeStructEnd()
 
@@ -3682,6 +3694,7 @@ class LongColumnStatsData:
    - highValue
    - numNulls
    - numDVs
+   - bitVectors
   """
 
   thrift_spec = (
@@ -3690,13 +3703,15 @@ class LongColumnStatsData:
     (2, TType.I64, 'highValue', None, None, ), # 2
     (3, TType.I64, 'numNulls', None, None, ), # 3
     (4, TType.I64, 'numDVs', None, None, ), # 4
+    (5, TType.STRING, 'bitVectors', None, None, ), # 5
   )
 
-  def __init__(self, lowValue=None, highValue=None, numNulls=None, numDVs=None,):
+  def __init__(self, lowValue=None, highValue=None, numNulls=None, numDVs=None, bitVectors=None,):
     self.lowValue = lowValue
     self.highValue = highValue
     self.numNulls = numNulls
     self.numDVs = numDVs
+    self.bitVectors = bitVectors
 
   def read(self, iprot):
     if iprot.__class__ == TBinaryProtocol.TBinaryProtocolAccelerated and isinstance(iprot.trans, TTransport.CReadableTransport) and self.thrift_spec is not None and fastbinary is not None:
@@ -3727,6 +3742,11 @@ def read(self, iprot):
           self.numDVs = iprot.readI64();
         else:
           iprot.skip(ftype)
+      elif fid == 5:
+        if ftype == TType.STRING:
+          self.bitVectors = iprot.readString();
+        else:
+          iprot.skip(ftype)
       else:
         iprot.skip(ftype)
       iprot.readFieldEnd()
@@ -3753,6 +3773,10 @@ def write(self, oprot):
       oprot.writeFieldBegin('numDVs', TType.I64, 4)
       oprot.writeI64(self.numDVs)
       oprot.writeFieldEnd()
+    if self.bitVectors is not None:
+      oprot.writeFieldBegin('bitVectors', TType.STRING, 5)
+      oprot.writeString(self.bitVectors)
+      oprot.writeFieldEnd()
     oprot.writeFieldStop()
     oprot.writeStructEnd()
 
@@ -3782,6 +3806,7 @@ class StringColumnStatsData:
    - avgColLen
    - numNulls
    - numDVs
+   - bitVectors
   """
 
   thrift_spec = (
@@ -3790,13 +3815,15 @@ class StringColumnStatsData:
     (2, TType.DOUBLE, 'avgColLen', None, None, ), # 2
     (3, TType.I64, 'numNulls', None, None, ), # 3
     (4, TType.I64, 'numDVs', None, None, ), # 4
+    (5, TType.STRING, 'bitVectors', None, None, ), # 5
   )
 
-  def __init__(self, maxColLen=None, avgColLen=None, numNulls=None, numDVs=None,):
+  def __init__(self, maxColLen=None, avgColLen=None, numNulls=None, numDVs=None, bitVectors=None,):
     self.maxColLen = maxColLen
     self.avgColLen = avgColLen
     self.numNulls = numNulls
     self.numDVs = numDVs
+    self.bitVectors = bitVectors
 
   def read(self, iprot):
     if iprot.__class__ == TBinaryProtocol.TBinaryProtocolAccelerated and isinstance(iprot.trans, TTransport.CReadableTransport) and self.thrift_spec is not None and fastbinary is not None:
@@ -3827,6 +3854,11 @@ def read(self, iprot):
           self.numDVs = iprot.readI64();
         else:
           iprot.skip(ftype)
+      elif fid == 5:
+        if ftype == TType.STRING:
+          self.bitVectors = iprot.readString();
+        else:
+          iprot.skip(ftype)
       else:
         iprot.skip(ftype)
       iprot.readFieldEnd()
@@ -3853,6 +3885,10 @@ def write(self, oprot):
       oprot.writeFieldBegin('numDVs', TType.I64, 4)
       oprot.writeI64(self.numDVs)
       oprot.writeFieldEnd()
+    if self.bitVectors is not None:
+      oprot.writeFieldBegin('bitVectors', TType.STRING, 5)
+      oprot.writeString(self.bitVectors)
+      oprot.writeFieldEnd()
     oprot.writeFieldStop()
     oprot.writeStructEnd()
 
@@ -4053,6 +4089,7 @@ class DecimalColumnStatsData:
    - highValue
    - numNulls
    - numDVs
+   - bitVectors
   """
 
   thrift_spec = (
@@ -4061,13 +4098,15 @@ class DecimalColumnStatsData:
     (2, TType.STRUCT, 'highValue', (Decimal, Decimal.thrift_spec), None, ), # 2
     (3, TType.I64, 'numNulls', None, None, ), # 3
     (4, TType.I64, 'numDVs', None, None, ), # 4
+    (5, TType.STRING, 'bitVectors', None, None, ), # 5
   )
 
-  def __init__(self, lowValue=None, highValue=None, numNulls=None, numDVs=None,):
+  def __init__(self, lowValue=None, highValue=None, numNulls=None, numDVs=None, bitVectors=None,):
     self.lowValue = lowValue
     self.highValue = highValue
     self.numNulls = numNulls
     self.numDVs = numDVs
+    self.bitVectors = bitVectors
 
   def read(self, iprot):
     if iprot.__class__ == TBinaryProtocol.TBinaryProtocolAccelerated and isinstance(iprot.trans, TTransport.CReadableTransport) and self.thrift_spec is not None and fastbinary is not None:
@@ -4100,6 +4139,11 @@ def read(self, iprot):
           self.numDVs = iprot.readI64();
         else:
           iprot.skip(ftype)
+      elif fid == 5:
+        if ftype == TType.STRING:
+          self.bitVectors = iprot.readString();
+        else:
+          iprot.skip(ftype)
       else:
         iprot.skip(ftype)
       iprot.readFieldEnd()
@@ -4126,6 +4170,10 @@ def write(self, oprot):
       oprot.writeFieldBegin('numDVs', TType.I64, 4)
       oprot.writeI64(self.numDVs)
       oprot.writeFieldEnd()
+    if self.bitVectors is not None:
+      oprot.writeFieldBegin('bitVectors', TType.STRING, 5)
+      oprot.writeString(self.bitVectors)
+      oprot.writeFieldEnd()
     oprot.writeFieldStop()
     oprot.writeStructEnd()
 
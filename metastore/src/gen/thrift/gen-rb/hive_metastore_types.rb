@@ -842,12 +842,14 @@ class DoubleColumnStatsData
   HIGHVALUE = 2
   NUMNULLS = 3
   NUMDVS = 4
+  BITVECTORS = 5
 
   FIELDS = {
     LOWVALUE => {:type => ::Thrift::Types::DOUBLE, :name => 'lowValue', :optional => true},
     HIGHVALUE => {:type => ::Thrift::Types::DOUBLE, :name => 'highValue', :optional => true},
     NUMNULLS => {:type => ::Thrift::Types::I64, :name => 'numNulls'},
-    NUMDVS => {:type => ::Thrift::Types::I64, :name => 'numDVs'}
+    NUMDVS => {:type => ::Thrift::Types::I64, :name => 'numDVs'},
+    BITVECTORS => {:type => ::Thrift::Types::STRING, :name => 'bitVectors', :optional => true}
   }
 
   def struct_fields; FIELDS; end
@@ -866,12 +868,14 @@ class LongColumnStatsData
   HIGHVALUE = 2
   NUMNULLS = 3
   NUMDVS = 4
+  BITVECTORS = 5
 
   FIELDS = {
     LOWVALUE => {:type => ::Thrift::Types::I64, :name => 'lowValue', :optional => true},
     HIGHVALUE => {:type => ::Thrift::Types::I64, :name => 'highValue', :optional => true},
     NUMNULLS => {:type => ::Thrift::Types::I64, :name => 'numNulls'},
-    NUMDVS => {:type => ::Thrift::Types::I64, :name => 'numDVs'}
+    NUMDVS => {:type => ::Thrift::Types::I64, :name => 'numDVs'},
+    BITVECTORS => {:type => ::Thrift::Types::STRING, :name => 'bitVectors', :optional => true}
   }
 
   def struct_fields; FIELDS; end
@@ -890,12 +894,14 @@ class StringColumnStatsData
   AVGCOLLEN = 2
   NUMNULLS = 3
   NUMDVS = 4
+  BITVECTORS = 5
 
   FIELDS = {
     MAXCOLLEN => {:type => ::Thrift::Types::I64, :name => 'maxColLen'},
     AVGCOLLEN => {:type => ::Thrift::Types::DOUBLE, :name => 'avgColLen'},
     NUMNULLS => {:type => ::Thrift::Types::I64, :name => 'numNulls'},
-    NUMDVS => {:type => ::Thrift::Types::I64, :name => 'numDVs'}
+    NUMDVS => {:type => ::Thrift::Types::I64, :name => 'numDVs'},
+    BITVECTORS => {:type => ::Thrift::Types::STRING, :name => 'bitVectors', :optional => true}
   }
 
   def struct_fields; FIELDS; end
@@ -959,12 +965,14 @@ class DecimalColumnStatsData
   HIGHVALUE = 2
   NUMNULLS = 3
   NUMDVS = 4
+  BITVECTORS = 5
 
   FIELDS = {
     LOWVALUE => {:type => ::Thrift::Types::STRUCT, :name => 'lowValue', :class => ::Decimal, :optional => true},
     HIGHVALUE => {:type => ::Thrift::Types::STRUCT, :name => 'highValue', :class => ::Decimal, :optional => true},
     NUMNULLS => {:type => ::Thrift::Types::I64, :name => 'numNulls'},
-    NUMDVS => {:type => ::Thrift::Types::I64, :name => 'numDVs'}
+    NUMDVS => {:type => ::Thrift::Types::I64, :name => 'numDVs'},
+    BITVECTORS => {:type => ::Thrift::Types::STRING, :name => 'bitVectors', :optional => true}
   }
 
   def struct_fields; FIELDS; end
@@ -0,0 +1,498 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.NumDistinctValueBitVectors;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.metastore.api.AggrStats;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.model.MPartitionColumnStatistics;
+
+/**
+ * Per-table cache of partition column statistics, shared by all the ObjectStore-s of the
+ * metastore process. It lets get_aggr_stats_for aggregate the stats of the requested
+ * partitions in memory, instead of running the big aggregation over PART_COL_STATS every
+ * time a query is compiled. The stats are loaded for the partitions and columns of the
+ * requests that are not cached yet, so that only the partitions that queries read are kept.
+ *
+ * ObjectStore updates the cache incrementally after it commits new partition stats, and
+ * invalidates tables for other changes that affect their stats. Changes made by other
+ * metastore instances are picked up when the cached columns expire.
+ */
+public class AggregateStatsCache {
+  private static final Log LOG = LogFactory.getLog(AggregateStatsCache.class);
+
+  private static AggregateStatsCache self = null;
+
+  /**
+   * Max number of partition column stats entries cached, across all tables. Each cached
+   * table counts as one more entry.
+   */
+  private final long maxEntries;
+  /** How long a loaded column stays valid, in ms. */
+  private final long ttlMs;
+
+  private final ConcurrentHashMap<String, TableStats> tables =
+      new ConcurrentHashMap<String, TableStats>();
+  private final AtomicLong entryCount = new AtomicLong();
+  /** Source of the table versions, unique across the tables ever cached. */
+  private final AtomicLong lastVersion = new AtomicLong();
+
+  /**
+   * Stats of a single column of a single partition; the values are in the same order as
+   * the aggregated fields passed to {@link StatObjectConverter#fillColumnStatisticsData}.
+   */
+  static class PartitionColStats {
+    static final int LONG_LOW = 0, LONG_HIGH = 1, DOUBLE_LOW = 2, DOUBLE_HIGH = 3,
+        DECIMAL_LOW = 4, DECIMAL_HIGH = 5, NUM_NULLS = 6, NUM_DVS = 7, AVG_COL_LEN = 8,
+        MAX_COL_LEN = 9, NUM_TRUES = 10, NUM_FALSES = 11, FIELD_COUNT = 12;
+
+    final String colType;
+    final Object[] values;
+    /** Parsed NDV bit vectors, which take much less memory than their string form. */
+    final int[] bitVectors;
+
+    PartitionColStats(String colType, Object[] values, String bitVectors) {
+      this.colType = colType;
+      this.values = values;
+      this.bitVectors = NumDistinctValueBitVectors.parse(bitVectors);
+    }
+
+    static PartitionColStats fromModel(MPartitionColumnStatistics mStats) {
+      Object[] values = new Object[FIELD_COUNT];
+      values[LONG_LOW] = mStats.getLongLowValue();
+      values[LONG_HIGH] = mStats.getLongHighValue();
+      values[DOUBLE_LOW] = mStats.getDoubleLowValue();
+      values[DOUBLE_HIGH] = mStats.getDoubleHighValue();
+      values[DECIMAL_LOW] = mStats.getDecimalLowValue();
+      values[DECIMAL_HIGH] = mStats.getDecimalHighValue();
+      values[NUM_NULLS] = mStats.getNumNulls();
+      values[NUM_DVS] = mStats.getNumDVs();
+      values[AVG_COL_LEN] = mStats.getAvgColLen();
+      values[MAX_COL_LEN] = mStats.getMaxColLen();
+      values[NUM_TRUES] = mStats.getNumTrues();
+      values[NUM_FALSES] = mStats.getNumFalses();
+      return new PartitionColStats(mStats.getColType(), values, mStats.getBitVector());
+    }
+
+    /**
+     * Creates the stats from a direct SQL row with the columns of STATS_COLLIST
+     * in MetaStoreDirectSql, starting at offset.
+     */
+    static PartitionColStats fromSqlRow(Object[] row, int offset) throws MetaException {
+      Object[] values = new Object[FIELD_COUNT];
+      for (int i = 0; i < FIELD_COUNT; ++i) {
+        Object value = row[offset + 2 + i];
+        if (value == null) continue;
+        switch (i) {
+        case DOUBLE_LOW: case DOUBLE_HIGH: case AVG_COL_LEN:
+          values[i] = ((Number)value).doubleValue();
+          break;
+        case DECIMAL_LOW: case DECIMAL_HIGH:
+          values[i] = value.toString();
+          break;
+        default:
+          values[i] = MetaStoreDirectSql.extractSqlLong(value);
+        }
+      }
+      return new PartitionColStats((String)row[offset + 1], values,
+          MetaStoreDirectSql.extractSqlClob(row[offset + 15]));
+    }
+  }
+
+  /** Marks the partitions that were loaded, but don't have stats for a column. */
+  private static final PartitionColStats NO_STATS = new PartitionColStats(null, null, null);
+
+  private static class ColumnStats {
+    private final long loadTime;
+    /** Loaded partition name to stats, or NO_STATS. */
+    private final ConcurrentHashMap<String, PartitionColStats> partitions =
+        new ConcurrentHashMap<String, PartitionColStats>();
+
+    ColumnStats(long loadTime) {
+      this.loadTime = loadTime;
+    }
+  }
+
+  private static class TableStats {
+    /** Changed on every change, so that loads racing with changes are discarded. */
+    private volatile long version;
+    private final ConcurrentHashMap<String, ColumnStats> columns =
+        new ConcurrentHashMap<String, ColumnStats>();
+    /** Set once the table is removed from the cache; guarded by the table. */
+    private boolean isEvicted = false;
+    private volatile long lastAccessTime = System.currentTimeMillis();
+
+    TableStats(long version) {
+      this.version = version;
+    }
+  }
+
+  public static synchronized AggregateStatsCache getInstance(Configuration conf) {
+    if (self == null && HiveConf.getBoolVar(conf, ConfVars.METASTORE_AGGREGATE_STATS_CACHE_ENABLED)) {
+      self = new AggregateStatsCache(
+          HiveConf.getIntVar(conf, ConfVars.METASTORE_AGGREGATE_STATS_CACHE_MAX_ENTRIES),
+          HiveConf.getTimeVar(conf, ConfVars.METASTORE_AGGREGATE_STATS_CACHE_TTL,
+              TimeUnit.MILLISECONDS));
+      LOG.info("Aggregate stats cache enabled, max entries " + self.maxEntries
+          + ", TTL " + self.ttlMs + "ms");
+    }
+    return self;
+  }
+
+  AggregateStatsCache(long maxEntries, long ttlMs) {
+    this.maxEntries = maxEntries;
+    this.ttlMs = ttlMs;
+  }
+
+  private static String getTableKey(String dbName, String tblName) {
+    return dbName.toLowerCase() + "." + tblName.toLowerCase();
+  }
+
+  private TableStats getOrCreateTable(String key) {
+    TableStats table = tables.get(key);
+    if (table == null) {
+      TableStats newTable = new TableStats(lastVersion.incrementAndGet());
+      table = tables.putIfAbsent(key, newTable);
+      if (table == null) {
+        table = newTable;
+        entryCount.incrementAndGet();
+      }
+    }
+    return table;
+  }
+
+  /**
+   * @return Whether the stats of the given number of partitions and columns can be cached.
+   *         Bigger requests should be served by direct SQL, without loading their stats.
+   */
+  public boolean canCache(int partCount, int colCount) {
+    return (long)partCount * colCount < maxEntries;
+  }
+
+  /**
+   * @return the columns from colNames that are not cached, or have expired, for some of the
+   *         partitions of the table.
+   */
+  public List<String> getMissingColumns(String dbName, String tblName, List<String> partNames,
+      List<String> colNames) {
+    TableStats table = tables.get(getTableKey(dbName, tblName));
+    if (table == null) {
+      return colNames;
+    }
+    long now = System.currentTimeMillis();
+    List<String> result = new ArrayList<String>();
+    for (String colName : colNames) {
+      ColumnStats column = table.columns.get(colName);
+      if (column == null || now - column.loadTime > ttlMs
+          || !column.partitions.keySet().containsAll(partNames)) {
+        result.add(colName);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Gets the version to pass to {@link #put}; must be called before reading the stats.
+   */
+  public long getVersion(String dbName, String tblName) {
+    return getOrCreateTable(getTableKey(dbName, tblName)).version;
+  }
+
+  /**
+   * Caches the stats of some columns for some partitions of a table.
+   * @param version Table version from {@link #getVersion} before the stats were read; the
+   *                stats are discarded if the table has changed since then.
+   * @param partNames The partitions that were read. Partitions without any rows for a column
+   *                  are cached as such.
+   * @param colNames The columns that were read.
+   * @param rows Direct SQL rows of partition name, followed by STATS_COLLIST.
+   */
+  public void put(String dbName, String tblName, long version, List<String> partNames,
+      List<String> colNames, List<Object[]> rows) throws MetaException {
+    if (!canCache(partNames.size(), colNames.size())) {
+      LOG.debug("Not caching the stats of " + partNames.size() + " partitions of " + tblName);
+      return;
+    }
+    Map<String, Map<String, PartitionColStats>> byColumn =
+        new HashMap<String, Map<String, PartitionColStats>>();
+    for (String colName : colNames) {
+      Map<String, PartitionColStats> partitions = new HashMap<String, PartitionColStats>();
+      for (String partName : partNames) {
+        partitions.put(partName, NO_STATS);
+      }
+      byColumn.put(colName, partitions);
+    }
+    for (Object[] row : rows) {
+      Map<String, PartitionColStats> partitions = byColumn.get((String)row[1]);
+      if (partitions != null && partitions.containsKey((String)row[0])) {
+        partitions.put((String)row[0], PartitionColStats.fromSqlRow(row, 1));
+      }
+    }
+    String key = getTableKey(dbName, tblName);
+    int size = partNames.size() * colNames.size();
+    makeRoom(size, key);
+    TableStats table = tables.get(key);
+    if (table == null) {
+      return; // Evicted while we were reading the stats.
+    }
+    long now = System.currentTimeMillis();
+    synchronized (table) {
+      if (table.isEvicted || table.version != version) {
+        return; // The stats have changed while we were reading them.
+      }
+      if (entryCount.get() + size > maxEntries) {
+        // The other tables are evicted already; start this one over.
+        for (ColumnStats column : table.columns.values()) {
+          entryCount.addAndGet(-column.partitions.size());
+        }
+        table.columns.clear();
+      }
+      for (Map.Entry<String, Map<String, PartitionColStats>> e : byColumn.entrySet()) {
+        ColumnStats column = table.columns.get(e.getKey());
+        if (column == null || now - column.loadTime > ttlMs) {
+          ColumnStats old = table.columns.put(e.getKey(), column = new ColumnStats(now));
+          if (old != null) {
+            entryCount.addAndGet(-old.partitions.size());
+          }
+        }
+        for (Map.Entry<String, PartitionColStats> part : e.getValue().entrySet()) {
+          if (column.partitions.put(part.getKey(), part.getValue()) == null) {
+            entryCount.incrementAndGet();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Updates the cached stats of a partition column, if the column is cached.
+   * Must be called after the stats have been committed.
+   */
+  public void update(String dbName, String tblName, String partName, String colName,
+      PartitionColStats stats) {
+    TableStats table = tables.get(getTableKey(dbName, tblName));
+    if (table == null) {
+      return;
+    }
+    synchronized (table) {
+      if (table.isEvicted) {
+        return;
+      }
+      table.version = lastVersion.incrementAndGet();
+      ColumnStats column = table.columns.get(colName);
+      if (column != null && column.partitions.put(partName, stats) == null) {
+        entryCount.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Removes all the cached stats of a table. Must be called after changes that affect the
+   * table's partition stats in other ways than {@link #update} have been committed.
+   */
+  public void invalidate(String dbName, String tblName) {
+    // The loads in progress are discarded, since a table cached again gets a new version.
+    String key = getTableKey(dbName, tblName);
+    TableStats table = tables.get(key);
+    if (table != null) {
+      evict(key, table);
+    }
+  }
+
+  private void evict(String key, TableStats table) {
+    synchronized (table) {
+      if (table.isEvicted) {
+        return;
+      }
+      table.isEvicted = true;
+      long size = 1;
+      for (ColumnStats column : table.columns.values()) {
+        size += column.partitions.size();
+      }
+      tables.remove(key, table);
+      entryCount.addAndGet(-size);
+    }
+  }
+
+  /** The number of entries cached, tables included. */
+  long getEntryCount() {
+    return entryCount.get();
+  }
+
+  private void makeRoom(int size, String keepKey) {
+    while (entryCount.get() + size > maxEntries) {
+      // Evict the least recently used table; we expect a modest number of tables.
+      String lruKey = null;
+      TableStats lruTable = null;
+      for (Map.Entry<String, TableStats> e : tables.entrySet()) {
+        if (!e.getKey().equals(keepKey) && (lruTable == null
+            || e.getValue().lastAccessTime < lruTable.lastAccessTime)) {
+          lruKey = e.getKey();
+          lruTable = e.getValue();
+        }
+      }
+      if (lruKey == null) {
+        return;
+      }
+      evict(lruKey, lruTable);
+    }
+  }
+
+  /**
+   * Aggregates the cached stats for the partitions the same way
+   * MetaStoreDirectSql.aggrColStatsForPartitions does.
+   * @return Aggregated stats; null if some of the columns or partitions are not cached, or
+   *         extrapolation is needed for some of them, in which case the caller should use
+   *         direct SQL.
+   */
+  public AggrStats get(String dbName, String tblName, List<String> partNames,
+      List<String> colNames) throws MetaException {
+    TableStats table = tables.get(getTableKey(dbName, tblName));
+    if (table == null) {
+      return null;
+    }
+    long now = System.currentTimeMillis();
+    table.lastAccessTime = now;
+    List<ColumnStats> columns = new ArrayList<ColumnStats>(colNames.size());
+    for (String colName : colNames) {
+      ColumnStats column = table.columns.get(colName);
+      if (column == null || now - column.loadTime > ttlMs) {
+        return null;
+      }
+      columns.add(column);
+    }
+
+    Map<String, Integer> colsFoundPerPart = new HashMap<String, Integer>();
+    List<ColumnStatisticsObj> colStats = new ArrayList<ColumnStatisticsObj>(colNames.size());
+    for (int i = 0; i < colNames.size(); ++i) {
+      ColumnStats column = columns.get(i);
+      List<PartitionColStats> found = new ArrayList<PartitionColStats>(partNames.size());
+      for (String partName : partNames) {
+        PartitionColStats stats = column.partitions.get(partName);
+        if (stats == null) {
+          return null; // Not loaded.
+        }
+        if (stats == NO_STATS) continue;
+        found.add(stats);
+        Integer count = colsFoundPerPart.get(partName);
+        colsFoundPerPart.put(partName, count == null ? 1 : count + 1);
+      }
+      // Same condition as in direct SQL; see LinearExtrapolatePartStatus.
+      if (found.size() != partNames.size() && found.size() >= 2) {
+        return null;
+      }
+      colStats.addAll(aggregate(colNames.get(i), found));
+    }
+    long partsFound = 0;
+    for (Integer count : colsFoundPerPart.values()) {
+      if (count == colNames.size()) {
+        ++partsFound;
+      }
+    }
+    return new AggrStats(colStats, partsFound);
+  }
+
+  /**
+   * Aggregates the stats of one column across partitions. Like the SQL group by, this
+   * produces one object per column type, in case the type was changed.
+   */
+  private static List<ColumnStatisticsObj> aggregate(String colName,
+      List<PartitionColStats> statsList) throws MetaException {
+    Map<String, Object[]> byType = new LinkedHashMap<String, Object[]>();
+    // Merged bit vectors per type; null if some partition doesn't have compatible ones.
+    Map<String, int[]> bitVectorsByType = new HashMap<String, int[]>();
+    for (PartitionColStats stats : statsList) {
+      Object[] agg = byType.get(stats.colType);
+      if (agg == null) {
+        byType.put(stats.colType, stats.values.clone());
+        bitVectorsByType.put(stats.colType,
+            stats.bitVectors == null ? null : stats.bitVectors.clone());
+        continue;
+      }
+      for (int i = 0; i < PartitionColStats.FIELD_COUNT; ++i) {
+        agg[i] = aggregateField(i, agg[i], stats.values[i]);
+      }
+      int[] merged = bitVectorsByType.get(stats.colType);
+      if (merged == null) continue;
+      if (stats.bitVectors == null || stats.bitVectors.length != merged.length) {
+        bitVectorsByType.put(stats.colType, null);
+        continue;
+      }
+      for (int i = 0; i < merged.length; ++i) {
+        merged[i] |= stats.bitVectors[i];
+      }
+    }
+    List<ColumnStatisticsObj> result = new ArrayList<ColumnStatisticsObj>(byType.size());
+    for (Map.Entry<String, Object[]> e : byType.entrySet()) {
+      Object[] v = e.getValue();
+      ColumnStatisticsData data = new ColumnStatisticsData();
+      StatObjectConverter.fillColumnStatisticsData(e.getKey(), data,
+          v[0], v[1], v[2], v[3], v[4], v[5], v[6], v[7], v[8], v[9], v[10], v[11]);
+      int[] bitVectors = bitVectorsByType.get(e.getKey());
+      if (bitVectors != null) {
+        StatObjectConverter.setMergedBitVectors(
+            data, NumDistinctValueBitVectors.serialize(bitVectors));
+      }
+      result.add(new ColumnStatisticsObj(colName, e.getKey(), data));
+    }
+    return result;
+  }
+
+  /** Aggregates two values of a field; nulls are ignored, like in SQL aggregates. */
+  private static Object aggregateField(int field, Object a, Object b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    switch (field) {
+    case PartitionColStats.LONG_LOW:
+      return Math.min((Long)a, (Long)b);
+    case PartitionColStats.DOUBLE_LOW:
+      return Math.min((Double)a, (Double)b);
+    case PartitionColStats.DECIMAL_LOW:
+      return new BigDecimal((String)a).compareTo(new BigDecimal((String)b)) <= 0 ? a : b;
+    case PartitionColStats.DECIMAL_HIGH:
+      return new BigDecimal((String)a).compareTo(new BigDecimal((String)b)) >= 0 ? a : b;
+    case PartitionColStats.NUM_NULLS:
+    case PartitionColStats.NUM_TRUES:
+    case PartitionColStats.NUM_FALSES:
+      return (Long)a + (Long)b;
+    case PartitionColStats.DOUBLE_HIGH:
+    case PartitionColStats.AVG_COL_LEN:
+      return Math.max((Double)a, (Double)b);
+    default: // LONG_HIGH, NUM_DVS, MAX_COL_LEN
+      return Math.max((Long)a, (Long)b);
+    }
+  }
+}
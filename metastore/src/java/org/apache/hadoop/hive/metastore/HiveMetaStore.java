@@ -29,6 +29,7 @@
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Formatter;
 import java.util.HashMap;
@@ -429,6 +430,7 @@ public HiveConf getHiveConf() {
     private List<MetaStoreEndFunctionListener> endFunctionListeners;
     private List<MetaStoreInitListener> initListeners;
     private Pattern partitionValidationPattern;
+    private long slowCallLogThresholdMs;
 
     {
       classLoader = Thread.currentThread().getContextClassLoader();
@@ -463,6 +465,9 @@ public void init() throws MetaException {
         }
       }
 
+      slowCallLogThresholdMs = hiveConf.getTimeVar(
+          ConfVars.METASTORE_SLOW_CALL_LOG_THRESHOLD, TimeUnit.MILLISECONDS);
+
       if (hiveConf.getBoolean("hive.metastore.metrics.enabled", false)) {
         try {
           Metrics.init();
@@ -755,6 +760,9 @@ private String startFunction(String function, String extraLogInfo) {
         LOG.debug("Exception when starting metrics scope"
             + e.getClass().getName() + " " + e.getMessage(), e);
       }
+      if (slowCallLogThresholdMs > 0) {
+        MetaStoreCallTrace.start(function);
+      }
       return function;
     }
 
@@ -790,12 +798,26 @@ private void endFunction(String function, boolean successful, Exception e,
       endFunction(function, new MetaStoreEndFunctionContext(successful, e, inputTableName));
     }
 
+    /**
+     * Ends the function, also tracking the number of objects it returned.
+     */
+    private void endFunction(String function, boolean successful, Exception e,
+        String inputTableName, Collection<?> result) {
+      if (result != null) {
+        Metrics.updateHistogram(function + ".result_size", result.size());
+      }
+      endFunction(function, successful, e, inputTableName);
+    }
+
     private void endFunction(String function, MetaStoreEndFunctionContext context) {
       try {
         Metrics.endScope(function);
       } catch (IOException e) {
         LOG.debug("Exception when closing metrics scope" + e);
       }
+      if (slowCallLogThresholdMs > 0) {
+        MetaStoreCallTrace.end(function, slowCallLogThresholdMs);
+      }
 
       for (MetaStoreEndFunctionListener listener : endFunctionListeners) {
         listener.onEndFunction(function, context);
@@ -966,7 +988,7 @@ public Database get_database_core(final String name) throws NoSuchObjectExceptio
     @Override
     public void alter_database(final String dbName, final Database db)
         throws NoSuchObjectException, TException, MetaException {
-      startFunction("alter_database" + dbName);
+      startFunction("alter_database", ": " + dbName);
       boolean success = false;
       Exception ex = null;
       try {
@@ -1832,7 +1854,7 @@ public List<Table> get_table_objects_by_name(final String dbname, final List<Str
           throw newMetaException(e);
         }
       } finally {
-        endFunction("get_multi_table", tables != null, ex, join(names, ","));
+        endFunction("get_multi_table", tables != null, ex, join(names, ","), tables);
       }
       return tables;
     }
@@ -2926,7 +2948,7 @@ public List<Partition> get_partitions(final String db_name, final String tbl_nam
           throw newMetaException(e);
         }
       } finally {
-        endFunction("get_partitions", ret != null, ex, tbl_name);
+        endFunction("get_partitions", ret != null, ex, tbl_name, ret);
       }
       return ret;
 
@@ -2951,7 +2973,7 @@ public List<Partition> get_partitions_with_auth(final String dbName,
         ex = e;
         rethrowException(e);
       } finally {
-        endFunction("get_partitions_with_auth", ret != null, ex, tblName);
+        endFunction("get_partitions_with_auth", ret != null, ex, tblName, ret);
       }
       return ret;
 
@@ -3129,7 +3151,7 @@ public List<String> get_partition_names(final String db_name, final String tbl_n
           throw newMetaException(e);
         }
       } finally {
-        endFunction("get_partition_names", ret != null, ex, tbl_name);
+        endFunction("get_partition_names", ret != null, ex, tbl_name, ret);
       }
       return ret;
     }
@@ -3818,7 +3840,7 @@ public List<Partition> get_partitions_ps(final String db_name,
         ex = e;
         rethrowException(e);
       } finally {
-        endFunction("get_partitions_ps", ret != null, ex, tbl_name);
+        endFunction("get_partitions_ps", ret != null, ex, tbl_name, ret);
       }
 
       return ret;
@@ -3844,7 +3866,7 @@ public List<Partition> get_partitions_ps_with_auth(final String db_name,
         ex = e;
         rethrowException(e);
       } finally {
-        endFunction("get_partitions_ps_with_auth", ret != null, ex, tbl_name);
+        endFunction("get_partitions_ps_with_auth", ret != null, ex, tbl_name, ret);
       }
       return ret;
     }
@@ -3863,7 +3885,7 @@ public List<String> get_partition_names_ps(final String db_name,
         ex = e;
         rethrowException(e);
       } finally {
-        endFunction("get_partitions_names_ps", ret != null, ex, tbl_name);
+        endFunction("get_partitions_names_ps", ret != null, ex, tbl_name, ret);
       }
       return ret;
     }
@@ -4412,7 +4434,7 @@ public List<Partition> get_partitions_by_filter(final String dbName,
         ex = e;
         rethrowException(e);
       } finally {
-        endFunction("get_partitions_by_filter", ret != null, ex, tblName);
+        endFunction("get_partitions_by_filter", ret != null, ex, tblName, ret);
       }
       return ret;
     }
@@ -4465,7 +4487,8 @@ public PartitionsByExprResult get_partitions_by_expr(
         ex = e;
         rethrowException(e);
       } finally {
-        endFunction("get_partitions_by_expr", ret != null, ex, tblName);
+        endFunction("get_partitions_by_expr", ret != null, ex, tblName,
+            ret == null ? null : ret.getPartitions());
       }
       return ret;
     }
@@ -4499,7 +4522,7 @@ public List<Partition> get_partitions_by_names(final String dbName,
         ex = e;
         rethrowException(e);
       } finally {
-        endFunction("get_partitions_by_names", ret != null, ex, tblName);
+        endFunction("get_partitions_by_names", ret != null, ex, tblName, ret);
       }
       return ret;
     }
@@ -362,6 +362,14 @@ public void renamePartition(final String dbname, final String name, final List<S
 
   private void open() throws MetaException {
     isConnected = false;
+    if (conf.getBoolVar(ConfVars.METASTORE_CLIENT_POOL_ENABLED)) {
+      // Connections are opened by the pool when needed, and never owned by this client.
+      client = MetaStoreClientPool.getInstance(conf).getClient(conf);
+      transport = null;
+      isConnected = true;
+      snapshotActiveConf();
+      return;
+    }
     TTransportException tte = null;
     boolean useSasl = conf.getBoolVar(ConfVars.METASTORE_USE_THRIFT_SASL);
     boolean useFramedTransport = conf.getBoolVar(ConfVars.METASTORE_USE_THRIFT_FRAMED_TRANSPORT);
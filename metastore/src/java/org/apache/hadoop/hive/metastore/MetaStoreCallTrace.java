@@ -0,0 +1,106 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Traces the steps of the metastore calls running on the current thread (e.g. which
+ * ObjectStore paths ran, using direct SQL or the ORM, and how long they took), so that the
+ * calls slower than hive.metastore.slow.call.log.threshold can be logged with a breakdown.
+ * Nothing is recorded unless a call was started with tracing enabled.
+ */
+class MetaStoreCallTrace {
+  private static final Log LOG = LogFactory.getLog(MetaStoreCallTrace.class);
+
+  private static class Call {
+    final String function;
+    final long startNanos = System.nanoTime();
+    StringBuilder steps = null;
+
+    Call(String function) {
+      this.function = function;
+    }
+  }
+
+  private static final ThreadLocal<Deque<Call>> calls = new ThreadLocal<Deque<Call>>() {
+    @Override
+    protected Deque<Call> initialValue() {
+      return new ArrayDeque<Call>();
+    }
+  };
+
+  private MetaStoreCallTrace() {
+  }
+
+  static void start(String function) {
+    calls.get().push(new Call(function));
+  }
+
+  static boolean isTracing() {
+    return !calls.get().isEmpty();
+  }
+
+  /**
+   * Records a step of the innermost call being traced on this thread, if any. Steps that
+   * took less than a millisecond (e.g. opening a transaction) are not worth reporting.
+   */
+  static void addStep(String step, long startNanos) {
+    Deque<Call> stack = calls.get();
+    if (stack.isEmpty()) {
+      return;
+    }
+    long elapsedMs = (System.nanoTime() - startNanos) / 1000000;
+    if (elapsedMs == 0) {
+      return;
+    }
+    Call call = stack.peek();
+    if (call.steps == null) {
+      call.steps = new StringBuilder();
+    } else {
+      call.steps.append("; ");
+    }
+    call.steps.append(step).append(" in ").append(elapsedMs).append("ms");
+  }
+
+  /**
+   * Ends the innermost call being traced on this thread, and logs it if it was slow.
+   */
+  static void end(String function, long thresholdMs) {
+    Deque<Call> stack = calls.get();
+    if (stack.isEmpty()) {
+      return;
+    }
+    Call call = stack.pop();
+    if (!call.function.equals(function)) {
+      // Unbalanced start/end, e.g. after an exception in startFunction; don't misreport.
+      stack.clear();
+      return;
+    }
+    long elapsedMs = (System.nanoTime() - call.startNanos) / 1000000;
+    if (elapsedMs >= thresholdMs) {
+      LOG.warn("Slow metastore call " + function + " took " + elapsedMs + "ms"
+          + (call.steps == null ? "" : ": " + call.steps));
+    }
+  }
+}
@@ -0,0 +1,295 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.security.PrivilegedExceptionAction;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.login.LoginException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.metastore.api.MetaException;
+import org.apache.hadoop.hive.metastore.api.ThriftHiveMetastore;
+import org.apache.hadoop.hive.shims.Utils;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TProtocolException;
+import org.apache.thrift.transport.TTransportException;
+
+/**
+ * A bounded pool of thrift connections to a remote metastore, shared by all the
+ * HiveMetaStoreClient instances of the process (e.g. the sessions of HiveServer2) when
+ * hive.metastore.client.pool.enabled is set. Instead of holding a connection for its whole
+ * life, a pooled client borrows one for each call.
+ *
+ * A connection is opened as the user that got the client, and is only reused by the same
+ * user, with the same metastore URIs and delegation token signature, so the identity
+ * established when it was opened (set_ugi or SASL) still applies. Connections that were idle
+ * for longer than the validation interval are checked before being reused, and connections
+ * that failed with a transport or protocol error are discarded. When the pool is full, the
+ * least recently used idle connection is closed to make room; if there is none, callers wait
+ * until a connection is released.
+ */
+class MetaStoreClientPool {
+  private static final Log LOG = LogFactory.getLog(MetaStoreClientPool.class);
+
+  private static MetaStoreClientPool instance = null;
+
+  private final int maxConnections;
+  private final long validationIntervalMs;
+  private final long borrowTimeoutMs;
+
+  /** Idle connections, least recently used first. */
+  private final LinkedList<Connection> idle = new LinkedList<Connection>();
+  /** Number of open connections, idle or in use, including the ones being opened. */
+  private int openCount = 0;
+
+  private static class Connection {
+    final String key;
+    final HiveMetaStoreClient msc;
+    long lastUsed = System.currentTimeMillis();
+
+    Connection(String key, HiveMetaStoreClient msc) {
+      this.key = key;
+      this.msc = msc;
+    }
+  }
+
+  private MetaStoreClientPool(HiveConf conf) {
+    maxConnections = Math.max(1, conf.getIntVar(ConfVars.METASTORE_CLIENT_POOL_MAX_CONNECTIONS));
+    validationIntervalMs = conf.getTimeVar(
+        ConfVars.METASTORE_CLIENT_POOL_VALIDATION_INTERVAL, TimeUnit.MILLISECONDS);
+    borrowTimeoutMs = conf.getTimeVar(
+        ConfVars.METASTORE_CLIENT_SOCKET_TIMEOUT, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * The pool is sized by the configuration of the first client that uses it.
+   */
+  static synchronized MetaStoreClientPool getInstance(HiveConf conf) {
+    if (instance == null) {
+      instance = new MetaStoreClientPool(conf);
+      LOG.info("Created metastore client pool with at most " + instance.maxConnections
+          + " connections");
+    }
+    return instance;
+  }
+
+  /**
+   * @return A thrift client for the current user that borrows a pooled connection for each
+   *         call. Closing it does not close the pooled connections.
+   */
+  ThriftHiveMetastore.Iface getClient(HiveConf conf) throws MetaException {
+    UserGroupInformation ugi;
+    try {
+      ugi = Utils.getUGI();
+    } catch (LoginException e) {
+      throw new MetaException("Unable to get the current user: " + e.getMessage());
+    } catch (IOException e) {
+      throw new MetaException("Unable to get the current user: " + e.getMessage());
+    }
+    // The string form includes the real user and authentication method of proxy users.
+    String key = ugi.toString() + "|" + conf.getVar(ConfVars.METASTOREURIS) + "|"
+        + conf.get("hive.metastore.token.signature", "");
+    return (ThriftHiveMetastore.Iface) Proxy.newProxyInstance(
+        MetaStoreClientPool.class.getClassLoader(),
+        new Class<?>[] { ThriftHiveMetastore.Iface.class }, new PooledClient(key, ugi, conf));
+  }
+
+  private class PooledClient implements InvocationHandler {
+    private final String key;
+    private final UserGroupInformation ugi;
+    private final HiveConf conf;
+
+    PooledClient(String key, UserGroupInformation ugi, HiveConf conf) {
+      this.key = key;
+      this.ugi = ugi;
+      this.conf = conf;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      String name = method.getName();
+      if (name.equals("shutdown")) {
+        return null; // the pooled connections outlive the clients
+      } else if (name.equals("setMetaConf")) {
+        throw new MetaException("Setting metastore configuration for a session is not "
+            + "supported when hive.metastore.client.pool.enabled is set");
+      }
+      Connection conn = borrow(key, ugi, conf);
+      boolean isBroken = true;
+      try {
+        Object ret = method.invoke(conn.msc.client, args);
+        isBroken = false;
+        return ret;
+      } catch (UndeclaredThrowableException e) {
+        throw e.getCause();
+      } catch (InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        // Other exceptions are thrown by the server, the connection is fine.
+        isBroken = !(cause instanceof TException) || (cause instanceof TTransportException)
+            || (cause instanceof TProtocolException);
+        throw cause;
+      } finally {
+        release(conn, isBroken);
+      }
+    }
+  }
+
+  private Connection borrow(String key, UserGroupInformation ugi, HiveConf conf)
+      throws MetaException {
+    while (true) {
+      Connection conn = null, evicted = null;
+      synchronized (this) {
+        long deadline = System.currentTimeMillis() + borrowTimeoutMs;
+        while (conn == null) {
+          conn = takeIdle(key);
+          if (conn != null) {
+            break;
+          }
+          if (openCount < maxConnections) {
+            ++openCount;
+            break;
+          }
+          if (!idle.isEmpty()) {
+            // make room by closing the connection of another user that was idle the longest
+            evicted = idle.removeFirst();
+            break;
+          }
+          long timeout = deadline - System.currentTimeMillis();
+          if (timeout <= 0) {
+            throw new MetaException("Timed out waiting for a metastore connection; all "
+                + maxConnections + " pooled connections are in use");
+          }
+          try {
+            wait(timeout);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MetaException("Interrupted waiting for a metastore connection");
+          }
+        }
+      }
+      if (evicted != null) {
+        evicted.msc.close();
+      }
+      if (conn == null) {
+        return open(key, ugi, conf);
+      }
+      if (isValid(conn)) {
+        return conn;
+      }
+      release(conn, true);
+    }
+  }
+
+  private Connection takeIdle(String key) {
+    Iterator<Connection> it = idle.descendingIterator();
+    while (it.hasNext()) {
+      Connection conn = it.next();
+      if (conn.key.equals(key)) {
+        it.remove();
+        return conn;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Opens a connection as the user of the key, whatever the user of the calling thread is,
+   * so that set_ugi and SASL authenticate the user the connection is pooled for.
+   */
+  private Connection open(String key, UserGroupInformation ugi, HiveConf conf)
+      throws MetaException {
+    boolean success = false;
+    try {
+      final HiveConf connConf = new HiveConf(conf);
+      connConf.setBoolVar(ConfVars.METASTORE_CLIENT_POOL_ENABLED, false);
+      HiveMetaStoreClient msc;
+      try {
+        msc = ugi.doAs(new PrivilegedExceptionAction<HiveMetaStoreClient>() {
+          @Override
+          public HiveMetaStoreClient run() throws MetaException {
+            return new HiveMetaStoreClient(connConf);
+          }
+        });
+      } catch (IOException e) {
+        throw new MetaException("Unable to open a metastore connection as " + ugi + ": "
+            + e.getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MetaException("Interrupted opening a metastore connection");
+      } catch (UndeclaredThrowableException e) {
+        // doAs wraps the checked exceptions of the action
+        if (e.getCause() instanceof MetaException) {
+          throw (MetaException) e.getCause();
+        }
+        throw e;
+      }
+      Connection conn = new Connection(key, msc);
+      success = true;
+      return conn;
+    } finally {
+      if (!success) {
+        synchronized (this) {
+          --openCount;
+          notify();
+        }
+      }
+    }
+  }
+
+  private boolean isValid(Connection conn) {
+    if (System.currentTimeMillis() - conn.lastUsed < validationIntervalMs) {
+      return true;
+    }
+    try {
+      conn.msc.client.getStatus();
+      return true;
+    } catch (TException e) {
+      LOG.info("Discarding pooled metastore connection that failed validation: " + e);
+      return false;
+    }
+  }
+
+  private void release(Connection conn, boolean isBroken) {
+    if (isBroken) {
+      conn.msc.close();
+    }
+    synchronized (this) {
+      if (isBroken) {
+        --openCount;
+      } else {
+        conn.lastUsed = System.currentTimeMillis();
+        idle.addLast(conn);
+      }
+      notify();
+    }
+  }
+}
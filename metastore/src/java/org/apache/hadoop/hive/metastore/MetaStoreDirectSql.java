@@ -21,16 +21,25 @@
 import static org.apache.commons.lang.StringUtils.join;
 import static org.apache.commons.lang.StringUtils.repeat;
 
+import java.sql.Clob;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Types;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.Query;
@@ -41,6 +50,7 @@
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.common.NumDistinctValueBitVectors;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
 import org.apache.hadoop.hive.metastore.api.AggrStats;
@@ -58,8 +68,12 @@
 import org.apache.hadoop.hive.metastore.api.SkewedInfo;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.model.MColumnDescriptor;
 import org.apache.hadoop.hive.metastore.model.MDatabase;
+import org.apache.hadoop.hive.metastore.model.MPartition;
 import org.apache.hadoop.hive.metastore.model.MPartitionColumnStatistics;
+import org.apache.hadoop.hive.metastore.model.MSerDeInfo;
+import org.apache.hadoop.hive.metastore.model.MStorageDescriptor;
 import org.apache.hadoop.hive.metastore.model.MTableColumnStatistics;
 import org.apache.hadoop.hive.metastore.parser.ExpressionTree;
 import org.apache.hadoop.hive.metastore.parser.ExpressionTree.FilterBuilder;
@@ -93,6 +107,12 @@ private static enum DB {
 
   private static final int NO_BATCHING = -1, DETECT_BATCHING = 0;
 
+  /**
+   * Limits for the statements produced by the SQL write paths. MSSQL allows at most 1000
+   * rows in a values list and ~2100 parameters; Oracle allows at most 1000 items in "in".
+   */
+  private static final int MAX_ROWS_PER_STATEMENT = 1000, MAX_PARAMS_PER_STATEMENT = 2000;
+
   private static final Log LOG = LogFactory.getLog(MetaStoreDirectSql.class);
   private final PersistenceManager pm;
   /**
@@ -766,6 +786,575 @@ public void apply(SerDeInfo t, Object[] fields) {
     return orderedResult;
   }
 
+  /**
+   * Adds partitions of a single table using multi-row inserts, instead of having DN insert
+   * each partition, SD, serde, column and parameter as a separate object.
+   * Partitions whose columns are the same as the table's reuse the table column descriptor;
+   * the others share one new column descriptor per distinct column list.
+   * The writes are done within the current transaction; on failure, they are rolled back to
+   * a savepoint so that the caller can still fall back to DN in the same transaction.
+   * @param dbName Metastore db name.
+   * @param tblName Metastore table name.
+   * @param parts Partitions to add. Must all belong to the table.
+   * @param partNames Partition names, in the same order as parts.
+   * @return Whether the partitions were added; false if they cannot be written via SQL
+   *         (e.g. partitions with skewed info, or of a view), and DN should be used instead.
+   */
+  public boolean addPartitions(String dbName, String tblName, List<Partition> parts,
+      List<String> partNames) throws MetaException {
+    if (parts.isEmpty()) {
+      return true;
+    }
+    for (Partition part : parts) {
+      if (!canWriteViaSql(part)) {
+        return false;
+      }
+    }
+    boolean doTrace = LOG.isDebugEnabled();
+    long start = doTrace ? System.nanoTime() : 0;
+    dbName = dbName.toLowerCase();
+    tblName = tblName.toLowerCase();
+
+    doDbSpecificInitializationsBeforeQuery();
+    JDOConnection jdoConn = pm.getDataStoreConnection();
+    Connection conn = (Connection)jdoConn.getNativeConnection();
+    Savepoint savepoint = null;
+    try {
+      List<Object[]> tblRows = executeSql(conn, "select \"TBLS\".\"TBL_ID\", \"SDS\".\"CD_ID\""
+          + " from \"TBLS\" inner join \"DBS\" on \"TBLS\".\"DB_ID\" = \"DBS\".\"DB_ID\""
+          + "  left outer join \"SDS\" on \"TBLS\".\"SD_ID\" = \"SDS\".\"SD_ID\""
+          + " where \"TBLS\".\"TBL_NAME\" = ? and \"DBS\".\"NAME\" = ?", tblName, dbName);
+      if (tblRows.isEmpty()) {
+        return false; // Let DN produce the appropriate error.
+      }
+      long tblId = extractSqlLong(tblRows.get(0)[0]);
+      Long tblCdId = extractSqlLong(tblRows.get(0)[1]);
+
+      // Figure out the column descriptors; partitions with the same columns share one.
+      Map<List<FieldSchema>, Long> cdIds = new HashMap<List<FieldSchema>, Long>();
+      if (tblCdId != null) {
+        List<FieldSchema> tblCols = getColumnsForCds(conn, Arrays.asList(tblCdId)).get(tblCdId);
+        cdIds.put(tblCols == null ? new ArrayList<FieldSchema>() : tblCols, tblCdId);
+      }
+      List<List<FieldSchema>> newCds = new ArrayList<List<FieldSchema>>();
+      for (Partition part : parts) {
+        if (!cdIds.containsKey(part.getSd().getCols())) {
+          cdIds.put(part.getSd().getCols(), null);
+          newCds.add(part.getSd().getCols());
+        }
+      }
+
+      long cdId = newCds.isEmpty() ? 0 : allocateIds(MColumnDescriptor.class, newCds.size());
+      long partId = allocateIds(MPartition.class, parts.size());
+      long sdId = allocateIds(MStorageDescriptor.class, parts.size());
+      long serdeId = allocateIds(MSerDeInfo.class, parts.size());
+
+      InsertBatch cdsInsert = new InsertBatch("CDS", "CD_ID");
+      InsertBatch colsInsert = new InsertBatch(
+          "COLUMNS_V2", "CD_ID", "COMMENT", "COLUMN_NAME", "TYPE_NAME", "INTEGER_IDX");
+      for (List<FieldSchema> cols : newCds) {
+        cdIds.put(cols, cdId);
+        cdsInsert.add(cdId);
+        for (int i = 0; i < cols.size(); ++i) {
+          FieldSchema col = cols.get(i);
+          colsInsert.add(cdId, col.getComment(), col.getName(), col.getType(), i);
+        }
+        ++cdId;
+      }
+
+      InsertBatch serdesInsert = new InsertBatch("SERDES", "SERDE_ID", "NAME", "SLIB");
+      InsertBatch serdeParamsInsert = new InsertBatch(
+          "SERDE_PARAMS", "SERDE_ID", "PARAM_KEY", "PARAM_VALUE");
+      InsertBatch sdsInsert = new InsertBatch("SDS", "SD_ID", "CD_ID", "INPUT_FORMAT",
+          "IS_COMPRESSED", "IS_STOREDASSUBDIRECTORIES", "LOCATION", "NUM_BUCKETS",
+          "OUTPUT_FORMAT", "SERDE_ID");
+      InsertBatch sdParamsInsert = new InsertBatch(
+          "SD_PARAMS", "SD_ID", "PARAM_KEY", "PARAM_VALUE");
+      InsertBatch bucketColsInsert = new InsertBatch(
+          "BUCKETING_COLS", "SD_ID", "BUCKET_COL_NAME", "INTEGER_IDX");
+      InsertBatch sortColsInsert = new InsertBatch(
+          "SORT_COLS", "SD_ID", "COLUMN_NAME", "ORDER", "INTEGER_IDX");
+      InsertBatch partsInsert = new InsertBatch("PARTITIONS", "PART_ID", "CREATE_TIME",
+          "LAST_ACCESS_TIME", "PART_NAME", "SD_ID", "TBL_ID");
+      InsertBatch partParamsInsert = new InsertBatch(
+          "PARTITION_PARAMS", "PART_ID", "PARAM_KEY", "PARAM_VALUE");
+      InsertBatch partValsInsert = new InsertBatch(
+          "PARTITION_KEY_VALS", "PART_ID", "PART_KEY_VAL", "INTEGER_IDX");
+      for (int i = 0; i < parts.size(); ++i, ++partId, ++sdId, ++serdeId) {
+        Partition part = parts.get(i);
+        StorageDescriptor sd = part.getSd();
+        SerDeInfo serde = sd.getSerdeInfo();
+        serdesInsert.add(serdeId, serde.getName(), serde.getSerializationLib());
+        addParams(serdeParamsInsert, serdeId, serde.getParameters());
+        sdsInsert.add(sdId, cdIds.get(sd.getCols()), sd.getInputFormat(), sd.isCompressed(),
+            sd.isStoredAsSubDirectories(), sd.getLocation(), sd.getNumBuckets(),
+            sd.getOutputFormat(), serdeId);
+        addSdCollections(sdId, sd, sdParamsInsert, bucketColsInsert, sortColsInsert);
+        partsInsert.add(partId, part.getCreateTime(), part.getLastAccessTime(),
+            partNames.get(i), sdId, tblId);
+        addParams(partParamsInsert, partId, part.getParameters());
+        List<String> values = part.getValues();
+        for (int j = 0; j < values.size(); ++j) {
+          partValsInsert.add(partId, values.get(j), j);
+        }
+      }
+
+      savepoint = conn.setSavepoint();
+      // The order is dictated by foreign keys.
+      for (InsertBatch batch : Arrays.asList(cdsInsert, colsInsert, serdesInsert,
+          serdeParamsInsert, sdsInsert, sdParamsInsert, bucketColsInsert, sortColsInsert,
+          partsInsert, partParamsInsert, partValsInsert)) {
+        batch.execute(conn);
+        Deadline.checkTimeout();
+      }
+      releaseSavepoint(conn, savepoint);
+      savepoint = null;
+    } catch (SQLException ex) {
+      throw new MetaException("Failed to add partitions via SQL: " + ex.getMessage());
+    } finally {
+      rollbackToSavepoint(conn, savepoint);
+      jdoConn.close(); // We must release the connection before we call other pm methods.
+    }
+    if (doTrace) {
+      LOG.debug("Added " + parts.size() + " partitions via SQL in "
+          + (System.nanoTime() - start) / 1000000.0 + "ms");
+    }
+    return true;
+  }
+
+  /**
+   * Alters partitions of a single table using batched updates and multi-row inserts for
+   * the collection fields. Only handles in-place alterations - the partition values and the
+   * columns must stay the same - which is what e.g. stats updates and dynamic partition
+   * loads do; everything else is left to DN.
+   * The writes are done within the current transaction; see {@link #addPartitions}.
+   * @param dbName Metastore db name.
+   * @param tblName Metastore table name.
+   * @param partNames Names of the existing partitions to alter.
+   * @param newParts New partition objects, in the same order as partNames.
+   * @return Whether the partitions were altered; false if DN should be used instead.
+   */
+  public boolean alterPartitions(String dbName, String tblName, List<String> partNames,
+      List<Partition> newParts) throws MetaException {
+    if (newParts.isEmpty()) {
+      return true;
+    }
+    for (Partition part : newParts) {
+      if (!canWriteViaSql(part)) {
+        return false;
+      }
+    }
+    boolean doTrace = LOG.isDebugEnabled();
+    long start = doTrace ? System.nanoTime() : 0;
+    dbName = dbName.toLowerCase();
+    tblName = tblName.toLowerCase();
+
+    doDbSpecificInitializationsBeforeQuery();
+    JDOConnection jdoConn = pm.getDataStoreConnection();
+    Connection conn = (Connection)jdoConn.getNativeConnection();
+    Savepoint savepoint = null;
+    try {
+      // Get the IDs of the existing partitions and their SDs.
+      Map<String, Object[]> idsByName = new HashMap<String, Object[]>();
+      for (List<String> names : batches(partNames)) {
+        Object[] params = new Object[names.size() + 2];
+        params[0] = tblName;
+        params[1] = dbName;
+        for (int i = 0; i < names.size(); ++i) {
+          params[i + 2] = names.get(i);
+        }
+        List<Object[]> rows = executeSql(conn, "select \"PARTITIONS\".\"PART_NAME\","
+            + " \"PARTITIONS\".\"PART_ID\", \"SDS\".\"SD_ID\", \"SDS\".\"SERDE_ID\","
+            + " \"SDS\".\"CD_ID\" from \"PARTITIONS\""
+            + "  inner join \"TBLS\" on \"PARTITIONS\".\"TBL_ID\" = \"TBLS\".\"TBL_ID\""
+            + "    and \"TBLS\".\"TBL_NAME\" = ?"
+            + "  inner join \"DBS\" on \"TBLS\".\"DB_ID\" = \"DBS\".\"DB_ID\""
+            + "    and \"DBS\".\"NAME\" = ?"
+            + "  left outer join \"SDS\" on \"PARTITIONS\".\"SD_ID\" = \"SDS\".\"SD_ID\""
+            + " where \"PARTITIONS\".\"PART_NAME\" in (" + makeParams(names.size()) + ")",
+            params);
+        for (Object[] row : rows) {
+          if (row[2] == null || row[3] == null || row[4] == null) {
+            return false; // Probably a view.
+          }
+          idsByName.put((String)row[0], row);
+        }
+      }
+      List<Long> sdIds = new ArrayList<Long>(partNames.size());
+      List<Long> cdIds = new ArrayList<Long>();
+      for (String partName : partNames) {
+        Object[] ids = idsByName.get(partName);
+        if (ids == null) {
+          return false; // Let DN produce the appropriate error.
+        }
+        sdIds.add(extractSqlLong(ids[2]));
+        cdIds.add(extractSqlLong(ids[4]));
+      }
+
+      // Skewed info and column changes are rare and involved; leave them to DN.
+      for (List<Long> ids : batches(sdIds)) {
+        String inList = join(ids, ",");
+        List<Object[]> rows = executeSql(conn, "select count(*) from \"SKEWED_COL_NAMES\""
+            + " where \"SD_ID\" in (" + inList + ")");
+        if (extractSqlLong(rows.get(0)[0]) > 0) {
+          return false;
+        }
+      }
+      Map<Long, List<FieldSchema>> colss = getColumnsForCds(conn, cdIds);
+      for (int i = 0; i < newParts.size(); ++i) {
+        List<FieldSchema> oldCols = colss.get(cdIds.get(i));
+        if (oldCols == null) {
+          oldCols = new ArrayList<FieldSchema>();
+        }
+        if (!oldCols.equals(newParts.get(i).getSd().getCols())) {
+          return false;
+        }
+      }
+
+      List<Object[]> partUpdates = new ArrayList<Object[]>(newParts.size());
+      List<Object[]> sdUpdates = new ArrayList<Object[]>(newParts.size());
+      List<Object[]> serdeUpdates = new ArrayList<Object[]>(newParts.size());
+      List<Long> partIds = new ArrayList<Long>(newParts.size());
+      List<Long> serdeIds = new ArrayList<Long>(newParts.size());
+      InsertBatch partParamsInsert = new InsertBatch(
+          "PARTITION_PARAMS", "PART_ID", "PARAM_KEY", "PARAM_VALUE");
+      InsertBatch sdParamsInsert = new InsertBatch(
+          "SD_PARAMS", "SD_ID", "PARAM_KEY", "PARAM_VALUE");
+      InsertBatch bucketColsInsert = new InsertBatch(
+          "BUCKETING_COLS", "SD_ID", "BUCKET_COL_NAME", "INTEGER_IDX");
+      InsertBatch sortColsInsert = new InsertBatch(
+          "SORT_COLS", "SD_ID", "COLUMN_NAME", "ORDER", "INTEGER_IDX");
+      InsertBatch serdeParamsInsert = new InsertBatch(
+          "SERDE_PARAMS", "SERDE_ID", "PARAM_KEY", "PARAM_VALUE");
+      for (int i = 0; i < newParts.size(); ++i) {
+        Partition part = newParts.get(i);
+        Object[] ids = idsByName.get(partNames.get(i));
+        long partId = extractSqlLong(ids[1]), sdId = extractSqlLong(ids[2]),
+            serdeId = extractSqlLong(ids[3]);
+        partIds.add(partId);
+        serdeIds.add(serdeId);
+        StorageDescriptor sd = part.getSd();
+        SerDeInfo serde = sd.getSerdeInfo();
+        partUpdates.add(new Object[] {
+            part.getCreateTime(), part.getLastAccessTime(), partId });
+        addParams(partParamsInsert, partId, part.getParameters());
+        sdUpdates.add(new Object[] { sd.getInputFormat(), sd.isCompressed(),
+            sd.isStoredAsSubDirectories(), sd.getLocation(), sd.getNumBuckets(),
+            sd.getOutputFormat(), sdId });
+        addSdCollections(sdId, sd, sdParamsInsert, bucketColsInsert, sortColsInsert);
+        serdeUpdates.add(new Object[] { serde.getName(), serde.getSerializationLib(), serdeId });
+        addParams(serdeParamsInsert, serdeId, serde.getParameters());
+      }
+
+      savepoint = conn.setSavepoint();
+      executeBatchUpdate(conn, "update \"PARTITIONS\" set \"CREATE_TIME\" = ?,"
+          + " \"LAST_ACCESS_TIME\" = ? where \"PART_ID\" = ?", partUpdates);
+      executeBatchUpdate(conn, "update \"SDS\" set \"INPUT_FORMAT\" = ?, \"IS_COMPRESSED\" = ?,"
+          + " \"IS_STOREDASSUBDIRECTORIES\" = ?, \"LOCATION\" = ?, \"NUM_BUCKETS\" = ?,"
+          + " \"OUTPUT_FORMAT\" = ? where \"SD_ID\" = ?", sdUpdates);
+      executeBatchUpdate(conn, "update \"SERDES\" set \"NAME\" = ?, \"SLIB\" = ?"
+          + " where \"SERDE_ID\" = ?", serdeUpdates);
+      // The collection fields are replaced wholesale, like DN does when the field is set.
+      deleteByIds(conn, "PARTITION_PARAMS", "PART_ID", partIds);
+      deleteByIds(conn, "SD_PARAMS", "SD_ID", sdIds);
+      deleteByIds(conn, "BUCKETING_COLS", "SD_ID", sdIds);
+      deleteByIds(conn, "SORT_COLS", "SD_ID", sdIds);
+      deleteByIds(conn, "SERDE_PARAMS", "SERDE_ID", serdeIds);
+      for (InsertBatch batch : Arrays.asList(partParamsInsert, sdParamsInsert,
+          bucketColsInsert, sortColsInsert, serdeParamsInsert)) {
+        batch.execute(conn);
+        Deadline.checkTimeout();
+      }
+      releaseSavepoint(conn, savepoint);
+      savepoint = null;
+    } catch (SQLException ex) {
+      throw new MetaException("Failed to alter partitions via SQL: " + ex.getMessage());
+    } finally {
+      rollbackToSavepoint(conn, savepoint);
+      jdoConn.close(); // We must release the connection before we call other pm methods.
+    }
+    if (doTrace) {
+      LOG.debug("Altered " + newParts.size() + " partitions via SQL in "
+          + (System.nanoTime() - start) / 1000000.0 + "ms");
+    }
+    return true;
+  }
+
+  /** Whether the partition only uses the fields that the SQL write paths know how to write. */
+  private static boolean canWriteViaSql(Partition part) {
+    StorageDescriptor sd = part.getSd();
+    if (sd == null || sd.getCols() == null || sd.getSerdeInfo() == null
+        || part.getValues() == null) {
+      return false;
+    }
+    SkewedInfo skewed = sd.getSkewedInfo();
+    return skewed == null || ((skewed.getSkewedColNames() == null
+        || skewed.getSkewedColNames().isEmpty())
+        && (skewed.getSkewedColValues() == null || skewed.getSkewedColValues().isEmpty())
+        && (skewed.getSkewedColValueLocationMaps() == null
+        || skewed.getSkewedColValueLocationMaps().isEmpty()));
+  }
+
+  private static void addParams(InsertBatch batch, long id, Map<String, String> params) {
+    if (params == null) return;
+    for (Map.Entry<String, String> e : params.entrySet()) {
+      if (e.getKey() == null) continue;
+      batch.add(id, e.getKey(), e.getValue());
+    }
+  }
+
+  private static void addSdCollections(long sdId, StorageDescriptor sd, InsertBatch sdParams,
+      InsertBatch bucketCols, InsertBatch sortCols) {
+    addParams(sdParams, sdId, sd.getParameters());
+    if (sd.getBucketCols() != null) {
+      for (int i = 0; i < sd.getBucketCols().size(); ++i) {
+        bucketCols.add(sdId, sd.getBucketCols().get(i), i);
+      }
+    }
+    if (sd.getSortCols() != null) {
+      for (int i = 0; i < sd.getSortCols().size(); ++i) {
+        Order order = sd.getSortCols().get(i);
+        sortCols.add(sdId, order.getCol(), order.getOrder(), i);
+      }
+    }
+  }
+
+  private Map<Long, List<FieldSchema>> getColumnsForCds(Connection conn, List<Long> cdIds)
+      throws SQLException, MetaException {
+    Map<Long, List<FieldSchema>> result = new HashMap<Long, List<FieldSchema>>();
+    for (List<Long> ids : batches(new ArrayList<Long>(new TreeSet<Long>(cdIds)))) {
+      List<Object[]> rows = executeSql(conn, "select \"CD_ID\", \"COMMENT\", \"COLUMN_NAME\","
+          + " \"TYPE_NAME\" from \"COLUMNS_V2\" where \"CD_ID\" in (" + join(ids, ",") + ")"
+          + " and \"INTEGER_IDX\" >= 0 order by \"CD_ID\" asc, \"INTEGER_IDX\" asc");
+      for (Object[] row : rows) {
+        Long cdId = extractSqlLong(row[0]);
+        List<FieldSchema> cols = result.get(cdId);
+        if (cols == null) {
+          cols = new ArrayList<FieldSchema>();
+          result.put(cdId, cols);
+        }
+        cols.add(new FieldSchema((String)row[2], extractSqlString(row[3]), (String)row[1]));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reserves a range of datastore identity values for a model class. Like DN's own
+   * value generators, this bumps the class' row in SEQUENCE_TABLE in a separate transaction,
+   * so that the row doesn't stay locked for the duration of the caller's transaction and
+   * the values cannot be handed out twice.
+   * @return The first value of the reserved range.
+   */
+  private long allocateIds(Class<?> modelClass, int count) throws MetaException, SQLException {
+    String seqName = modelClass.getName();
+    PersistenceManager seqPm = pm.getPersistenceManagerFactory().getPersistenceManager();
+    Transaction tx = seqPm.currentTransaction();
+    try {
+      tx.begin();
+      JDOConnection jdoConn = seqPm.getDataStoreConnection();
+      long nextVal;
+      try {
+        Connection conn = (Connection)jdoConn.getNativeConnection();
+        if (dbType == DB.MYSQL) {
+          executeSql(conn, "SET @@session.sql_mode=ANSI_QUOTES");
+        }
+        int updated = executeUpdate(conn, "update \"SEQUENCE_TABLE\" set \"NEXT_VAL\" ="
+            + " \"NEXT_VAL\" + ? where \"SEQUENCE_NAME\" = ?", count, seqName);
+        if (updated != 1) {
+          // DN creates the row lazily; let it do so on the first write of this class.
+          throw new MetaException("No sequence for " + seqName);
+        }
+        List<Object[]> rows = executeSql(conn, "select \"NEXT_VAL\" from \"SEQUENCE_TABLE\""
+            + " where \"SEQUENCE_NAME\" = ?", seqName);
+        nextVal = extractSqlLong(rows.get(0)[0]);
+      } finally {
+        jdoConn.close();
+      }
+      tx.commit();
+      return nextVal - count;
+    } finally {
+      if (tx.isActive()) {
+        tx.rollback();
+      }
+      seqPm.close();
+    }
+  }
+
+  private void releaseSavepoint(Connection conn, Savepoint savepoint) {
+    try {
+      conn.releaseSavepoint(savepoint);
+    } catch (SQLException ex) {
+      // Not supported by all drivers (e.g. Oracle's); the savepoint then ends with the transaction.
+      LOG.debug("Failed to release savepoint after direct SQL write", ex);
+    }
+  }
+
+  private void rollbackToSavepoint(Connection conn, Savepoint savepoint) {
+    if (savepoint == null) return;
+    try {
+      conn.rollback(savepoint);
+    } catch (SQLException ex) {
+      LOG.error("Failed to roll back to savepoint after direct SQL write failure", ex);
+    }
+  }
+
+  /** Splits the list in batches that are small enough for "in (...)" lists on all DBs. */
+  private <T> List<List<T>> batches(List<T> list) {
+    int size = (batchSize == NO_BATCHING) ? MAX_ROWS_PER_STATEMENT : batchSize;
+    return Lists.partition(list, Math.min(size, MAX_ROWS_PER_STATEMENT));
+  }
+
+  private void deleteByIds(Connection conn, String table, String idColumn, List<Long> ids)
+      throws SQLException {
+    for (List<Long> batch : batches(ids)) {
+      executeUpdate(conn, "delete from \"" + table + "\" where \""
+          + idColumn + "\" in (" + join(batch, ",") + ")");
+    }
+  }
+
+  private List<Object[]> executeSql(Connection conn, String queryText, Object... params)
+      throws SQLException {
+    boolean doTrace = LOG.isDebugEnabled();
+    long start = doTrace ? System.nanoTime() : 0;
+    PreparedStatement stmt = conn.prepareStatement(queryText);
+    try {
+      setParams(stmt, 1, params);
+      if (!stmt.execute()) {
+        return null;
+      }
+      ResultSet rs = stmt.getResultSet();
+      long queryTime = doTrace ? System.nanoTime() : 0;
+      int columnCount = rs.getMetaData().getColumnCount();
+      List<Object[]> result = new ArrayList<Object[]>();
+      while (rs.next()) {
+        Object[] row = new Object[columnCount];
+        for (int i = 0; i < columnCount; ++i) {
+          row[i] = rs.getObject(i + 1);
+        }
+        result.add(row);
+      }
+      rs.close();
+      timingTrace(doTrace, queryText, start, queryTime);
+      return result;
+    } finally {
+      stmt.close();
+    }
+  }
+
+  private int executeUpdate(Connection conn, String queryText, Object... params)
+      throws SQLException {
+    boolean doTrace = LOG.isDebugEnabled();
+    long start = doTrace ? System.nanoTime() : 0;
+    PreparedStatement stmt = conn.prepareStatement(queryText);
+    try {
+      setParams(stmt, 1, params);
+      int result = stmt.executeUpdate();
+      timingTrace(doTrace, queryText, start, doTrace ? System.nanoTime() : 0);
+      return result;
+    } finally {
+      stmt.close();
+    }
+  }
+
+  private void executeBatchUpdate(Connection conn, String queryText, List<Object[]> rows)
+      throws SQLException {
+    boolean doTrace = LOG.isDebugEnabled();
+    long start = doTrace ? System.nanoTime() : 0;
+    PreparedStatement stmt = conn.prepareStatement(queryText);
+    try {
+      for (Object[] row : rows) {
+        setParams(stmt, 1, row);
+        stmt.addBatch();
+      }
+      stmt.executeBatch();
+      timingTrace(doTrace, queryText + " x" + rows.size(), start,
+          doTrace ? System.nanoTime() : 0);
+    } finally {
+      stmt.close();
+    }
+  }
+
+  private int setParams(PreparedStatement stmt, int index, Object[] params)
+      throws SQLException {
+    for (Object param : params) {
+      if (param == null) {
+        stmt.setNull(index, Types.VARCHAR); // All the nullable columns we write are strings.
+      } else if (param instanceof Boolean) {
+        // See extractSqlBoolean; Derby uses 'Y'/'N' mapping for booleans.
+        if (dbType == DB.DERBY) {
+          stmt.setString(index, ((Boolean)param) ? "Y" : "N");
+        } else {
+          stmt.setBoolean(index, (Boolean)param);
+        }
+      } else {
+        stmt.setObject(index, param);
+      }
+      ++index;
+    }
+    return index;
+  }
+
+  /**
+   * Accumulates rows for one table, and writes them with as few statements as possible,
+   * using multi-row inserts where supported, and JDBC batching otherwise.
+   */
+  private class InsertBatch {
+    private final String queryPrefix, rowParams;
+    private final int columnCount;
+    private final List<Object[]> rows = new ArrayList<Object[]>();
+
+    public InsertBatch(String table, String... columns) {
+      this.queryPrefix = "insert into \"" + table + "\" (\"" + join(columns, "\", \"")
+          + "\") values ";
+      this.rowParams = "(" + makeParams(columns.length) + ")";
+      this.columnCount = columns.length;
+    }
+
+    public void add(Object... row) {
+      assert row.length == columnCount;
+      rows.add(row);
+    }
+
+    public void execute(Connection conn) throws SQLException {
+      if (rows.isEmpty()) return;
+      // Oracle doesn't support multi-row values; other DBs limit the number of parameters.
+      int rowsPerStatement = (dbType == DB.ORACLE) ? 1 : Math.max(1, Math.min(
+          MAX_ROWS_PER_STATEMENT, MAX_PARAMS_PER_STATEMENT / columnCount));
+      int fullCount = rows.size() - (rows.size() % rowsPerStatement);
+      if (fullCount > 0) {
+        execute(conn, rows.subList(0, fullCount), rowsPerStatement);
+      }
+      if (fullCount < rows.size()) {
+        execute(conn, rows.subList(fullCount, rows.size()), rows.size() - fullCount);
+      }
+      rows.clear();
+    }
+
+    private void execute(Connection conn, List<Object[]> batch, int rowsPerStatement)
+        throws SQLException {
+      boolean doTrace = LOG.isDebugEnabled();
+      long start = doTrace ? System.nanoTime() : 0;
+      String queryText = queryPrefix + repeat(rowParams, ",", rowsPerStatement);
+      PreparedStatement stmt = conn.prepareStatement(queryText);
+      try {
+        int index = 1;
+        for (Object[] row : batch) {
+          index = setParams(stmt, index, row);
+          if (index > rowsPerStatement * columnCount) {
+            stmt.addBatch();
+            index = 1;
+          }
+        }
+        stmt.executeBatch();
+      } finally {
+        stmt.close();
+      }
+      timingTrace(doTrace, queryText + " x" + (batch.size() / rowsPerStatement), start,
+          doTrace ? System.nanoTime() : 0);
+    }
+  }
+
   private void timingTrace(boolean doTrace, String queryText, long start, long queryTime) {
     if (!doTrace) return;
     LOG.debug("Direct SQL query in " + (queryTime - start) / 1000000.0 + "ms + " +
@@ -780,6 +1369,21 @@ static Long extractSqlLong(Object obj) throws MetaException {
     return ((Number)obj).longValue();
   }
 
+  static String extractSqlClob(Object value) throws MetaException {
+    // Depending on the driver, long text columns can come back as strings or as CLOBs.
+    if (value == null) return null;
+    if (value instanceof String) return (String)value;
+    if (value instanceof Clob) {
+      Clob clob = (Clob)value;
+      try {
+        return clob.getSubString(1, (int)clob.length());
+      } catch (SQLException ex) {
+        throw new MetaException("Cannot read CLOB: " + ex.getMessage());
+      }
+    }
+    return value.toString();
+  }
+
   private static Boolean extractSqlBoolean(Object value) throws MetaException {
     // MySQL has booleans, but e.g. Derby uses 'Y'/'N' mapping. People using derby probably
     // don't care about performance anyway, but let's cover the common case.
@@ -1085,9 +1689,91 @@ public AggrStats aggrColStatsForPartitions(String dbName, String tableName,
     long partsFound = partsFoundForPartitions(dbName, tableName, partNames, colNames);
     List<ColumnStatisticsObj> stats = columnStatisticsObjForPartitions(dbName,
         tableName, partNames, colNames, partsFound);
+    mergeBitVectorsForPartitions(dbName, tableName, partNames, stats);
     return new AggrStats(stats, partsFound);
   }
 
+  /**
+   * Merges the NDV bit vectors of the partitions into the aggregated stats, for the columns
+   * where all the partition stats have bit vectors. The max of the partition NDVs that the
+   * aggregation query returns can be far below the NDV of the union of the partitions.
+   */
+  private void mergeBitVectorsForPartitions(String dbName, String tableName,
+      List<String> partNames, List<ColumnStatisticsObj> colStats) throws MetaException {
+    if (colStats.isEmpty() || partNames.isEmpty()) {
+      return;
+    }
+    Set<String> colNameSet = new LinkedHashSet<String>();
+    for (ColumnStatisticsObj cso : colStats) {
+      colNameSet.add(cso.getColName());
+    }
+    List<String> colNames = new ArrayList<String>(colNameSet);
+    boolean doTrace = LOG.isDebugEnabled();
+    // First, find the columns that have bit vectors everywhere, without fetching them.
+    String queryText = "select \"COLUMN_NAME\", \"COLUMN_TYPE\", "
+        + "sum(case when \"BIT_VECTOR\" is null then 1 else 0 end) from \"PART_COL_STATS\""
+        + " where \"DB_NAME\" = ? and \"TABLE_NAME\" = ? "
+        + " and \"COLUMN_NAME\" in (" + makeParams(colNames.size()) + ")"
+        + " and \"PARTITION_NAME\" in (" + makeParams(partNames.size()) + ")"
+        + " group by \"COLUMN_NAME\", \"COLUMN_TYPE\"";
+    long start = doTrace ? System.nanoTime() : 0;
+    Query query = pm.newQuery("javax.jdo.query.SQL", queryText);
+    Object qResult = executeWithArray(query, prepareParams(
+        dbName, tableName, partNames, colNames), queryText);
+    if (qResult == null) {
+      query.closeAll();
+      return;
+    }
+    Map<String, String> mergedVectors = new HashMap<String, String>();
+    Set<String> mergeColNames = new LinkedHashSet<String>();
+    for (Object[] row : ensureList(qResult)) {
+      if (extractSqlLong(row[2]) == 0) {
+        mergeColNames.add((String)row[0]);
+        mergedVectors.put(row[0] + ":" + row[1], null);
+      }
+    }
+    timingTrace(doTrace, queryText, start, doTrace ? System.nanoTime() : 0);
+    query.closeAll();
+    if (mergeColNames.isEmpty()) {
+      return;
+    }
+
+    colNames = new ArrayList<String>(mergeColNames);
+    queryText = "select \"COLUMN_NAME\", \"COLUMN_TYPE\", \"BIT_VECTOR\" from \"PART_COL_STATS\""
+        + " where \"DB_NAME\" = ? and \"TABLE_NAME\" = ? "
+        + " and \"COLUMN_NAME\" in (" + makeParams(colNames.size()) + ")"
+        + " and \"PARTITION_NAME\" in (" + makeParams(partNames.size()) + ")";
+    start = doTrace ? System.nanoTime() : 0;
+    query = pm.newQuery("javax.jdo.query.SQL", queryText);
+    qResult = executeWithArray(query, prepareParams(
+        dbName, tableName, partNames, colNames), queryText);
+    if (qResult == null) {
+      query.closeAll();
+      return;
+    }
+    Set<String> unmergeable = new HashSet<String>();
+    for (Object[] row : ensureList(qResult)) {
+      String key = row[0] + ":" + row[1];
+      if (!mergedVectors.containsKey(key) || unmergeable.contains(key)) continue;
+      String bitVectors = extractSqlClob(row[2]), merged = mergedVectors.get(key);
+      merged = (merged == null) ? bitVectors
+          : NumDistinctValueBitVectors.merge(merged, bitVectors);
+      if (merged == null) {
+        // E.g. the number of bit vectors was changed between analyze runs.
+        unmergeable.add(key);
+      }
+      mergedVectors.put(key, merged);
+    }
+    timingTrace(doTrace, queryText, start, doTrace ? System.nanoTime() : 0);
+    query.closeAll();
+    for (ColumnStatisticsObj cso : colStats) {
+      String merged = mergedVectors.get(cso.getColName() + ":" + cso.getColType());
+      if (merged != null) {
+        StatObjectConverter.setMergedBitVectors(cso.getStatsData(), merged);
+      }
+    }
+  }
+
   private long partsFoundForPartitions(String dbName, String tableName,
       List<String> partNames, List<String> colNames) throws MetaException {
     long partsFound = 0;
@@ -1396,12 +2082,41 @@ public List<ColumnStatistics> getPartitionStats(String dbName, String tableName,
     return result;
   }
 
+  /**
+   * Gets the raw stats of some columns for some partitions of a table, for caching.
+   * @return Rows of partition name, followed by the columns of STATS_COLLIST.
+   */
+  public List<Object[]> getPartitionStatsRows(String dbName, String tableName,
+      List<String> partNames, List<String> colNames) throws MetaException {
+    if (colNames.isEmpty() || partNames.isEmpty()) {
+      return Lists.newArrayList();
+    }
+    boolean doTrace = LOG.isDebugEnabled();
+    long start = doTrace ? System.nanoTime() : 0;
+    String queryText = "select \"PARTITION_NAME\", " + STATS_COLLIST + " from \"PART_COL_STATS\""
+      + " where \"DB_NAME\" = ? and \"TABLE_NAME\" = ? and \"COLUMN_NAME\" in ("
+      + makeParams(colNames.size()) + ") and \"PARTITION_NAME\" in ("
+      + makeParams(partNames.size()) + ")";
+    Query query = pm.newQuery("javax.jdo.query.SQL", queryText);
+    Object qResult = executeWithArray(query, prepareParams(
+        dbName, tableName, partNames, colNames), queryText);
+    long queryTime = doTrace ? System.nanoTime() : 0;
+    if (qResult == null) {
+      query.closeAll();
+      return Lists.newArrayList();
+    }
+    List<Object[]> result = new ArrayList<Object[]>(ensureList(qResult));
+    timingTrace(doTrace, queryText, start, queryTime);
+    query.closeAll();
+    return result;
+  }
+
   /** The common query part for table and partition stats */
   private static final String STATS_COLLIST =
       "\"COLUMN_NAME\", \"COLUMN_TYPE\", \"LONG_LOW_VALUE\", \"LONG_HIGH_VALUE\", "
     + "\"DOUBLE_LOW_VALUE\", \"DOUBLE_HIGH_VALUE\", \"BIG_DECIMAL_LOW_VALUE\", "
     + "\"BIG_DECIMAL_HIGH_VALUE\", \"NUM_NULLS\", \"NUM_DISTINCTS\", \"AVG_COL_LEN\", "
-    + "\"MAX_COL_LEN\", \"NUM_TRUES\", \"NUM_FALSES\", \"LAST_ANALYZED\" ";
+    + "\"MAX_COL_LEN\", \"NUM_TRUES\", \"NUM_FALSES\", \"LAST_ANALYZED\", \"BIT_VECTOR\" ";
 
   private ColumnStatistics makeColumnStats(
       List<Object[]> list, ColumnStatisticsDesc csd, int offset) throws MetaException {
@@ -1415,7 +2130,9 @@ private ColumnStatistics makeColumnStats(
       if (laObj != null && (!csd.isSetLastAnalyzed() || csd.getLastAnalyzed() > extractSqlLong(laObj))) {
         csd.setLastAnalyzed(extractSqlLong(laObj));
       }
-      csos.add(prepareCSObj(row, offset));
+      ColumnStatisticsObj cso = prepareCSObj(row, offset);
+      StatObjectConverter.setBitVectors(cso.getStatsData(), extractSqlClob(row[offset + 15]));
+      csos.add(cso);
     }
     result.setStatsObj(csos);
     return result;
@@ -205,6 +205,10 @@ private static enum TXN_STATUS {
   private boolean isInitialized = false;
   private PersistenceManager pm = null;
   private MetaStoreDirectSql directSql = null;
+  private AggregateStatsCache aggrStatsCache = null;
+  /** Changes to apply to aggrStatsCache once the current transaction commits. */
+  private final List<AggrStatsCacheUpdate> pendingCacheUpdates =
+      new ArrayList<AggrStatsCacheUpdate>();
   private PartitionExpressionProxy expressionProxy = null;
   private Configuration hiveConf;
   int openTrasactionCalls = 0;
@@ -293,6 +297,7 @@ private void initialize(Properties dsProps) {
     if (isInitialized) {
       expressionProxy = createExpressionProxy(hiveConf);
       directSql = new MetaStoreDirectSql(pm, hiveConf);
+      aggrStatsCache = AggregateStatsCache.getInstance(hiveConf);
     }
     LOG.debug("RawStore: " + this + ", with PersistenceManager: " + pm +
         " created in the thread with id: " + Thread.currentThread().getId());
@@ -464,11 +469,48 @@ public boolean commitTransaction() {
     if ((openTrasactionCalls == 0) && currentTransaction.isActive()) {
       transactionStatus = TXN_STATUS.COMMITED;
       currentTransaction.commit();
+      applyPendingCacheUpdates();
     }
 
     return true;
   }
 
+  private abstract class AggrStatsCacheUpdate {
+    public abstract void apply(AggregateStatsCache cache);
+  }
+
+  private void updateAggrStatsCacheOnCommit(MPartitionColumnStatistics mStats) {
+    if (aggrStatsCache == null) return;
+    // Copy the values now; the model object may not be readable after commit.
+    final String dbName = mStats.getDbName(), tblName = mStats.getTableName(),
+        partName = mStats.getPartitionName(), colName = mStats.getColName();
+    final AggregateStatsCache.PartitionColStats stats =
+        AggregateStatsCache.PartitionColStats.fromModel(mStats);
+    pendingCacheUpdates.add(new AggrStatsCacheUpdate() {
+      @Override
+      public void apply(AggregateStatsCache cache) {
+        cache.update(dbName, tblName, partName, colName, stats);
+      }
+    });
+  }
+
+  private void invalidateAggrStatsCacheOnCommit(final String dbName, final String tblName) {
+    if (aggrStatsCache == null) return;
+    pendingCacheUpdates.add(new AggrStatsCacheUpdate() {
+      @Override
+      public void apply(AggregateStatsCache cache) {
+        cache.invalidate(dbName, tblName);
+      }
+    });
+  }
+
+  private void applyPendingCacheUpdates() {
+    for (AggrStatsCacheUpdate update : pendingCacheUpdates) {
+      update.apply(aggrStatsCache);
+    }
+    pendingCacheUpdates.clear();
+  }
+
   /**
    * @return true if there is an active transaction. If the current transaction
    *         is either committed or rolled back it returns false
@@ -498,6 +540,7 @@ public void rollbackTransaction() {
     } finally {
       openTrasactionCalls = 0;
       transactionStatus = TXN_STATUS.ROLLBACK;
+      pendingCacheUpdates.clear();
       // remove all detached objects from the cache, since the transaction is
       // being rolled back they are no longer relevant, and this prevents them
       // from reattaching in future transactions
@@ -876,6 +919,7 @@ public boolean dropTable(String dbName, String tableName) throws MetaException,
       openTransaction();
       MTable tbl = getMTable(dbName, tableName);
       pm.retrieve(tbl);
+      invalidateAggrStatsCacheOnCommit(dbName, tableName);
       if (tbl != null) {
         // first remove all the grants
         List<MTablePrivilege> tabGrants = listAllTableGrants(dbName, tableName);
@@ -1324,6 +1368,21 @@ private MStorageDescriptor convertToMStorageDescriptor(StorageDescriptor sd,
   @Override
   public boolean addPartitions(String dbName, String tblName, List<Partition> parts)
       throws InvalidObjectException, MetaException {
+    for (Partition part : parts) {
+      if (!part.getTableName().equals(tblName) || !part.getDbName().equals(dbName)) {
+        throw new MetaException("Partition does not belong to target table "
+            + dbName + "." + tblName + ": " + part);
+      }
+    }
+    if (isDirectSqlWriteEnabled()) {
+      try {
+        if (addPartitionsViaSql(dbName, tblName, parts)) {
+          return true;
+        }
+      } catch (Exception ex) {
+        LOG.warn("Direct SQL failed, falling back to ORM", ex);
+      }
+    }
     boolean success = false;
     openTransaction();
     try {
@@ -1336,10 +1395,6 @@ public boolean addPartitions(String dbName, String tblName, List<Partition> part
       }
       List<Object> toPersist = new ArrayList<Object>();
       for (Partition part : parts) {
-        if (!part.getTableName().equals(tblName) || !part.getDbName().equals(dbName)) {
-          throw new MetaException("Partition does not belong to target table "
-              + dbName + "." + tblName + ": " + part);
-        }
         MPartition mpart = convertToMPart(part, true);
         toPersist.add(mpart);
         int now = (int)(System.currentTimeMillis()/1000);
@@ -1372,6 +1427,89 @@ public boolean addPartitions(String dbName, String tblName, List<Partition> part
     return success;
   }
 
+  /**
+   * Whether partition writes should be attempted via direct SQL. Like for reads, using SQL
+   * inside a larger transaction is controlled by METASTORE_TRY_DIRECT_SQL_DDL; the SQL write
+   * paths roll back to a savepoint on failure, so the fallback to ORM remains possible.
+   */
+  private boolean isDirectSqlWriteEnabled() {
+    return HiveConf.getBoolVar(getConf(), ConfVars.METASTORE_TRY_DIRECT_SQL)
+        && HiveConf.getBoolVar(getConf(), ConfVars.METASTORE_TRY_DIRECT_SQL_WRITES)
+        && (HiveConf.getBoolVar(getConf(), ConfVars.METASTORE_TRY_DIRECT_SQL_DDL)
+            || !isActiveTransaction())
+        && directSql.isCompatibleDatastore();
+  }
+
+  /**
+   * Cleans up after a failed SQL write. The SQL writes themselves have already been rolled
+   * back to a savepoint; if there's an outer transaction, it is kept so that the caller can
+   * fall back to ORM within it, like GetHelper does for reads.
+   */
+  private void endFailedDirectSqlWrite(boolean isInTxn) {
+    if (isInTxn) {
+      commitTransaction();
+    } else {
+      rollbackTransaction();
+    }
+  }
+
+  private boolean addPartitionsViaSql(String dbName, String tblName, List<Partition> parts)
+      throws MetaException {
+    boolean isInTxn = isActiveTransaction();
+    boolean success = false;
+    openTransaction();
+    try {
+      MTable table = getMTable(dbName, tblName);
+      // Partition-level privileges are rare; they are copied from the table by the ORM path.
+      boolean isAdded = table != null && !"TRUE".equalsIgnoreCase(
+          table.getParameters().get("PARTITION_LEVEL_PRIVILEGE"));
+      if (isAdded) {
+        List<FieldSchema> partKeys = convertToFieldSchemas(table.getPartitionKeys());
+        List<String> partNames = new ArrayList<String>(parts.size());
+        for (Partition part : parts) {
+          partNames.add(Warehouse.makePartName(partKeys, part.getValues()));
+        }
+        isAdded = directSql.addPartitions(dbName, tblName, parts, partNames);
+      }
+      success = commitTransaction();
+      return isAdded;
+    } finally {
+      if (!success) {
+        endFailedDirectSqlWrite(isInTxn);
+      }
+    }
+  }
+
+  private boolean alterPartitionsViaSql(String dbName, String tblName,
+      List<List<String>> partVals, List<Partition> newParts) throws MetaException {
+    boolean isInTxn = isActiveTransaction();
+    boolean success = false;
+    openTransaction();
+    try {
+      MTable table = getMTable(dbName, tblName);
+      boolean isAltered = table != null
+          && !TableType.VIRTUAL_VIEW.name().equals(table.getTableType());
+      if (isAltered) {
+        List<FieldSchema> partKeys = convertToFieldSchemas(table.getPartitionKeys());
+        List<String> partNames = new ArrayList<String>(partVals.size());
+        for (int i = 0; i < newParts.size() && isAltered; ++i) {
+          // Renames are left to the ORM path.
+          String partName = Warehouse.makePartName(partKeys, partVals.get(i));
+          isAltered = partName.equals(
+              Warehouse.makePartName(partKeys, newParts.get(i).getValues()));
+          partNames.add(partName);
+        }
+        isAltered = isAltered && directSql.alterPartitions(dbName, tblName, partNames, newParts);
+      }
+      success = commitTransaction();
+      return isAltered;
+    } finally {
+      if (!success) {
+        endFailedDirectSqlWrite(isInTxn);
+      }
+    }
+  }
+
   private boolean isValidPartition(
       Partition part, boolean ifNotExists) throws MetaException {
     MetaStoreUtils.validatePartitionNameCharacters(part.getValues(),
@@ -1632,6 +1770,7 @@ public void dropPartitions(String dbName, String tblName, List<String> partNames
     openTransaction();
     try {
       // Delete all things.
+      invalidateAggrStatsCacheOnCommit(dbName, tblName);
       dropPartitionGrantsNoTxn(dbName, tblName, partNames);
       dropPartitionAllColumnGrantsNoTxn(dbName, tblName, partNames);
       dropPartitionColumnStatisticsNoTxn(dbName, tblName, partNames);
@@ -1693,6 +1832,7 @@ private boolean dropPartitionCommon(MPartition part) throws NoSuchObjectExceptio
 
         String dbName = part.getTable().getDatabase().getName();
         String tableName = part.getTable().getTableName();
+        invalidateAggrStatsCacheOnCommit(dbName, tableName);
 
         // delete partition level column stats if it exists
        try {
@@ -2402,7 +2542,7 @@ public T run(boolean initTable) throws MetaException, NoSuchObjectException {
     }
 
     private void start(boolean initTable) throws MetaException, NoSuchObjectException {
-      start = doTrace ? System.nanoTime() : 0;
+      start = System.nanoTime();
       openTransaction();
       if (initTable && (tblName != null)) {
         table = ensureGetTable(dbName, tblName);
@@ -2416,6 +2556,9 @@ private boolean setResult(T results) {
 
     private void handleDirectSqlError(Exception ex) throws MetaException, NoSuchObjectException {
       LOG.warn("Direct SQL failed" + (allowJdo ? ", falling back to ORM" : ""), ex);
+      if (MetaStoreCallTrace.isTracing()) {
+        MetaStoreCallTrace.addStep("direct SQL failed", start);
+      }
       if (!allowJdo) {
         if (ex instanceof MetaException) {
           throw (MetaException)ex;
@@ -2424,13 +2567,13 @@ private void handleDirectSqlError(Exception ex) throws MetaException, NoSuchObje
       }
       if (!isInTxn) {
         rollbackTransaction();
-        start = doTrace ? System.nanoTime() : 0;
+        start = System.nanoTime();
         openTransaction();
         if (table != null) {
           table = ensureGetTable(dbName, tblName);
         }
       } else {
-        start = doTrace ? System.nanoTime() : 0;
+        start = System.nanoTime();
       }
       doUseDirectSql = false;
     }
@@ -2445,6 +2588,10 @@ private T commit() {
         LOG.debug(describeResult() + " retrieved using " + (doUseDirectSql ? "SQL" : "ORM")
             + " in " + ((System.nanoTime() - start) / 1000000.0) + "ms");
       }
+      if (MetaStoreCallTrace.isTracing()) {
+        MetaStoreCallTrace.addStep(
+            describeResult() + " retrieved using " + (doUseDirectSql ? "SQL" : "ORM"), start);
+      }
       return results;
     }
 
@@ -2758,6 +2905,7 @@ public void alterTable(String dbname, String name, Table newTable)
       if (oldt == null) {
         throw new MetaException("table " + name + " doesn't exist");
       }
+      invalidateAggrStatsCacheOnCommit(dbname, name);
 
       // For now only alter name, owner, parameters, cols, bucketcols are allowed
       oldt.setDatabase(newt.getDatabase());
@@ -2823,6 +2971,9 @@ private void alterPartitionNoTxn(String dbname, String name, List<String> part_v
     if (oldp == null || newp == null) {
       throw new InvalidObjectException("partition does not exist.");
     }
+    if (!newp.getPartitionName().equals(oldp.getPartitionName())) {
+      invalidateAggrStatsCacheOnCommit(dbname, name);
+    }
     oldp.setValues(newp.getValues());
     oldp.setPartitionName(newp.getPartitionName());
     oldp.setParameters(newPart.getParameters());
@@ -2865,6 +3016,17 @@ public void alterPartition(String dbname, String name, List<String> part_vals, P
   @Override
   public void alterPartitions(String dbname, String name, List<List<String>> part_vals,
       List<Partition> newParts) throws InvalidObjectException, MetaException {
+    name = HiveStringUtils.normalizeIdentifier(name);
+    dbname = HiveStringUtils.normalizeIdentifier(dbname);
+    if (isDirectSqlWriteEnabled() && part_vals.size() == newParts.size()) {
+      try {
+        if (alterPartitionsViaSql(dbname, name, part_vals, newParts)) {
+          return;
+        }
+      } catch (Exception ex) {
+        LOG.warn("Direct SQL failed, falling back to ORM", ex);
+      }
+    }
     boolean success = false;
     Exception e = null;
     try {
@@ -5899,8 +6061,10 @@ private void writeMPartitionColumnStatistics(Table table, Partition partition,
     if (!oldStats.isEmpty()) {
       assert oldStats.size() == 1;
       StatObjectConverter.setFieldsIntoOldStats(mStatsObj, oldStats.get(0));
+      updateAggrStatsCacheOnCommit(oldStats.get(0));
     } else {
       pm.makePersistent(mStatsObj);
+      updateAggrStatsCacheOnCommit(mStatsObj);
     }
   }
   
@@ -6115,8 +6279,25 @@ public AggrStats get_aggr_stats_for(String dbName, String tblName,
       @Override
       protected AggrStats getSqlResult(GetHelper<AggrStats> ctx)
           throws MetaException {
-        return directSql.aggrColStatsForPartitions(dbName, tblName, partNames,
-            colNames);
+        if (aggrStatsCache == null) {
+          return directSql.aggrColStatsForPartitions(dbName, tblName, partNames, colNames);
+        }
+        AggrStats result = aggrStatsCache.get(dbName, tblName, partNames, colNames);
+        if (result != null) {
+          return result;
+        }
+        List<String> missingCols =
+            aggrStatsCache.getMissingColumns(dbName, tblName, partNames, colNames);
+        if (!missingCols.isEmpty()
+            && aggrStatsCache.canCache(partNames.size(), missingCols.size())) {
+          long version = aggrStatsCache.getVersion(dbName, tblName);
+          aggrStatsCache.put(dbName, tblName, version, partNames, missingCols,
+              directSql.getPartitionStatsRows(dbName, tblName, partNames, missingCols));
+          result = aggrStatsCache.get(dbName, tblName, partNames, colNames);
+        }
+        // Too big to cache, or needs extrapolation.
+        return result != null ? result
+            : directSql.aggrColStatsForPartitions(dbName, tblName, partNames, colNames);
       }
       @Override
       protected AggrStats getJdoResult(GetHelper<AggrStats> ctx)
@@ -6214,6 +6395,7 @@ public boolean deletePartitionColumnStatistics(String dbName, String tableName,
       MTable mTable = getMTable(dbName, tableName);
       MPartitionColumnStatistics mStatsObj;
       List<MPartitionColumnStatistics> mStatsObjColl;
+      invalidateAggrStatsCacheOnCommit(dbName, tableName);
 
       if (mTable == null) {
         throw new
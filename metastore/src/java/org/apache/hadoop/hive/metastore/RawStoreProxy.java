@@ -95,6 +95,7 @@ private void initMS() {
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     Object ret = null;
     boolean isTimerStarted = false;
+    long start = System.nanoTime();
 
     try {
       try {
@@ -120,6 +121,8 @@ public Object invoke(Object proxy, Method method, Object[] args) throws Throwabl
       throw e.getCause();
     } catch (InvocationTargetException e) {
       throw e.getCause();
+    } finally {
+      MetaStoreCallTrace.addStep(method.getName(), start);
     }
     return ret;
   }
@@ -24,6 +24,7 @@
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
@@ -51,11 +52,18 @@ public class RetryingMetaStoreClient implements InvocationHandler {
   private final IMetaStoreClient base;
   private final int retryLimit;
   private final long retryDelaySeconds;
-
-
+  // The number of calls and the time spent in them by method, or null if they're not tracked
+  private final Map<String, Long> metaCallStats;
 
   protected RetryingMetaStoreClient(HiveConf hiveConf, HiveMetaHookLoader hookLoader,
       Class<? extends IMetaStoreClient> msClientClass) throws MetaException {
+    this(hiveConf, hookLoader, null, msClientClass);
+  }
+
+  protected RetryingMetaStoreClient(HiveConf hiveConf, HiveMetaHookLoader hookLoader,
+      Map<String, Long> metaCallStats, Class<? extends IMetaStoreClient> msClientClass)
+      throws MetaException {
+    this.metaCallStats = metaCallStats;
     this.retryLimit = hiveConf.getIntVar(HiveConf.ConfVars.METASTORETHRIFTFAILURERETRIES);
     this.retryDelaySeconds = hiveConf.getTimeVar(
         HiveConf.ConfVars.METASTORE_CLIENT_CONNECT_RETRY_DELAY, TimeUnit.SECONDS);
@@ -67,11 +75,21 @@ protected RetryingMetaStoreClient(HiveConf hiveConf, HiveMetaHookLoader hookLoad
 
   public static IMetaStoreClient getProxy(HiveConf hiveConf, HiveMetaHookLoader hookLoader,
       String mscClassName) throws MetaException {
+    return getProxy(hiveConf, hookLoader, null, mscClassName);
+  }
+
+  /**
+   * @param metaCallStats If not null, the map the number of calls made to each method of the
+   *          client ("method.calls") and the time they took ("method.time_ms") are added to.
+   */
+  public static IMetaStoreClient getProxy(HiveConf hiveConf, HiveMetaHookLoader hookLoader,
+      Map<String, Long> metaCallStats, String mscClassName) throws MetaException {
 
     Class<? extends IMetaStoreClient> baseClass = (Class<? extends IMetaStoreClient>)
         MetaStoreUtils.getClass(mscClassName);
 
-    RetryingMetaStoreClient handler = new RetryingMetaStoreClient(hiveConf, hookLoader, baseClass);
+    RetryingMetaStoreClient handler =
+        new RetryingMetaStoreClient(hiveConf, hookLoader, metaCallStats, baseClass);
 
     return (IMetaStoreClient) Proxy.newProxyInstance(RetryingMetaStoreClient.class.getClassLoader(),
         baseClass.getInterfaces(), handler);
@@ -79,6 +97,26 @@ public static IMetaStoreClient getProxy(HiveConf hiveConf, HiveMetaHookLoader ho
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    long startTime = System.currentTimeMillis();
+    try {
+      return invokeWithRetries(method, args);
+    } finally {
+      if (metaCallStats != null) {
+        long time = System.currentTimeMillis() - startTime;
+        synchronized (metaCallStats) {
+          add(method.getName() + ".calls", 1);
+          add(method.getName() + ".time_ms", time);
+        }
+      }
+    }
+  }
+
+  private void add(String name, long value) {
+    Long total = metaCallStats.get(name);
+    metaCallStats.put(name, total == null ? value : total + value);
+  }
+
+  private Object invokeWithRetries(Method method, Object[] args) throws Throwable {
     Object ret = null;
     int retriesMade = 0;
     TException caughtException = null;
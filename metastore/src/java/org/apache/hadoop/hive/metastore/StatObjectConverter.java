@@ -22,6 +22,7 @@
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 
+import org.apache.hadoop.hive.common.NumDistinctValueBitVectors;
 import org.apache.hadoop.hive.metastore.api.BinaryColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.BooleanColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
@@ -104,6 +105,7 @@ public static MTableColumnStatistics convertToMTableColumnStatistics(MTable tabl
            binaryStats.isSetMaxColLen() ? binaryStats.getMaxColLen() : null,
            binaryStats.isSetAvgColLen() ? binaryStats.getAvgColLen() : null);
      }
+     mColStats.setBitVector(getBitVectors(statsObj.getStatsData()));
      return mColStats;
   }
 
@@ -135,6 +137,8 @@ public static void setFieldsIntoOldStats(
     }
     if (mStatsObj.getNumDVs() != null) {
       oldStatsObj.setNumDVs(mStatsObj.getNumDVs());
+      // The old bit vectors no longer match the new NDV.
+      oldStatsObj.setBitVector(mStatsObj.getBitVector());
     }
     if (mStatsObj.getNumFalses() != null) {
       oldStatsObj.setNumFalses(mStatsObj.getNumFalses());
@@ -177,6 +181,8 @@ public static void setFieldsIntoOldStats(
     }
     if (mStatsObj.getNumDVs() != null) {
       oldStatsObj.setNumDVs(mStatsObj.getNumDVs());
+      // The old bit vectors no longer match the new NDV.
+      oldStatsObj.setBitVector(mStatsObj.getBitVector());
     }
     if (mStatsObj.getNumFalses() != null) {
       oldStatsObj.setNumFalses(mStatsObj.getNumFalses());
@@ -259,6 +265,7 @@ public static ColumnStatisticsObj getTableColumnStatisticsObj(
       decimalStats.setNumDVs(mStatsObj.getNumDVs());
       colStatsData.setDecimalStats(decimalStats);
     }
+    setBitVectors(colStatsData, mStatsObj.getBitVector());
     statsObj.setStatsData(colStatsData);
     return statsObj;
   }
@@ -331,6 +338,7 @@ public static MPartitionColumnStatistics convertToMPartitionColumnStatistics(
           binaryStats.isSetMaxColLen() ? binaryStats.getMaxColLen() : null,
           binaryStats.isSetAvgColLen() ? binaryStats.getAvgColLen() : null);
     }
+    mColStats.setBitVector(getBitVectors(statsObj.getStatsData()));
     return mColStats;
   }
 
@@ -398,6 +406,7 @@ public static ColumnStatisticsObj getPartitionColumnStatisticsObj(
       decimalStats.setNumDVs(mStatsObj.getNumDVs());
       colStatsData.setDecimalStats(decimalStats);
     }
+    setBitVectors(colStatsData, mStatsObj.getBitVector());
     statsObj.setStatsData(colStatsData);
     return statsObj;
   }
@@ -476,6 +485,67 @@ public static void fillColumnStatisticsData(String colType, ColumnStatisticsData
     }
   }
 
+  /**
+   * @return The serialized NDV bit vectors of the stats; null if there are none, or if
+   *         the column type doesn't have NDVs.
+   */
+  public static String getBitVectors(ColumnStatisticsData data) {
+    if (data.isSetLongStats()) {
+      return data.getLongStats().getBitVectors();
+    } else if (data.isSetDoubleStats()) {
+      return data.getDoubleStats().getBitVectors();
+    } else if (data.isSetStringStats()) {
+      return data.getStringStats().getBitVectors();
+    } else if (data.isSetDecimalStats()) {
+      return data.getDecimalStats().getBitVectors();
+    }
+    return null;
+  }
+
+  /**
+   * Sets the serialized NDV bit vectors of the stats; does nothing for the column types
+   * that don't have NDVs.
+   */
+  public static void setBitVectors(ColumnStatisticsData data, String bitVectors) {
+    if (bitVectors == null) {
+      return;
+    }
+    if (data.isSetLongStats()) {
+      data.getLongStats().setBitVectors(bitVectors);
+    } else if (data.isSetDoubleStats()) {
+      data.getDoubleStats().setBitVectors(bitVectors);
+    } else if (data.isSetStringStats()) {
+      data.getStringStats().setBitVectors(bitVectors);
+    } else if (data.isSetDecimalStats()) {
+      data.getDecimalStats().setBitVectors(bitVectors);
+    }
+  }
+
+  /**
+   * Sets the bit vectors merged across several partitions into aggregated stats, and
+   * raises the NDV, which is the max of the partition NDVs, to the merged estimate.
+   */
+  public static void setMergedBitVectors(ColumnStatisticsData data, String bitVectors) {
+    long ndv = NumDistinctValueBitVectors.estimate(bitVectors);
+    if (ndv < 0) {
+      return;
+    }
+    setBitVectors(data, bitVectors);
+    if (data.isSetLongStats()) {
+      LongColumnStatsData stats = data.getLongStats();
+      stats.setNumDVs(Math.max(ndv, stats.getNumDVs()));
+    } else if (data.isSetDoubleStats()) {
+      DoubleColumnStatsData stats = data.getDoubleStats();
+      stats.setNumDVs(Math.max(ndv, stats.getNumDVs()));
+    } else if (data.isSetStringStats()) {
+      StringColumnStatsData stats = data.getStringStats();
+      stats.setNumDVs(Math.max(ndv, stats.getNumDVs()));
+    } else if (data.isSetDecimalStats()) {
+      DecimalColumnStatsData stats = data.getDecimalStats();
+      stats.setNumDVs(Math.max(ndv, stats.getNumDVs()));
+    }
+  }
+
   private static Decimal createThriftDecimal(String s) {
     BigDecimal d = new BigDecimal(s);
     return new Decimal(ByteBuffer.wrap(d.unscaledValue().toByteArray()), (short)d.scale());
@@ -52,6 +52,7 @@ public class MPartitionColumnStatistics {
   private Long maxColLen;
   private Long numTrues;
   private Long numFalses;
+  private String bitVector;
   private long lastAnalyzed;
 
   public MPartitionColumnStatistics() {}
@@ -120,6 +121,14 @@ public void setNumFalses(long numFalses) {
     this.numFalses = numFalses;
   }
 
+  public String getBitVector() {
+    return bitVector;
+  }
+
+  public void setBitVector(String bitVector) {
+    this.bitVector = bitVector;
+  }
+
   public long getLastAnalyzed() {
     return lastAnalyzed;
   }
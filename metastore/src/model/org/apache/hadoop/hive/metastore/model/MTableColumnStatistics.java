@@ -50,6 +50,7 @@ public class MTableColumnStatistics {
   private Long maxColLen;
   private Long numTrues;
   private Long numFalses;
+  private String bitVector;
   private long lastAnalyzed;
 
   public MTableColumnStatistics() {}
@@ -134,6 +135,14 @@ public void setNumFalses(long numFalses) {
     this.numFalses = numFalses;
   }
 
+  public String getBitVector() {
+    return bitVector;
+  }
+
+  public void setBitVector(String bitVector) {
+    this.bitVector = bitVector;
+  }
+
   public long getLastAnalyzed() {
     return lastAnalyzed;
   }
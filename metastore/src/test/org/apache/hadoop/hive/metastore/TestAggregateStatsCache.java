@@ -0,0 +1,212 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.metastore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.hadoop.hive.common.NumDistinctValueBitVectors;
+import org.apache.hadoop.hive.metastore.api.AggrStats;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test the in-memory aggregation and invalidation of AggregateStatsCache.
+ */
+public class TestAggregateStatsCache {
+  private static final List<String> COLS = Arrays.asList("c");
+  private static final List<String> PARTS = Arrays.asList("p=1", "p=2", "p=3");
+
+  private static Object[] longRow(String partName, long low, long high, long nulls, long ndv) {
+    return longRow(partName, low, high, nulls, ndv, null);
+  }
+
+  private static Object[] longRow(String partName, long low, long high, long nulls, long ndv,
+      String bitVectors) {
+    // Partition name, column name, type, then the stats fields as in STATS_COLLIST.
+    return new Object[] { partName, "c", "bigint", low, high, null, null, null, null,
+        nulls, ndv, null, null, null, null, 0L, bitVectors };
+  }
+
+  private static Object[] stats(long low, long high, long nulls, long ndv) {
+    Object[] values = new Object[AggregateStatsCache.PartitionColStats.FIELD_COUNT];
+    values[AggregateStatsCache.PartitionColStats.LONG_LOW] = low;
+    values[AggregateStatsCache.PartitionColStats.LONG_HIGH] = high;
+    values[AggregateStatsCache.PartitionColStats.NUM_NULLS] = nulls;
+    values[AggregateStatsCache.PartitionColStats.NUM_DVS] = ndv;
+    return values;
+  }
+
+  private static AggregateStatsCache createCache() throws Exception {
+    AggregateStatsCache cache = new AggregateStatsCache(100, 60000);
+    List<Object[]> rows = new ArrayList<Object[]>();
+    rows.add(longRow("p=1", 5, 10, 1, 4));
+    rows.add(longRow("p=2", 1, 7, 2, 6));
+    rows.add(longRow("p=3", 3, 20, 3, 5));
+    cache.put("db", "tbl", cache.getVersion("db", "tbl"), PARTS, COLS, rows);
+    return cache;
+  }
+
+  @Test
+  public void testAggregate() throws Exception {
+    AggregateStatsCache cache = createCache();
+    AggrStats aggr = cache.get("db", "tbl", PARTS, COLS);
+    Assert.assertNotNull(aggr);
+    Assert.assertEquals(3, aggr.getPartsFound());
+    LongColumnStatsData data = aggr.getColStats().get(0).getStatsData().getLongStats();
+    Assert.assertEquals(1, data.getLowValue());
+    Assert.assertEquals(20, data.getHighValue());
+    Assert.assertEquals(6, data.getNumNulls());
+    Assert.assertEquals(6, data.getNumDVs());
+
+    aggr = cache.get("db", "tbl", Arrays.asList("p=1", "p=3"), COLS);
+    data = aggr.getColStats().get(0).getStatsData().getLongStats();
+    Assert.assertEquals(2, aggr.getPartsFound());
+    Assert.assertEquals(3, data.getLowValue());
+    Assert.assertEquals(4, data.getNumNulls());
+  }
+
+  @Test
+  public void testMissingStats() throws Exception {
+    AggregateStatsCache cache = createCache();
+    // Unknown columns are not served from the cache.
+    Assert.assertNull(cache.get("db", "tbl", Arrays.asList("p=1"), Arrays.asList("c", "d")));
+    Assert.assertEquals(Arrays.asList("d"),
+        cache.getMissingColumns("db", "tbl", Arrays.asList("p=1"), Arrays.asList("c", "d")));
+    // Neither are partitions that were not loaded.
+    Assert.assertNull(cache.get("db", "tbl", Arrays.asList("p=1", "p=4"), COLS));
+    Assert.assertEquals(COLS,
+        cache.getMissingColumns("db", "tbl", Arrays.asList("p=1", "p=4"), COLS));
+    cache.put("db", "tbl", cache.getVersion("db", "tbl"), Arrays.asList("p=4"), COLS,
+        new ArrayList<Object[]>());
+    Assert.assertTrue(
+        cache.getMissingColumns("db", "tbl", Arrays.asList("p=1", "p=4"), COLS).isEmpty());
+    // Extrapolation is left to direct SQL.
+    Assert.assertNull(cache.get("db", "tbl", Arrays.asList("p=1", "p=2", "p=4"), COLS));
+    // With less than 2 partitions found, the found ones are aggregated as is.
+    AggrStats aggr = cache.get("db", "tbl", Arrays.asList("p=1", "p=4"), COLS);
+    Assert.assertEquals(1, aggr.getPartsFound());
+    Assert.assertEquals(10, aggr.getColStats().get(0).getStatsData().getLongStats().getHighValue());
+  }
+
+  @Test
+  public void testUpdateAndInvalidate() throws Exception {
+    AggregateStatsCache cache = createCache();
+    long version = cache.getVersion("db", "tbl");
+    cache.update("db", "tbl", "p=4", "c",
+        new AggregateStatsCache.PartitionColStats("bigint", stats(-1, 2, 0, 1), null));
+    AggrStats aggr = cache.get("db", "tbl", Arrays.asList("p=1", "p=2", "p=3", "p=4"), COLS);
+    Assert.assertEquals(4, aggr.getPartsFound());
+    Assert.assertEquals(-1, aggr.getColStats().get(0).getStatsData().getLongStats().getLowValue());
+
+    // Loads that started before a change are discarded.
+    List<Object[]> rows = new ArrayList<Object[]>();
+    rows.add(longRow("p=1", 0, 0, 0, 0));
+    cache.put("db", "tbl", version, Arrays.asList("p=1"), COLS, rows);
+    aggr = cache.get("db", "tbl", Arrays.asList("p=1"), COLS);
+    Assert.assertEquals(10, aggr.getColStats().get(0).getStatsData().getLongStats().getHighValue());
+
+    cache.invalidate("db", "tbl");
+    Assert.assertNull(cache.get("db", "tbl", Arrays.asList("p=1"), COLS));
+    Assert.assertEquals(0, cache.getEntryCount());
+    cache.put("db", "tbl", version, Arrays.asList("p=1"), COLS, rows);
+    Assert.assertNull(cache.get("db", "tbl", Arrays.asList("p=1"), COLS));
+    // Including the loads of the table cached again.
+    cache.getVersion("db", "tbl");
+    cache.put("db", "tbl", version, Arrays.asList("p=1"), COLS, rows);
+    Assert.assertNull(cache.get("db", "tbl", Arrays.asList("p=1"), COLS));
+  }
+
+  @Test
+  public void testTooManyEntries() throws Exception {
+    AggregateStatsCache cache = new AggregateStatsCache(3, 60000);
+    List<Object[]> rows = new ArrayList<Object[]>();
+    rows.add(longRow("p=1", 5, 10, 1, 4));
+    rows.add(longRow("p=2", 1, 7, 2, 6));
+    rows.add(longRow("p=3", 3, 20, 3, 5));
+    // The table takes an entry too.
+    Assert.assertFalse(cache.canCache(3, 1));
+    cache.put("db", "tbl", cache.getVersion("db", "tbl"), PARTS, COLS, rows);
+    Assert.assertNull(cache.get("db", "tbl", PARTS, COLS));
+    Assert.assertEquals(COLS, cache.getMissingColumns("db", "tbl", PARTS, COLS));
+
+    Assert.assertTrue(cache.canCache(2, 1));
+    cache.put("db", "tbl", cache.getVersion("db", "tbl"), PARTS.subList(0, 2), COLS,
+        rows.subList(0, 2));
+    Assert.assertEquals(2, cache.get("db", "tbl", PARTS.subList(0, 2), COLS).getPartsFound());
+    Assert.assertEquals(3, cache.getEntryCount());
+
+    // A table over the limit starts over.
+    cache.put("db", "tbl", cache.getVersion("db", "tbl"), PARTS.subList(2, 3), COLS,
+        rows.subList(2, 3));
+    Assert.assertEquals(1, cache.get("db", "tbl", PARTS.subList(2, 3), COLS).getPartsFound());
+    Assert.assertNull(cache.get("db", "tbl", PARTS.subList(0, 1), COLS));
+    Assert.assertEquals(2, cache.getEntryCount());
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    AggregateStatsCache cache = new AggregateStatsCache(5, 60000);
+    List<Object[]> rows = new ArrayList<Object[]>();
+    rows.add(longRow("p=1", 5, 10, 1, 4));
+    rows.add(longRow("p=2", 1, 7, 2, 6));
+    cache.put("db", "tbl1", cache.getVersion("db", "tbl1"), PARTS.subList(0, 2), COLS, rows);
+    Assert.assertEquals(3, cache.getEntryCount());
+
+    // The least recently used table is evicted, along with its entries.
+    cache.put("db", "tbl2", cache.getVersion("db", "tbl2"), PARTS.subList(0, 2), COLS, rows);
+    Assert.assertEquals(3, cache.getEntryCount());
+    Assert.assertNull(cache.get("db", "tbl1", PARTS.subList(0, 2), COLS));
+    Assert.assertEquals(2, cache.get("db", "tbl2", PARTS.subList(0, 2), COLS).getPartsFound());
+
+    // Tables that were never loaded are evicted too.
+    for (int i = 0; i < 10; ++i) {
+      cache.getVersion("db", "empty" + i);
+    }
+    cache.put("db", "tbl3", cache.getVersion("db", "tbl3"), PARTS.subList(0, 1), COLS, rows);
+    Assert.assertTrue(cache.getEntryCount() <= 5);
+    Assert.assertEquals(1, cache.get("db", "tbl3", PARTS.subList(0, 1), COLS).getPartsFound());
+  }
+
+  @Test
+  public void testMergeBitVectors() throws Exception {
+    AggregateStatsCache cache = new AggregateStatsCache(100, 60000);
+    String bv1 = "{0, 1}{0, 1, 2}", bv2 = "{0, 2}{0, 1}";
+    List<Object[]> rows = new ArrayList<Object[]>();
+    rows.add(longRow("p=1", 0, 10, 0, NumDistinctValueBitVectors.estimate(bv1), bv1));
+    rows.add(longRow("p=2", 0, 10, 0, NumDistinctValueBitVectors.estimate(bv2), bv2));
+    rows.add(longRow("p=3", 0, 10, 0, 1));
+    cache.put("db", "tbl", cache.getVersion("db", "tbl"), PARTS, COLS, rows);
+
+    String merged = NumDistinctValueBitVectors.merge(bv1, bv2);
+    LongColumnStatsData data = cache.get("db", "tbl", Arrays.asList("p=1", "p=2"), COLS)
+        .getColStats().get(0).getStatsData().getLongStats();
+    Assert.assertEquals(merged, data.getBitVectors());
+    Assert.assertEquals(NumDistinctValueBitVectors.estimate(merged), data.getNumDVs());
+    Assert.assertTrue(data.getNumDVs() > NumDistinctValueBitVectors.estimate(bv1));
+
+    // Partitions without bit vectors fall back to the max NDV.
+    data = cache.get("db", "tbl", Arrays.asList("p=1", "p=3"), COLS)
+        .getColStats().get(0).getStatsData().getLongStats();
+    Assert.assertFalse(data.isSetBitVectors());
+    Assert.assertEquals(NumDistinctValueBitVectors.estimate(bv1), data.getNumDVs());
+  }
+}
@@ -0,0 +1,285 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.common.ValidTxnList;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.metastore.api.hive_metastoreConstants;
+import org.apache.hadoop.hive.ql.exec.Operator;
+import org.apache.hadoop.hive.ql.exec.TableScanOperator;
+import org.apache.hadoop.hive.ql.hooks.ReadEntity;
+import org.apache.hadoop.hive.ql.metadata.Hive;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.metadata.Partition;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.apache.hadoop.hive.ql.optimizer.ppr.PartitionPruner;
+import org.apache.hadoop.hive.ql.parse.BaseSemanticAnalyzer;
+import org.apache.hadoop.hive.ql.parse.PrunedPartitionList;
+import org.apache.hadoop.hive.ql.parse.SemanticAnalyzer;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.HiveOperation;
+import org.apache.hadoop.hive.ql.session.SessionState;
+
+/**
+ * CompiledPlanCache: the compiled plans of the queries of a session, kept so that running the
+ * same query again skips parsing, semantic analysis and optimization.
+ *
+ * Only the plans that fetch the rows of a single table without launching any job (the plans
+ * of hive.fetch.task.conversion) are cached: they don't hold any scratch directory and their
+ * fetch task can be re-initialized, whereas the tasks of a job can only run once. A plan is
+ * looked up by the text of the query, the current database and the configuration of the
+ * session, and it is only reused if the tables it reads have the same last DDL time, and if
+ * pruning the partitions of the scanned table again selects the same partitions with the same
+ * last DDL time. The data files themselves are listed when the plan runs.
+ *
+ * A cached plan is used by a single query at a time: lookup() takes it out of the cache, and
+ * the query returns it once it successfully ran. The cache is cleared whenever the session
+ * compiles a statement that is not a query (e.g. it creates a temporary function or table),
+ * which could change the meaning of a cached plan.
+ *
+ * The cache belongs to a session rather than to HiveServer2, since a plan resolves the
+ * temporary functions and tables of its session, which the other sessions don't see and whose
+ * changes they can't track. Authorization is still checked every time a cached plan is used.
+ */
+public class CompiledPlanCache {
+
+  private static final Log LOG = LogFactory.getLog(CompiledPlanCache.class);
+
+  /** Configuration that changes with every query, but doesn't change its plan. */
+  private static final String[] PER_QUERY_PROPERTIES = {
+    ConfVars.HIVEQUERYID.varname,
+    ConfVars.HIVEQUERYSTRING.varname,
+    ConfVars.HADOOPJOBNAME.varname,
+    ValidTxnList.VALID_TXNS_KEY
+  };
+
+  private final int maxEntries;
+
+  /** Plans that are not in use, least recently used first. */
+  private final LinkedHashMap<String, CachedPlan> plans =
+      new LinkedHashMap<String, CachedPlan>(16, 0.75f, true);
+
+  /**
+   * The compiled plan of a query. A plan returned by lookup() must be released once the query
+   * successfully ran, for other queries to reuse it.
+   */
+  public class CachedPlan {
+    private final String key;
+    private final BaseSemanticAnalyzer sem;
+    private final HiveOperation operation;
+    private final TableScanOperator source;
+    private final ExprNodeDesc prunerExpr;
+    private final boolean hasUnknownPartitions;
+    /** The last DDL time of the tables and partitions read, by their complete name. */
+    private final Map<String, String> tableVersions;
+    private final Map<String, String> partitionVersions;
+
+    private CachedPlan(String key, BaseSemanticAnalyzer sem, HiveOperation operation,
+        TableScanOperator source, ExprNodeDesc prunerExpr, boolean hasUnknownPartitions,
+        Map<String, String> tableVersions, Map<String, String> partitionVersions) {
+      this.key = key;
+      this.sem = sem;
+      this.operation = operation;
+      this.source = source;
+      this.prunerExpr = prunerExpr;
+      this.hasUnknownPartitions = hasUnknownPartitions;
+      this.tableVersions = tableVersions;
+      this.partitionVersions = partitionVersions;
+    }
+
+    public BaseSemanticAnalyzer getSemanticAnalyzer() {
+      return sem;
+    }
+
+    public HiveOperation getOperation() {
+      return operation;
+    }
+
+    public void release() {
+      synchronized (CompiledPlanCache.this) {
+        plans.put(key, this);
+        if (plans.size() > maxEntries) {
+          plans.remove(plans.keySet().iterator().next());
+        }
+      }
+    }
+  }
+
+  public CompiledPlanCache(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * @return The plan compiled for the given key, if its inputs did not change since, or null.
+   */
+  public CachedPlan lookup(String key, Hive db, HiveConf conf) throws HiveException {
+    CachedPlan plan;
+    synchronized (this) {
+      plan = plans.remove(key);
+    }
+    if (plan == null) {
+      return null;
+    }
+    if (!isValid(plan, db, conf)) {
+      LOG.info("Discarding the compiled plan of a query whose inputs changed");
+      return null;
+    }
+    return plan;
+  }
+
+  public synchronized void clear() {
+    plans.clear();
+  }
+
+  synchronized int size() {
+    return plans.size();
+  }
+
+  private boolean isValid(CachedPlan plan, Hive db, HiveConf conf) throws HiveException {
+    Table source = plan.source.getConf().getTableMetadata();
+    Table currentSource = null;
+    for (Map.Entry<String, String> entry : plan.tableVersions.entrySet()) {
+      String[] names = entry.getKey().split("@");
+      Table table = db.getTable(names[0], names[1], false);
+      if (table == null || !entry.getValue().equals(getVersion(table.getParameters()))) {
+        return false;
+      }
+      if (entry.getKey().equals(source.getCompleteName())) {
+        currentSource = table;
+      }
+    }
+    if (currentSource == null || !currentSource.isPartitioned()) {
+      return currentSource != null;
+    }
+    PrunedPartitionList partitions = PartitionPruner.prune(currentSource,
+        plan.prunerExpr == null ? null : plan.prunerExpr.clone(), conf,
+        plan.source.getConf().getAlias(), new HashMap<String, PrunedPartitionList>());
+    if (partitions.hasUnknownPartitions() != plan.hasUnknownPartitions) {
+      return false;
+    }
+    Map<String, String> partitionVersions = new HashMap<String, String>();
+    for (Partition partition : partitions.getNotDeniedPartns()) {
+      partitionVersions.put(partition.getCompleteName(), getVersion(partition.getParameters()));
+    }
+    return partitionVersions.equals(plan.partitionVersions);
+  }
+
+  /**
+   * @return The key of the plans compiled for the given query in the current state of the
+   *         session, or null if they can't be cached.
+   */
+  public static String getCacheKey(HiveConf conf, String command) {
+    SessionState ss = SessionState.get();
+    if (ss == null || !conf.getVar(ConfVars.SEMANTIC_ANALYZER_HOOK).trim().isEmpty()) {
+      return null;
+    }
+    Properties changed = conf.getChangedProperties();
+    for (String name : PER_QUERY_PROPERTIES) {
+      changed.remove(name);
+    }
+    Map<String, String> properties = new TreeMap<String, String>();
+    for (String name : changed.stringPropertyNames()) {
+      if (!name.startsWith("mapreduce.workflow.")) {
+        properties.put(name, changed.getProperty(name));
+      }
+    }
+
+    StringBuilder key = new StringBuilder();
+    key.append(ss.getCurrentDatabase()).append('\n');
+    for (Map.Entry<String, String> property : properties.entrySet()) {
+      key.append(property.getKey()).append('=').append(property.getValue()).append('\n');
+    }
+    key.append(QueryResultsCache.normalizeQuery(command));
+    return key.toString();
+  }
+
+  /**
+   * @return A cached plan for the given compiled query, or null if its plan can't be reused.
+   */
+  public CachedPlan newCachedPlan(String key, BaseSemanticAnalyzer sem,
+      HiveOperation operation) {
+    SessionState ss = SessionState.get();
+    if (!(sem instanceof SemanticAnalyzer) || operation != HiveOperation.QUERY
+        || !sem.getQueryProperties().isQuery() || !sem.getRootTasks().isEmpty()
+        || sem.getFetchTask() == null || ss == null || ss.isQueryCurrentTimestampUsed()) {
+      return null;
+    }
+    Operator<?> op = sem.getFetchTask().getWork().getSource();
+    if (!(op instanceof TableScanOperator)
+        || ((TableScanOperator) op).getConf().getTableMetadata() == null) {
+      return null;
+    }
+    TableScanOperator source = (TableScanOperator) op;
+    Table sourceTable = source.getConf().getTableMetadata();
+
+    // The last DDL time is in seconds; a table changed during the current second could
+    // change again without changing its version.
+    long now = System.currentTimeMillis() / 1000;
+    Map<String, String> tableVersions = new HashMap<String, String>();
+    Map<String, String> partitionVersions = new HashMap<String, String>();
+    for (ReadEntity input : sem.getInputs()) {
+      String version = getVersion(input.getParameters());
+      try {
+        if (version == null || Long.parseLong(version) >= now) {
+          return null;
+        }
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      if (input.getType() == ReadEntity.Type.TABLE) {
+        tableVersions.put(input.getTable().getCompleteName(), version);
+      } else if (input.getType() == ReadEntity.Type.PARTITION) {
+        partitionVersions.put(input.getPartition().getCompleteName(), version);
+      } else {
+        return null;
+      }
+    }
+    if (!tableVersions.containsKey(sourceTable.getCompleteName())) {
+      return null;
+    }
+
+    ExprNodeDesc prunerExpr = null;
+    boolean hasUnknownPartitions = false;
+    if (sourceTable.isPartitioned()) {
+      SemanticAnalyzer analyzer = (SemanticAnalyzer) sem;
+      PrunedPartitionList partitions =
+          analyzer.getParseContext().getOpToPartList().get(source);
+      if (partitions == null) {
+        return null;
+      }
+      prunerExpr = analyzer.getParseContext().getOpToPartPruner().get(source);
+      hasUnknownPartitions = partitions.hasUnknownPartitions();
+    }
+    return new CachedPlan(key, sem, operation, source, prunerExpr, hasUnknownPartitions,
+        tableVersions, partitionVersions);
+  }
+
+  private static String getVersion(Map<String, String> parameters) {
+    return parameters == null ? null : parameters.get(hive_metastoreConstants.DDL_TIME);
+  }
+}
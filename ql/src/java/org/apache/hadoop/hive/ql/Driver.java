@@ -32,6 +32,8 @@
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -126,7 +128,10 @@ public class Driver implements CommandProcessor {
   static final private Log LOG = LogFactory.getLog(CLASS_NAME);
   static final private LogHelper console = new LogHelper(LOG);
 
-  private static final Object compileMonitor = new Object();
+  private static final ReentrantLock globalCompileLock = new ReentrantLock(true);
+  // Bounds the number of parallel compilations, see hive.driver.parallel.compilation.global.limit
+  private static Semaphore parallelCompileSlots = null;
+  private static boolean isParallelCompileLimitSet = false;
 
   private int maxRows = 100;
   ByteStream.Output bos = new ByteStream.Output();
@@ -144,6 +149,14 @@ public class Driver implements CommandProcessor {
   // A list of FileSinkOperators writing in an ACID compliant manner
   private Set<FileSinkDesc> acidSinks;
 
+  // The key the results of the query are added to the results cache with, if it ran
+  private String resultsCacheKey;
+  // The cached results the query fetches from
+  private QueryResultsCache.CacheEntry resultsCacheEntry;
+
+  // The plan of the query to return to the compiled plan cache of the session once it ran
+  private CompiledPlanCache.CachedPlan compiledPlan;
+
   // A limit on the number of threads that can be launched
   private int maxthreads;
   private int tryCount = Integer.MAX_VALUE;
@@ -155,6 +168,20 @@ public class Driver implements CommandProcessor {
   // HS2 operation handle guid string
   private String operationId;
 
+  // Notified once the results of the query can be fetched
+  private ResultsListener resultsListener;
+
+  // Where the time of the last compiled query went
+  private QueryProfile queryProfile = new QueryProfile();
+
+  /**
+   * Listener notified by execute() once the results of the query can be fetched, before the
+   * post-execution hooks run and before the locks of the query are released.
+   */
+  public static interface ResultsListener {
+    void resultsAvailable();
+  }
+
   private boolean checkConcurrency() {
     boolean supportConcurrency = conf.getBoolVar(HiveConf.ConfVars.HIVE_SUPPORT_CONCURRENCY);
     if (!supportConcurrency) {
@@ -355,6 +382,64 @@ public void restoreSession(QueryState qs) {
     }
   }
 
+  /**
+   * Looks up the results of the query in the results cache. On a hit, the tasks of the plan
+   * are dropped and the fetch task reads the cached results instead; otherwise, the results
+   * are added to the cache once the query has run.
+   */
+  private void useResultsCache(BaseSemanticAnalyzer sem, String command) {
+    String key = QueryResultsCache.getCacheKey(conf, command, sem, plan);
+    if (key == null) {
+      return;
+    }
+    try {
+      resultsCacheEntry = QueryResultsCache.getInstance(conf).lookup(key);
+    } catch (IOException e) {
+      LOG.warn("Failed to set up the results cache", e);
+      return;
+    }
+    if (resultsCacheEntry == null) {
+      resultsCacheKey = key;
+      return;
+    }
+    LOG.info("Fetching the results of the query from the results cache in "
+        + resultsCacheEntry.getResultsDir());
+    plan.setRootTasks(new ArrayList<Task<? extends Serializable>>());
+    plan.getFetchTask().getWork().setTblDir(resultsCacheEntry.getResultsDir());
+    plan.getFetchTask().initialize(conf, plan, null);
+  }
+
+  private void addToResultsCache() {
+    FetchTask fetchTask = plan.getFetchTask();
+    try {
+      resultsCacheEntry = QueryResultsCache.getInstance(conf).add(resultsCacheKey,
+          fetchTask.getWork().getTblDir(), conf);
+      if (resultsCacheEntry != null) {
+        fetchTask.getWork().setTblDir(resultsCacheEntry.getResultsDir());
+        fetchTask.initialize(conf, plan, null);
+      }
+    } catch (IOException e) {
+      LOG.warn("Failed to add the results of the query to the results cache", e);
+    }
+    resultsCacheKey = null;
+  }
+
+  /**
+   * Takes the plan compiled for the given key out of the compiled plan cache of the session,
+   * if it is still valid.
+   */
+  private CompiledPlanCache.CachedPlan lookupCompiledPlan(String key) {
+    if (key == null) {
+      return null;
+    }
+    try {
+      return SessionState.get().getCompiledPlanCache().lookup(key, Hive.get(conf), conf);
+    } catch (HiveException e) {
+      LOG.warn("Failed to validate the compiled plan of the query", e);
+      return null;
+    }
+  }
+
   /**
    * Compile a new query, but potentially reset taskID counter.  Not resetting task counter
    * is useful for generating re-entrant QL queries.
@@ -365,6 +450,9 @@ public void restoreSession(QueryState qs) {
   public int compile(String command, boolean resetTaskIds) {
     PerfLogger perfLogger = PerfLogger.getPerfLogger();
     perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.COMPILE);
+    queryProfile = new QueryProfile();
+    long compileStart = perfLogger.getStartTime(PerfLogger.COMPILE);
+    Map<String, Long> metaCallsBefore = getMetaCallStats();
 
     //holder for parent command type/string when executing reentrant queries
     QueryState queryState = new QueryState();
@@ -373,6 +461,7 @@ public int compile(String command, boolean resetTaskIds) {
       close();
       plan = null;
     }
+    compiledPlan = null;
 
     if (resetTaskIds) {
       TaskFactory.resetId();
@@ -392,11 +481,20 @@ public int compile(String command, boolean resetTaskIds) {
       ctx.setCmd(command);
       ctx.setHDFSCleanup(true);
 
-      perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.PARSE);
-      ParseDriver pd = new ParseDriver();
-      ASTNode tree = pd.parse(command, ctx);
-      tree = ParseUtils.findRootNonNullToken(tree);
-      perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.PARSE);
+      String compiledPlanKey = null;
+      if (conf.getBoolVar(ConfVars.HIVE_COMPILED_PLAN_CACHE_ENABLED)) {
+        compiledPlanKey = CompiledPlanCache.getCacheKey(conf, command);
+        compiledPlan = lookupCompiledPlan(compiledPlanKey);
+      }
+
+      ASTNode tree = null;
+      if (compiledPlan == null) {
+        perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.PARSE);
+        ParseDriver pd = new ParseDriver();
+        tree = pd.parse(command, ctx);
+        tree = ParseUtils.findRootNonNullToken(tree);
+        perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.PARSE);
+      }
 
       // Initialize the transaction manager.  This must be done before analyze is called.  Also
       // record the valid transactions for this query.  We have to do this at compile time
@@ -406,39 +504,54 @@ public int compile(String command, boolean resetTaskIds) {
       SessionState.get().initTxnMgr(conf);
       recordValidTxns();
 
-      perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.ANALYZE);
-      BaseSemanticAnalyzer sem = SemanticAnalyzerFactory.get(conf, tree);
-      List<HiveSemanticAnalyzerHook> saHooks =
-          getHooks(HiveConf.ConfVars.SEMANTIC_ANALYZER_HOOK,
-              HiveSemanticAnalyzerHook.class);
-
-      // Do semantic analysis and plan generation
-      if (saHooks != null) {
-        HiveSemanticAnalyzerHookContext hookCtx = new HiveSemanticAnalyzerHookContextImpl();
-        hookCtx.setConf(conf);
-        hookCtx.setUserName(userName);
-        hookCtx.setIpAddress(SessionState.get().getUserIpAddress());
-        hookCtx.setCommand(command);
-        for (HiveSemanticAnalyzerHook hook : saHooks) {
-          tree = hook.preAnalyze(hookCtx, tree);
-        }
-        sem.analyze(tree, ctx);
-        hookCtx.update(sem);
-        for (HiveSemanticAnalyzerHook hook : saHooks) {
-          hook.postAnalyze(hookCtx, sem.getRootTasks());
-        }
+      BaseSemanticAnalyzer sem;
+      if (compiledPlan != null) {
+        LOG.info("Reusing the compiled plan of the query");
+        sem = compiledPlan.getSemanticAnalyzer();
+        SessionState.get().setCommandType(compiledPlan.getOperation());
+        acidSinks = sem.getAcidFileSinks();
       } else {
-        sem.analyze(tree, ctx);
-      }
-      // Record any ACID compliant FileSinkOperators we saw so we can add our transaction ID to
-      // them later.
-      acidSinks = sem.getAcidFileSinks();
+        perfLogger.PerfLogBegin(CLASS_NAME, PerfLogger.ANALYZE);
+        sem = SemanticAnalyzerFactory.get(conf, tree);
+        List<HiveSemanticAnalyzerHook> saHooks =
+            getHooks(HiveConf.ConfVars.SEMANTIC_ANALYZER_HOOK,
+                HiveSemanticAnalyzerHook.class);
+
+        // Do semantic analysis and plan generation
+        if (saHooks != null) {
+          HiveSemanticAnalyzerHookContext hookCtx = new HiveSemanticAnalyzerHookContextImpl();
+          hookCtx.setConf(conf);
+          hookCtx.setUserName(userName);
+          hookCtx.setIpAddress(SessionState.get().getUserIpAddress());
+          hookCtx.setCommand(command);
+          for (HiveSemanticAnalyzerHook hook : saHooks) {
+            tree = hook.preAnalyze(hookCtx, tree);
+          }
+          sem.analyze(tree, ctx);
+          hookCtx.update(sem);
+          for (HiveSemanticAnalyzerHook hook : saHooks) {
+            hook.postAnalyze(hookCtx, sem.getRootTasks());
+          }
+        } else {
+          sem.analyze(tree, ctx);
+        }
+        // Record any ACID compliant FileSinkOperators we saw so we can add our transaction ID to
+        // them later.
+        acidSinks = sem.getAcidFileSinks();
 
-      LOG.info("Semantic Analysis Completed");
+        LOG.info("Semantic Analysis Completed");
 
-      // validate the plan
-      sem.validate();
-      perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.ANALYZE);
+        // validate the plan
+        sem.validate();
+        perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.ANALYZE);
+
+        // A statement that is not a query could change the meaning of the cached plans, e.g.
+        // by creating a temporary function or table.
+        HiveOperation operation = SessionState.get().getHiveOperation();
+        if (operation != HiveOperation.QUERY && operation != HiveOperation.EXPLAIN) {
+          SessionState.get().clearCompiledPlanCache();
+        }
+      }
 
       // Command should be redacted before passing it to the QueryPlan in order
       // to avoid returning sensitive data
@@ -478,7 +591,17 @@ public int compile(String command, boolean resetTaskIds) {
         }
       }
 
-      if (conf.getBoolVar(ConfVars.HIVE_LOG_EXPLAIN_OUTPUT)) {
+      if (conf.getBoolVar(ConfVars.HIVE_QUERY_RESULTS_CACHE_ENABLED)) {
+        useResultsCache(sem, command);
+      }
+
+      if (compiledPlanKey != null && compiledPlan == null && resultsCacheKey == null
+          && resultsCacheEntry == null) {
+        compiledPlan = SessionState.get().getCompiledPlanCache().newCachedPlan(
+            compiledPlanKey, sem, SessionState.get().getHiveOperation());
+      }
+
+      if (tree != null && conf.getBoolVar(ConfVars.HIVE_LOG_EXPLAIN_OUTPUT)) {
         String explainOutput = getExplainOutput(sem, plan, tree.dump());
         if (explainOutput != null) {
           LOG.info("EXPLAIN output for queryid " + queryId + " : "
@@ -508,10 +631,20 @@ public int compile(String command, boolean resetTaskIds) {
       return error.getErrorCode();
     } finally {
       perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.COMPILE);
+      queryProfile.addTimes(perfLogger, compileStart);
+      queryProfile.addMetaStoreCalls("compile", metaCallsBefore, getMetaCallStats());
       restoreSession(queryState);
     }
   }
 
+  private static Map<String, Long> getMetaCallStats() {
+    try {
+      return Hive.get().getMetaCallStats();
+    } catch (HiveException e) {
+      return new HashMap<String, Long>();
+    }
+  }
+
   /**
    * Returns EXPLAIN EXTENDED output for a semantically
    * analyzed query.
@@ -1111,8 +1244,26 @@ public CommandProcessorResponse compileAndRespond(String command) {
 
   private int compileInternal(String command) {
     int ret;
-    synchronized (compileMonitor) {
-      ret = compile(command);
+    SessionState ss = SessionState.get();
+    boolean isParallelEnabled = ss != null && ss.isHiveServerQuery()
+        && conf.getBoolVar(HiveConf.ConfVars.HIVE_SERVER2_PARALLEL_COMPILATION);
+    // Queries of a session share its state, so they are still compiled one at a time.
+    ReentrantLock compileLock = isParallelEnabled ? ss.getCompileLock() : globalCompileLock;
+    Semaphore compileSlots = isParallelEnabled ? getParallelCompileSlots(conf) : null;
+    compileLock.lock();
+    try {
+      if (compileSlots != null) {
+        compileSlots.acquireUninterruptibly();
+      }
+      try {
+        ret = compile(command);
+      } finally {
+        if (compileSlots != null) {
+          compileSlots.release();
+        }
+      }
+    } finally {
+      compileLock.unlock();
     }
     if (ret != 0) {
       try {
@@ -1125,6 +1276,19 @@ private int compileInternal(String command) {
     return ret;
   }
 
+  /**
+   * The limit is set by the configuration of the first query compiled in parallel, i.e. the one
+   * of HiveServer2.
+   */
+  private static synchronized Semaphore getParallelCompileSlots(HiveConf conf) {
+    if (!isParallelCompileLimitSet) {
+      int limit = conf.getIntVar(HiveConf.ConfVars.HIVE_SERVER2_PARALLEL_COMPILATION_LIMIT);
+      parallelCompileSlots = limit > 0 ? new Semaphore(limit, true) : null;
+      isParallelCompileLimitSet = true;
+    }
+    return parallelCompileSlots;
+  }
+
   private CommandProcessorResponse runInternal(String command, boolean alreadyCompiled)
       throws CommandNeedRetryException {
     errorMessage = null;
@@ -1166,6 +1330,8 @@ private CommandProcessorResponse runInternal(String command, boolean alreadyComp
       }
     }
 
+    Map<String, Long> metaCallsBefore = getMetaCallStats();
+
     // the reason that we set the txn manager for the cxt here is because each
     // query has its own ctx object. The txn mgr is shared across the
     // same instance of Driver, which can run multiple queries.
@@ -1208,6 +1374,9 @@ private CommandProcessorResponse runInternal(String command, boolean alreadyComp
 
     perfLogger.PerfLogEnd(CLASS_NAME, PerfLogger.DRIVER_RUN);
     perfLogger.close(LOG, plan);
+    queryProfile.addTimes(perfLogger, perfLogger.getStartTime(PerfLogger.DRIVER_RUN));
+    queryProfile.addMetaStoreCalls("execute", metaCallsBefore, getMetaCallStats());
+    queryProfile.addTaskCounters(plan.getRootTasks());
 
     // Take all the driver run hooks and post-execute them.
     try {
@@ -1500,6 +1669,11 @@ public int execute() throws CommandNeedRetryException {
         plan.getOutputs().remove(output);
       }
 
+      // The results are final at this point, unless they are moved to the results cache
+      if (resultsListener != null && resultsCacheKey == null && plan.getFetchTask() != null) {
+        resultsListener.resultsAvailable();
+      }
+
       hookContext.setHookType(HookContext.HookType.POST_EXEC_HOOK);
       // Get all the post execution hooks and execute them.
       for (Hook peh : getHooks(HiveConf.ConfVars.POSTEXECHOOKS)) {
@@ -1563,6 +1737,10 @@ public int execute() throws CommandNeedRetryException {
     }
     plan.setDone();
 
+    if (resultsCacheKey != null) {
+      addToResultsCache();
+    }
+
     if (SessionState.get() != null) {
       try {
         SessionState.get().getLineageState().clear();
@@ -1739,6 +1917,17 @@ public int close() {
           }
         }
       }
+      resultsCacheKey = null;
+      if (resultsCacheEntry != null) {
+        resultsCacheEntry.release();
+        resultsCacheEntry = null;
+      }
+      if (compiledPlan != null) {
+        if (plan != null && plan.getDone().contains(plan.getQueryId())) {
+          compiledPlan.release();
+        }
+        compiledPlan = null;
+      }
       if (driverCxt != null) {
         driverCxt.shutdown();
         driverCxt = null;
@@ -1793,4 +1982,15 @@ public void setOperationId(String opId) {
     this.operationId = opId;
   }
 
+  /**
+   * @return The profile of the last compiled query, completed once it ran.
+   */
+  public QueryProfile getQueryProfile() {
+    return queryProfile;
+  }
+
+  public void setResultsListener(ResultsListener resultsListener) {
+    this.resultsListener = resultsListener;
+  }
+
 }
@@ -0,0 +1,120 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.hadoop.hive.ql.exec.Task;
+import org.apache.hadoop.hive.ql.exec.Utilities;
+import org.apache.hadoop.hive.ql.exec.spark.SparkTask;
+import org.apache.hadoop.hive.ql.exec.tez.TezTask;
+import org.apache.hadoop.hive.ql.log.PerfLogger;
+import org.apache.hive.spark.counter.SparkCounter;
+import org.apache.hive.spark.counter.SparkCounterGroup;
+import org.apache.hive.spark.counter.SparkCounters;
+import org.apache.tez.common.counters.CounterGroup;
+import org.apache.tez.common.counters.TezCounter;
+import org.apache.tez.common.counters.TezCounters;
+
+/**
+ * QueryProfile: where the time of a query went and what it used, as named values collected by
+ * the Driver while it compiles and runs the query:
+ *
+ * - time.<method>: the duration, in ms, of each step measured by the PerfLogger (compile,
+ *   acquireReadWriteLocks, runTasks, TezRunVertex.<vertex>, ...).
+ * - <phase>.metastore.<method>.calls and .time_ms: the metastore calls made while compiling
+ *   (compile) and while running (execute) the query.
+ * - tez.<stage>.<group>.<counter> and spark.<stage>.<group>.<counter>: the counters of the
+ *   Tez DAGs and Spark jobs of the query, including the records read and written by each
+ *   vertex.
+ */
+public class QueryProfile {
+
+  private final Map<String, Long> values = new TreeMap<String, Long>();
+
+  public synchronized void put(String name, long value) {
+    values.put(name, value);
+  }
+
+  /**
+   * @return The values of the profile, by name.
+   */
+  public synchronized Map<String, Long> getValues() {
+    return new TreeMap<String, Long>(values);
+  }
+
+  /**
+   * Adds the duration of the steps the given PerfLogger measured since the given time.
+   */
+  public void addTimes(PerfLogger perfLogger, long since) {
+    Map<String, Long> startTimes = perfLogger.getStartTimes();
+    for (Map.Entry<String, Long> end : perfLogger.getEndTimes().entrySet()) {
+      Long start = startTimes.get(end.getKey());
+      if (start != null && start >= since && end.getValue() >= start) {
+        put("time." + end.getKey(), end.getValue() - start);
+      }
+    }
+  }
+
+  /**
+   * Adds the metastore calls made during the given phase, from the call statistics of the
+   * metastore client before and after it.
+   */
+  public void addMetaStoreCalls(String phase, Map<String, Long> before, Map<String, Long> after) {
+    for (Map.Entry<String, Long> entry : after.entrySet()) {
+      Long previous = before.get(entry.getKey());
+      long value = entry.getValue() - (previous == null ? 0 : previous);
+      if (value > 0) {
+        put(phase + ".metastore." + entry.getKey(), value);
+      }
+    }
+  }
+
+  /**
+   * Adds the counters of the Tez and Spark tasks of the given plan that ran.
+   */
+  public void addTaskCounters(List<Task<? extends Serializable>> rootTasks) {
+    for (TezTask task : Utilities.getTezTasks(rootTasks)) {
+      TezCounters counters = task.getTezCounters();
+      if (counters == null) {
+        continue;
+      }
+      for (CounterGroup group : counters) {
+        for (TezCounter counter : group) {
+          put("tez." + task.getId() + "." + group.getName() + "." + counter.getName(),
+              counter.getValue());
+        }
+      }
+    }
+    for (SparkTask task : Utilities.getSparkTasks(rootTasks)) {
+      SparkCounters counters = task.getSparkCounters();
+      if (counters == null) {
+        continue;
+      }
+      for (SparkCounterGroup group : counters.getSparkCounterGroups().values()) {
+        for (SparkCounter counter : group.getSparkCounters().values()) {
+          put("spark." + task.getId() + "." + group.getGroupName() + "." + counter.getName(),
+              counter.getValue());
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,577 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.hive.common.ValidTxnList;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.hive_metastoreConstants;
+import org.apache.hadoop.hive.ql.exec.ConditionalTask;
+import org.apache.hadoop.hive.ql.exec.DependencyCollectionTask;
+import org.apache.hadoop.hive.ql.exec.FunctionRegistry;
+import org.apache.hadoop.hive.ql.exec.Operator;
+import org.apache.hadoop.hive.ql.exec.Task;
+import org.apache.hadoop.hive.ql.exec.mr.ExecDriver;
+import org.apache.hadoop.hive.ql.exec.mr.MapredLocalTask;
+import org.apache.hadoop.hive.ql.exec.spark.SparkTask;
+import org.apache.hadoop.hive.ql.exec.tez.TezTask;
+import org.apache.hadoop.hive.ql.hooks.ReadEntity;
+import org.apache.hadoop.hive.ql.hooks.WriteEntity;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.apache.hadoop.hive.ql.parse.BaseSemanticAnalyzer;
+import org.apache.hadoop.hive.ql.parse.SemanticAnalyzer;
+import org.apache.hadoop.hive.ql.plan.AggregationDesc;
+import org.apache.hadoop.hive.ql.plan.AppMasterEventDesc;
+import org.apache.hadoop.hive.ql.plan.BaseWork;
+import org.apache.hadoop.hive.ql.plan.DemuxDesc;
+import org.apache.hadoop.hive.ql.plan.DummyStoreDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.plan.FetchWork;
+import org.apache.hadoop.hive.ql.plan.FileSinkDesc;
+import org.apache.hadoop.hive.ql.plan.FilterDesc;
+import org.apache.hadoop.hive.ql.plan.ForwardDesc;
+import org.apache.hadoop.hive.ql.plan.GroupByDesc;
+import org.apache.hadoop.hive.ql.plan.HashTableDummyDesc;
+import org.apache.hadoop.hive.ql.plan.HashTableSinkDesc;
+import org.apache.hadoop.hive.ql.plan.JoinDesc;
+import org.apache.hadoop.hive.ql.plan.LateralViewForwardDesc;
+import org.apache.hadoop.hive.ql.plan.LateralViewJoinDesc;
+import org.apache.hadoop.hive.ql.plan.LimitDesc;
+import org.apache.hadoop.hive.ql.plan.ListSinkDesc;
+import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.MapredLocalWork;
+import org.apache.hadoop.hive.ql.plan.MapredWork;
+import org.apache.hadoop.hive.ql.plan.MuxDesc;
+import org.apache.hadoop.hive.ql.plan.OperatorDesc;
+import org.apache.hadoop.hive.ql.plan.ReduceSinkDesc;
+import org.apache.hadoop.hive.ql.plan.SelectDesc;
+import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
+import org.apache.hadoop.hive.ql.plan.UDTFDesc;
+import org.apache.hadoop.hive.ql.plan.UnionDesc;
+import org.apache.hadoop.hive.ql.session.SessionState;
+import org.apache.hadoop.hive.ql.udf.UDFType;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.hive.common.util.AnnotationUtils;
+
+/**
+ * QueryResultsCache: the results of the queries run by HiveServer2, kept so that running the
+ * same query again on unchanged inputs is answered by fetching the cached results instead of
+ * running its jobs.
+ *
+ * The key of a query is its text, the user and current database, the format of the result
+ * files, and the version of every table and partition it reads (their last DDL time, which the
+ * metastore updates whenever Hive writes to them, and the valid transaction list for
+ * transactional tables). A query is only cached when its inputs can't be changed behind the
+ * metastore's back (no external, temporary or non-native tables) and when all the functions
+ * of its plan are deterministic.
+ *
+ * The results of a query are moved from its scratch directory to the cache directory after
+ * its jobs succeed. Entries are evicted when they are older than the configured lifetime, or
+ * when the cache is full, least recently used first; the files of an evicted entry are only
+ * deleted once the queries fetching from it are done.
+ *
+ * The cache outlives the sessions of the queries that use it, so it works on its own instance
+ * of the file system opened by the login user of HiveServer2, which closing the file systems of
+ * a session leaves alone. Its directory is deleted when HiveServer2 stops.
+ */
+public class QueryResultsCache {
+
+  private static final Log LOG = LogFactory.getLog(QueryResultsCache.class);
+
+  private static QueryResultsCache instance = null;
+
+  private final FileSystem fs;
+  private final Path cacheDir;
+  private final long maxSize;
+  private final long maxEntrySize;
+  private final long maxEntryLifetimeMs;
+
+  /** Valid entries, least recently used first. */
+  private final LinkedHashMap<String, CacheEntry> entries =
+      new LinkedHashMap<String, CacheEntry>(16, 0.75f, true);
+  private long totalSize = 0;
+
+  /**
+   * The cached results of a query. An entry returned by lookup() or add() must be released
+   * once its results have been fetched.
+   */
+  public class CacheEntry {
+    private final String key;
+    private final Path resultsDir;
+    private final long size;
+    private final long createTime = System.currentTimeMillis();
+    private int refCount = 1;
+    private boolean isValid = true;
+
+    private CacheEntry(String key, Path resultsDir, long size) {
+      this.key = key;
+      this.resultsDir = resultsDir;
+      this.size = size;
+    }
+
+    public Path getResultsDir() {
+      return resultsDir;
+    }
+
+    public void release() {
+      boolean delete;
+      synchronized (QueryResultsCache.this) {
+        delete = --refCount == 0 && !isValid;
+      }
+      if (delete) {
+        deleteResults(this);
+      }
+    }
+  }
+
+  QueryResultsCache(final HiveConf conf) throws IOException {
+    final Path rootDir =
+        new Path(HiveConf.getVar(conf, ConfVars.HIVE_QUERY_RESULTS_CACHE_DIRECTORY));
+    try {
+      fs = UserGroupInformation.getLoginUser().doAs(new PrivilegedExceptionAction<FileSystem>() {
+        @Override
+        public FileSystem run() throws IOException {
+          return FileSystem.newInstance(rootDir.toUri(), conf);
+        }
+      });
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while opening the query results cache file system", e);
+    }
+    cacheDir = fs.makeQualified(new Path(rootDir, UUID.randomUUID().toString()));
+    fs.mkdirs(cacheDir);
+    // the moved results keep their owner, who fetches them from here
+    fs.setPermission(cacheDir, new FsPermission((short) 0711));
+    maxSize = HiveConf.getLongVar(conf, ConfVars.HIVE_QUERY_RESULTS_CACHE_MAX_SIZE);
+    maxEntrySize = HiveConf.getLongVar(conf, ConfVars.HIVE_QUERY_RESULTS_CACHE_MAX_ENTRY_SIZE);
+    maxEntryLifetimeMs = HiveConf.getTimeVar(conf,
+        ConfVars.HIVE_QUERY_RESULTS_CACHE_MAX_ENTRY_LIFETIME, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * The cache is set up with the configuration of the first query that uses it.
+   */
+  public static synchronized QueryResultsCache getInstance(HiveConf conf) throws IOException {
+    if (instance == null) {
+      instance = new QueryResultsCache(conf);
+      LOG.info("Created the query results cache in " + instance.cacheDir);
+    }
+    return instance;
+  }
+
+  /**
+   * Deletes the cache directory, if the cache was created. Called when HiveServer2 stops.
+   */
+  public static synchronized void shutdown() {
+    if (instance != null) {
+      instance.stop();
+      instance = null;
+    }
+  }
+
+  /**
+   * Deletes the cached results, including the ones still being fetched, and closes the file
+   * system of the cache.
+   */
+  synchronized void stop() {
+    entries.clear();
+    totalSize = 0;
+    try {
+      fs.delete(cacheDir, true);
+      fs.close();
+    } catch (IOException e) {
+      LOG.warn("Failed to delete the query results cache in " + cacheDir, e);
+    }
+  }
+
+  /**
+   * @return The entry of the results of the query with the given key, or null if they are not
+   *         in the cache. The caller must release the entry.
+   */
+  public CacheEntry lookup(String key) {
+    CacheEntry expired;
+    synchronized (this) {
+      CacheEntry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (System.currentTimeMillis() - entry.createTime < maxEntryLifetimeMs) {
+        ++entry.refCount;
+        return entry;
+      }
+      expired = invalidate(entry) ? entry : null;
+    }
+    if (expired != null) {
+      deleteResults(expired);
+    }
+    return null;
+  }
+
+  /**
+   * Moves the results of a query to the cache.
+   * @param key The key of the query.
+   * @param resultsDir The directory the query wrote its results to.
+   * @return The entry of the results, which must be released by the caller, or null if the
+   *         results could not be added to the cache; resultsDir is left alone in that case.
+   */
+  public CacheEntry add(String key, Path resultsDir, HiveConf conf) throws IOException {
+    FileSystem resultsFs = resultsDir.getFileSystem(conf);
+    if (!resultsFs.getUri().equals(fs.getUri())) {
+      LOG.info("Not caching query results on " + resultsFs.getUri()
+          + ", the results cache is on " + fs.getUri());
+      return null;
+    }
+    if (!resultsFs.exists(resultsDir)) {
+      return null;
+    }
+    long size = resultsFs.getContentSummary(resultsDir).getLength();
+    if (size > maxEntrySize || size > maxSize) {
+      LOG.info("Not caching query results of " + size + " bytes");
+      return null;
+    }
+    Path cachedDir = new Path(cacheDir, UUID.randomUUID().toString());
+    if (!fs.rename(resultsDir, cachedDir)) {
+      LOG.warn("Failed to move the query results from " + resultsDir + " to " + cachedDir);
+      return null;
+    }
+    CacheEntry entry = new CacheEntry(key, cachedDir, size);
+    List<CacheEntry> evicted = new ArrayList<CacheEntry>();
+    synchronized (this) {
+      if (entries.containsKey(key)) {
+        // the same query finished concurrently; keep the existing entry
+        entry.isValid = false;
+        return entry;
+      }
+      Iterator<CacheEntry> it = entries.values().iterator();
+      long now = System.currentTimeMillis();
+      while (it.hasNext()) {
+        CacheEntry other = it.next();
+        if (totalSize + size <= maxSize && now - other.createTime < maxEntryLifetimeMs) {
+          continue;
+        }
+        it.remove();
+        if (invalidate(other)) {
+          evicted.add(other);
+        }
+      }
+      entries.put(key, entry);
+      totalSize += size;
+    }
+    for (CacheEntry other : evicted) {
+      deleteResults(other);
+    }
+    return entry;
+  }
+
+  /**
+   * Removes an entry from the cache, if it is still there. Must be called with the lock held.
+   * @return Whether the results of the entry can be deleted right away.
+   */
+  private boolean invalidate(CacheEntry entry) {
+    if (entries.get(entry.key) == entry) {
+      entries.remove(entry.key);
+    }
+    entry.isValid = false;
+    totalSize -= entry.size;
+    return entry.refCount == 0;
+  }
+
+  private void deleteResults(CacheEntry entry) {
+    try {
+      fs.delete(entry.resultsDir, true);
+    } catch (IOException e) {
+      LOG.warn("Failed to delete cached query results in " + entry.resultsDir, e);
+    }
+  }
+
+  /**
+   * @return The key of the results of the given query plan, or null if they can't be cached.
+   */
+  public static String getCacheKey(HiveConf conf, String command, BaseSemanticAnalyzer sem,
+      QueryPlan plan) {
+    SessionState ss = SessionState.get();
+    if (ss == null || !ss.isHiveServerQuery() || !(sem instanceof SemanticAnalyzer)
+        || !sem.getQueryProperties().isQuery() || plan.getFetchTask() == null
+        || plan.getRootTasks().isEmpty() || ss.isQueryCurrentTimestampUsed()) {
+      return null;
+    }
+    FetchWork fetchWork = plan.getFetchTask().getWork();
+    if (fetchWork.getTblDir() == null) {
+      return null;
+    }
+    for (WriteEntity output : plan.getOutputs()) {
+      if (!output.isTempURI()) {
+        return null;
+      }
+    }
+
+    // The last DDL time is in seconds; data written during the current second could change
+    // the inputs without changing their version.
+    long now = System.currentTimeMillis() / 1000;
+    Set<String> inputs = new TreeSet<String>();
+    boolean isAcid = false;
+    for (ReadEntity input : plan.getInputs()) {
+      if (input.isDummy()) {
+        continue;
+      }
+      if (input.getType() != ReadEntity.Type.TABLE
+          && input.getType() != ReadEntity.Type.PARTITION) {
+        return null;
+      }
+      Table table = input.getTable();
+      if (table.isTemporary() || table.isNonNative()
+          || table.getTableType() == TableType.EXTERNAL_TABLE) {
+        return null;
+      }
+      isAcid |= "true".equalsIgnoreCase(
+          table.getProperty(hive_metastoreConstants.TABLE_IS_TRANSACTIONAL));
+      String ddlTime = input.getParameters() == null ? null
+          : input.getParameters().get(hive_metastoreConstants.DDL_TIME);
+      try {
+        if (ddlTime == null || Long.parseLong(ddlTime) >= now) {
+          return null;
+        }
+      } catch (NumberFormatException e) {
+        return null;
+      }
+      inputs.add(input.getName() + "=" + ddlTime);
+    }
+    if (!isDeterministic(plan.getRootTasks(), new HashSet<Task<?>>())) {
+      LOG.debug("Not caching the results of a query with non-deterministic functions");
+      return null;
+    }
+
+    TableDesc resultDesc = fetchWork.getTblDesc();
+    StringBuilder key = new StringBuilder();
+    key.append(ss.getUserName()).append('\n');
+    key.append(ss.getCurrentDatabase()).append('\n');
+    key.append(resultDesc.getSerdeClassName()).append(' ')
+        .append(resultDesc.getInputFileFormatClassName()).append('\n');
+    for (String input : inputs) {
+      key.append(input).append('\n');
+    }
+    if (isAcid) {
+      key.append(conf.get(ValidTxnList.VALID_TXNS_KEY)).append('\n');
+    }
+    key.append(normalizeQuery(command));
+    return key.toString();
+  }
+
+  /**
+   * @return The query with its leading and trailing whitespace removed, and every other run of
+   *         whitespace outside of quotes replaced with a single space.
+   */
+  static String normalizeQuery(String command) {
+    StringBuilder result = new StringBuilder(command.length());
+    char quote = 0;
+    boolean isSpace = false;
+    for (int i = 0; i < command.length(); ++i) {
+      char c = command.charAt(i);
+      if (quote != 0) {
+        result.append(c);
+        if (c == '\\' && i + 1 < command.length()) {
+          result.append(command.charAt(++i));
+        } else if (c == quote) {
+          quote = 0;
+        }
+        continue;
+      }
+      if (Character.isWhitespace(c)) {
+        isSpace = result.length() > 0;
+        continue;
+      }
+      if (isSpace) {
+        result.append(' ');
+        isSpace = false;
+      }
+      if (c == '\'' || c == '"' || c == '`') {
+        quote = c;
+      }
+      result.append(c);
+    }
+    return result.toString();
+  }
+
+  /**
+   * @return Whether the operators of the given tasks and their children only evaluate
+   *         deterministic functions. Tasks and operators that are not known not to introduce
+   *         non-determinism (e.g. scripts) make the query non-deterministic.
+   */
+  private static boolean isDeterministic(List<Task<? extends Serializable>> tasks,
+      Set<Task<?>> visited) {
+    for (Task<? extends Serializable> task : tasks) {
+      if (!visited.add(task)) {
+        continue;
+      }
+      Collection<Operator<?>> ops = new ArrayList<Operator<?>>();
+      if (task instanceof ConditionalTask) {
+        if (!isDeterministic(((ConditionalTask) task).getListTasks(), visited)) {
+          return false;
+        }
+      } else if (task instanceof ExecDriver) {
+        MapredWork work = ((ExecDriver) task).getWork();
+        ops.addAll(work.getAllOperators());
+        addLocalWorkOperators(work.getMapWork().getMapRedLocalWork(), ops);
+      } else if (task instanceof MapredLocalTask) {
+        addLocalWorkOperators(((MapredLocalTask) task).getWork(), ops);
+      } else if (task instanceof TezTask) {
+        for (BaseWork work : ((TezTask) task).getWork().getAllWork()) {
+          ops.addAll(work.getAllOperators());
+        }
+      } else if (task instanceof SparkTask) {
+        for (BaseWork work : ((SparkTask) task).getWork().getAllWork()) {
+          ops.addAll(work.getAllOperators());
+        }
+      } else if (!(task instanceof DependencyCollectionTask)) {
+        return false;
+      }
+      for (Operator<?> op : ops) {
+        if (!isDeterministic(op.getConf())) {
+          return false;
+        }
+      }
+      if (task.getChildTasks() != null && !isDeterministic(task.getChildTasks(), visited)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void addLocalWorkOperators(MapredLocalWork localWork,
+      Collection<Operator<?>> ops) {
+    if (localWork == null) {
+      return;
+    }
+    List<Operator<?>> pending = new ArrayList<Operator<?>>(localWork.getAliasToWork().values());
+    while (!pending.isEmpty()) {
+      Operator<?> op = pending.remove(pending.size() - 1);
+      ops.add(op);
+      if (op.getChildOperators() != null) {
+        pending.addAll(op.getChildOperators());
+      }
+    }
+  }
+
+  private static boolean isDeterministic(OperatorDesc desc) {
+    List<ExprNodeDesc> exprs = new ArrayList<ExprNodeDesc>();
+    if (desc instanceof TableScanDesc) {
+      exprs.add(((TableScanDesc) desc).getFilterExpr());
+    } else if (desc instanceof FilterDesc) {
+      exprs.add(((FilterDesc) desc).getPredicate());
+    } else if (desc instanceof SelectDesc) {
+      addAll(exprs, ((SelectDesc) desc).getColList());
+    } else if (desc instanceof GroupByDesc) {
+      GroupByDesc groupBy = (GroupByDesc) desc;
+      addAll(exprs, groupBy.getKeys());
+      if (groupBy.getAggregators() != null) {
+        for (AggregationDesc aggr : groupBy.getAggregators()) {
+          addAll(exprs, aggr.getParameters());
+        }
+      }
+    } else if (desc instanceof ReduceSinkDesc) {
+      ReduceSinkDesc rs = (ReduceSinkDesc) desc;
+      addAll(exprs, rs.getKeyCols());
+      addAll(exprs, rs.getValueCols());
+      addAll(exprs, rs.getPartitionCols());
+    } else if (desc instanceof JoinDesc) {
+      JoinDesc join = (JoinDesc) desc;
+      addAll(exprs, join.getExprs());
+      addAll(exprs, join.getFilters());
+      if (desc instanceof MapJoinDesc) {
+        addAll(exprs, ((MapJoinDesc) desc).getKeys());
+      } else if (desc instanceof HashTableSinkDesc) {
+        addAll(exprs, ((HashTableSinkDesc) desc).getKeys());
+      }
+    } else if (desc instanceof UDTFDesc) {
+      UDFType type = AnnotationUtils.getAnnotation(
+          ((UDTFDesc) desc).getGenericUDTF().getClass(), UDFType.class);
+      if (type != null && (!type.deterministic() || type.stateful())) {
+        return false;
+      }
+    } else if (!(desc instanceof FileSinkDesc || desc instanceof LimitDesc
+        || desc instanceof UnionDesc || desc instanceof ForwardDesc
+        || desc instanceof ListSinkDesc || desc instanceof DummyStoreDesc
+        || desc instanceof HashTableDummyDesc || desc instanceof DemuxDesc
+        || desc instanceof MuxDesc || desc instanceof AppMasterEventDesc
+        || desc instanceof LateralViewForwardDesc || desc instanceof LateralViewJoinDesc)) {
+      return false;
+    }
+    for (ExprNodeDesc expr : exprs) {
+      if (!isDeterministic(expr)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isDeterministic(ExprNodeDesc expr) {
+    if (expr == null) {
+      return true;
+    }
+    if (expr instanceof ExprNodeGenericFuncDesc
+        && !FunctionRegistry.isDeterministic(((ExprNodeGenericFuncDesc) expr).getGenericUDF())) {
+      return false;
+    }
+    if (expr.getChildren() != null) {
+      for (ExprNodeDesc child : expr.getChildren()) {
+        if (!isDeterministic(child)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private static void addAll(List<ExprNodeDesc> exprs, Collection<ExprNodeDesc> more) {
+    if (more != null) {
+      exprs.addAll(more);
+    }
+  }
+
+  private static void addAll(List<ExprNodeDesc> exprs, Map<Byte, List<ExprNodeDesc>> more) {
+    if (more != null) {
+      for (List<ExprNodeDesc> list : more.values()) {
+        addAll(exprs, list);
+      }
+    }
+  }
+}
@@ -30,9 +30,13 @@
 import org.apache.hadoop.hive.ql.exec.tez.TezContext;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.AppMasterEventDesc;
+import org.apache.hadoop.hive.ql.plan.DynamicSemiJoinEventDesc;
 import org.apache.hadoop.hive.ql.plan.api.OperatorType;
 import org.apache.hadoop.hive.serde2.Serializer;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.StructField;
+import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.io.Writable;
 import org.apache.hadoop.util.ReflectionUtils;
@@ -41,7 +45,8 @@
 
 /**
  * AppMasterEventOperator sends any rows it receives to the Tez AM. This can be
- * used to control execution dynamically.
+ * used to control execution dynamically. The rows of a dynamic semi join
+ * reduction are not sent but added to a bloom filter, which is sent instead.
  */
 @SuppressWarnings({ "deprecation", "serial" })
 public class AppMasterEventOperator extends Operator<AppMasterEventDesc> {
@@ -50,6 +55,9 @@ public class AppMasterEventOperator extends Operator<AppMasterEventDesc> {
   protected transient DataOutputBuffer buffer;
   protected transient boolean hasReachedMaxSize = false;
   protected transient long MAX_SIZE;
+  protected transient SemiJoinFilter semiJoinFilter;
+  protected transient StructField keyField;
+  protected transient PrimitiveObjectInspector keyInspector;
 
   @Override
   public Collection<Future<?>> initializeOp(Configuration hconf) throws HiveException {
@@ -59,6 +67,13 @@ public Collection<Future<?>> initializeOp(Configuration hconf) throws HiveExcept
     serializer =
         (Serializer) ReflectionUtils.newInstance(conf.getTable().getDeserializerClass(), null);
     initDataBuffer(false);
+    if (conf instanceof DynamicSemiJoinEventDesc) {
+      StructObjectInspector soi = (StructObjectInspector) inputObjInspectors[0];
+      keyField = soi.getAllStructFieldRefs().get(0);
+      keyInspector = (PrimitiveObjectInspector) keyField.getFieldObjectInspector();
+      semiJoinFilter = new SemiJoinFilter(keyInspector.getPrimitiveCategory(),
+          ((DynamicSemiJoinEventDesc) conf).getExpectedEntries());
+    }
     return result;
   }
 
@@ -82,6 +97,12 @@ public void process(Object row, int tag) throws HiveException {
     }
 
     ObjectInspector rowInspector = inputObjInspectors[0];
+    if (semiJoinFilter != null) {
+      semiJoinFilter.add(
+          ((StructObjectInspector) rowInspector).getStructFieldData(row, keyField), keyInspector);
+      forward(row, rowInspector);
+      return;
+    }
     try {
       Writable writableRow = serializer.serialize(row, rowInspector);
       writableRow.write(buffer);
@@ -112,7 +133,21 @@ public void closeOp(boolean abort) throws HiveException {
 
       byte[] payload = null;
 
-      if (hasReachedMaxSize) {
+      if (semiJoinFilter != null) {
+        try {
+          semiJoinFilter.write(buffer);
+        } catch (IOException e) {
+          throw new HiveException(e);
+        }
+        if (buffer.getLength() > MAX_SIZE) {
+          // the range of long string keys can make the filter bigger than planned
+          if (isLogInfoEnabled) {
+            LOG.info("Not sending the semi join filter. Buffer size too large: "
+                + buffer.getLength());
+          }
+          initDataBuffer(true);
+        }
+      } else if (hasReachedMaxSize) {
         initDataBuffer(true);
       }
 
@@ -109,6 +109,11 @@ private void unpackDoubleStats(ObjectInspector oi, Object o, String fName,
     } else if (fName.equals("numdistinctvalues")) {
       long v = ((LongObjectInspector) oi).get(o);
       statsObj.getStatsData().getDoubleStats().setNumDVs(v);
+    } else if (fName.equals("ndvbitvector")) {
+      String v = unpackBitVectors(oi, o);
+      if (v != null) {
+        statsObj.getStatsData().getDoubleStats().setBitVectors(v);
+      }
     } else if (fName.equals("max")) {
       double d = ((DoubleObjectInspector) oi).get(o);
       statsObj.getStatsData().getDoubleStats().setHighValue(d);
@@ -126,6 +131,11 @@ private void unpackDecimalStats(ObjectInspector oi, Object o, String fName,
     } else if (fName.equals("numdistinctvalues")) {
       long v = ((LongObjectInspector) oi).get(o);
       statsObj.getStatsData().getDecimalStats().setNumDVs(v);
+    } else if (fName.equals("ndvbitvector")) {
+      String v = unpackBitVectors(oi, o);
+      if (v != null) {
+        statsObj.getStatsData().getDecimalStats().setBitVectors(v);
+      }
     } else if (fName.equals("max")) {
       HiveDecimal d = ((HiveDecimalObjectInspector) oi).getPrimitiveJavaObject(o);
       statsObj.getStatsData().getDecimalStats().setHighValue(convertToThriftDecimal(d));
@@ -135,6 +145,11 @@ private void unpackDecimalStats(ObjectInspector oi, Object o, String fName,
     }
   }
 
+  private String unpackBitVectors(ObjectInspector oi, Object o) {
+    String v = ((StringObjectInspector) oi).getPrimitiveJavaObject(o);
+    return v == null || v.isEmpty() ? null : v;
+  }
+
   private Decimal convertToThriftDecimal(HiveDecimal d) {
     return new Decimal(ByteBuffer.wrap(d.unscaledValue().toByteArray()), (short)d.scale());
   }
@@ -147,6 +162,11 @@ private void unpackLongStats(ObjectInspector oi, Object o, String fName,
     } else if (fName.equals("numdistinctvalues")) {
       long v = ((LongObjectInspector) oi).get(o);
       statsObj.getStatsData().getLongStats().setNumDVs(v);
+    } else if (fName.equals("ndvbitvector")) {
+      String v = unpackBitVectors(oi, o);
+      if (v != null) {
+        statsObj.getStatsData().getLongStats().setBitVectors(v);
+      }
     } else if (fName.equals("max")) {
       long v = ((LongObjectInspector) oi).get(o);
       statsObj.getStatsData().getLongStats().setHighValue(v);
@@ -164,6 +184,11 @@ private void unpackStringStats(ObjectInspector oi, Object o, String fName,
     } else if (fName.equals("numdistinctvalues")) {
       long v = ((LongObjectInspector) oi).get(o);
       statsObj.getStatsData().getStringStats().setNumDVs(v);
+    } else if (fName.equals("ndvbitvector")) {
+      String v = unpackBitVectors(oi, o);
+      if (v != null) {
+        statsObj.getStatsData().getStringStats().setBitVectors(v);
+      }
     } else if (fName.equals("avglength")) {
       double d = ((DoubleObjectInspector) oi).get(o);
       statsObj.getStatsData().getStringStats().setAvgColLen(d);
@@ -111,6 +111,8 @@ public class GroupByOperator extends Operator<GroupByDesc> {
 
   private transient boolean firstRow;
   private transient boolean hashAggr;
+  // hash aggregation of unsorted input, which keeps every group until the end of the input
+  private transient boolean completeHashAggr;
   private transient long numRowsInput;
   private transient long numRowsHashTbl;
   private transient int groupbyMapAggrInterval;
@@ -339,8 +341,9 @@ protected Collection<Future<?>> initializeOp(Configuration hconf) throws HiveExc
     }
 
     aggregationsParametersLastInvoke = new Object[conf.getAggregators().size()][];
+    completeHashAggr = conf.isUnsortedInput();
     if ((conf.getMode() != GroupByDesc.Mode.HASH || conf.getBucketGroup()) &&
-      (!groupingSetsPresent)) {
+      (!groupingSetsPresent) && !completeHashAggr) {
       aggregations = newAggregations();
       hashAggr = false;
     } else {
@@ -707,7 +710,7 @@ public void process(Object row, int tag) throws HiveException {
     firstRow = false;
     ObjectInspector rowInspector = inputObjInspectors[tag];
     // Total number of input rows is needed for hash aggregation only
-    if (hashAggr) {
+    if (hashAggr && !completeHashAggr) {
       numRowsInput++;
       // if hash aggregation is not behaving properly, disable it
       if (numRowsInput == numRowsCompareHashAggr) {
@@ -791,8 +794,8 @@ private void processHashAggr(Object row, ObjectInspector rowInspector,
     // can be flushed out of the hash table.
 
     // Based on user-specified parameters, check if the hash table needs to be
-    // flushed.
-    if ( shouldBeFlushed(newKeys)) {
+    // flushed. The groups of an unsorted input are only complete at the end of it.
+    if (!completeHashAggr && shouldBeFlushed(newKeys)) {
       flushHashTable(false);
     }
   }
@@ -0,0 +1,110 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec;
+
+/**
+ * HeavyHitterSketch: finds the frequent values of a stream of ints, with the Space-Saving
+ * algorithm. It counts at most capacity values; a value that isn't counted yet replaces the
+ * one with the lowest count and starts from that count. Any value that makes up more than
+ * 1/capacity of the stream is counted, with a count that may be over its actual one by at
+ * most the lowest count.
+ */
+class HeavyHitterSketch {
+
+  private final int[] values;
+  private final long[] counts;
+  private final double minShare;
+  private final long minTotal;
+  private int size = 0;
+  private long total = 0;
+  // the values found frequent at the last update
+  private final int[] frequent;
+  private int numFrequent = 0;
+
+  /**
+   * @param capacity The number of values counted.
+   * @param minShare The share of the stream over which a value is frequent.
+   * @param minTotal The number of values to see before any is frequent.
+   */
+  HeavyHitterSketch(int capacity, double minShare, long minTotal) {
+    values = new int[capacity];
+    counts = new long[capacity];
+    frequent = new int[capacity];
+    this.minShare = minShare;
+    this.minTotal = minTotal;
+  }
+
+  void add(int value) {
+    total++;
+    int min = 0;
+    for (int i = 0; i < size; i++) {
+      if (values[i] == value) {
+        counts[i]++;
+        updateFrequent();
+        return;
+      }
+      if (counts[i] < counts[min]) {
+        min = i;
+      }
+    }
+    if (size < values.length) {
+      min = size++;
+      counts[min] = 0;
+    }
+    values[min] = value;
+    counts[min]++;
+    updateFrequent();
+  }
+
+  private void updateFrequent() {
+    if (total < minTotal) {
+      return;
+    }
+    // the lowest count is the most a value's count may be over its actual one
+    long error = 0;
+    if (size == values.length) {
+      error = Long.MAX_VALUE;
+      for (int i = 0; i < size; i++) {
+        error = Math.min(error, counts[i]);
+      }
+    }
+    numFrequent = 0;
+    for (int i = 0; i < size; i++) {
+      if (counts[i] - error >= total * minShare) {
+        frequent[numFrequent++] = values[i];
+      }
+    }
+  }
+
+  /**
+   * @return Whether the value was frequent as of the last value added.
+   */
+  boolean isFrequent(int value) {
+    for (int i = 0; i < numFrequent; i++) {
+      if (frequent[i] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  long getTotal() {
+    return total;
+  }
+}
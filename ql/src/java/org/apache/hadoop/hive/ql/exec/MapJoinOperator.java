@@ -128,8 +128,9 @@ protected Collection<Future<?>> initializeOp(Configuration hconf) throws HiveExc
 
     int tagLen = conf.getTagLength();
 
-    // On Tez only: The hash map might already be cached in the container we run
-    // the task in. On MR: The cache is a no-op.
+    // On Tez: The hash map might already be cached in the container we run
+    // the task in. On Spark: It might have been loaded by another task of the query
+    // in the same executor. On MR: The cache is a no-op.
     cacheKey = HiveConf.getVar(hconf, HiveConf.ConfVars.HIVEQUERYID)
       + "__HASH_MAP_"+this.getOperatorId()+"_container";
 
@@ -149,7 +150,12 @@ protected Collection<Future<?>> initializeOp(Configuration hconf) throws HiveExc
     final ExecMapperContext mapContext = getExecContext();
     final MapredContext mrContext = MapredContext.get();
 
-    if (!conf.isBucketMapJoin() && !useHybridGraceHashJoin) {
+    // The tables of a work that reloads them when its input file changes are cleared on close
+    // (see closeOp), so they cannot be shared with the other tasks through the cache.
+    boolean inputFileChangeSensitive = mapContext != null && mapContext.getLocalWork() != null
+        && mapContext.getLocalWork().getInputFileChangeSensitive();
+
+    if (!conf.isBucketMapJoin() && !useHybridGraceHashJoin && !inputFileChangeSensitive) {
       /*
        * The issue with caching in case of bucket map join is that different tasks
        * process different buckets and if the container is reused to join a different bucket,
@@ -173,8 +179,7 @@ public Pair<MapJoinTableContainer[], MapJoinTableContainerSerDe[]> call()
                 }
               });
       result.add(future);
-    } else if (mapContext == null || mapContext.getLocalWork() == null
-        || mapContext.getLocalWork().getInputFileChangeSensitive() == false) {
+    } else if (!inputFileChangeSensitive) {
       loadHashTable(mapContext, mrContext);
       hashTblInitedOnce = true;
     }
@@ -35,8 +35,12 @@ private ObjectCacheFactory() {
    * Returns the appropriate cache
    */
   public static ObjectCache getCache(Configuration conf) {
-    if (HiveConf.getVar(conf, HiveConf.ConfVars.HIVE_EXECUTION_ENGINE).equals("tez")) {
+    String engine = HiveConf.getVar(conf, HiveConf.ConfVars.HIVE_EXECUTION_ENGINE);
+    if (engine.equals("tez")) {
       return new org.apache.hadoop.hive.ql.exec.tez.ObjectCache();
+    } else if (engine.equals("spark")) {
+      return new org.apache.hadoop.hive.ql.exec.spark.ObjectCache(
+          HiveConf.getVar(conf, HiveConf.ConfVars.HIVEQUERYID));
     } else {
       return new org.apache.hadoop.hive.ql.exec.mr.ObjectCache();
     }
@@ -71,7 +71,13 @@
   private transient ExecMapperContext execContext;
   private transient boolean rootInitializeCalled = false;
 
-  private static AtomicInteger seqId;
+  // Thread local, so that queries compiled in parallel don't reset each other's ids.
+  private static ThreadLocal<AtomicInteger> seqId = new ThreadLocal<AtomicInteger>() {
+    @Override
+    protected AtomicInteger initialValue() {
+      return new AtomicInteger(0);
+    }
+  };
 
   // It can be optimized later so that an operator operator (init/close) is performed
   // only after that operation has been performed on all the parents. This will require
@@ -94,10 +100,6 @@ public static enum State {
 
   protected transient State state = State.UNINIT;
 
-  static {
-    seqId = new AtomicInteger(0);
-  }
-
   private boolean useBucketizedHiveInputFormat;
 
   // dummy operator (for not increasing seqId)
@@ -109,11 +111,11 @@ private Operator(String name) {
   }
 
   public Operator() {
-    this(String.valueOf(seqId.getAndIncrement()));
+    this(String.valueOf(seqId.get().getAndIncrement()));
   }
 
   public static void resetId() {
-    seqId.set(0);
+    seqId.get().set(0);
   }
 
   /**
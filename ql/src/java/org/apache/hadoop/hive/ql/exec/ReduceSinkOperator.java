@@ -77,6 +77,12 @@ public static enum Counter {
 
   private static final long serialVersionUID = 1L;
   private static final MurmurHash hash = (MurmurHash) MurmurHash.getInstance();
+  // sample one row in SKEW_SAMPLE_INTERVAL, a key is frequent once it makes up SKEW_MIN_SHARE
+  // of SKEW_MIN_SAMPLES sampled rows or more
+  private static final int SKEW_SAMPLE_INTERVAL = 8;
+  private static final int SKEW_SKETCH_CAPACITY = 64;
+  private static final double SKEW_MIN_SHARE = 0.02;
+  private static final long SKEW_MIN_SAMPLES = 1000;
 
   private transient ObjectInspector[] partitionObjectInspectors;
   private transient ObjectInspector[] bucketObjectInspectors;
@@ -126,6 +132,11 @@ public static enum Counter {
   protected transient List<List<Integer>> distinctColIndices;
   protected transient Random random;
   protected transient int bucketNumber;
+  // the frequent partitioning keys, which are spread over several reducers
+  protected transient HeavyHitterSketch skewedKeys;
+  protected transient int skewedKeysSpread;
+  protected transient long numInputRows;
+  protected transient long numSkewedRows;
 
   /**
    * This two dimensional array holds key data and a corresponding Union object
@@ -214,6 +225,12 @@ protected Collection<Future<?>> initializeOp(Configuration hconf) throws HiveExc
         buckColIdxInKey = conf.getPartitionCols().size();
       }
 
+      skewedKeysSpread = conf.getSkewedKeysSpread();
+      if (skewedKeysSpread > 1) {
+        skewedKeys = new HeavyHitterSketch(SKEW_SKETCH_CAPACITY, SKEW_MIN_SHARE,
+            SKEW_MIN_SAMPLES);
+      }
+
       tag = conf.getTag();
       tagByte[0] = (byte) tag;
       skipTag = conf.getSkipTag();
@@ -359,7 +376,7 @@ public void process(Object row, int tag) throws HiveException {
         firstKey = toHiveKey(cachedKeys[0], tag, distKeyLength);
       }
 
-      final int hashCode;
+      int hashCode;
 
       // distKeyLength doesn't include tag, but includes buckNum in cachedKeys[0]
       if (useUniformHash && partitionEval.length > 0) {
@@ -368,6 +385,10 @@ public void process(Object row, int tag) throws HiveException {
         hashCode = computeHashCode(row, bucketNumber);
       }
 
+      if (skewedKeys != null) {
+        hashCode = spreadSkewedKey(hashCode);
+      }
+
       firstKey.setHashCode(hashCode);
 
       /*
@@ -404,6 +425,21 @@ public void process(Object row, int tag) throws HiveException {
     }
   }
 
+  /**
+   * Samples the partitioning keys, through their hash code, and spreads the rows of the keys
+   * found to be frequent over several reducers. The reducer has to cope with the rows of a
+   * key going to several reducers, as the partial aggregation of a skewed group by does.
+   */
+  private int spreadSkewedKey(int hashCode) {
+    if ((numInputRows++ % SKEW_SAMPLE_INTERVAL) == 0) {
+      skewedKeys.add(hashCode);
+    }
+    if (!skewedKeys.isFrequent(hashCode)) {
+      return hashCode;
+    }
+    return hashCode * 31 + (int) (numSkewedRows++ % skewedKeysSpread);
+  }
+
   private int computeBucketNumber(Object row, int numBuckets) throws HiveException {
     int buckNum = 0;
 
@@ -573,6 +609,10 @@ protected void closeOp(boolean abort) throws HiveException {
     out = null;
     if (isLogInfoEnabled) {
       LOG.info(toString() + ": records written - " + numRows);
+      if (skewedKeys != null) {
+        LOG.info(toString() + ": records of frequent keys spread over " + skewedKeysSpread
+            + " reducers - " + numSkewedRows);
+      }
     }
     recordCounter.set(numRows);
   }
@@ -0,0 +1,392 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.io.filters.BloomFilter;
+import org.apache.hadoop.hive.ql.io.orc.OrcProto;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorUtils;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.StringObjectInspector;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+
+import com.google.common.primitives.Longs;
+
+/**
+ * SemiJoinFilter: a Bloom filter and the range of the join keys read by the tasks of one side
+ * of a join, used to skip the rows of the other side that can't join
+ * (hive.tez.dynamic.semijoin.reduction).
+ *
+ * The keys are hashed as longs, doubles or UTF-8 bytes depending on their type, which is the
+ * same on both sides of the join. The filters built by the tasks of a vertex have the same
+ * size, so that they can be merged.
+ */
+public class SemiJoinFilter {
+
+  private enum Kind {
+    LONG, DOUBLE, BYTES
+  }
+
+  private final Kind kind;
+  private final BloomFilter bloomFilter;
+  private boolean isEmpty = true;
+  private long minLong;
+  private long maxLong;
+  private double minDouble;
+  private double maxDouble;
+  private byte[] minBytes;
+  private byte[] maxBytes;
+
+  /** Holds the keys that don't start at the beginning of their array. */
+  private byte[] scratch = new byte[0];
+
+  public SemiJoinFilter(PrimitiveCategory category, long expectedEntries) {
+    this.kind = getKind(category);
+    this.bloomFilter = new BloomFilter(Math.max(1, expectedEntries));
+  }
+
+  private SemiJoinFilter(Kind kind, BloomFilter bloomFilter) {
+    this.kind = kind;
+    this.bloomFilter = bloomFilter;
+  }
+
+  /**
+   * @return The size of the bit set of a filter for the given number of keys, in bytes, which
+   *     is most of the size of the filter when written.
+   */
+  public static long getBitSetSize(long expectedEntries) {
+    int bits = BloomFilter.optimalNumOfBits(Math.max(1, expectedEntries), BloomFilter.DEFAULT_FPP);
+    // the bit set is rounded up to a multiple of 64 bits
+    return (bits / Long.SIZE + 1) * (Long.SIZE / Byte.SIZE);
+  }
+
+  /**
+   * @return Whether the keys of the given type can be filtered.
+   */
+  public static boolean isSupported(PrimitiveCategory category) {
+    return getKind(category) != null;
+  }
+
+  private static Kind getKind(PrimitiveCategory category) {
+    switch (category) {
+    case BYTE:
+    case SHORT:
+    case INT:
+    case LONG:
+      return Kind.LONG;
+    case FLOAT:
+    case DOUBLE:
+      return Kind.DOUBLE;
+    case STRING:
+    case VARCHAR:
+      return Kind.BYTES;
+    default:
+      return null;
+    }
+  }
+
+  public void add(Object o, PrimitiveObjectInspector oi) {
+    if (o == null) {
+      return;
+    }
+    switch (kind) {
+    case LONG:
+      addLong(PrimitiveObjectInspectorUtils.getLong(o, oi));
+      break;
+    case DOUBLE:
+      addDouble(PrimitiveObjectInspectorUtils.getDouble(o, oi));
+      break;
+    default:
+      Text text = getText(o, oi);
+      addBytes(text.getBytes(), 0, text.getLength());
+    }
+  }
+
+  /**
+   * @return Whether the given key may be one of the keys of the filter. Null keys never are.
+   */
+  public boolean test(Object o, PrimitiveObjectInspector oi) {
+    if (o == null) {
+      return false;
+    }
+    switch (kind) {
+    case LONG:
+      return testLong(PrimitiveObjectInspectorUtils.getLong(o, oi));
+    case DOUBLE:
+      return testDouble(PrimitiveObjectInspectorUtils.getDouble(o, oi));
+    default:
+      Text text = getText(o, oi);
+      return testBytes(text.getBytes(), 0, text.getLength());
+    }
+  }
+
+  private static Text getText(Object o, PrimitiveObjectInspector oi) {
+    if (oi instanceof StringObjectInspector) {
+      return ((StringObjectInspector) oi).getPrimitiveWritableObject(o);
+    }
+    return new Text(PrimitiveObjectInspectorUtils.getString(o, oi));
+  }
+
+  public void addLong(long value) {
+    if (isEmpty || value < minLong) {
+      minLong = value;
+    }
+    if (isEmpty || value > maxLong) {
+      maxLong = value;
+    }
+    isEmpty = false;
+    bloomFilter.addLong(value);
+  }
+
+  public boolean testLong(long value) {
+    return !isEmpty && value >= minLong && value <= maxLong && bloomFilter.testLong(value);
+  }
+
+  public void addDouble(double value) {
+    if (isEmpty || value < minDouble) {
+      minDouble = value;
+    }
+    if (isEmpty || value > maxDouble) {
+      maxDouble = value;
+    }
+    isEmpty = false;
+    bloomFilter.addDouble(value);
+  }
+
+  public boolean testDouble(double value) {
+    return !isEmpty && value >= minDouble && value <= maxDouble
+        && bloomFilter.testDouble(value);
+  }
+
+  public void addBytes(byte[] bytes, int start, int length) {
+    if (isEmpty || compare(bytes, start, length, minBytes) < 0) {
+      minBytes = Arrays.copyOfRange(bytes, start, start + length);
+    }
+    if (isEmpty || compare(bytes, start, length, maxBytes) > 0) {
+      maxBytes = Arrays.copyOfRange(bytes, start, start + length);
+    }
+    isEmpty = false;
+    bloomFilter.addBytes(getBytes(bytes, start, length), length);
+  }
+
+  public boolean testBytes(byte[] bytes, int start, int length) {
+    return !isEmpty && compare(bytes, start, length, minBytes) >= 0
+        && compare(bytes, start, length, maxBytes) <= 0
+        && bloomFilter.testBytes(getBytes(bytes, start, length), length);
+  }
+
+  private static int compare(byte[] bytes, int start, int length, byte[] other) {
+    return WritableComparator.compareBytes(bytes, start, length, other, 0, other.length);
+  }
+
+  private byte[] getBytes(byte[] bytes, int start, int length) {
+    if (start == 0) {
+      return bytes;
+    }
+    if (scratch.length < length) {
+      scratch = new byte[length];
+    }
+    System.arraycopy(bytes, start, scratch, 0, length);
+    return scratch;
+  }
+
+  /**
+   * @return Whether no key was added to the filter, in which case no key can join.
+   */
+  public boolean isEmpty() {
+    return isEmpty;
+  }
+
+  /**
+   * @return The smallest key, as a Long, Double or String.
+   */
+  public Object getMin() {
+    return isEmpty ? null : getValue(minLong, minDouble, minBytes);
+  }
+
+  /**
+   * @return The largest key, as a Long, Double or String.
+   */
+  public Object getMax() {
+    return isEmpty ? null : getValue(maxLong, maxDouble, maxBytes);
+  }
+
+  private Object getValue(long longValue, double doubleValue, byte[] bytes) {
+    switch (kind) {
+    case LONG:
+      return longValue;
+    case DOUBLE:
+      return doubleValue;
+    default:
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Adds the keys of the given filter, built for as many keys as this one, to this one.
+   */
+  public void merge(SemiJoinFilter other) {
+    if (other.kind != kind) {
+      throw new IllegalArgumentException("Cannot merge the filters of " + other.kind
+          + " keys into the one of " + kind + " keys");
+    }
+    bloomFilter.merge(other.bloomFilter);
+    if (other.isEmpty) {
+      return;
+    }
+    switch (kind) {
+    case LONG:
+      addRange(other.minLong, other.maxLong);
+      break;
+    case DOUBLE:
+      addRange(other.minDouble, other.maxDouble);
+      break;
+    default:
+      addRange(other.minBytes, other.maxBytes);
+    }
+    isEmpty = false;
+  }
+
+  private void addRange(long min, long max) {
+    minLong = isEmpty ? min : Math.min(minLong, min);
+    maxLong = isEmpty ? max : Math.max(maxLong, max);
+  }
+
+  private void addRange(double min, double max) {
+    minDouble = isEmpty ? min : Math.min(minDouble, min);
+    maxDouble = isEmpty ? max : Math.max(maxDouble, max);
+  }
+
+  private void addRange(byte[] min, byte[] max) {
+    if (isEmpty || compare(min, 0, min.length, minBytes) < 0) {
+      minBytes = min;
+    }
+    if (isEmpty || compare(max, 0, max.length, maxBytes) > 0) {
+      maxBytes = max;
+    }
+  }
+
+  public void write(DataOutput out) throws IOException {
+    out.writeByte(kind.ordinal());
+    out.writeBoolean(isEmpty);
+    if (!isEmpty) {
+      switch (kind) {
+      case LONG:
+        out.writeLong(minLong);
+        out.writeLong(maxLong);
+        break;
+      case DOUBLE:
+        out.writeDouble(minDouble);
+        out.writeDouble(maxDouble);
+        break;
+      default:
+        writeBytes(out, minBytes);
+        writeBytes(out, maxBytes);
+      }
+    }
+    out.writeInt(bloomFilter.getNumHashFunctions());
+    long[] bits = bloomFilter.getBitSet();
+    out.writeInt(bits.length);
+    for (long word : bits) {
+      out.writeLong(word);
+    }
+  }
+
+  private static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInput in) throws IOException {
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /**
+   * @return The filter at the given path, null if none was written, when the other side of the
+   *     join had too many keys or didn't run.
+   */
+  public static SemiJoinFilter load(String path, Configuration conf) throws IOException {
+    Path filterPath = new Path(path);
+    FileSystem fs = filterPath.getFileSystem(conf);
+    FSDataInputStream in;
+    try {
+      in = fs.open(filterPath);
+    } catch (FileNotFoundException e) {
+      return null;
+    }
+    try {
+      return read(in);
+    } finally {
+      in.close();
+    }
+  }
+
+  public static SemiJoinFilter read(DataInput in) throws IOException {
+    Kind kind = Kind.values()[in.readByte()];
+    boolean isEmpty = in.readBoolean();
+    long minLong = 0, maxLong = 0;
+    double minDouble = 0, maxDouble = 0;
+    byte[] minBytes = null, maxBytes = null;
+    if (!isEmpty) {
+      switch (kind) {
+      case LONG:
+        minLong = in.readLong();
+        maxLong = in.readLong();
+        break;
+      case DOUBLE:
+        minDouble = in.readDouble();
+        maxDouble = in.readDouble();
+        break;
+      default:
+        minBytes = readBytes(in);
+        maxBytes = readBytes(in);
+      }
+    }
+    int numHashFunctions = in.readInt();
+    long[] bits = new long[in.readInt()];
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] = in.readLong();
+    }
+    SemiJoinFilter filter = new SemiJoinFilter(kind, new BloomFilter(
+        OrcProto.BloomFilter.newBuilder().setNumHashFunctions(numHashFunctions)
+            .addAllBitset(Longs.asList(bits)).build()));
+    filter.isEmpty = isEmpty;
+    filter.minLong = minLong;
+    filter.maxLong = maxLong;
+    filter.minDouble = minDouble;
+    filter.maxDouble = maxDouble;
+    filter.minBytes = minBytes;
+    filter.maxBytes = maxBytes;
+    return filter;
+  }
+}
@@ -342,6 +342,13 @@ public void seal() {
     hashMap.seal();
   }
 
+  /**
+   * @return The number of bytes used by the hash map of the table.
+   */
+  public long memorySize() {
+    return hashMap.memorySize();
+  }
+
   /** Implementation of ReusableGetAdaptor that has Output for key serialization; row
    * container is also created once and reused for every row. */
   private class GetAdaptor implements ReusableGetAdaptor {
@@ -62,8 +62,8 @@ public Iterator iterator() {
 
   @Override
   public void collect(HiveKey key, BytesWritable value) throws IOException {
-    lastRecordOutput.add(SparkUtilities.copyHiveKey(key),
-        SparkUtilities.copyBytesWritable(value));
+    // the cache copies the bytes of the row
+    lastRecordOutput.add(key, value);
   }
 
   /** Process the given record. */
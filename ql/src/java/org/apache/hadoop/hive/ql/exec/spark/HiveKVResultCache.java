@@ -15,24 +15,25 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
+
 package org.apache.hadoop.hive.ql.exec.spark;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.fs.FileUtil;
-import org.apache.hadoop.hive.common.ObjectPair;
 import org.apache.hadoop.hive.ql.io.HiveKey;
 import org.apache.hadoop.io.BytesWritable;
 
 import scala.Tuple2;
 
-import com.esotericsoftware.kryo.io.Input;
-import com.esotericsoftware.kryo.io.Output;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 
@@ -41,48 +42,99 @@
  * be written to disk. This class is thread safe since multiple threads
  * could access it (doesn't have to be concurrently), for example,
  * the StreamThread in ScriptOperator.
+ *
+ * The rows are copied into two byte buffers, one being written and one being read, that
+ * grow up to a fixed number of bytes. A full write buffer is written to disk as is, and
+ * read back whole when the rows before it have been read.
  */
-@SuppressWarnings("unchecked")
 class HiveKVResultCache {
   private static final Log LOG = LogFactory.getLog(HiveKVResultCache.class);
 
   @VisibleForTesting
-  static final int IN_MEMORY_NUM_ROWS = 1024;
+  static final int IN_MEMORY_BYTES = 4 * 1024 * 1024;
+  private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+  // the key length, hash code, distribution key length and value length of a row
+  private static final int ROW_OVERHEAD = 16;
 
-  private ObjectPair<HiveKey, BytesWritable>[] writeBuffer;
-  private ObjectPair<HiveKey, BytesWritable>[] readBuffer;
+  /**
+   * The rows of a buffer are stored one after the other as the key length, the key, its
+   * hash code and distribution key length, the value length and the value.
+   */
+  private static class Buffer {
+    byte[] bytes;
+    int length = 0;
+    int position = 0;
 
-  private File parentFile;
-  private File tmpFile;
+    boolean hasRows() {
+      return position < length;
+    }
+
+    void reset() {
+      length = position = 0;
+    }
+
+    void ensureCapacity(int capacity, int maxCapacity) {
+      if (bytes == null || bytes.length < capacity) {
+        int newCapacity = bytes == null ? INITIAL_BUFFER_BYTES : bytes.length * 2;
+        newCapacity = Math.max(Math.min(newCapacity, maxCapacity), capacity);
+        bytes = bytes == null ? new byte[newCapacity] : Arrays.copyOf(bytes, newCapacity);
+      }
+    }
 
-  private int readCursor = 0;
-  private int writeCursor = 0;
+    void writeInt(int v) {
+      bytes[length++] = (byte) (v >>> 24);
+      bytes[length++] = (byte) (v >>> 16);
+      bytes[length++] = (byte) (v >>> 8);
+      bytes[length++] = (byte) v;
+    }
 
-  // Indicate if the read buffer has data, for example,
-  // when in reading, data on disk could be pull in
-  private boolean readBufferUsed = false;
-  private int rowsInReadBuffer = 0;
+    void write(byte[] b, int len) {
+      System.arraycopy(b, 0, bytes, length, len);
+      length += len;
+    }
 
-  private Input input;
-  private Output output;
+    int readInt() {
+      int v = ((bytes[position] & 0xff) << 24) | ((bytes[position + 1] & 0xff) << 16)
+          | ((bytes[position + 2] & 0xff) << 8) | (bytes[position + 3] & 0xff);
+      position += 4;
+      return v;
+    }
 
-  public HiveKVResultCache() {
-    writeBuffer = new ObjectPair[IN_MEMORY_NUM_ROWS];
-    readBuffer = new ObjectPair[IN_MEMORY_NUM_ROWS];
-    for (int i = 0; i < IN_MEMORY_NUM_ROWS; i++) {
-      writeBuffer[i] = new ObjectPair<HiveKey, BytesWritable>();
-      readBuffer[i] = new ObjectPair<HiveKey, BytesWritable>();
+    byte[] read(int len) {
+      byte[] b = Arrays.copyOfRange(bytes, position, position + len);
+      position += len;
+      return b;
     }
   }
 
-  private void switchBufferAndResetCursor() {
-    ObjectPair<HiveKey, BytesWritable>[] tmp = readBuffer;
-    rowsInReadBuffer = writeCursor;
+  private final int bufferSize;
+
+  private Buffer writeBuffer = new Buffer();
+  private Buffer readBuffer = new Buffer();
+
+  private File parentFile;
+  private File tmpFile;
+
+  private DataInputStream input;
+  private DataOutputStream output;
+  // The number of buffers left to read from input, and written to output
+  private int buffersInInput = 0;
+  private int buffersInOutput = 0;
+
+  public HiveKVResultCache() {
+    this(IN_MEMORY_BYTES);
+  }
+
+  @VisibleForTesting
+  HiveKVResultCache(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  private void switchBuffers() {
+    Buffer tmp = readBuffer;
     readBuffer = writeBuffer;
-    readBufferUsed = true;
-    readCursor = 0;
     writeBuffer = tmp;
-    writeCursor = 0;
+    writeBuffer.reset();
   }
 
   private void setupOutput() throws IOException {
@@ -108,7 +160,7 @@ private void setupOutput() throws IOException {
     FileOutputStream fos = null;
     try {
       fos = new FileOutputStream(tmpFile);
-      output = new Output(fos);
+      output = new DataOutputStream(fos);
     } finally {
       if (output == null && fos != null) {
         fos.close();
@@ -116,63 +168,80 @@ private void setupOutput() throws IOException {
     }
   }
 
-  private BytesWritable readValue(Input input) {
-    return new BytesWritable(input.readBytes(input.readInt()));
-  }
+  private void setupInput() throws IOException {
+    // Close output stream if open
+    output.close();
+    output = null;
+    buffersInInput = buffersInOutput;
+    buffersInOutput = 0;
 
-  private void writeValue(Output output, BytesWritable bytesWritable) {
-    int size = bytesWritable.getLength();
-    output.writeInt(size);
-    output.writeBytes(bytesWritable.getBytes(), 0, size);
+    FileInputStream fis = null;
+    try {
+      fis = new FileInputStream(tmpFile);
+      input = new DataInputStream(fis);
+    } finally {
+      if (input == null && fis != null) {
+        fis.close();
+      }
+    }
   }
 
-  private HiveKey readHiveKey(Input input) {
-    HiveKey hiveKey = new HiveKey(
-      input.readBytes(input.readInt()), input.readInt());
-    hiveKey.setDistKeyLength(input.readInt());
-    return hiveKey;
+  private void spill() throws IOException {
+    if (output == null) {
+      setupOutput();
+    }
+    output.writeInt(writeBuffer.length);
+    output.write(writeBuffer.bytes, 0, writeBuffer.length);
+    buffersInOutput++;
+    writeBuffer.reset();
   }
 
-  private void writeHiveKey(Output output, HiveKey hiveKey) {
-    int size = hiveKey.getLength();
-    output.writeInt(size);
-    output.writeBytes(hiveKey.getBytes(), 0, size);
-    output.writeInt(hiveKey.hashCode());
-    output.writeInt(hiveKey.getDistKeyLength());
+  private void unspill() throws IOException {
+    int length = input.readInt();
+    readBuffer.reset();
+    readBuffer.ensureCapacity(length, length);
+    input.readFully(readBuffer.bytes, 0, length);
+    readBuffer.length = length;
+    if (--buffersInInput == 0) {
+      input.close();
+      input = null;
+    }
   }
 
   public synchronized void add(HiveKey key, BytesWritable value) {
-    if (writeCursor >= IN_MEMORY_NUM_ROWS) { // Write buffer is full
-      if (!readBufferUsed) { // Read buffer isn't used, switch buffer
-        switchBufferAndResetCursor();
+    int keyLength = key.getLength();
+    int valueLength = value.getLength();
+    int rowLength = ROW_OVERHEAD + keyLength + valueLength;
+    if (writeBuffer.length > 0 && writeBuffer.length + rowLength > bufferSize) {
+      // Write buffer is full
+      if (!readBuffer.hasRows() && input == null && output == null) {
+        // Read buffer isn't used and there is nothing on disk, switch buffer
+        switchBuffers();
       } else {
         // Need to spill from write buffer to disk
         try {
-          if (output == null) {
-            setupOutput();
-          }
-          for (int i = 0; i < IN_MEMORY_NUM_ROWS; i++) {
-            ObjectPair<HiveKey, BytesWritable> pair = writeBuffer[i];
-            writeHiveKey(output, pair.getFirst());
-            writeValue(output, pair.getSecond());
-            pair.setFirst(null);
-            pair.setSecond(null);
-          }
-          writeCursor = 0;
+          spill();
         } catch (Exception e) {
           clear(); // Clean up the cache
           throw new RuntimeException("Failed to spill rows to disk", e);
         }
       }
     }
-    ObjectPair<HiveKey, BytesWritable> pair = writeBuffer[writeCursor++];
-    pair.setFirst(key);
-    pair.setSecond(value);
+    // A row larger than the buffer size is kept by itself
+    writeBuffer.ensureCapacity(writeBuffer.length + rowLength, bufferSize);
+    writeBuffer.writeInt(keyLength);
+    writeBuffer.write(key.getBytes(), keyLength);
+    writeBuffer.writeInt(key.hashCode());
+    writeBuffer.writeInt(key.getDistKeyLength());
+    writeBuffer.writeInt(valueLength);
+    writeBuffer.write(value.getBytes(), valueLength);
   }
 
   public synchronized void clear() {
-    writeCursor = readCursor = rowsInReadBuffer = 0;
-    readBufferUsed = false;
+    // Let go of the buffers, they are allocated again when needed
+    writeBuffer = new Buffer();
+    readBuffer = new Buffer();
+    buffersInInput = buffersInOutput = 0;
 
     if (parentFile != null) {
       if (input != null) {
@@ -199,69 +268,32 @@ public synchronized void clear() {
   }
 
   public synchronized boolean hasNext() {
-    return readBufferUsed || writeCursor > 0;
+    return readBuffer.hasRows() || input != null || output != null || writeBuffer.hasRows();
   }
 
   public synchronized Tuple2<HiveKey, BytesWritable> next() {
     Preconditions.checkState(hasNext());
-    if (!readBufferUsed) {
+    if (!readBuffer.hasRows()) {
       try {
         if (input == null && output != null) {
-          // Close output stream if open
-          output.close();
-          output = null;
-
-          FileInputStream fis = null;
-          try {
-            fis = new FileInputStream(tmpFile);
-            input = new Input(fis);
-          } finally {
-            if (input == null && fis != null) {
-              fis.close();
-            }
-          }
+          setupInput();
         }
         if (input != null) {
-          // Load next batch from disk
-          for (int i = 0; i < IN_MEMORY_NUM_ROWS; i++) {
-            ObjectPair<HiveKey, BytesWritable> pair = readBuffer[i];
-            pair.setFirst(readHiveKey(input));
-            pair.setSecond(readValue(input));
-          }
-          if (input.eof()) {
-            input.close();
-            input = null;
-          }
-          rowsInReadBuffer = IN_MEMORY_NUM_ROWS;
-          readBufferUsed = true;
-          readCursor = 0;
-        } else if (writeCursor == 1) {
-          ObjectPair<HiveKey, BytesWritable> pair = writeBuffer[0];
-          Tuple2<HiveKey, BytesWritable> row = new Tuple2<HiveKey, BytesWritable>(
-            pair.getFirst(), pair.getSecond());
-          pair.setFirst(null);
-          pair.setSecond(null);
-          writeCursor = 0;
-          return row;
+          // Load next buffer from disk
+          unspill();
         } else {
           // No record on disk, more data in write buffer
-          switchBufferAndResetCursor();
+          switchBuffers();
         }
       } catch (Exception e) {
         clear(); // Clean up the cache
         throw new RuntimeException("Failed to load rows from disk", e);
       }
     }
-    ObjectPair<HiveKey, BytesWritable> pair = readBuffer[readCursor];
-    Tuple2<HiveKey, BytesWritable> row = new Tuple2<HiveKey, BytesWritable>(
-      pair.getFirst(), pair.getSecond());
-    pair.setFirst(null);
-    pair.setSecond(null);
-    if (++readCursor >= rowsInReadBuffer) {
-      readBufferUsed = false;
-      rowsInReadBuffer = 0;
-      readCursor = 0;
-    }
-    return row;
+    byte[] keyBytes = readBuffer.read(readBuffer.readInt());
+    HiveKey key = new HiveKey(keyBytes, readBuffer.readInt());
+    key.setDistKeyLength(readBuffer.readInt());
+    BytesWritable value = new BytesWritable(readBuffer.read(readBuffer.readInt()));
+    return new Tuple2<HiveKey, BytesWritable>(key, value);
   }
 }
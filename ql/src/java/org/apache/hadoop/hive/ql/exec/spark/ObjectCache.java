@@ -0,0 +1,141 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.spark;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+
+import com.google.common.util.concurrent.Futures;
+
+/**
+ * ObjectCache. Spark implementation, shared by the tasks of a query that run in the same
+ * executor.
+ *
+ * An object is created by the first task that retrieves it, while the tasks that retrieve it
+ * at the same time wait for it. There is no notification of the end of a query in the
+ * executors: the objects of a query are kept until a task of another query starts when none of
+ * its tasks that retrieved objects is running anymore.
+ */
+public class ObjectCache implements org.apache.hadoop.hive.ql.exec.ObjectCache {
+
+  private static final Log LOG = LogFactory.getLog(ObjectCache.class.getName());
+
+  private static class QueryObjects {
+    final Map<String, FutureTask<?>> objects = new HashMap<String, FutureTask<?>>();
+    // the number of keys retrieved and not released yet
+    int users = 0;
+  }
+
+  /** The objects of the queries that ran tasks in this executor, by query id. */
+  private static final Map<String, QueryObjects> queries = new HashMap<String, QueryObjects>();
+
+  private final String queryId;
+
+  /** The keys retrieved through this cache and not released yet. */
+  private final Set<String> retrieved = new HashSet<String>();
+
+  public ObjectCache(String queryId) {
+    this.queryId = queryId;
+  }
+
+  @Override
+  public void release(String key) {
+    if (!retrieved.remove(key)) {
+      return;
+    }
+    synchronized (queries) {
+      QueryObjects query = queries.get(queryId);
+      if (query != null) {
+        query.users--;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> T retrieve(String key, Callable<T> fn) throws HiveException {
+    FutureTask<T> value;
+    boolean create = false;
+    synchronized (queries) {
+      QueryObjects query = queries.get(queryId);
+      if (query == null) {
+        removeUnusedQueries();
+        query = new QueryObjects();
+        queries.put(queryId, query);
+      }
+      value = (FutureTask<T>) query.objects.get(key);
+      if (value == null) {
+        value = new FutureTask<T>(fn);
+        query.objects.put(key, value);
+        create = true;
+      }
+      if (retrieved.add(key)) {
+        query.users++;
+      }
+    }
+
+    if (create) {
+      LOG.info("Caching key: " + key);
+      value.run();
+    } else {
+      LOG.info("Found " + key + " in cache");
+    }
+    try {
+      return value.get();
+    } catch (ExecutionException e) {
+      // the next task to retrieve the object creates it again
+      synchronized (queries) {
+        QueryObjects query = queries.get(queryId);
+        if (query != null && query.objects.get(key) == value) {
+          query.objects.remove(key);
+        }
+      }
+      throw new HiveException(e.getCause());
+    } catch (InterruptedException e) {
+      throw new HiveException(e);
+    }
+  }
+
+  @Override
+  public <T> Future<T> retrieveAsync(String key, Callable<T> fn) throws HiveException {
+    return Futures.immediateFuture(retrieve(key, fn));
+  }
+
+  private static void removeUnusedQueries() {
+    Iterator<Map.Entry<String, QueryObjects>> it = queries.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<String, QueryObjects> entry = it.next();
+      if (entry.getValue().users <= 0) {
+        LOG.info("Releasing the " + entry.getValue().objects.size() + " cached objects of query "
+            + entry.getKey());
+        it.remove();
+      }
+    }
+  }
+}
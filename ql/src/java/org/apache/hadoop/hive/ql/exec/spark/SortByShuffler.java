@@ -31,12 +31,24 @@
 public class SortByShuffler implements SparkShuffler {
 
   private final boolean totalOrder;
+  private final boolean toCache;
 
   /**
    * @param totalOrder whether this shuffler provides total order shuffle.
    */
   public SortByShuffler(boolean totalOrder) {
+    this(totalOrder, false);
+  }
+
+  /**
+   * @param totalOrder whether this shuffler provides total order shuffle.
+   * @param toCache whether the shuffled RDD is cached. The values of each key are then
+   *     collected into a list, as they are otherwise streamed from the input and can be read
+   *     only once.
+   */
+  public SortByShuffler(boolean totalOrder, boolean toCache) {
     this.totalOrder = totalOrder;
+    this.toCache = toCache;
   }
 
   @Override
@@ -50,67 +62,33 @@ public JavaPairRDD<HiveKey, Iterable<BytesWritable>> shuffle(
         rdd = input.sortByKey(true);
       }
     } else {
+      if (numPartitions <= 0) {
+        numPartitions = input.partitions().size();
+      }
       Partitioner partitioner = new HashPartitioner(numPartitions);
       rdd = input.repartitionAndSortWithinPartitions(partitioner);
     }
-    return rdd.mapPartitionsToPair(new ShuffleFunction());
+    return rdd.mapPartitionsToPair(new ShuffleFunction(toCache));
   }
 
-  private static class ShuffleFunction implements
+  static class ShuffleFunction implements
       PairFlatMapFunction<Iterator<Tuple2<HiveKey, BytesWritable>>,
           HiveKey, Iterable<BytesWritable>> {
     // make eclipse happy
     private static final long serialVersionUID = 1L;
 
+    private final boolean collectValues;
+
+    ShuffleFunction(boolean collectValues) {
+      this.collectValues = collectValues;
+    }
+
     @Override
     public Iterable<Tuple2<HiveKey, Iterable<BytesWritable>>> call(
         final Iterator<Tuple2<HiveKey, BytesWritable>> it) throws Exception {
       // Use input iterator to back returned iterable object.
       final Iterator<Tuple2<HiveKey, Iterable<BytesWritable>>> resultIt =
-          new Iterator<Tuple2<HiveKey, Iterable<BytesWritable>>>() {
-            HiveKey curKey = null;
-            List<BytesWritable> curValues = new ArrayList<BytesWritable>();
-
-            @Override
-            public boolean hasNext() {
-              return it.hasNext() || curKey != null;
-            }
-
-            @Override
-            public Tuple2<HiveKey, Iterable<BytesWritable>> next() {
-              // TODO: implement this by accumulating rows with the same key into a list.
-              // Note that this list needs to improved to prevent excessive memory usage, but this
-              // can be done in later phase.
-              while (it.hasNext()) {
-                Tuple2<HiveKey, BytesWritable> pair = it.next();
-                if (curKey != null && !curKey.equals(pair._1())) {
-                  HiveKey key = curKey;
-                  List<BytesWritable> values = curValues;
-                  curKey = pair._1();
-                  curValues = new ArrayList<BytesWritable>();
-                  curValues.add(pair._2());
-                  return new Tuple2<HiveKey, Iterable<BytesWritable>>(key, values);
-                }
-                curKey = pair._1();
-                curValues.add(pair._2());
-              }
-              if (curKey == null) {
-                throw new NoSuchElementException();
-              }
-              // if we get here, this should be the last element we have
-              HiveKey key = curKey;
-              curKey = null;
-              return new Tuple2<HiveKey, Iterable<BytesWritable>>(key, curValues);
-            }
-
-            @Override
-            public void remove() {
-              // Not implemented.
-              // throw Unsupported Method Invocation Exception.
-              throw new UnsupportedOperationException();
-            }
-
-          };
+          new GroupIterator(it, collectValues);
 
       return new Iterable<Tuple2<HiveKey, Iterable<BytesWritable>>>() {
         @Override
@@ -121,4 +99,112 @@ public Iterator<Tuple2<HiveKey, Iterable<BytesWritable>>> iterator() {
     }
   }
 
+  /**
+   * Groups the consecutive rows with the same key of a sorted input. The values of a key are
+   * read from the input while they are iterated, rather than kept in memory, so they can only
+   * be iterated once and only until the next key is requested. The values the reducer didn't
+   * read are skipped then. Unless collectValues is set, in which case the values of each key
+   * are collected into a list first.
+   */
+  private static class GroupIterator implements
+      Iterator<Tuple2<HiveKey, Iterable<BytesWritable>>> {
+    private final Iterator<Tuple2<HiveKey, BytesWritable>> it;
+    private final boolean collectValues;
+    // the row read from the input but not returned yet, if any
+    private Tuple2<HiveKey, BytesWritable> nextRow = null;
+    private ValueIterator curValues = null;
+
+    GroupIterator(Iterator<Tuple2<HiveKey, BytesWritable>> it, boolean collectValues) {
+      this.it = it;
+      this.collectValues = collectValues;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (curValues != null) {
+        curValues.skip();
+      }
+      return nextRow != null || it.hasNext();
+    }
+
+    @Override
+    public Tuple2<HiveKey, Iterable<BytesWritable>> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      if (nextRow == null) {
+        nextRow = it.next();
+      }
+      HiveKey key = nextRow._1();
+      curValues = new ValueIterator(key);
+      if (collectValues) {
+        List<BytesWritable> values = new ArrayList<BytesWritable>();
+        while (curValues.hasNext()) {
+          values.add(curValues.next());
+        }
+        return new Tuple2<HiveKey, Iterable<BytesWritable>>(key, values);
+      }
+      return new Tuple2<HiveKey, Iterable<BytesWritable>>(key, curValues);
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    private class ValueIterator implements Iterator<BytesWritable>, Iterable<BytesWritable> {
+      private final HiveKey key;
+      private boolean done = false;
+
+      ValueIterator(HiveKey key) {
+        this.key = key;
+      }
+
+      @Override
+      public Iterator<BytesWritable> iterator() {
+        return this;
+      }
+
+      @Override
+      public boolean hasNext() {
+        if (done) {
+          return false;
+        }
+        if (nextRow == null) {
+          if (!it.hasNext()) {
+            done = true;
+            return false;
+          }
+          nextRow = it.next();
+        }
+        if (!key.equals(nextRow._1())) {
+          done = true;
+          return false;
+        }
+        return true;
+      }
+
+      @Override
+      public BytesWritable next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        BytesWritable value = nextRow._2();
+        nextRow = null;
+        return value;
+      }
+
+      void skip() {
+        while (hasNext()) {
+          next();
+        }
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    }
+  }
+
 }
@@ -188,11 +188,14 @@ private ShuffleTran generate(SparkPlan sparkPlan, SparkEdgeProperty edge, boolea
         "AssertionError: SHUFFLE_NONE should only be used for UnionWork.");
     SparkShuffler shuffler;
     if (edge.isMRShuffle()) {
-      shuffler = new SortByShuffler(false);
+      shuffler = new SortByShuffler(false, toCache);
     } else if (edge.isShuffleSort()) {
-      shuffler = new SortByShuffler(true);
-    } else {
+      shuffler = new SortByShuffler(true, toCache);
+    } else if (HiveConf.getBoolVar(jobConf, HiveConf.ConfVars.SPARK_USE_GROUPBY_SHUFFLE)) {
       shuffler = new GroupByShuffler();
+    } else {
+      // streams the values of each key to the reducer instead of holding them in memory
+      shuffler = new SortByShuffler(false, toCache);
     }
     return new ShuffleTran(sparkPlan, shuffler, edge.getNumPartitions(), toCache);
   }
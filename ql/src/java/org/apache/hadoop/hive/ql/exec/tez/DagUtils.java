@@ -282,6 +282,10 @@ public GroupInputEdge createEdge(VertexGroup group, JobConf vConf, Vertex w,
 
     case SIMPLE_EDGE:
       setupAutoReducerParallelism(edgeProp, w);
+      if (edgeProp.isUnsorted()) {
+        mergeInputClass = ConcatenatedMergedKeyValueInput.class;
+        break;
+      }
       // fall through
 
     default:
@@ -384,6 +388,17 @@ private EdgeProperty createEdgeProperty(TezEdgeProperty edgeProp, Configuration
     default:
       assert partitionerClassName != null;
       partitionerConf = createPartitionerConf(partitionerClassName, conf);
+      if (edgeProp.isUnsorted()) {
+        // partitioned like the records of a CUSTOM_SIMPLE_EDGE, the reducer doesn't need them
+        // sorted
+        UnorderedPartitionedKVEdgeConfig et5Conf = UnorderedPartitionedKVEdgeConfig
+            .newBuilder(keyClass, valClass, MRPartitioner.class.getName(), partitionerConf)
+            .setFromConfiguration(conf)
+            .setKeySerializationClass(TezBytesWritableSerialization.class.getName(), null)
+            .setValueSerializationClass(TezBytesWritableSerialization.class.getName(), null)
+            .build();
+        return et5Conf.createDefaultEdgeProperty();
+      }
       OrderedPartitionedKVEdgeConfig et4Conf = OrderedPartitionedKVEdgeConfig
           .newBuilder(keyClass, valClass, MRPartitioner.class.getName(), partitionerConf)
           .setFromConfiguration(conf)
@@ -23,6 +23,7 @@
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -40,13 +41,24 @@
 import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.exec.ExprNodeEvaluator;
 import org.apache.hadoop.hive.ql.exec.ExprNodeEvaluatorFactory;
+import org.apache.hadoop.hive.ql.exec.Operator;
+import org.apache.hadoop.hive.ql.exec.SemiJoinFilter;
+import org.apache.hadoop.hive.ql.exec.TableScanOperator;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
 import org.apache.hadoop.hive.ql.plan.MapWork;
 import org.apache.hadoop.hive.ql.plan.PartitionDesc;
 import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFBetween;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
 import org.apache.hadoop.hive.serde2.Deserializer;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
@@ -56,7 +68,9 @@
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
 import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.mapred.JobConf;
@@ -167,11 +181,14 @@ private void initialize() throws SerDeException {
       List<String> columnNames = work.getEventSourceColumnNameMap().get(s);
       // Expression for the operation. e.g. N^2 > 10
       List<ExprNodeDesc> partKeyExprs = work.getEventSourcePartKeyExprMap().get(s);
+      // Filter path of the semi join reductions, null for the pruning of partitions
+      List<String> semiJoinPaths = work.getEventSourceSemiJoinPathMap().get(s);
       // eventSourceTableDesc, eventSourceColumnName, evenSourcePartKeyExpr move in lock-step.
       // One entry is added to each at the same time
 
       Iterator<String> cit = columnNames.iterator();
       Iterator<ExprNodeDesc> pit = partKeyExprs.iterator();
+      Iterator<String> sit = semiJoinPaths == null ? null : semiJoinPaths.iterator();
       // A single source can process multiple columns, and will send an event for each of them.
       for (TableDesc t : tables) {
         numExpectedEventsPerSource.get(s).decrement();
@@ -179,12 +196,18 @@ private void initialize() throws SerDeException {
         String columnName = cit.next();
         ExprNodeDesc partKeyExpr = pit.next();
         SourceInfo si = createSourceInfo(t, partKeyExpr, columnName, jobConf);
+        si.semiJoinPath = sit == null ? null : sit.next();
         if (!sourceInfoMap.containsKey(s)) {
           sourceInfoMap.put(s, new ArrayList<SourceInfo>());
         }
         List<SourceInfo> sis = sourceInfoMap.get(s);
         sis.add(si);
 
+        if (si.semiJoinPath != null) {
+          // Each semi join reduction hands its own filter to the tasks.
+          continue;
+        }
+
         // We could have multiple sources restrict the same column, need to take
         // the union of the values in that case.
         if (columnMap.containsKey(columnName)) {
@@ -228,6 +251,11 @@ protected void prunePartitionSingleSource(String source, SourceInfo si)
       return;
     }
 
+    if (si.semiJoinPath != null) {
+      reduceBySemiJoin(source, si);
+      return;
+    }
+
     Set<Object> values = si.values;
     String columnName = si.columnName;
 
@@ -302,6 +330,104 @@ private void applyFilterToPartitions(Converter converter, ExprNodeEvaluator eval
     }
   }
 
+  /**
+   * Writes the filter of a semi join reduction where the tasks of the vertex read it, and
+   * restricts the splits of the table scan to the range of the keys of the other side.
+   */
+  private void reduceBySemiJoin(String source, SourceInfo si) throws HiveException {
+    SemiJoinFilter filter = si.semiJoinFilter;
+    if (filter == null) {
+      // without a filter, the tasks read all the rows
+      LOG.info("No semi join filter from " + source + ", column " + si.columnName);
+      return;
+    }
+
+    // the vertices of the branches of a union share the path of the filter, the first one to
+    // move its copy there wins
+    Path path = new Path(si.semiJoinPath);
+    Path tmpPath = new Path(path.getParent(), "_tmp." + path.getName() + "." + work.getName());
+    try {
+      FileSystem fs = path.getFileSystem(jobConf);
+      FSDataOutputStream out = fs.create(tmpPath, true);
+      try {
+        filter.write(out);
+      } finally {
+        out.close();
+      }
+      if (!fs.rename(tmpPath, path)) {
+        fs.delete(tmpPath, false);
+      }
+    } catch (IOException e) {
+      LOG.warn("Failed to write the semi join filter to " + path + ", not reducing column "
+          + si.columnName, e);
+      return;
+    }
+    LOG.info("Semi join reduction of column " + si.columnName + " by " + source + " in " + path);
+
+    if (filter.isEmpty() || work.getAliasToWork().size() != 1
+        || !(si.partKey instanceof ExprNodeColumnDesc)) {
+      return;
+    }
+    Operator<?> op = work.getAliasToWork().values().iterator().next();
+    if (!(op instanceof TableScanOperator)) {
+      return;
+    }
+    TableScanOperator ts = (TableScanOperator) op;
+    ExprNodeGenericFuncDesc range = getKeyRange((ExprNodeColumnDesc) si.partKey, filter);
+    if (range == null) {
+      return;
+    }
+    ExprNodeDesc filterExpr = ts.getConf().getFilterExpr();
+    if (filterExpr != null) {
+      range = ExprNodeGenericFuncDesc.newInstance(new GenericUDFOPAnd(),
+          Arrays.<ExprNodeDesc>asList(filterExpr, range));
+    }
+    // the splits are generated with the filters of the table scans, which can skip the files
+    // and stripes outside of the range
+    LOG.info("Restricting the splits to " + range.getExprString());
+    ts.getConf().setFilterExpr(range);
+  }
+
+  private static ExprNodeGenericFuncDesc getKeyRange(ExprNodeColumnDesc column, SemiJoinFilter filter)
+      throws HiveException {
+    if (!(column.getTypeInfo() instanceof PrimitiveTypeInfo)) {
+      return null;
+    }
+    PrimitiveCategory category = ((PrimitiveTypeInfo) column.getTypeInfo()).getPrimitiveCategory();
+    Object min = toColumnValue(filter.getMin(), category);
+    Object max = toColumnValue(filter.getMax(), category);
+    if (min == null || max == null) {
+      return null;
+    }
+    List<ExprNodeDesc> children = new ArrayList<ExprNodeDesc>();
+    children.add(new ExprNodeConstantDesc(Boolean.FALSE));
+    children.add(column.clone());
+    children.add(new ExprNodeConstantDesc(column.getTypeInfo(), min));
+    children.add(new ExprNodeConstantDesc(column.getTypeInfo(), max));
+    return ExprNodeGenericFuncDesc.newInstance(new GenericUDFBetween(), children);
+  }
+
+  private static Object toColumnValue(Object value, PrimitiveCategory category) {
+    switch (category) {
+    case BYTE:
+      return ((Long) value).byteValue();
+    case SHORT:
+      return ((Long) value).shortValue();
+    case INT:
+      return ((Long) value).intValue();
+    case LONG:
+      return value;
+    case FLOAT:
+      return ((Double) value).floatValue();
+    case DOUBLE:
+      return value;
+    case STRING:
+      return value;
+    default:
+      return null;
+    }
+  }
+
   @VisibleForTesting
   protected SourceInfo createSourceInfo(TableDesc t, ExprNodeDesc partKeyExpr, String columnName,
                                         JobConf jobConf) throws
@@ -323,6 +449,10 @@ static class SourceInfo {
     /* Whether to skipPruning - depends on the payload from an event which may signal skip - if the event payload is too large */
     public AtomicBoolean skipPruning = new AtomicBoolean();
     public final String columnName;
+    /* Where the filter of a semi join reduction goes, null when pruning partitions */
+    public String semiJoinPath;
+    /* The union of the filters of a semi join reduction - populated from processing each event */
+    public SemiJoinFilter semiJoinFilter;
 
     @VisibleForTesting // Only used for testing.
     SourceInfo(TableDesc table, ExprNodeDesc partKey, String columnName, JobConf jobConf, Object forTesting) {
@@ -417,6 +547,13 @@ protected String processPayload(ByteBuffer payload, String sourceName) throws Se
         boolean skip = in.readBoolean();
         if (skip) {
           info.skipPruning.set(true);
+        } else if (info.semiJoinPath != null) {
+          SemiJoinFilter filter = SemiJoinFilter.read(in);
+          if (info.semiJoinFilter == null) {
+            info.semiJoinFilter = filter;
+          } else {
+            info.semiJoinFilter.merge(filter);
+          }
         } else {
           while (payload.hasRemaining()) {
             writable.readFields(in);
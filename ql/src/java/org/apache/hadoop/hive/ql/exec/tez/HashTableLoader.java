@@ -20,7 +20,9 @@
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.TreeMap;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.hadoop.conf.Configuration;
@@ -36,6 +38,7 @@
 import org.apache.hadoop.hive.ql.exec.persistence.HybridHashTableContainer;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.TableDesc;
 import org.apache.hadoop.hive.serde2.SerDeException;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category;
@@ -91,6 +94,36 @@ public void load(MapJoinTableContainer[] mapJoinTables,
         continue;
       }
 
+      MapJoinObjectSerDeContext keyCtx = mapJoinTableSerdes[pos].getKeyContext(),
+        valCtx = mapJoinTableSerdes[pos].getValueContext();
+      try {
+        if (useOptimizedTables) {
+          ObjectInspector keyOi = keyCtx.getSerDe().getObjectInspector();
+          if (!MapJoinBytesTableContainer.isSupportedKey(keyOi)) {
+            if (isFirstKey) {
+              useOptimizedTables = false;
+            } else {
+              throw new HiveException(describeOi(
+                  "Only a subset of mapjoin keys is supported. Unsupported key: ", keyOi));
+            }
+          }
+        }
+      } catch (SerDeException e) {
+        throw new HiveException(e);
+      }
+      isFirstKey = false;
+
+      // the table might have been loaded by a previous query run in this container
+      String cacheKey = useHybridGraceHashJoin ? null : getCacheKey(pos, useOptimizedTables);
+      if (cacheKey != null) {
+        MapJoinTableContainer cached = MapJoinTableCache.getInstance().get(cacheKey);
+        if (cached != null) {
+          LOG.info("Reusing the hash table " + cacheKey + " for position " + pos);
+          mapJoinTables[pos] = cached;
+          continue;
+        }
+      }
+
       String inputName = parentToInput.get(pos);
       LogicalInput input = tezContext.getInput(inputName);
 
@@ -104,20 +137,6 @@ public void load(MapJoinTableContainer[] mapJoinTables,
 
       try {
         KeyValueReader kvReader = (KeyValueReader) input.getReader();
-        MapJoinObjectSerDeContext keyCtx = mapJoinTableSerdes[pos].getKeyContext(),
-          valCtx = mapJoinTableSerdes[pos].getValueContext();
-        if (useOptimizedTables) {
-          ObjectInspector keyOi = keyCtx.getSerDe().getObjectInspector();
-          if (!MapJoinBytesTableContainer.isSupportedKey(keyOi)) {
-            if (isFirstKey) {
-              useOptimizedTables = false;
-            } else {
-              throw new HiveException(describeOi(
-                  "Only a subset of mapjoin keys is supported. Unsupported key: ", keyOi));
-            }
-          }
-        }
-        isFirstKey = false;
         Long keyCountObj = parentKeyCounts.get(pos);
         long keyCount = (keyCountObj == null) ? -1 : keyCountObj.longValue();
 
@@ -133,6 +152,14 @@ public void load(MapJoinTableContainer[] mapJoinTables,
         }
         tableContainer.seal();
         mapJoinTables[pos] = tableContainer;
+        // only the tables whose size in memory is known are kept, the size of the others can
+        // be many times their size on disk
+        if (cacheKey != null && tableContainer instanceof MapJoinBytesTableContainer) {
+          long maxSize = (long) (Runtime.getRuntime().maxMemory() * HiveConf.getFloatVar(
+              hconf, HiveConf.ConfVars.TEZ_MAPJOIN_CACHE_MEMORY_FRACTION));
+          MapJoinTableCache.getInstance().put(cacheKey, tableContainer,
+              ((MapJoinBytesTableContainer) tableContainer).memorySize(), maxSize);
+        }
       } catch (IOException e) {
         throw new HiveException(e);
       } catch (SerDeException e) {
@@ -143,6 +170,28 @@ public void load(MapJoinTableContainer[] mapJoinTables,
     }
   }
 
+  /**
+   * @return The key of the hash table of the given small table in the cache of the container,
+   *     null if it isn't kept for the next queries.
+   */
+  private String getCacheKey(int pos, boolean useOptimizedTables) {
+    String signature = desc.getParentSignatures().get(pos);
+    if (signature == null || desc.isBucketMapJoin()
+        || !HiveConf.getBoolVar(hconf, HiveConf.ConfVars.TEZ_MAPJOIN_CACHE_ACROSS_QUERIES)) {
+      return null;
+    }
+    // the hash table also depends on how its keys and values are serialized
+    TableDesc valueTableDesc = desc.getNoOuterJoin()
+        ? desc.getValueTblDescs().get(pos) : desc.getValueFilteredTblDescs().get(pos);
+    StringBuilder sb = new StringBuilder(signature);
+    sb.append(useOptimizedTables ? " optimized" : " objects");
+    for (TableDesc tableDesc : new TableDesc[] {desc.getKeyTblDesc(), valueTableDesc}) {
+      sb.append(' ').append(tableDesc.getSerdeClassName()).append(' ')
+          .append(new TreeMap<Object, Object>(tableDesc.getProperties()));
+    }
+    return DigestUtils.md5Hex(sb.toString());
+  }
+
   private String describeOi(String desc, ObjectInspector keyOi) {
     for (StructField field : ((StructObjectInspector)keyOi).getAllStructFieldRefs()) {
       ObjectInspector oi = field.getFieldObjectInspector();
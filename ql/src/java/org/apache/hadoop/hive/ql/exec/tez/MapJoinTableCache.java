@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.tez;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainer;
+
+/**
+ * MapJoinTableCache: the hash tables of the map joins kept in a Tez container for the next
+ * queries of the session that broadcast the same rows. The cache is bounded by the size of the
+ * tables in memory, the least recently used ones being dropped first.
+ */
+class MapJoinTableCache {
+
+  private static final Log LOG = LogFactory.getLog(MapJoinTableCache.class.getName());
+
+  private static final MapJoinTableCache instance = new MapJoinTableCache();
+
+  private static class Entry {
+    final MapJoinTableContainer table;
+    final long size;
+
+    Entry(MapJoinTableContainer table, long size) {
+      this.table = table;
+      this.size = size;
+    }
+  }
+
+  /** The tables, least recently used first. */
+  private final Map<String, Entry> tables = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+  private long totalSize = 0;
+
+  static MapJoinTableCache getInstance() {
+    return instance;
+  }
+
+  synchronized MapJoinTableContainer get(String key) {
+    Entry entry = tables.get(key);
+    return entry == null ? null : entry.table;
+  }
+
+  /**
+   * Keeps the given table, if it fits.
+   * @param size The size of the table in memory.
+   * @param maxSize The size that the tables may take.
+   */
+  synchronized void put(String key, MapJoinTableContainer table, long size, long maxSize) {
+    if (size > maxSize) {
+      return;
+    }
+    Entry previous = tables.put(key, new Entry(table, size));
+    if (previous != null) {
+      totalSize -= previous.size;
+    }
+    totalSize += size;
+    Iterator<Map.Entry<String, Entry>> it = tables.entrySet().iterator();
+    while (totalSize > maxSize && it.hasNext()) {
+      Map.Entry<String, Entry> eldest = it.next();
+      LOG.info("Dropping the hash table " + eldest.getKey() + " of "
+          + eldest.getValue().size + " bytes");
+      // the tasks using the table still hold it, it isn't cleared
+      totalSize -= eldest.getValue().size;
+      it.remove();
+    }
+  }
+
+  synchronized int size() {
+    return tables.size();
+  }
+}
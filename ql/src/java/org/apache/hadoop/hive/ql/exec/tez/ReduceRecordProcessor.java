@@ -37,6 +37,7 @@
 import org.apache.hadoop.hive.ql.exec.Utilities;
 import org.apache.hadoop.hive.ql.exec.mr.ExecMapper.ReportStats;
 import org.apache.hadoop.hive.ql.exec.tez.TezProcessor.TezKVOutputCollector;
+import org.apache.hadoop.hive.ql.exec.tez.tools.KeyValuesFromKeyValue;
 import org.apache.hadoop.hive.ql.log.PerfLogger;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
 import org.apache.hadoop.hive.ql.plan.ReduceWork;
@@ -48,6 +49,8 @@
 import org.apache.tez.runtime.api.LogicalInput;
 import org.apache.tez.runtime.api.LogicalOutput;
 import org.apache.tez.runtime.api.ProcessorContext;
+import org.apache.tez.runtime.api.Reader;
+import org.apache.tez.runtime.library.api.KeyValueReader;
 import org.apache.tez.runtime.library.api.KeyValuesReader;
 
 /**
@@ -110,12 +113,20 @@ public Object call() {
       Input input = inputs.get(redWork.getTagToInput().get(tag));
       input.start();
       processorContext.waitForAnyInputReady(Collections.singleton(input));
-      KeyValuesReader reader = (KeyValuesReader) input.getReader();
+      Reader inputReader = input.getReader();
+      KeyValuesReader reader;
+      boolean sorted = inputReader instanceof KeyValuesReader;
+      if (sorted) {
+        reader = (KeyValuesReader) inputReader;
+      } else {
+        // the records of an unsorted shuffle don't come in groups
+        reader = new KeyValuesFromKeyValue((KeyValueReader) inputReader);
+      }
 
       // now we can setup the record source
       sources[tag] = new ReduceRecordSource();
       sources[tag].init(jconf, reducer, redWork.getVectorMode(), keyTableDesc, valueTableDesc,
-          reader, tag == position, (byte) tag,
+          reader, tag == position && sorted, (byte) tag,
           redWork.getAllScratchColumnVectorTypeMaps());
       ois[tag] = sources[tag].getObjectInspector();
     }
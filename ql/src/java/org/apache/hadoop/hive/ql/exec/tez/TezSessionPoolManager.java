@@ -18,8 +18,18 @@
 
 package org.apache.hadoop.hive.ql.exec.tez;
 
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -29,6 +39,8 @@
 import org.apache.hadoop.hive.shims.ShimLoader;
 import org.apache.hadoop.hive.shims.Utils;
 import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.tez.client.TezAppMasterStatus;
+import org.apache.tez.client.TezClient;
 
 /**
  * This class is for managing multiple tez sessions particularly when
@@ -36,13 +48,29 @@
  *
  * In case the user specifies a queue explicitly, a new session is created
  * on that queue and assigned to the session state.
+ *
+ * When hive.server2.tez.sessions.max.per.queue is set, the pool is elastic: it opens new
+ * sessions while all the sessions of a queue are busy, keeps a spare idle session opened
+ * ahead of the next query, and also pools the sessions of the queues users choose. A
+ * background thread closes the sessions that stay idle beyond the fixed ones of the default
+ * queues, and reopens the idle sessions whose application master has shut down.
  */
 public class TezSessionPoolManager {
 
   private static final Log LOG = LogFactory.getLog(TezSessionPoolManager.class);
 
-  private BlockingQueue<TezSessionState> defaultQueuePool;
+  /** The idle sessions of the pool, least recently used first. */
+  private final LinkedList<TezSessionState> defaultQueuePool = new LinkedList<TezSessionState>();
+  /** When each idle session was returned to the pool. */
+  private final Map<TezSessionState, Long> idleSince = new HashMap<TezSessionState, Long>();
+  /** The number of sessions of each queue that belong to the pool, idle or not. */
+  private final Map<String, Integer> queueSessions = new HashMap<String, Integer>();
+  private final Set<String> defaultQueues = new LinkedHashSet<String>();
   private int blockingQueueLength = -1;
+  private int sessionsPerDefaultQueue;
+  private int maxSessionsPerQueue;
+  private long idleTimeoutMs;
+  private ScheduledExecutorService poolThread;
   private HiveConf initConf = null;
 
   private boolean inited = false;
@@ -63,12 +91,33 @@ protected TezSessionPoolManager() {
 
   public void startPool() throws Exception {
     this.inited = true;
-    for (int i = 0; i < blockingQueueLength; i++) {
-      HiveConf newConf = new HiveConf(initConf);
-      TezSessionState sessionState = defaultQueuePool.take();
-      newConf.set("tez.queue.name", sessionState.getQueueName());
-      sessionState.open(newConf);
-      defaultQueuePool.put(sessionState);
+    List<TezSessionState> sessions;
+    synchronized (this) {
+      sessions = new ArrayList<TezSessionState>(defaultQueuePool);
+    }
+    for (TezSessionState sessionState : sessions) {
+      openPoolSession(sessionState);
+    }
+    if (maxSessionsPerQueue > 0) {
+      poolThread = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread t = new Thread(r, "TezSessionPool");
+          t.setDaemon(true);
+          return t;
+        }
+      });
+      long interval = Math.max(1000, Math.min(idleTimeoutMs / 2, 60000));
+      poolThread.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            maintainPool(System.currentTimeMillis());
+          } catch (Throwable t) {
+            LOG.warn("Failed to maintain the pool of Tez sessions", t);
+          }
+        }
+      }, interval, interval, TimeUnit.MILLISECONDS);
     }
   }
 
@@ -76,11 +125,16 @@ public void setupPool(HiveConf conf) throws InterruptedException {
 
     String defaultQueues = HiveConf.getVar(conf, HiveConf.ConfVars.HIVE_SERVER2_TEZ_DEFAULT_QUEUES);
     int numSessions = conf.getIntVar(HiveConf.ConfVars.HIVE_SERVER2_TEZ_SESSIONS_PER_DEFAULT_QUEUE);
+    sessionsPerDefaultQueue = numSessions;
+    maxSessionsPerQueue = conf.getIntVar(HiveConf.ConfVars.HIVE_SERVER2_TEZ_SESSIONS_MAX_PER_QUEUE);
+    if (maxSessionsPerQueue > 0) {
+      maxSessionsPerQueue = Math.max(maxSessionsPerQueue, numSessions);
+    }
+    idleTimeoutMs = HiveConf.getTimeVar(conf,
+        HiveConf.ConfVars.HIVE_SERVER2_TEZ_SESSIONS_IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
 
     // the list of queues is a comma separated list.
     String defaultQueueList[] = defaultQueues.split(",");
-    defaultQueuePool =
-        new ArrayBlockingQueue<TezSessionState>(numSessions * defaultQueueList.length);
     this.initConf = conf;
     /*
      *  with this the ordering of sessions in the queue will be (with 2 sessions 3 queues)
@@ -94,17 +148,27 @@ public void setupPool(HiveConf conf) throws InterruptedException {
         if (queue.length() == 0) {
           continue;
         }
+        this.defaultQueues.add(queue);
         TezSessionState sessionState = createSession(TezSessionState.makeSessionId());
         sessionState.setQueueName(queue);
         sessionState.setDefault();
         LOG.info("Created new tez session for queue: " + queue +
             " with session id: " + sessionState.getSessionId());
-        defaultQueuePool.put(sessionState);
+        synchronized (this) {
+          addQueueSessions(queue, 1);
+        }
+        addIdleSession(sessionState);
         blockingQueueLength++;
       }
     }
   }
 
+  private void openPoolSession(TezSessionState sessionState) throws Exception {
+    HiveConf newConf = new HiveConf(initConf);
+    newConf.set("tez.queue.name", sessionState.getQueueName());
+    sessionState.open(newConf);
+  }
+
   private TezSessionState getSession(HiveConf conf, boolean doOpen,
       boolean forceCreate)
       throws Exception {
@@ -114,22 +178,242 @@ private TezSessionState getSession(HiveConf conf, boolean doOpen,
     boolean nonDefaultUser = conf.getBoolVar(HiveConf.ConfVars.HIVE_SERVER2_ENABLE_DOAS);
 
     /*
-     * if the user has specified a queue name themselves, we create a new session.
+     * if the user has specified a queue name themselves, we create a new session,
+     * unless the pool is elastic and keeps the sessions of that queue.
      * also a new session is created if the user tries to submit to a queue using
      * their own credentials. We expect that with the new security model, things will
      * run as user hive in most cases.
      */
-    if (forceCreate || !(this.inited)
-        || ((queueName != null) && (!queueName.isEmpty()))
-        || (nonDefaultUser) || (defaultQueuePool == null) || (blockingQueueLength <= 0)) {
+    boolean hasQueueName = (queueName != null) && (!queueName.isEmpty());
+    if (inited && !forceCreate && !nonDefaultUser && hasQueueName && maxSessionsPerQueue > 0) {
+      TezSessionState session = takeSession(queueName, false);
+      if (session != null) {
+        LOG.info("Choosing a session of queue " + queueName + " from the pool");
+        return session;
+      }
+      LOG.info("All the pooled sessions of queue " + queueName + " are busy");
+    }
+    if (forceCreate || !(this.inited) || hasQueueName
+        || (nonDefaultUser) || (blockingQueueLength <= 0)) {
       LOG.info("QueueName: " + queueName + " nonDefaultUser: " + nonDefaultUser +
-          " defaultQueuePool: " + defaultQueuePool +
           " blockingQueueLength: " + blockingQueueLength);
       return getNewSessionState(conf, queueName, doOpen);
     }
 
     LOG.info("Choosing a session from the defaultQueuePool");
-    return defaultQueuePool.take();
+    return takeSession(null, true);
+  }
+
+  /**
+   * Takes an idle session of the pool, or opens a new one if the pool can grow.
+   * @param queueName The queue of the session, or null for any of the default queues.
+   * @param wait Whether to wait for a session to be returned when the pool can't grow.
+   * @return The session, or null if there is none and wait isn't set.
+   */
+  private TezSessionState takeSession(String queueName, boolean wait) throws Exception {
+    TezSessionState session = null;
+    String newQueue = null;
+    synchronized (this) {
+      while (session == null && newQueue == null) {
+        session = removeIdleSession(queueName);
+        if (session == null) {
+          newQueue = getQueueToGrow(queueName);
+          if (newQueue != null) {
+            addQueueSessions(newQueue, 1);
+          } else if (wait) {
+            wait();
+          } else {
+            return null;
+          }
+        }
+      }
+    }
+    if (session == null) {
+      session = openNewPoolSession(newQueue);
+    }
+    addSpareSession(queueName);
+    return session;
+  }
+
+  private TezSessionState removeIdleSession(String queueName) {
+    Iterator<TezSessionState> it = defaultQueuePool.iterator();
+    while (it.hasNext()) {
+      TezSessionState session = it.next();
+      if (queueName == null ? defaultQueues.contains(session.getQueueName())
+          : queueName.equals(session.getQueueName())) {
+        it.remove();
+        idleSince.remove(session);
+        return session;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return The queue to open a new session on, the one with the fewest sessions among the
+   *     default ones if queueName is null, or null if the pool can't grow.
+   */
+  private String getQueueToGrow(String queueName) {
+    if (maxSessionsPerQueue <= 0) {
+      return null;
+    }
+    if (queueName != null) {
+      return getQueueSessions(queueName) < maxSessionsPerQueue ? queueName : null;
+    }
+    String result = null;
+    for (String queue : defaultQueues) {
+      int sessions = getQueueSessions(queue);
+      if (sessions < maxSessionsPerQueue
+          && (result == null || sessions < getQueueSessions(result))) {
+        result = queue;
+      }
+    }
+    return result;
+  }
+
+  synchronized int getQueueSessions(String queueName) {
+    Integer sessions = queueSessions.get(queueName);
+    return sessions == null ? 0 : sessions;
+  }
+
+  private void addQueueSessions(String queueName, int delta) {
+    queueSessions.put(queueName, getQueueSessions(queueName) + delta);
+  }
+
+  private TezSessionState openNewPoolSession(String queueName) throws Exception {
+    TezSessionState session = createSession(TezSessionState.makeSessionId());
+    session.setQueueName(queueName);
+    session.setDefault();
+    try {
+      openPoolSession(session);
+    } catch (Exception e) {
+      synchronized (this) {
+        addQueueSessions(queueName, -1);
+        notifyAll();
+      }
+      throw e;
+    }
+    LOG.info("Started a new pool session for queue: " + queueName +
+        " session id: " + session.getSessionId());
+    return session;
+  }
+
+  /**
+   * Opens a session in the background when no session of the queue is idle anymore, so that
+   * the next query doesn't wait for its application master to start.
+   */
+  private void addSpareSession(String queueName) {
+    final String newQueue;
+    synchronized (this) {
+      if (poolThread == null) {
+        return;
+      }
+      for (TezSessionState session : defaultQueuePool) {
+        if (queueName == null ? defaultQueues.contains(session.getQueueName())
+            : queueName.equals(session.getQueueName())) {
+          return;
+        }
+      }
+      newQueue = getQueueToGrow(queueName);
+      if (newQueue == null) {
+        return;
+      }
+      addQueueSessions(newQueue, 1);
+    }
+    runInBackground(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          addIdleSession(openNewPoolSession(newQueue));
+        } catch (Exception e) {
+          LOG.warn("Failed to open a spare session for queue " + newQueue, e);
+        }
+      }
+    });
+  }
+
+  protected void runInBackground(Runnable task) {
+    poolThread.execute(task);
+  }
+
+  private synchronized void addIdleSession(TezSessionState session) {
+    defaultQueuePool.add(session);
+    idleSince.put(session, System.currentTimeMillis());
+    notifyAll();
+  }
+
+  /**
+   * Closes the sessions that have been idle longer than the idle timeout, beyond the fixed
+   * sessions of the default queues, and reopens the idle sessions whose application master
+   * has shut down.
+   */
+  void maintainPool(long now) {
+    List<TezSessionState> toClose = new ArrayList<TezSessionState>();
+    List<TezSessionState> toCheck = new ArrayList<TezSessionState>();
+    synchronized (this) {
+      Iterator<TezSessionState> it = defaultQueuePool.iterator();
+      while (it.hasNext()) {
+        TezSessionState session = it.next();
+        String queue = session.getQueueName();
+        int minSessions = defaultQueues.contains(queue) ? sessionsPerDefaultQueue : 0;
+        if (now - idleSince.get(session) >= idleTimeoutMs
+            && getQueueSessions(queue) > minSessions) {
+          it.remove();
+          idleSince.remove(session);
+          addQueueSessions(queue, -1);
+          toClose.add(session);
+        } else {
+          toCheck.add(session);
+        }
+      }
+    }
+    for (TezSessionState session : toClose) {
+      LOG.info("Closing the idle session " + session.getSessionId() + " of queue "
+          + session.getQueueName());
+      try {
+        session.close(false);
+      } catch (Exception e) {
+        LOG.warn("Failed to close the idle session " + session.getSessionId(), e);
+      }
+    }
+    for (TezSessionState session : toCheck) {
+      if (!hasShutDown(session)) {
+        continue;
+      }
+      synchronized (this) {
+        // it may have been taken since
+        if (!defaultQueuePool.remove(session)) {
+          continue;
+        }
+        idleSince.remove(session);
+      }
+      LOG.info("Reopening the session " + session.getSessionId() + " of queue "
+          + session.getQueueName() + ", its application master has shut down");
+      try {
+        session.close(false);
+        openPoolSession(session);
+        addIdleSession(session);
+      } catch (Exception e) {
+        LOG.warn("Failed to reopen the session " + session.getSessionId(), e);
+        synchronized (this) {
+          addQueueSessions(session.getQueueName(), -1);
+          notifyAll();
+        }
+      }
+    }
+  }
+
+  private boolean hasShutDown(TezSessionState session) {
+    TezClient client = session.getSession();
+    if (client == null) {
+      return false;
+    }
+    try {
+      return client.getAppMasterStatus() == TezAppMasterStatus.SHUTDOWN;
+    } catch (Exception e) {
+      LOG.debug("Failed to get the status of session " + session.getSessionId(), e);
+      return false;
+    }
   }
 
   /**
@@ -165,7 +449,7 @@ public void returnSession(TezSessionState tezSessionState)
       if (sessionState != null) {
         sessionState.setTezSession(null);
       }
-      defaultQueuePool.put(tezSessionState);
+      addIdleSession(tezSessionState);
     }
     // non default session nothing changes. The user can continue to use the existing
     // session in the SessionState
@@ -183,6 +467,10 @@ public void stop() throws Exception {
       return;
     }
 
+    if (poolThread != null) {
+      poolThread.shutdownNow();
+    }
+
     // we can just stop all the sessions
     for (TezSessionState sessionState: TezSessionState.getOpenSessions()) {
       if (sessionState.isDefault()) {
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.tez.tools;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.apache.tez.runtime.library.api.KeyValueReader;
+import org.apache.tez.runtime.library.api.KeyValuesReader;
+
+/**
+ * A KeyValuesReader over the records of an unsorted input, as returned by a KeyValueReader.
+ * Every record is returned as a key with a single value: the records with the same key are
+ * not grouped together.
+ */
+public class KeyValuesFromKeyValue extends KeyValuesReader {
+
+  private final KeyValueReader reader;
+  private final SingleValue values = new SingleValue();
+
+  public KeyValuesFromKeyValue(KeyValueReader reader) {
+    this.reader = reader;
+  }
+
+  @Override
+  public boolean next() throws IOException {
+    if (!reader.next()) {
+      return false;
+    }
+    values.value = reader.getCurrentValue();
+    values.hasNext = true;
+    return true;
+  }
+
+  @Override
+  public Object getCurrentKey() throws IOException {
+    return reader.getCurrentKey();
+  }
+
+  @Override
+  public Iterable<Object> getCurrentValues() throws IOException {
+    return values;
+  }
+
+  private static class SingleValue implements Iterable<Object>, Iterator<Object> {
+    private Object value;
+    private boolean hasNext;
+
+    @Override
+    public Iterator<Object> iterator() {
+      return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return hasNext;
+    }
+
+    @Override
+    public Object next() {
+      if (!hasNext) {
+        throw new NoSuchElementException();
+      }
+      hasNext = false;
+      return value;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -29,6 +29,7 @@
 import org.apache.hadoop.hive.ql.plan.AppMasterEventDesc;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
 import org.apache.hadoop.hive.serde2.SerDeException;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
 import org.apache.hadoop.io.ObjectWritable;
 import org.apache.hadoop.io.Writable;
@@ -67,6 +68,17 @@ public void process(Object data, int tag) throws HiveException {
 
     VectorizedRowBatch vrg = (VectorizedRowBatch) data;
 
+    if (semiJoinFilter != null) {
+      // the key of a semi join reduction goes to the bloom filter
+      ColumnVector keyColumn = vrg.cols[vrg.projectedColumns[0]];
+      PrimitiveObjectInspector oi = (PrimitiveObjectInspector) valueWriters[0].getObjectInspector();
+      for (int i = 0; i < vrg.size; i++) {
+        int batchIndex = vrg.selectedInUse ? vrg.selected[i] : i;
+        semiJoinFilter.add(valueWriters[0].writeValue(keyColumn, batchIndex), oi);
+      }
+      return;
+    }
+
     Writable [] records = null;
     Writable recordValue = null;
     boolean vectorizedSerde = false;
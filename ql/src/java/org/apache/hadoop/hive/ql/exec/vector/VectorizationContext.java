@@ -1113,6 +1113,8 @@ private VectorExpression getGenericUdfVectorExpression(GenericUDF udf,
       return getBetweenFilterExpression(childExpr, mode, returnType);
     } else if (udf instanceof GenericUDFIn) {
       return getInExpression(childExpr, mode, returnType);
+    } else if (udf instanceof GenericUDFInBloomFilter) {
+      return getInBloomFilterExpression(childExpr, mode);
     } else if (udf instanceof GenericUDFOPPositive) {
       return getIdentityExpression(childExpr);
     } else if (udf instanceof GenericUDFCoalesce) {
@@ -1206,6 +1208,21 @@ private VectorExpression getEltExpression(List<ExprNodeDesc> childExpr, TypeInfo
     }
   }
 
+  /**
+   * Create a filter expression for in_bloom_filter(column, path), the semi join reduction of the
+   * rows by the keys of the other side of a join.
+   */
+  private VectorExpression getInBloomFilterExpression(List<ExprNodeDesc> childExpr, Mode mode)
+      throws HiveException {
+    if (mode != Mode.FILTER || !(childExpr.get(0) instanceof ExprNodeColumnDesc)
+        || !(childExpr.get(1) instanceof ExprNodeConstantDesc)) {
+      throw new HiveException("in_bloom_filter is only supported as a filter of a column");
+    }
+    int inputCol = getInputColumnIndex(((ExprNodeColumnDesc) childExpr.get(0)).getColumn());
+    String path = (String) ((ExprNodeConstantDesc) childExpr.get(1)).getValue();
+    return new FilterColumnInBloomFilter(inputCol, path);
+  }
+
   /**
    * Create a filter or boolean-valued expression for column IN ( <list-of-constants> )
    */
@@ -0,0 +1,157 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import org.apache.hadoop.hive.ql.exec.MapredContext;
+import org.apache.hadoop.hive.ql.exec.SemiJoinFilter;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.ColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.DoubleColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorExpressionDescriptor.Descriptor;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFInBloomFilter;
+
+/**
+ * Evaluate the semi join filter of GenericUDFInBloomFilter on a batch.
+ */
+public class FilterColumnInBloomFilter extends VectorExpression {
+
+  private static final long serialVersionUID = 1L;
+  private int inputCol;
+  private String path;
+
+  private transient boolean isLoaded;
+  private transient SemiJoinFilter filter;
+
+  public FilterColumnInBloomFilter() {
+    super();
+  }
+
+  public FilterColumnInBloomFilter(int colNum, String path) {
+    this.inputCol = colNum;
+    this.path = path;
+  }
+
+  @Override
+  public void evaluate(VectorizedRowBatch batch) {
+
+    if (childExpressions != null) {
+      super.evaluateChildren(batch);
+    }
+
+    if (!isLoaded) {
+      try {
+        filter = GenericUDFInBloomFilter.loadFilter(path,
+            MapredContext.get() == null ? null : MapredContext.get().getJobConf());
+      } catch (HiveException e) {
+        throw new RuntimeException(e);
+      }
+      isLoaded = true;
+    }
+
+    ColumnVector inputColVector = batch.cols[inputCol];
+    int n = batch.size;
+    if (n == 0 || (filter == null && inputColVector.noNulls)) {
+      // without a filter, only the null keys are filtered out
+      return;
+    }
+
+    if (inputColVector.isRepeating) {
+      // All must be selected otherwise size would be zero
+      // Repeating property will not change.
+      if (!test(inputColVector, 0)) {
+        batch.size = 0;
+      }
+    } else if (batch.selectedInUse) {
+      int[] sel = batch.selected;
+      int newSize = 0;
+      for (int j = 0; j != n; j++) {
+        int i = sel[j];
+        if (test(inputColVector, i)) {
+          sel[newSize++] = i;
+        }
+      }
+      batch.size = newSize;
+    } else {
+      int[] sel = batch.selected;
+      int newSize = 0;
+      for (int i = 0; i != n; i++) {
+        if (test(inputColVector, i)) {
+          sel[newSize++] = i;
+        }
+      }
+      if (newSize < n) {
+        batch.size = newSize;
+        batch.selectedInUse = true;
+      }
+    }
+  }
+
+  private boolean test(ColumnVector inputColVector, int i) {
+    if (!inputColVector.noNulls && inputColVector.isNull[i]) {
+      return false;
+    }
+    if (filter == null) {
+      return true;
+    }
+    if (inputColVector instanceof LongColumnVector) {
+      return filter.testLong(((LongColumnVector) inputColVector).vector[i]);
+    } else if (inputColVector instanceof DoubleColumnVector) {
+      return filter.testDouble(((DoubleColumnVector) inputColVector).vector[i]);
+    } else {
+      BytesColumnVector bytes = (BytesColumnVector) inputColVector;
+      return filter.testBytes(bytes.vector[i], bytes.start[i], bytes.length[i]);
+    }
+  }
+
+  @Override
+  public String getOutputType() {
+    return "boolean";
+  }
+
+  @Override
+  public int getOutputColumn() {
+    return -1;
+  }
+
+  @Override
+  public Descriptor getDescriptor() {
+
+    // This VectorExpression is only created for GenericUDFInBloomFilter, don't return a descriptor.
+    return null;
+  }
+
+  public int getInputCol() {
+    return inputCol;
+  }
+
+  public void setInputCol(int inputCol) {
+    this.inputCol = inputCol;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+}
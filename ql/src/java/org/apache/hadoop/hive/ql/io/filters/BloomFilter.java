@@ -74,7 +74,7 @@ static int optimalNumOfHashFunctions(long n, long m) {
     return Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
   }
 
-  static int optimalNumOfBits(long n, double p) {
+  public static int optimalNumOfBits(long n, double p) {
     return (int) (-n * Math.log(p) / (Math.log(2) * Math.log(2)));
   }
 
@@ -185,6 +185,14 @@ public boolean endTimeHasMethod(String method) {
     return endTimes.containsKey(method);
   }
 
+  public Map<String, Long> getStartTimes() {
+    return new HashMap<String, Long>(startTimes);
+  }
+
+  public Map<String, Long> getEndTimes() {
+    return new HashMap<String, Long>(endTimes);
+  }
+
   public Long getDuration(String method) {
     long duration = 0;
     if (startTimes.containsKey(method) && endTimes.containsKey(method)) {
@@ -138,6 +138,8 @@ public class Hive {
 
   private HiveConf conf = null;
   private IMetaStoreClient metaStoreClient;
+  // Calls made by the metastore clients of this object, see getMetaCallStats
+  private final Map<String, Long> metaCallStats = new HashMap<String, Long>();
   private UserGroupInformation owner;
 
   private static ThreadLocal<Hive> hiveDB = new ThreadLocal<Hive>() {
@@ -1341,7 +1343,6 @@ public Partition loadPartition(Path loadPath, Table tbl,
       Map<String, String> partSpec, boolean replace, boolean holdDDLTime,
       boolean inheritTableSpecs, boolean isSkewedStoreAsSubdir,
       boolean isSrcLocal, boolean isAcid) throws HiveException {
-    Path tblDataLocationPath =  tbl.getDataLocation();
     Partition newTPart = null;
     try {
       /**
@@ -1352,46 +1353,9 @@ public Partition loadPartition(Path loadPath, Table tbl,
        */
 
       Partition oldPart = getPartition(tbl, partSpec, false);
-      Path oldPartPath = null;
-      if(oldPart != null) {
-        oldPartPath = oldPart.getDataLocation();
-      }
-
-      Path newPartPath = null;
-
-      if (inheritTableSpecs) {
-        Path partPath = new Path(tbl.getDataLocation(),
-            Warehouse.makePartPath(partSpec));
-        newPartPath = new Path(tblDataLocationPath.toUri().getScheme(), tblDataLocationPath.toUri().getAuthority(),
-            partPath.toUri().getPath());
-
-        if(oldPart != null) {
-          /*
-           * If we are moving the partition across filesystem boundaries
-           * inherit from the table properties. Otherwise (same filesystem) use the
-           * original partition location.
-           *
-           * See: HIVE-1707 and HIVE-2117 for background
-           */
-          FileSystem oldPartPathFS = oldPartPath.getFileSystem(getConf());
-          FileSystem loadPathFS = loadPath.getFileSystem(getConf());
-          if (FileUtils.equalsFileSystem(oldPartPathFS,loadPathFS)) {
-            newPartPath = oldPartPath;
-          }
-        }
-      } else {
-        newPartPath = oldPartPath;
-      }
-
-      List<Path> newFiles = null;
-      if (replace) {
-        Hive.replaceFiles(tbl.getPath(), loadPath, newPartPath, oldPartPath, getConf(),
-            isSrcLocal);
-      } else {
-        newFiles = new ArrayList<Path>();
-        FileSystem fs = tbl.getDataLocation().getFileSystem(conf);
-        Hive.copyFiles(conf, loadPath, newPartPath, fs, isSrcLocal, isAcid, newFiles);
-      }
+      List<Path> newFiles = replace ? null : new ArrayList<Path>();
+      Path newPartPath = movePartitionFiles(loadPath, tbl, partSpec, oldPart, replace,
+          inheritTableSpecs, isSrcLocal, isAcid, newFiles);
 
       boolean forceCreate = (!holdDDLTime) ? true : false;
       newTPart = getPartition(tbl, partSpec, forceCreate, newPartPath.toString(),
@@ -1426,6 +1390,57 @@ public Partition loadPartition(Path loadPath, Table tbl,
     return newTPart;
   }
 
+  /**
+   * Moves the files of a partition being loaded to its location.
+   * @param oldPart The partition, if it already exists.
+   * @param newFiles The list the moved files are added to when not replacing them; may be null.
+   * @return The location of the partition.
+   */
+  private Path movePartitionFiles(Path loadPath, Table tbl, Map<String, String> partSpec,
+      Partition oldPart, boolean replace, boolean inheritTableSpecs, boolean isSrcLocal,
+      boolean isAcid, List<Path> newFiles) throws HiveException, IOException, MetaException {
+    Path tblDataLocationPath =  tbl.getDataLocation();
+    Path oldPartPath = null;
+    if(oldPart != null) {
+      oldPartPath = oldPart.getDataLocation();
+    }
+
+    Path newPartPath = null;
+
+    if (inheritTableSpecs) {
+      Path partPath = new Path(tbl.getDataLocation(),
+          Warehouse.makePartPath(partSpec));
+      newPartPath = new Path(tblDataLocationPath.toUri().getScheme(), tblDataLocationPath.toUri().getAuthority(),
+          partPath.toUri().getPath());
+
+      if(oldPart != null) {
+        /*
+         * If we are moving the partition across filesystem boundaries
+         * inherit from the table properties. Otherwise (same filesystem) use the
+         * original partition location.
+         *
+         * See: HIVE-1707 and HIVE-2117 for background
+         */
+        FileSystem oldPartPathFS = oldPartPath.getFileSystem(getConf());
+        FileSystem loadPathFS = loadPath.getFileSystem(getConf());
+        if (FileUtils.equalsFileSystem(oldPartPathFS,loadPathFS)) {
+          newPartPath = oldPartPath;
+        }
+      }
+    } else {
+      newPartPath = oldPartPath;
+    }
+
+    if (replace) {
+      Hive.replaceFiles(tbl.getPath(), loadPath, newPartPath, oldPartPath, getConf(),
+          isSrcLocal);
+    } else {
+      FileSystem fs = tbl.getDataLocation().getFileSystem(conf);
+      Hive.copyFiles(conf, loadPath, newPartPath, fs, isSrcLocal, isAcid, newFiles);
+    }
+    return newPartPath;
+  }
+
   /**
  * Walk through sub-directory tree to construct list bucketing location map.
  *
@@ -1569,22 +1584,47 @@ public Map<Map<String, String>, Partition> loadDynamicPartitions(Path loadPath,
 
       Table tbl = getTable(tableName);
       // for each dynamically created DP directory, construct a full partition spec
-      // and load the partition based on that
-      Iterator<Path> iter = validPartitions.iterator();
-      while (iter.hasNext()) {
-        // get the dynamically created directory
-        Path partPath = iter.next();
+      Map<Path, LinkedHashMap<String, String>> partSpecs =
+          new LinkedHashMap<Path, LinkedHashMap<String, String>>();
+      List<String> dpPartNames = new ArrayList<String>(validPartitions.size());
+      for (Path partPath : validPartitions) {
         assert fs.getFileStatus(partPath).isDir():
           "partitions " + partPath + " is not a directory !";
-
-        // generate a full partition specification
         LinkedHashMap<String, String> fullPartSpec = new LinkedHashMap<String, String>(partSpec);
         Warehouse.makeSpecFromName(fullPartSpec, partPath);
-        Partition newPartition = loadPartition(partPath, tbl, fullPartSpec, replace,
-            holdDDLTime, true, listBucketingEnabled, false, isAcid);
-        partitionsMap.put(fullPartSpec, newPartition);
+        partSpecs.put(partPath, fullPartSpec);
+        dpPartNames.add(Warehouse.makePartName(fullPartSpec, false));
+      }
+
+      // The partitions that don't exist yet are added with a single metastore call once
+      // their files are moved, instead of one call each. The others, and the ones that
+      // need more than their creation, are loaded one at a time.
+      Set<String> existingPartNames = new HashSet<String>();
+      boolean addNewPartitions = !holdDDLTime && !listBucketingEnabled && !dpPartNames.isEmpty();
+      if (addNewPartitions) {
+        for (Partition part : getPartitionsByNames(tbl, dpPartNames)) {
+          existingPartNames.add(part.getName());
+        }
+      }
+      Map<LinkedHashMap<String, String>, Path> newPartPaths =
+          new LinkedHashMap<LinkedHashMap<String, String>, Path>();
+      for (Map.Entry<Path, LinkedHashMap<String, String>> e : partSpecs.entrySet()) {
+        Path partPath = e.getKey();
+        LinkedHashMap<String, String> fullPartSpec = e.getValue();
+        if (addNewPartitions
+            && !existingPartNames.contains(Warehouse.makePartName(fullPartSpec, false))) {
+          newPartPaths.put(fullPartSpec, movePartitionFiles(partPath, tbl, fullPartSpec, null,
+              replace, true, false, isAcid, null));
+          partitionsMap.put(fullPartSpec, null);
+        } else {
+          partitionsMap.put(fullPartSpec, loadPartition(partPath, tbl, fullPartSpec, replace,
+              holdDDLTime, true, listBucketingEnabled, false, isAcid));
+        }
         LOG.info("New loading path = " + partPath + " with partSpec " + fullPartSpec);
       }
+      if (!newPartPaths.isEmpty()) {
+        addDynamicPartitions(tbl, newPartPaths, partitionsMap);
+      }
       if (isAcid) {
         List<String> partNames = new ArrayList<>(partitionsMap.size());
         for (Partition p : partitionsMap.values()) {
@@ -1600,6 +1640,38 @@ public Map<Map<String, String>, Partition> loadDynamicPartitions(Path loadPath,
     }
   }
 
+  /**
+   * Adds the new partitions of a dynamic partition load, whose files were moved already.
+   * @param newPartPaths The specs of the partitions to their locations.
+   * @param partitionsMap The map to put the added partitions in.
+   */
+  private void addDynamicPartitions(Table tbl,
+      Map<LinkedHashMap<String, String>, Path> newPartPaths,
+      Map<Map<String, String>, Partition> partitionsMap) throws HiveException {
+    List<org.apache.hadoop.hive.metastore.api.Partition> newParts =
+        new ArrayList<org.apache.hadoop.hive.metastore.api.Partition>(newPartPaths.size());
+    for (Map.Entry<LinkedHashMap<String, String>, Path> e : newPartPaths.entrySet()) {
+      newParts.add(Partition.createMetaPartitionObject(tbl, e.getKey(), e.getValue()));
+    }
+    try {
+      for (org.apache.hadoop.hive.metastore.api.Partition tpart
+          : getMSC().add_partitions(newParts, false, true)) {
+        Partition part = new Partition(tbl, tpart);
+        partitionsMap.put(part.getSpec(), part);
+      }
+      return;
+    } catch (AlreadyExistsException e) {
+      LOG.debug("Some partitions were created concurrently, adding them one at a time instead");
+    } catch (Exception e) {
+      LOG.error(StringUtils.stringifyException(e));
+      throw new HiveException(e);
+    }
+    for (Map.Entry<LinkedHashMap<String, String>, Path> e : newPartPaths.entrySet()) {
+      partitionsMap.put(e.getKey(),
+          getPartition(tbl, e.getKey(), true, e.getValue().toString(), true, null));
+    }
+  }
+
   /**
    * Load a directory into a Hive Table. - Alters existing content of table with
    * the contents of loadPath. - If table does not exist - an exception is
@@ -2976,10 +3048,20 @@ public HiveMetaHook getHook(
           }
         }
       };
-    return RetryingMetaStoreClient.getProxy(conf, hookLoader,
+    return RetryingMetaStoreClient.getProxy(conf, hookLoader, metaCallStats,
         SessionHiveMetaStoreClient.class.getName());
   }
 
+  /**
+   * @return The number of calls made to each method of the metastore client ("method.calls"),
+   *         and the time they took ("method.time_ms"), since this object was created.
+   */
+  public Map<String, Long> getMetaCallStats() {
+    synchronized (metaCallStats) {
+      return new HashMap<String, Long>(metaCallStats);
+    }
+  }
+
   /**
    * @return the metastore client for the current thread
    * @throws MetaException
@@ -28,6 +28,7 @@
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
 import org.apache.hadoop.hive.ql.exec.FilterOperator;
@@ -35,6 +36,7 @@
 import org.apache.hadoop.hive.ql.exec.Operator;
 import org.apache.hadoop.hive.ql.exec.OperatorFactory;
 import org.apache.hadoop.hive.ql.exec.ReduceSinkOperator;
+import org.apache.hadoop.hive.ql.exec.SemiJoinFilter;
 import org.apache.hadoop.hive.ql.exec.SelectOperator;
 import org.apache.hadoop.hive.ql.exec.TableScanOperator;
 import org.apache.hadoop.hive.ql.lib.DefaultGraphWalker;
@@ -54,21 +56,29 @@
 import org.apache.hadoop.hive.ql.parse.SemanticException;
 import org.apache.hadoop.hive.ql.plan.AggregationDesc;
 import org.apache.hadoop.hive.ql.plan.DynamicPruningEventDesc;
+import org.apache.hadoop.hive.ql.plan.DynamicSemiJoinEventDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeColumnDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeConstantDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDynamicListDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
 import org.apache.hadoop.hive.ql.plan.FilterDesc;
 import org.apache.hadoop.hive.ql.plan.GroupByDesc;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
 import org.apache.hadoop.hive.ql.plan.PlanUtils;
 import org.apache.hadoop.hive.ql.plan.SelectDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFInBloomFilter;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
+import org.apache.hadoop.hive.serde2.typeinfo.PrimitiveTypeInfo;
+import org.apache.hadoop.hive.serde2.typeinfo.TypeInfoFactory;
 
 /**
  * This optimization looks for expressions of the kind "x IN (RS[n])". If such
  * an expression made it to a table scan operator and x is a partition column we
  * can use an existing join to dynamically prune partitions. This class sets up
- * the infrastructure for that.
+ * the infrastructure for that. With hive.tez.dynamic.semijoin.reduction, the other
+ * columns are reduced by a bloom filter of the keys instead.
  */
 public class DynamicPartitionPruningOptimization implements NodeProcessor {
 
@@ -184,6 +194,7 @@ public Object process(Node nd, Stack<Node> stack, NodeProcessorCtx procCtx, Obje
 
     for (DynamicListContext ctx : removerContext) {
       String column = extractColName(ctx.parent);
+      ExprNodeDesc semiJoinFilter = null;
 
       if (ts != null && column != null) {
         Table table = ts.getConf().getTableMetadata();
@@ -207,13 +218,17 @@ public Object process(Node nd, Stack<Node> stack, NodeProcessorCtx procCtx, Obje
             // all partitions have been statically removed
             LOG.debug("No partition pruning necessary.");
           }
+        } else if (parseContext.getConf().getBoolVar(ConfVars.TEZ_DYNAMIC_SEMIJOIN_REDUCTION)) {
+          semiJoinFilter = generateSemiJoinOperatorPlan(ctx, parseContext, ts, column);
         } else {
           LOG.debug("Column " + column + " is not a partition column");
         }
       }
 
-      // we always remove the condition by replacing it with "true"
-      ExprNodeDesc constNode = new ExprNodeConstantDesc(ctx.parent.getTypeInfo(), true);
+      // we always remove the condition by replacing it with "true", or with the
+      // filter of the semi join reduction
+      ExprNodeDesc constNode = semiJoinFilter != null ? semiJoinFilter
+          : new ExprNodeConstantDesc(ctx.parent.getTypeInfo(), true);
       if (ctx.grandParent == null) {
         desc.setPredicate(constNode);
       } else {
@@ -321,6 +336,130 @@ private void generateEventOperatorPlan(DynamicListContext ctx, ParseContext pars
     OperatorFactory.getAndMakeChild(eventDesc, groupByOp);
   }
 
+  /**
+   * Sends the keys of the other side of the join to the application master in a bloom filter,
+   * for a column that isn't a partition key. Unlike the values of the partition keys, the filter
+   * doesn't need a group by to be small.
+   *
+   * @return the filter of the rows of the table scan by the keys, or null if the key can't be
+   * reduced.
+   */
+  private ExprNodeDesc generateSemiJoinOperatorPlan(DynamicListContext ctx,
+      ParseContext parseContext, TableScanOperator ts, String column) throws SemanticException {
+
+    // we will put a fork in the plan at the source of the reduce sink
+    Operator<? extends OperatorDesc> parentOfRS = ctx.generator.getParentOperators().get(0);
+
+    // we need the expr that generated the key of the reduce sink
+    ExprNodeDesc key = ctx.generator.getConf().getKeyCols().get(ctx.desc.getKeyIndex());
+
+    // we also need the expr for the column of the table scan
+    ExprNodeDesc partKey = ctx.parent.getChildren().get(0);
+
+    if (!(partKey instanceof ExprNodeColumnDesc)
+        || !(partKey.getTypeInfo() instanceof PrimitiveTypeInfo)
+        || !partKey.getTypeInfo().equals(key.getTypeInfo())
+        || !SemiJoinFilter.isSupported(
+            ((PrimitiveTypeInfo) partKey.getTypeInfo()).getPrimitiveCategory())) {
+      LOG.debug("Cannot reduce column " + column + " of type " + partKey.getTypeString()
+          + " by key " + key.getExprString() + " of type " + key.getTypeString());
+      return null;
+    }
+
+    LOG.info("Dynamic semi join reduction: " + ts.getConf().getAlias() + "." + column);
+
+    List<ExprNodeDesc> keyExprs = new ArrayList<ExprNodeDesc>();
+    keyExprs.add(key);
+
+    ArrayList<String> outputNames = new ArrayList<String>();
+    outputNames.add(HiveConf.getColumnInternalName(0));
+
+    // project the relevant key column
+    SelectDesc select = new SelectDesc(keyExprs, outputNames);
+    SelectOperator selectOp =
+        (SelectOperator) OperatorFactory.getAndMakeChild(select, parentOfRS);
+
+    Map<String, ExprNodeDesc> colMap = new HashMap<String, ExprNodeDesc>();
+    colMap.put(outputNames.get(0), key);
+    selectOp.setColumnExprMap(colMap);
+
+    // the application master writes the filter in the scratch directory of the query, where
+    // the tasks of the table scan read it
+    String filterPath = new Path(parseContext.getContext().getMRTmpPath(), "semijoin-"
+        + ts.getOperatorId() + "-" + ctx.generator.getOperatorId()).toString();
+
+    // finally add the event broadcast operator
+    DynamicSemiJoinEventDesc eventDesc = new DynamicSemiJoinEventDesc();
+    eventDesc.setTableScan(ts);
+    eventDesc.setTable(PlanUtils.getReduceValueTableDesc(PlanUtils
+        .getFieldSchemasFromColumnList(keyExprs, "key")));
+    eventDesc.setTargetColumnName(column);
+    eventDesc.setPartKey(partKey);
+    eventDesc.setFilterPath(filterPath);
+
+    OperatorFactory.getAndMakeChild(eventDesc, selectOp);
+
+    List<ExprNodeDesc> children = new ArrayList<ExprNodeDesc>();
+    children.add(partKey);
+    children.add(new ExprNodeConstantDesc(filterPath));
+    return ExprNodeGenericFuncDesc.newInstance(new GenericUDFInBloomFilter(), children);
+  }
+
+  /**
+   * Removes the filter of a semi join reduction from its table scan, once the event that
+   * sends the filter is removed from the plan.
+   */
+  public static void removeSemiJoinFilter(DynamicSemiJoinEventDesc eventDesc) {
+    TableScanOperator ts = eventDesc.getTableScan();
+    TableScanDesc desc = ts.getConf();
+    if (desc.getFilterExpr() != null) {
+      ExprNodeDesc filterExpr = removeSemiJoinFilter(desc.getFilterExpr(),
+          eventDesc.getFilterPath());
+      desc.setFilterExpr(filterExpr instanceof ExprNodeGenericFuncDesc
+          ? (ExprNodeGenericFuncDesc) filterExpr : null);
+    }
+    for (Operator<? extends OperatorDesc> child : ts.getChildOperators()) {
+      if (child instanceof FilterOperator) {
+        FilterDesc filterDesc = ((FilterOperator) child).getConf();
+        ExprNodeDesc predicate = removeSemiJoinFilter(filterDesc.getPredicate(),
+            eventDesc.getFilterPath());
+        filterDesc.setPredicate(predicate != null ? predicate
+            : new ExprNodeConstantDesc(TypeInfoFactory.booleanTypeInfo, true));
+      }
+    }
+  }
+
+  /**
+   * @return the given predicate without the filter read from filterPath, or null if nothing
+   * is left of it.
+   */
+  private static ExprNodeDesc removeSemiJoinFilter(ExprNodeDesc pred, String filterPath) {
+    if (!(pred instanceof ExprNodeGenericFuncDesc)) {
+      return pred;
+    }
+    ExprNodeGenericFuncDesc func = (ExprNodeGenericFuncDesc) pred;
+    if (func.getGenericUDF() instanceof GenericUDFInBloomFilter) {
+      ExprNodeDesc path = func.getChildren().get(1);
+      return path instanceof ExprNodeConstantDesc
+          && filterPath.equals(((ExprNodeConstantDesc) path).getValue()) ? null : pred;
+    }
+    if (!(func.getGenericUDF() instanceof GenericUDFOPAnd)) {
+      return pred;
+    }
+    List<ExprNodeDesc> children = new ArrayList<ExprNodeDesc>();
+    for (ExprNodeDesc child : func.getChildren()) {
+      ExprNodeDesc newChild = removeSemiJoinFilter(child, filterPath);
+      if (newChild != null) {
+        children.add(newChild);
+      }
+    }
+    if (children.size() <= 1) {
+      return children.isEmpty() ? null : children.get(0);
+    }
+    func.setChildren(children);
+    return func;
+  }
+
   private Map<Node, Object> walkExprTree(ExprNodeDesc pred, NodeProcessorCtx ctx)
       throws SemanticException {
 
@@ -0,0 +1,265 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.optimizer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.ValidTxnList;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.hive_metastoreConstants;
+import org.apache.hadoop.hive.ql.exec.AppMasterEventOperator;
+import org.apache.hadoop.hive.ql.exec.FilterOperator;
+import org.apache.hadoop.hive.ql.exec.MapJoinOperator;
+import org.apache.hadoop.hive.ql.exec.Operator;
+import org.apache.hadoop.hive.ql.exec.ReduceSinkOperator;
+import org.apache.hadoop.hive.ql.exec.SelectOperator;
+import org.apache.hadoop.hive.ql.exec.TableScanOperator;
+import org.apache.hadoop.hive.ql.metadata.Partition;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.apache.hadoop.hive.ql.parse.ParseContext;
+import org.apache.hadoop.hive.ql.parse.SemanticException;
+import org.apache.hadoop.hive.ql.plan.DynamicPruningEventDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.MapJoinDesc;
+import org.apache.hadoop.hive.ql.plan.ReduceSinkDesc;
+import org.apache.hadoop.hive.ql.plan.SelectDesc;
+import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
+
+/**
+ * MapJoinInputSignature: sets the signatures of the small tables of the map joins, for the
+ * hash tables to be kept in the Tez containers for the next queries that broadcast the same
+ * rows (hive.tez.mapjoin.cache.across.queries).
+ *
+ * Only the small tables read by a scan, filters and selects are signed. The signature is a
+ * digest of the table, of the names, sizes and modification times of the files it reads, of
+ * the valid transactions if the table is transactional, and of the expressions of the
+ * operators from the scan to the reduce sink, so that it changes with the data or the rows of
+ * the hash table.
+ */
+public class MapJoinInputSignature implements Transform {
+
+  private static final Log LOG = LogFactory.getLog(MapJoinInputSignature.class.getName());
+
+  @Override
+  public ParseContext transform(ParseContext pctx) throws SemanticException {
+    Set<Operator<?>> operators = new HashSet<Operator<?>>();
+    LinkedList<Operator<?>> queue = new LinkedList<Operator<?>>(pctx.getTopOps().values());
+    while (!queue.isEmpty()) {
+      Operator<?> op = queue.removeFirst();
+      if (operators.add(op)) {
+        queue.addAll(op.getChildOperators());
+      }
+    }
+
+    // the partitions read by the scans pruned at runtime aren't known yet
+    Set<TableScanOperator> pruned = new HashSet<TableScanOperator>();
+    for (Operator<?> op : operators) {
+      if (op instanceof AppMasterEventOperator
+          && op.getConf() instanceof DynamicPruningEventDesc) {
+        pruned.add(((DynamicPruningEventDesc) op.getConf()).getTableScan());
+      }
+    }
+
+    for (Operator<?> op : operators) {
+      if (!(op instanceof MapJoinOperator)) {
+        continue;
+      }
+      MapJoinDesc desc = ((MapJoinOperator) op).getConf();
+      if (desc.isBucketMapJoin()) {
+        continue;
+      }
+      List<Operator<?>> parents = op.getParentOperators();
+      for (int pos = 0; pos < parents.size(); pos++) {
+        List<ExprNodeDesc> filters = desc.getFilters() == null
+            ? null : desc.getFilters().get((byte) pos);
+        if (pos == desc.getPosBigTable() || (filters != null && !filters.isEmpty())
+            || !(parents.get(pos) instanceof ReduceSinkOperator)) {
+          continue;
+        }
+        String signature = getSignature(pctx, (ReduceSinkOperator) parents.get(pos), pruned);
+        if (signature != null) {
+          LOG.info("Small table " + pos + " of " + op + " has signature " + signature);
+          desc.getParentSignatures().put(pos, signature);
+        }
+      }
+    }
+    return pctx;
+  }
+
+  /**
+   * @return The signature of the rows of the reduce sink, null if they aren't only read from
+   *     the files of a table.
+   */
+  private String getSignature(ParseContext pctx, ReduceSinkOperator rs,
+      Set<TableScanOperator> pruned) throws SemanticException {
+    List<Operator<?>> path = new ArrayList<Operator<?>>();
+    Operator<?> op = rs;
+    while (op instanceof ReduceSinkOperator || op instanceof FilterOperator
+        || op instanceof SelectOperator) {
+      if (op != rs && op instanceof ReduceSinkOperator
+          || op.getParentOperators() == null || op.getParentOperators().size() != 1) {
+        return null;
+      }
+      path.add(0, op);
+      op = op.getParentOperators().get(0);
+    }
+    if (!(op instanceof TableScanOperator) || pruned.contains(op)) {
+      return null;
+    }
+    TableScanOperator ts = (TableScanOperator) op;
+    TableScanDesc tsDesc = ts.getConf();
+    Table table = tsDesc.getTableMetadata();
+    if (table == null || table.isNonNative() || tsDesc.getRowLimit() >= 0
+        || tsDesc.getTableSample() != null || tsDesc.getIsMetadataOnly()
+        || pctx.getNameToSplitSample().containsKey(tsDesc.getAlias())) {
+      return null;
+    }
+
+    StringBuilder sb = new StringBuilder();
+    sb.append(table.getDbName()).append('.').append(table.getTableName());
+    sb.append(" columns ").append(tsDesc.getNeededColumnIDs());
+    sb.append(" virtual columns ").append(tsDesc.getVirtualCols());
+    if (tsDesc.getFilterExpr() != null) {
+      sb.append(" filter ").append(tsDesc.getFilterExpr().getExprString());
+    }
+    try {
+      List<Partition> partitions = null;
+      if (table.isPartitioned()) {
+        partitions = new ArrayList<Partition>(
+            pctx.getPrunedPartitions(tsDesc.getAlias(), ts).getPartitions());
+      }
+      sb.append(getDataSignature(pctx.getConf(), table, partitions));
+    } catch (IOException e) {
+      LOG.warn("Failed to list the files of " + table.getTableName(), e);
+      return null;
+    }
+
+    for (Operator<?> pathOp : path) {
+      sb.append('\n').append(pathOp.getName());
+      if (pathOp instanceof FilterOperator) {
+        sb.append(' ').append(((FilterOperator) pathOp).getConf().getPredicate().getExprString());
+      } else if (pathOp instanceof SelectOperator) {
+        SelectDesc desc = ((SelectOperator) pathOp).getConf();
+        if (desc.isSelStarNoCompute()) {
+          sb.append(" *");
+        } else {
+          appendExprs(desc.getColList(), sb);
+        }
+      } else {
+        ReduceSinkDesc desc = ((ReduceSinkOperator) pathOp).getConf();
+        appendExprs(desc.getKeyCols(), sb);
+        appendExprs(desc.getValueCols(), sb);
+        appendTable(desc.getKeySerializeInfo(), sb);
+        appendTable(desc.getValueSerializeInfo(), sb);
+      }
+    }
+    return DigestUtils.md5Hex(sb.toString());
+  }
+
+  /**
+   * @param partitions The partitions read, null if the table isn't partitioned.
+   * @return The description of the data read: the files with their sizes and modification
+   *     times, and for a transactional table the transactions valid for the query, which
+   *     decide the rows of the delta files that are read.
+   */
+  static String getDataSignature(HiveConf conf, Table table, List<Partition> partitions)
+      throws IOException {
+    StringBuilder sb = new StringBuilder();
+    if (partitions == null) {
+      appendFiles(conf, table.getDataLocation(), sb);
+    } else {
+      partitions = new ArrayList<Partition>(partitions);
+      Collections.sort(partitions, new Comparator<Partition>() {
+        @Override
+        public int compare(Partition p1, Partition p2) {
+          return p1.getName().compareTo(p2.getName());
+        }
+      });
+      for (Partition partition : partitions) {
+        sb.append("\npartition ").append(partition.getName());
+        appendFiles(conf, partition.getDataLocation(), sb);
+      }
+    }
+    if ("true".equalsIgnoreCase(
+        table.getProperty(hive_metastoreConstants.TABLE_IS_TRANSACTIONAL))) {
+      sb.append("\nvalid txns ").append(conf.get(ValidTxnList.VALID_TXNS_KEY));
+    }
+    return sb.toString();
+  }
+
+  private static void appendFiles(HiveConf conf, Path path, StringBuilder sb)
+      throws IOException {
+    FileSystem fs = path.getFileSystem(conf);
+    if (!fs.exists(path)) {
+      return;
+    }
+    LinkedList<FileStatus> queue = new LinkedList<FileStatus>();
+    queue.add(fs.getFileStatus(path));
+    Set<String> files = new TreeSet<String>();
+    while (!queue.isEmpty()) {
+      FileStatus status = queue.removeFirst();
+      if (status.isDir()) {
+        Collections.addAll(queue, fs.listStatus(status.getPath()));
+      } else {
+        files.add(status.getPath() + " " + status.getLen() + " " + status.getModificationTime());
+      }
+    }
+    for (String file : files) {
+      sb.append('\n').append(file);
+    }
+  }
+
+  private static void appendExprs(List<ExprNodeDesc> exprs, StringBuilder sb) {
+    sb.append(" (");
+    if (exprs != null) {
+      for (ExprNodeDesc expr : exprs) {
+        sb.append(expr.getExprString()).append(", ");
+      }
+    }
+    sb.append(')');
+  }
+
+  private static void appendTable(TableDesc desc, StringBuilder sb) {
+    sb.append(' ').append(desc.getSerdeClassName());
+    Properties properties = desc.getProperties();
+    Map<String, String> sorted = new TreeMap<String, String>();
+    for (String name : properties.stringPropertyNames()) {
+      sorted.put(name, properties.getProperty(name));
+    }
+    sb.append(' ').append(sorted);
+  }
+}
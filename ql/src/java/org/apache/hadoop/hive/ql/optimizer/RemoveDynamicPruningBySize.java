@@ -22,20 +22,28 @@
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
 import org.apache.hadoop.hive.ql.exec.AppMasterEventOperator;
 import org.apache.hadoop.hive.ql.exec.Operator;
+import org.apache.hadoop.hive.ql.exec.SemiJoinFilter;
+import org.apache.hadoop.hive.ql.exec.TableScanOperator;
 import org.apache.hadoop.hive.ql.lib.Node;
 import org.apache.hadoop.hive.ql.lib.NodeProcessor;
 import org.apache.hadoop.hive.ql.lib.NodeProcessorCtx;
 import org.apache.hadoop.hive.ql.parse.OptimizeTezProcContext;
 import org.apache.hadoop.hive.ql.parse.SemanticException;
 import org.apache.hadoop.hive.ql.plan.AppMasterEventDesc;
+import org.apache.hadoop.hive.ql.plan.ColStatistics;
 import org.apache.hadoop.hive.ql.plan.DynamicPruningEventDesc;
+import org.apache.hadoop.hive.ql.plan.DynamicSemiJoinEventDesc;
+import org.apache.hadoop.hive.ql.plan.Statistics;
 
 /**
  * If we expect the number of keys for dynamic pruning to be too large we
- * disable it.
+ * disable it. The bloom filters of the semi join reductions are sized for the
+ * number of keys we expect, and only reduce the table scans expected to read
+ * more rows than that.
  */
 public class RemoveDynamicPruningBySize implements NodeProcessor {
 
@@ -51,22 +59,69 @@ public Object process(Node nd, Stack<Node> stack, NodeProcessorCtx procContext,
     AppMasterEventOperator event = (AppMasterEventOperator) nd;
     AppMasterEventDesc desc = event.getConf();
 
-    if (desc.getStatistics().getDataSize() > context.conf
-        .getLongVar(ConfVars.TEZ_DYNAMIC_PARTITION_PRUNING_MAX_DATA_SIZE)) {
-      Operator<?> child = event;
-      Operator<?> curr = event;
-
-      while (curr.getChildOperators().size() <= 1) {
-        child = curr;
-        curr = curr.getParentOperators().get(0);
+    if (desc instanceof DynamicSemiJoinEventDesc) {
+      // the filter of a semi join reduction is sized for the number of keys
+      long entries = getExpectedEntries(desc.getStatistics());
+      if (entries <= 0 || entries > context.conf
+          .getLongVar(ConfVars.TEZ_DYNAMIC_SEMIJOIN_REDUCTION_MAX_ENTRIES)) {
+        removeEventBranch(event, "Expected number of keys is unknown or too big: " + entries);
+      } else if (!isReducedBy(((DynamicSemiJoinEventDesc) desc).getTableScan(), entries)) {
+        removeEventBranch(event, "Expected number of keys is not smaller than the table: "
+            + entries);
+      } else if (SemiJoinFilter.getBitSetSize(entries) > Math.min(
+          context.conf.getLongVar(ConfVars.TEZ_DYNAMIC_PARTITION_PRUNING_MAX_EVENT_SIZE),
+          context.conf.getLongVar(ConfVars.TEZ_DYNAMIC_PARTITION_PRUNING_MAX_DATA_SIZE))) {
+        // each task sends a filter of that size
+        removeEventBranch(event, "Expected filter size is too big: "
+            + SemiJoinFilter.getBitSetSize(entries));
+      } else {
+        ((DynamicSemiJoinEventDesc) desc).setExpectedEntries(entries);
       }
-      // at this point we've found the fork in the op pipeline that has the
-      // pruning as a child plan.
-      LOG.info("Disabling dynamic pruning for: "
-          + ((DynamicPruningEventDesc) desc).getTableScan().getName()
-          + ". Expected data size is too big: " + desc.getStatistics().getDataSize());
-      curr.removeChild(child);
+    } else if (desc.getStatistics().getDataSize() > context.conf
+        .getLongVar(ConfVars.TEZ_DYNAMIC_PARTITION_PRUNING_MAX_DATA_SIZE)) {
+      removeEventBranch(event, "Expected data size is too big: "
+          + desc.getStatistics().getDataSize());
     }
     return false;
   }
+
+  private long getExpectedEntries(Statistics stats) {
+    if (stats == null) {
+      return -1;
+    }
+    long entries = stats.getNumRows();
+    ColStatistics cs = stats.getColumnStatisticsFromColName(HiveConf.getColumnInternalName(0));
+    if (cs != null && cs.getCountDistint() > 0) {
+      entries = Math.min(entries, cs.getCountDistint());
+    }
+    return entries;
+  }
+
+  /**
+   * @return Whether the table scan is expected to read more rows than there are keys, without
+   *     which the filter can't drop many of them.
+   */
+  private boolean isReducedBy(TableScanOperator ts, long entries) {
+    Statistics stats = ts.getStatistics();
+    return stats != null && stats.getNumRows() > entries;
+  }
+
+  private void removeEventBranch(AppMasterEventOperator event, String reason) {
+    Operator<?> child = event;
+    Operator<?> curr = event;
+
+    while (curr.getChildOperators().size() <= 1) {
+      child = curr;
+      curr = curr.getParentOperators().get(0);
+    }
+    // at this point we've found the fork in the op pipeline that has the
+    // pruning as a child plan.
+    LOG.info("Disabling dynamic pruning for: "
+        + ((DynamicPruningEventDesc) event.getConf()).getTableScan().getName() + ". " + reason);
+    curr.removeChild(child);
+    if (event.getConf() instanceof DynamicSemiJoinEventDesc) {
+      DynamicPartitionPruningOptimization.removeSemiJoinFilter(
+          (DynamicSemiJoinEventDesc) event.getConf());
+    }
+  }
 }
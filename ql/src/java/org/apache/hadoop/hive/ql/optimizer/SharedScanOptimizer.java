@@ -0,0 +1,267 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.optimizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.ql.exec.AppMasterEventOperator;
+import org.apache.hadoop.hive.ql.exec.ColumnInfo;
+import org.apache.hadoop.hive.ql.exec.CommonMergeJoinOperator;
+import org.apache.hadoop.hive.ql.exec.DummyStoreOperator;
+import org.apache.hadoop.hive.ql.exec.MapJoinOperator;
+import org.apache.hadoop.hive.ql.exec.Operator;
+import org.apache.hadoop.hive.ql.exec.ReduceSinkOperator;
+import org.apache.hadoop.hive.ql.exec.TableScanOperator;
+import org.apache.hadoop.hive.ql.metadata.Partition;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.apache.hadoop.hive.ql.parse.ParseContext;
+import org.apache.hadoop.hive.ql.parse.PrunedPartitionList;
+import org.apache.hadoop.hive.ql.parse.SemanticException;
+import org.apache.hadoop.hive.ql.plan.DynamicPruningEventDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
+import org.apache.hadoop.hive.ql.plan.ExprNodeGenericFuncDesc;
+import org.apache.hadoop.hive.ql.plan.OperatorDesc;
+import org.apache.hadoop.hive.ql.plan.TableScanDesc;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPOr;
+
+/**
+ * SharedScanOptimizer: merges the table scans that read the same partitions of a table, so
+ * that the table is read once for all the branches of the query that scan it, like the
+ * multi-insert queries do. The merged scan reads the columns of all the scans, and the filter
+ * pushed to it is the disjunction of their filters; each branch still applies its own filter.
+ *
+ * Two scans are merged only when the branches that read them don't meet before a shuffle
+ * and don't shuffle into the same operator, and when neither branch feeds the other, as
+ * either would need the work reading the table to feed itself.
+ */
+public class SharedScanOptimizer implements Transform {
+
+  private static final Log LOG = LogFactory.getLog(SharedScanOptimizer.class.getName());
+
+  @Override
+  public ParseContext transform(ParseContext pctx) throws SemanticException {
+    Map<String, Operator<? extends OperatorDesc>> topOps = pctx.getTopOps();
+
+    // the scans that dynamic partition pruning applies to are left alone
+    Set<TableScanOperator> pruned = new HashSet<TableScanOperator>();
+    for (Operator<?> op : getDescendants(topOps.values(), false)) {
+      if (op instanceof AppMasterEventOperator
+          && op.getConf() instanceof DynamicPruningEventDesc) {
+        pruned.add(((DynamicPruningEventDesc) op.getConf()).getTableScan());
+      }
+    }
+
+    // the scans merged so far, by table
+    Map<String, List<String>> scans = new LinkedHashMap<String, List<String>>();
+    for (String alias : new ArrayList<String>(topOps.keySet())) {
+      Operator<?> op = topOps.get(alias);
+      if (!(op instanceof TableScanOperator) || pruned.contains(op)
+          || !canShare(pctx, alias, (TableScanOperator) op)) {
+        continue;
+      }
+      TableScanOperator ts = (TableScanOperator) op;
+      Table table = ts.getConf().getTableMetadata();
+      String tableName = table.getDbName() + "." + table.getTableName();
+      List<String> aliases = scans.get(tableName);
+      if (aliases == null) {
+        aliases = new ArrayList<String>();
+        scans.put(tableName, aliases);
+      }
+      boolean merged = false;
+      for (String otherAlias : aliases) {
+        TableScanOperator other = (TableScanOperator) topOps.get(otherAlias);
+        if (isSameScan(pctx, otherAlias, other, alias, ts) && canMerge(other, ts)) {
+          merge(pctx, other, alias, ts);
+          merged = true;
+          break;
+        }
+      }
+      if (!merged) {
+        aliases.add(alias);
+      }
+    }
+    return pctx;
+  }
+
+  private boolean canShare(ParseContext pctx, String alias, TableScanOperator ts) {
+    TableScanDesc desc = ts.getConf();
+    return desc.getTableMetadata() != null && !desc.getTableMetadata().isNonNative()
+        && !desc.isGatherStats()
+        && !desc.getIsMetadataOnly() && desc.getRowLimit() < 0
+        && desc.getFilterObject() == null && desc.getTableSample() == null
+        && desc.getBucketFileNameMapping() == null
+        && !pctx.getNameToSplitSample().containsKey(alias)
+        && (pctx.getOpToSamplePruner() == null || !pctx.getOpToSamplePruner().containsKey(ts));
+  }
+
+  private boolean isSameScan(ParseContext pctx, String alias1, TableScanOperator ts1,
+      String alias2, TableScanOperator ts2) throws SemanticException {
+    TableScanDesc desc1 = ts1.getConf();
+    TableScanDesc desc2 = ts2.getConf();
+    if (!equals(desc1.getVirtualCols(), desc2.getVirtualCols())) {
+      return false;
+    }
+    if (!desc1.getTableMetadata().isPartitioned()) {
+      return true;
+    }
+    return getPartitionNames(pctx.getPrunedPartitions(alias1, ts1))
+        .equals(getPartitionNames(pctx.getPrunedPartitions(alias2, ts2)));
+  }
+
+  private static boolean equals(List<?> a, List<?> b) {
+    return a == null ? b == null || b.isEmpty() : (b == null ? a.isEmpty() : a.equals(b));
+  }
+
+  private static Set<String> getPartitionNames(PrunedPartitionList partitions) {
+    Set<String> names = new HashSet<String>();
+    for (Partition partition : partitions.getPartitions()) {
+      names.add(partition.getName());
+    }
+    return names;
+  }
+
+  /**
+   * @return Whether the branches of the two scans can read from the same scan.
+   */
+  private boolean canMerge(TableScanOperator ts1, TableScanOperator ts2) {
+    Set<Operator<?>> mapSide1 = getDescendants(Arrays.<Operator<?>>asList(ts1), true);
+    Set<Operator<?>> mapSide2 = getDescendants(Arrays.<Operator<?>>asList(ts2), true);
+    Set<Operator<?>> all1 = getDescendants(Arrays.<Operator<?>>asList(ts1), false);
+    Set<Operator<?>> all2 = getDescendants(Arrays.<Operator<?>>asList(ts2), false);
+    if (!isDisjoint(mapSide1, all2) || !isDisjoint(mapSide2, all1)
+        || !isDisjoint(getShuffleTargets(mapSide1), getShuffleTargets(mapSide2))) {
+      return false;
+    }
+    for (Set<Operator<?>> mapSide : Arrays.asList(mapSide1, mapSide2)) {
+      for (Operator<?> op : mapSide) {
+        if (op instanceof CommonMergeJoinOperator || op instanceof DummyStoreOperator
+            || (op instanceof MapJoinOperator
+                && ((MapJoinOperator) op).getConf().isBucketMapJoin())) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param mapSideOnly Whether to stop at the reduce sinks.
+   * @return The operators below the given ones, including the table scans that their
+   *     dynamic partition pruning events go to.
+   */
+  private static Set<Operator<?>> getDescendants(Iterable<? extends Operator<?>> roots,
+      boolean mapSideOnly) {
+    Set<Operator<?>> result = new HashSet<Operator<?>>();
+    LinkedList<Operator<?>> queue = new LinkedList<Operator<?>>();
+    for (Operator<?> root : roots) {
+      queue.add(root);
+    }
+    while (!queue.isEmpty()) {
+      Operator<?> op = queue.removeFirst();
+      if (!result.add(op) || (mapSideOnly && op instanceof ReduceSinkOperator)) {
+        continue;
+      }
+      queue.addAll(op.getChildOperators());
+      if (op instanceof AppMasterEventOperator
+          && op.getConf() instanceof DynamicPruningEventDesc) {
+        queue.add(((DynamicPruningEventDesc) op.getConf()).getTableScan());
+      }
+    }
+    return result;
+  }
+
+  private static Set<Operator<?>> getShuffleTargets(Set<Operator<?>> mapSide) {
+    Set<Operator<?>> result = new HashSet<Operator<?>>();
+    for (Operator<?> op : mapSide) {
+      if (op instanceof ReduceSinkOperator) {
+        result.addAll(op.getChildOperators());
+      }
+    }
+    return result;
+  }
+
+  private static boolean isDisjoint(Set<Operator<?>> a, Set<Operator<?>> b) {
+    for (Operator<?> op : a) {
+      if (b.contains(op)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Moves the branches of ts to target, and removes ts.
+   */
+  private void merge(ParseContext pctx, TableScanOperator target, String alias,
+      TableScanOperator ts) throws SemanticException {
+    LOG.info("Merging the scan of " + alias + " into " + target.getConf().getAlias());
+    ExprNodeGenericFuncDesc filter1 = target.getConf().getFilterExpr();
+    ExprNodeGenericFuncDesc filter2 = ts.getConf().getFilterExpr();
+    if (filter1 == null || filter2 == null) {
+      target.getConf().setFilterExpr(null);
+    } else if (!filter1.isSame(filter2)) {
+      List<ExprNodeDesc> children = new ArrayList<ExprNodeDesc>();
+      children.add(filter1);
+      children.add(filter2);
+      try {
+        target.getConf().setFilterExpr(
+            ExprNodeGenericFuncDesc.newInstance(new GenericUDFOPOr(), children));
+      } catch (Exception e) {
+        throw new SemanticException(e);
+      }
+    }
+
+    if (target.getNeededColumnIDs() == null || ts.getNeededColumnIDs() == null) {
+      target.setNeededColumnIDs(null);
+    } else {
+      List<String> columns = new ArrayList<String>();
+      for (ColumnInfo column : target.getSchema().getSignature()) {
+        String name = column.getInternalName();
+        if (target.getReferencedColumns().contains(name)
+            || ts.getReferencedColumns().contains(name)) {
+          columns.add(name);
+        }
+      }
+      ColumnPrunerProcFactory.setupNeededColumns(target, target.getSchema(), columns);
+    }
+
+    for (Operator<? extends OperatorDesc> child : ts.getChildOperators()) {
+      child.replaceParent(ts, target);
+      target.getChildOperators().add(child);
+    }
+    ts.setChildOperators(new ArrayList<Operator<? extends OperatorDesc>>());
+    Iterator<Map.Entry<String, Operator<? extends OperatorDesc>>> it =
+        pctx.getTopOps().entrySet().iterator();
+    while (it.hasNext()) {
+      if (it.next().getValue() == ts) {
+        it.remove();
+      }
+    }
+  }
+}
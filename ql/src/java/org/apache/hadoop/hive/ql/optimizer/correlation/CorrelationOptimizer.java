@@ -452,6 +452,7 @@ private LinkedHashSet<ReduceSinkOperator> findCorrelatedReduceSinkOperators(
         boolean isCorrelated = sameKeys(rsKeyCols, backtrackedKeyCols) &&
             sameOrder(rsop.getConf().getOrder(), childRSOrder) &&
             sameKeys(backtrackedPartitionCols, rsPartitionCols) &&
+            rsop.getConf().getSkewedKeysSpread() == 0 &&
             correlation.adjustNumReducers(rsop.getConf().getNumReducers());
         GroupByOperator cGBY =
             CorrelationUtilities.getSingleChild(rsop, GroupByOperator.class);
@@ -332,6 +332,10 @@ private int[] checkStatus(ReduceSinkOperator cRS, ReduceSinkOperator pRS, int mi
         throws SemanticException {
       ReduceSinkDesc cConf = cRS.getConf();
       ReduceSinkDesc pConf = pRS.getConf();
+      if (cConf.getSkewedKeysSpread() > 0 || pConf.getSkewedKeysSpread() > 0) {
+        // the rows of a frequent key don't all go to the same reducer
+        return null;
+      }
       Integer moveRSOrderTo = checkOrder(cConf.getOrder(), pConf.getOrder());
       if (moveRSOrderTo == null) {
         return null;
@@ -333,6 +333,10 @@ private void processCurrentTask(SparkTask sparkTask, ConditionalTask conditional
         }
       }
 
+      if (physicalContext.conf.getBoolVar(HiveConf.ConfVars.SPARK_MERGE_SMALL_TABLE_WORKS)) {
+        mergeSparkWorks(sparkWork);
+      }
+
       Map<SparkWork, SparkTask> createdTaskMap = new LinkedHashMap<SparkWork, SparkTask>();
 
       // Now create SparkTasks from the SparkWorks, also set up dependency
@@ -341,6 +345,71 @@ private void processCurrentTask(SparkTask sparkTask, ConditionalTask conditional
       }
     }
 
+    /**
+     * Merges the SparkWorks of the small tables that wait for as many SparkWorks before them,
+     * which can't depend on each other. Their works then run in a single Spark job, instead of
+     * one job per map join submitted after the previous one is done.
+     */
+    private void mergeSparkWorks(SparkWork originalWork) {
+      Map<SparkWork, Integer> depths = new HashMap<SparkWork, Integer>();
+      Map<Integer, SparkWork> depthToWork = new HashMap<Integer, SparkWork>();
+      Map<SparkWork, SparkWork> mergedInto = new HashMap<SparkWork, SparkWork>();
+      boolean merged = false;
+      for (SparkWork work : dependencyGraph.keySet()) {
+        if (work == originalWork) {
+          mergedInto.put(work, work);
+          continue;
+        }
+        int depth = getDepth(work, depths);
+        SparkWork target = depthToWork.get(depth);
+        if (target == null) {
+          depthToWork.put(depth, work);
+          target = work;
+        } else {
+          for (BaseWork baseWork : work.getAllWork()) {
+            target.add(baseWork);
+            for (BaseWork parent : work.getParents(baseWork)) {
+              target.connect(parent, baseWork, work.getEdgeProperty(parent, baseWork));
+            }
+          }
+          merged = true;
+        }
+        mergedInto.put(work, target);
+      }
+      if (!merged) {
+        return;
+      }
+
+      Map<SparkWork, List<SparkWork>> mergedGraph = new LinkedHashMap<SparkWork, List<SparkWork>>();
+      for (Map.Entry<SparkWork, List<SparkWork>> entry : dependencyGraph.entrySet()) {
+        SparkWork work = mergedInto.get(entry.getKey());
+        if (!mergedGraph.containsKey(work)) {
+          mergedGraph.put(work, new ArrayList<SparkWork>());
+        }
+        List<SparkWork> parents = mergedGraph.get(work);
+        for (SparkWork parent : entry.getValue()) {
+          if (!parents.contains(mergedInto.get(parent))) {
+            parents.add(mergedInto.get(parent));
+          }
+        }
+      }
+      dependencyGraph.clear();
+      dependencyGraph.putAll(mergedGraph);
+    }
+
+    // The number of SparkWorks the specified SparkWork waits for, one after the other
+    private int getDepth(SparkWork work, Map<SparkWork, Integer> depths) {
+      Integer depth = depths.get(work);
+      if (depth == null) {
+        depth = 0;
+        for (SparkWork parent : dependencyGraph.get(work)) {
+          depth = Math.max(depth, getDepth(parent, depths) + 1);
+        }
+        depths.put(work, depth);
+      }
+      return depth;
+    }
+
     /**
      * Update the task/work list of this conditional task to replace originalTask with newTask.
      * For runtime skew join, also update dirToTaskMap for the conditional resolver
@@ -0,0 +1,158 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.optimizer.physical;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.ql.exec.GroupByOperator;
+import org.apache.hadoop.hive.ql.exec.Operator;
+import org.apache.hadoop.hive.ql.exec.ReduceSinkOperator;
+import org.apache.hadoop.hive.ql.exec.Task;
+import org.apache.hadoop.hive.ql.exec.tez.TezTask;
+import org.apache.hadoop.hive.ql.lib.Dispatcher;
+import org.apache.hadoop.hive.ql.lib.Node;
+import org.apache.hadoop.hive.ql.lib.TaskGraphWalker;
+import org.apache.hadoop.hive.ql.parse.SemanticException;
+import org.apache.hadoop.hive.ql.plan.AggregationDesc;
+import org.apache.hadoop.hive.ql.plan.BaseWork;
+import org.apache.hadoop.hive.ql.plan.GroupByDesc;
+import org.apache.hadoop.hive.ql.plan.ReduceSinkDesc;
+import org.apache.hadoop.hive.ql.plan.ReduceWork;
+import org.apache.hadoop.hive.ql.plan.Statistics;
+import org.apache.hadoop.hive.ql.plan.TezEdgeProperty;
+import org.apache.hadoop.hive.ql.plan.TezEdgeProperty.EdgeType;
+import org.apache.hadoop.hive.ql.plan.TezWork;
+
+/**
+ * UnsortedShuffleOptimizer: shuffles the input of the reduce-side group bys of Tez without
+ * sorting it, when the group by is the operator of the reducer that reads its input.
+ *
+ * The map side of a SIMPLE_EDGE sorts its records so that the reducer gets the records of each
+ * key together. A group by doesn't need them together if it aggregates its groups in a hash
+ * table until the end of its input instead, which saves the sort and the merge of the shuffle.
+ * Since all the groups of a reducer stay in memory, the edge is only unsorted when the
+ * statistics of the group by estimate the groups of a reducer to be smaller than
+ * hive.tez.unsorted.shuffle.max.size. Distinct aggregations and grouping sets, which rely on
+ * the order of the records, and vectorized reducers keep the sorted edge.
+ */
+public class UnsortedShuffleOptimizer implements PhysicalPlanResolver, Dispatcher {
+
+  private static final Log LOG = LogFactory.getLog(UnsortedShuffleOptimizer.class);
+
+  private long maxSize;
+
+  @Override
+  public PhysicalContext resolve(PhysicalContext pctx) throws SemanticException {
+    maxSize = HiveConf.getLongVar(pctx.getConf(), HiveConf.ConfVars.TEZ_UNSORTED_SHUFFLE_MAX_SIZE);
+    TaskGraphWalker ogw = new TaskGraphWalker(this);
+    ArrayList<Node> topNodes = new ArrayList<Node>();
+    topNodes.addAll(pctx.getRootTasks());
+    ogw.startWalking(topNodes, null);
+    return pctx;
+  }
+
+  @Override
+  public Object dispatch(Node nd, Stack<Node> stack, Object... nodeOutputs)
+      throws SemanticException {
+    @SuppressWarnings("unchecked")
+    Task<? extends Serializable> task = (Task<? extends Serializable>) nd;
+    if (task instanceof TezTask) {
+      TezWork tezWork = ((TezTask) task).getWork();
+      for (BaseWork work : tezWork.getAllWork()) {
+        if (work instanceof ReduceWork && canBeUnsorted(tezWork, (ReduceWork) work)) {
+          LOG.info("Shuffling the input of " + work.getName() + " without sorting it");
+          ((GroupByOperator) ((ReduceWork) work).getReducer()).getConf().setUnsortedInput(true);
+          for (BaseWork parent : tezWork.getParents(work)) {
+            tezWork.getEdgeProperty(parent, work).setUnsorted(true);
+          }
+        }
+      }
+    }
+    return null;
+  }
+
+  boolean canBeUnsorted(TezWork tezWork, ReduceWork work) {
+    if (work.getVectorMode() || work.getTagToValueDesc().size() != 1
+        || !(work.getReducer() instanceof GroupByOperator)) {
+      return false;
+    }
+    GroupByDesc desc = ((GroupByOperator) work.getReducer()).getConf();
+    if (desc.getMode() == GroupByDesc.Mode.HASH || desc.isGroupingSetsPresent()
+        || desc.getBucketGroup() || desc.isDontResetAggrsDistinct()) {
+      return false;
+    }
+    for (AggregationDesc aggregation : desc.getAggregators()) {
+      if (aggregation.getDistinct()) {
+        return false;
+      }
+    }
+
+    List<BaseWork> parents = tezWork.getParents(work);
+    if (parents.isEmpty()) {
+      return false;
+    }
+    for (BaseWork parent : parents) {
+      TezEdgeProperty edge = tezWork.getEdgeProperty(parent, work);
+      if (edge.getEdgeType() != EdgeType.SIMPLE_EDGE) {
+        return false;
+      }
+    }
+    // the reduce sinks of the edges, which can be in the inputs of a union
+    boolean hasReduceSink = false;
+    for (BaseWork other : tezWork.getAllWork()) {
+      for (Operator<?> op : other.getAllOperators()) {
+        if (op instanceof ReduceSinkOperator
+            && work.getName().equals(((ReduceSinkOperator) op).getConf().getOutputName())) {
+          ReduceSinkDesc rsDesc = ((ReduceSinkOperator) op).getConf();
+          // a top n reduce sink only forwards the first keys
+          if (rsDesc.getTopN() >= 0 || (rsDesc.getDistinctColumnIndices() != null
+              && !rsDesc.getDistinctColumnIndices().isEmpty())) {
+            return false;
+          }
+          hasReduceSink = true;
+        }
+      }
+    }
+    if (!hasReduceSink) {
+      return false;
+    }
+
+    Statistics stats = desc.getStatistics();
+    if (stats == null || stats.getDataSize() <= 0) {
+      return false;
+    }
+    Integer reducers = work.isAutoReduceParallelism() ? Integer.valueOf(work.getMinReduceTasks())
+        : work.getNumReduceTasks();
+    if (reducers == null) {
+      reducers = 1;
+    }
+    long sizePerReducer = stats.getDataSize() / Math.max(1, reducers);
+    if (sizePerReducer > maxSize) {
+      LOG.info("Keeping the sorted input of " + work.getName() + ": " + sizePerReducer
+          + " bytes of groups for each reducer");
+      return false;
+    }
+    return true;
+  }
+}
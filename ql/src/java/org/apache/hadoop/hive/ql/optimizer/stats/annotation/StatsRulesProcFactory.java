@@ -57,6 +57,7 @@
 import org.apache.hadoop.hive.ql.stats.StatsUtils;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDAFEvaluator;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDF;
+import org.apache.hadoop.hive.ql.udf.generic.GenericUDFInBloomFilter;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPAnd;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqual;
 import org.apache.hadoop.hive.ql.udf.generic.GenericUDFOPEqualNS;
@@ -515,6 +516,9 @@ private long evaluateChildExpr(Statistics stats, ExprNodeDesc child,
           }
         } else if (udf instanceof GenericUDFOPNotEqual) {
           return numRows;
+        } else if (udf instanceof GenericUDFInBloomFilter) {
+          // the semi join reduction only drops rows the join would drop, don't count them twice
+          return numRows;
         } else if (udf instanceof GenericUDFOPEqualOrGreaterThan
             || udf instanceof GenericUDFOPEqualOrLessThan || udf instanceof GenericUDFOPGreaterThan
             || udf instanceof GenericUDFOPLessThan) {
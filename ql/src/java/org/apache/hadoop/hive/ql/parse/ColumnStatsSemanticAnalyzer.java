@@ -294,6 +294,7 @@ private String genRewrittenQuery(List<String> colNames, int numBitVectors, Map<S
     boolean isPartitionStats) throws SemanticException{
     StringBuilder rewrittenQueryBuilder = new StringBuilder("select ");
     String rewrittenQuery;
+    boolean outputBitVectors = HiveConf.getBoolVar(conf, ConfVars.HIVE_STATS_NDV_BITVECTORS);
 
     for (int i = 0; i < colNames.size(); i++) {
       if (i > 0) {
@@ -303,6 +304,9 @@ private String genRewrittenQuery(List<String> colNames, int numBitVectors, Map<S
       rewrittenQueryBuilder.append(colNames.get(i));
       rewrittenQueryBuilder.append(" , ");
       rewrittenQueryBuilder.append(numBitVectors);
+      if (outputBitVectors) {
+        rewrittenQueryBuilder.append(" , true");
+      }
       rewrittenQueryBuilder.append(" )");
     }
 
@@ -43,6 +43,7 @@
 import org.apache.hadoop.hive.ql.optimizer.GenMapRedUtils;
 import org.apache.hadoop.hive.ql.plan.BaseWork;
 import org.apache.hadoop.hive.ql.plan.DynamicPruningEventDesc;
+import org.apache.hadoop.hive.ql.plan.DynamicSemiJoinEventDesc;
 import org.apache.hadoop.hive.ql.plan.ExprNodeDesc;
 import org.apache.hadoop.hive.ql.plan.FileSinkDesc;
 import org.apache.hadoop.hive.ql.plan.MapWork;
@@ -430,6 +431,14 @@ public void processAppMasterEvent(GenTezProcContext procCtx, AppMasterEventOpera
     List<ExprNodeDesc> keys = work.getEventSourcePartKeyExprMap().get(sourceName);
     keys.add(eventDesc.getPartKey());
 
+    // store the filter path of a semi join reduction in map-work
+    if (!work.getEventSourceSemiJoinPathMap().containsKey(sourceName)) {
+      work.getEventSourceSemiJoinPathMap().put(sourceName, new LinkedList<String>());
+    }
+    List<String> paths = work.getEventSourceSemiJoinPathMap().get(sourceName);
+    paths.add(eventDesc instanceof DynamicSemiJoinEventDesc
+        ? ((DynamicSemiJoinEventDesc) eventDesc).getFilterPath() : null);
+
   }
 
   /**
@@ -5499,16 +5499,20 @@ private Operator genGroupByPlan2MR(String dest, QB qb, Operator input)
     // DISTINCT
     // operator. We set the numPartitionColumns to -1 for this purpose. This is
     // captured by WritableComparableHiveObject.hashCode() function.
+    // Unless only the rows of the frequent keys are spread over several reducers.
+    int skewedKeysSpread = getSkewedKeysSpread(parseInfo, dest, grpByExprs);
     ReduceSinkOperator reduceSinkOperatorInfo =
         genGroupByPlanReduceSinkOperator(qb,
             dest,
             input,
             grpByExprs,
-            (parseInfo.getDistinctFuncExprsForClause(dest).isEmpty() ? -1 : Integer.MAX_VALUE),
+            (parseInfo.getDistinctFuncExprsForClause(dest).isEmpty() && skewedKeysSpread == 0
+                ? -1 : Integer.MAX_VALUE),
             false,
             -1,
             false,
             false);
+    reduceSinkOperatorInfo.getConf().setSkewedKeysSpread(skewedKeysSpread);
 
     // ////// 2. Generate GroupbyOperator
     Map<String, GenericUDAFEvaluator> genericUDAFEvaluators =
@@ -5534,6 +5538,20 @@ private Operator genGroupByPlan2MR(String dest, QB qb, Operator input)
     return groupByOperatorInfo2;
   }
 
+  /**
+   * @return The number of reducers the rows of the frequent keys are spread over by the first
+   *     shuffle of a skewed group by, which then partitions the other rows by their keys, or 0
+   *     if all the rows are spread randomly.
+   */
+  private int getSkewedKeysSpread(QBParseInfo parseInfo, String dest, List<ASTNode> grpByExprs) {
+    int spread = conf.getIntVar(HiveConf.ConfVars.HIVEGROUPBYSKEWSPREAD);
+    if (spread <= 1 || grpByExprs.isEmpty()
+        || !parseInfo.getDistinctFuncExprsForClause(dest).isEmpty()) {
+      return 0;
+    }
+    return spread;
+  }
+
   private boolean optimizeMapAggrGroupBy(String dest, QB qb) {
     List<ASTNode> grpByExprs = getGroupByForClause(qb.getParseInfo(), dest);
     if ((grpByExprs != null) && !grpByExprs.isEmpty()) {
@@ -5884,18 +5902,20 @@ private Operator genGroupByPlanMapAggr2MR(String dest, QB qb,
     // For eg: select count(1) from T where t.ds = ....
     if (!optimizeMapAggrGroupBy(dest, qb)) {
       List<ASTNode> distinctFuncExprs = parseInfo.getDistinctFuncExprsForClause(dest);
+      int skewedKeysSpread = getSkewedKeysSpread(parseInfo, dest, grpByExprs);
 
       // ////// Generate ReduceSink Operator
-      Operator reduceSinkOperatorInfo =
+      ReduceSinkOperator reduceSinkOperatorInfo =
           genGroupByPlanReduceSinkOperator(qb,
               dest,
               groupByOperatorInfo,
               grpByExprs,
-              distinctFuncExprs.isEmpty() ? -1 : Integer.MAX_VALUE,
+              distinctFuncExprs.isEmpty() && skewedKeysSpread == 0 ? -1 : Integer.MAX_VALUE,
               false,
               -1,
               true,
               groupingSetsPresent);
+      reduceSinkOperatorInfo.getConf().setSkewedKeysSpread(skewedKeysSpread);
 
       // ////// Generate GroupbyOperator for a partial aggregation
       Operator groupByOperatorInfo2 = genGroupByPlanGroupByOperator1(parseInfo,
@@ -6492,8 +6512,7 @@ private Operator genFileSinkPlan(String dest, QB qb, Operator input)
 
       if (tblDesc == null) {
         if (qb.getIsQuery()) {
-          String fileFormat = HiveConf.getVar(conf, HiveConf.ConfVars.HIVEQUERYRESULTFILEFORMAT);
-          table_desc = PlanUtils.getDefaultQueryOutputTableDesc(cols, colTypes, fileFormat);
+          table_desc = PlanUtils.getQueryOutputTableDesc(conf, cols, colTypes);
         } else {
           table_desc = PlanUtils.getDefaultTableDesc(qb.getLLocalDirectoryDesc(), cols, colTypes);
         }
@@ -118,8 +118,7 @@ public void compile(final ParseContext pCtx, final List<Task<? extends Serializa
 
       TableDesc resultTab = pCtx.getFetchTableDesc();
       if (resultTab == null) {
-        String resFileFormat = HiveConf.getVar(conf, HiveConf.ConfVars.HIVEQUERYRESULTFILEFORMAT);
-        resultTab = PlanUtils.getDefaultQueryOutputTableDesc(cols, colTypes, resFileFormat);
+        resultTab = PlanUtils.getQueryOutputTableDesc(conf, cols, colTypes);
       }
 
       FetchWork fetch = new FetchWork(loadFileDesc.getSourcePath(), resultTab, outerQueryLimit);
@@ -320,8 +319,7 @@ protected void genColumnStatsTask(AnalyzeRewriteContext analyzeRewrite, List<Loa
     String cols = loadFileWork.get(0).getColumns();
     String colTypes = loadFileWork.get(0).getColumnTypes();
 
-    String resFileFormat = HiveConf.getVar(conf, HiveConf.ConfVars.HIVEQUERYRESULTFILEFORMAT);
-    TableDesc resultTab = PlanUtils.getDefaultQueryOutputTableDesc(cols, colTypes, resFileFormat);
+    TableDesc resultTab = PlanUtils.getQueryOutputTableDesc(conf, cols, colTypes);
 
     fetch = new FetchWork(loadFileWork.get(0).getSourcePath(), resultTab, outerQueryLimit);
 
@@ -64,20 +64,24 @@
 import org.apache.hadoop.hive.ql.optimizer.ConstantPropagate;
 import org.apache.hadoop.hive.ql.optimizer.ConvertJoinMapJoin;
 import org.apache.hadoop.hive.ql.optimizer.DynamicPartitionPruningOptimization;
+import org.apache.hadoop.hive.ql.optimizer.MapJoinInputSignature;
 import org.apache.hadoop.hive.ql.optimizer.MergeJoinProc;
 import org.apache.hadoop.hive.ql.optimizer.ReduceSinkMapJoinProc;
 import org.apache.hadoop.hive.ql.optimizer.RemoveDynamicPruningBySize;
 import org.apache.hadoop.hive.ql.optimizer.SetReducerParallelism;
+import org.apache.hadoop.hive.ql.optimizer.SharedScanOptimizer;
 import org.apache.hadoop.hive.ql.optimizer.metainfo.annotation.AnnotateWithOpTraits;
 import org.apache.hadoop.hive.ql.optimizer.physical.CrossProductCheck;
 import org.apache.hadoop.hive.ql.optimizer.physical.MetadataOnlyOptimizer;
 import org.apache.hadoop.hive.ql.optimizer.physical.NullScanOptimizer;
 import org.apache.hadoop.hive.ql.optimizer.physical.PhysicalContext;
 import org.apache.hadoop.hive.ql.optimizer.physical.StageIDsRearranger;
+import org.apache.hadoop.hive.ql.optimizer.physical.UnsortedShuffleOptimizer;
 import org.apache.hadoop.hive.ql.optimizer.physical.Vectorizer;
 import org.apache.hadoop.hive.ql.optimizer.stats.annotation.AnnotateWithStatistics;
 import org.apache.hadoop.hive.ql.plan.BaseWork;
 import org.apache.hadoop.hive.ql.plan.DynamicPruningEventDesc;
+import org.apache.hadoop.hive.ql.plan.DynamicSemiJoinEventDesc;
 import org.apache.hadoop.hive.ql.plan.MapWork;
 import org.apache.hadoop.hive.ql.plan.MoveWork;
 import org.apache.hadoop.hive.ql.plan.OperatorDesc;
@@ -126,6 +130,15 @@ protected void optimizeOperatorPlan(ParseContext pCtx, Set<ReadEntity> inputs,
     // to take care of.
     runCycleAnalysisForPartitionPruning(procCtx, inputs, outputs);
 
+    // read the tables scanned by several branches of the query once
+    if (procCtx.conf.getBoolVar(ConfVars.HIVE_SHARED_SCAN_OPTIMIZATION)) {
+      new SharedScanOptimizer().transform(procCtx.parseContext);
+    }
+
+    // sign the small tables of the map joins, to keep their hash tables for the next queries
+    if (procCtx.conf.getBoolVar(ConfVars.TEZ_MAPJOIN_CACHE_ACROSS_QUERIES)) {
+      new MapJoinInputSignature().transform(procCtx.parseContext);
+    }
   }
 
   private void runCycleAnalysisForPartitionPruning(OptimizeTezProcContext procCtx,
@@ -183,6 +196,10 @@ private void removeEventOperator(Set<Operator<?>> component) {
         + ((DynamicPruningEventDesc) victim.getConf()).getTableScan().toString()
         + ". Needed to break cyclic dependency");
     curr.removeChild(child);
+    if (victim.getConf() instanceof DynamicSemiJoinEventDesc) {
+      DynamicPartitionPruningOptimization.removeSemiJoinFilter(
+          (DynamicSemiJoinEventDesc) victim.getConf());
+    }
   }
 
   // Tarjan's algo
@@ -470,6 +487,12 @@ protected void optimizeTaskPlan(List<Task<? extends Serializable>> rootTasks, Pa
       LOG.debug("Skipping vectorization");
     }
 
+    if (conf.getBoolVar(HiveConf.ConfVars.TEZ_UNSORTED_SHUFFLE)) {
+      physicalCtx = new UnsortedShuffleOptimizer().resolve(physicalCtx);
+    } else {
+      LOG.debug("Skipping unsorted shuffle optimization");
+    }
+
     if (!"none".equalsIgnoreCase(conf.getVar(HiveConf.ConfVars.HIVESTAGEIDREARRANGE))) {
       physicalCtx = new StageIDsRearranger().resolve(physicalCtx);
     } else {
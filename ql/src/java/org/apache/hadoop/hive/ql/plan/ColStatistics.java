@@ -34,6 +34,7 @@ public class ColStatistics {
   private long numFalses;
   private Range range;
   private boolean isPrimaryKey;
+  private String bitVectors;
 
   public ColStatistics(String tabAlias, String colName, String colType) {
     this.setTableAlias(tabAlias);
@@ -69,9 +70,25 @@ public long getCountDistint() {
   }
 
   public void setCountDistint(long countDistint) {
+    if (this.countDistint != countDistint) {
+      // the bit vectors only describe the NDV they were computed with
+      bitVectors = null;
+    }
     this.countDistint = countDistint;
   }
 
+  /**
+   * @return The serialized NDV bit vectors of the column, if they were stored with the
+   *         column statistics; null otherwise.
+   */
+  public String getBitVectors() {
+    return bitVectors;
+  }
+
+  public void setBitVectors(String bitVectors) {
+    this.bitVectors = bitVectors;
+  }
+
   public long getNumNulls() {
     return numNulls;
   }
@@ -171,6 +188,7 @@ public ColStatistics clone() throws CloneNotSupportedException {
     clone.setNumTrues(numTrues);
     clone.setNumFalses(numFalses);
     clone.setPrimaryKey(isPrimaryKey);
+    clone.setBitVectors(bitVectors);
     if (range != null ) {
       clone.setRange(range.clone());
     }
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.plan;
+
+/**
+ * DynamicSemiJoinEventDesc: the event sending the semi join filter of the keys of one side of a
+ * join to the application master, which reduces the other side with it. Unlike for the pruning
+ * of the partitions, the target column is a column of the rows and the filter is handed to the
+ * tasks of the target vertex in a file.
+ */
+@SuppressWarnings("serial")
+@Explain(displayName = "Dynamic Semi Join Reduction Event Operator")
+public class DynamicSemiJoinEventDesc extends DynamicPruningEventDesc {
+
+  // the number of keys the bloom filter is sized for
+  private long expectedEntries;
+
+  // where the application master writes the merged filter for the tasks of the target vertex
+  private String filterPath;
+
+  @Explain(displayName = "Expected entries")
+  public long getExpectedEntries() {
+    return expectedEntries;
+  }
+
+  public void setExpectedEntries(long expectedEntries) {
+    this.expectedEntries = expectedEntries;
+  }
+
+  @Explain(displayName = "Filter path", normalExplain = false)
+  public String getFilterPath() {
+    return filterPath;
+  }
+
+  public void setFilterPath(String filterPath) {
+    this.filterPath = filterPath;
+  }
+}
@@ -68,6 +68,8 @@ public static enum Mode {
   private float memoryThreshold;
   transient private boolean isDistinct;
   private boolean dontResetAggrsDistinct;
+  // the rows of a group don't arrive together, see UnsortedShuffleOptimizer
+  private boolean unsortedInput;
 
   // Extra parameters only for vectorization.
   private VectorGroupByDesc vectorDesc;
@@ -295,6 +297,19 @@ public boolean isDistinct() {
     return isDistinct;
   }
 
+  /**
+   * Whether the input of this reduce-side group by is not sorted on its keys, in which case
+   * every group is aggregated in a hash table until the end of the input.
+   */
+  @Explain(displayName = "unsorted input", displayOnlyOnTrue = true)
+  public boolean isUnsortedInput() {
+    return unsortedInput;
+  }
+
+  public void setUnsortedInput(boolean unsortedInput) {
+    this.unsortedInput = unsortedInput;
+  }
+
   public void setDistinct(boolean isDistinct) {
     this.isDistinct = isDistinct;
   }
@@ -53,6 +53,9 @@ public class MapJoinDesc extends JoinDesc implements Serializable {
   private Map<Integer, String> parentToInput = new HashMap<Integer, String>();
   private Map<Integer, Long> parentKeyCounts = new HashMap<Integer, Long>();
   private Map<Integer, Long> parentDataSizes = new HashMap<Integer, Long>();
+  // for tez. the signatures of the rows broadcast by the small tables, when they are only
+  // read from files, so that the hash tables can be kept for the next queries
+  private Map<Integer, String> parentSignatures = new HashMap<Integer, String>();
 
   // table alias (small) --> input file name (big) --> target file names (small)
   private Map<String, Map<String, List<String>>> aliasBucketFileNameMapping;
@@ -89,6 +92,7 @@ public MapJoinDesc(MapJoinDesc clone) {
     this.parentToInput = clone.parentToInput;
     this.parentKeyCounts = clone.parentKeyCounts;
     this.parentDataSizes = clone.parentDataSizes;
+    this.parentSignatures = clone.parentSignatures;
   }
 
   public MapJoinDesc(final Map<Byte, List<ExprNodeDesc>> keys,
@@ -138,6 +142,14 @@ public Map<Integer, Long> getParentDataSizes() {
     return parentDataSizes;
   }
 
+  public Map<Integer, String> getParentSignatures() {
+    return parentSignatures;
+  }
+
+  public void setParentSignatures(Map<Integer, String> parentSignatures) {
+    this.parentSignatures = parentSignatures;
+  }
+
   @Explain(displayName = "Estimated key counts", normalExplain = false)
   public String getKeyCountsExplainDesc() {
     StringBuilder result = null;
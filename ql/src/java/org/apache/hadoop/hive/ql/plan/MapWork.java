@@ -125,6 +125,9 @@ public class MapWork extends BaseWork {
       new LinkedHashMap<String, List<String>>();
   private Map<String, List<ExprNodeDesc>> eventSourcePartKeyExprMap =
       new LinkedHashMap<String, List<ExprNodeDesc>>();
+  // the filter paths of the semi join reductions, null for the pruning of partitions
+  private Map<String, List<String>> eventSourceSemiJoinPathMap =
+      new LinkedHashMap<String, List<String>>();
 
   private boolean doSplitsGrouping = true;
 
@@ -553,6 +556,14 @@ public void setEventSourcePartKeyExprMap(Map<String, List<ExprNodeDesc>> map) {
     this.eventSourcePartKeyExprMap = map;
   }
 
+  public Map<String, List<String>> getEventSourceSemiJoinPathMap() {
+    return eventSourceSemiJoinPathMap;
+  }
+
+  public void setEventSourceSemiJoinPathMap(Map<String, List<String>> map) {
+    this.eventSourceSemiJoinPathMap = map;
+  }
+
   public void setDoSplitsGrouping(boolean doSplitsGrouping) {
     this.doSplitsGrouping = doSplitsGrouping;
   }
@@ -293,6 +293,23 @@ public static TableDesc getDefaultQueryOutputTableDesc(String cols, String colTy
     return tblDesc;
   }
 
+  /**
+   * Generate the table descriptor of the result of a query, which is read back by the
+   * FetchTask (or the ColumnStatsTask). When hive.server2.thrift.resultset.serialize.in.tasks
+   * is set, the results of the queries run by HiveServer2 are written with LazyBinarySerDe, so
+   * that the fields don't need to be parsed from text when the result set is built.
+   */
+  public static TableDesc getQueryOutputTableDesc(HiveConf conf, String cols, String colTypes) {
+    SessionState ss = SessionState.get();
+    if (ss != null && ss.isHiveServerQuery()
+        && HiveConf.getBoolVar(conf, ConfVars.HIVE_SERVER2_THRIFT_RESULTSET_SERIALIZE_IN_TASKS)) {
+      return getTableDesc(LazyBinarySerDe.class, "" + Utilities.ctrlaCode, cols, colTypes,
+          false, false, "SequenceFile");
+    }
+    String fileFormat = HiveConf.getVar(conf, ConfVars.HIVEQUERYRESULTFILEFORMAT);
+    return getDefaultQueryOutputTableDesc(cols, colTypes, fileFormat);
+  }
+
  /**
    * Generate a table descriptor from a createTableDesc.
    */
@@ -91,6 +91,8 @@ public class ReduceSinkDesc extends AbstractOperatorDesc {
   //flag used to control how TopN handled for PTF/Windowing partitions.
   private boolean isPTFReduceSink = false; 
   private boolean skipTag; // Skip writing tags when feeding into mapjoin hashtable
+  // the number of reducers the rows of each frequent key are spread over
+  private int skewedKeysSpread = 0;
 
   public static enum ReducerTraits {
     UNSET(0), // unset
@@ -167,6 +169,7 @@ public Object clone() {
     desc.setBucketCols(bucketCols);
     desc.setStatistics(this.getStatistics());
     desc.setSkipTag(skipTag);
+    desc.setSkewedKeysSpread(skewedKeysSpread);
     desc.reduceTraits = reduceTraits.clone();
     desc.setEnforceSort(enforceSort);
     return desc;
@@ -310,6 +313,23 @@ public void setNumReducers(int numReducers) {
     this.numReducers = numReducers;
   }
 
+  /**
+   * @return The number of reducers the rows of the keys that the map tasks find to be
+   *     frequent are spread over, or 0 if all the rows of a key go to the same reducer.
+   */
+  public int getSkewedKeysSpread() {
+    return skewedKeysSpread;
+  }
+
+  public void setSkewedKeysSpread(int skewedKeysSpread) {
+    this.skewedKeysSpread = skewedKeysSpread;
+  }
+
+  @Explain(displayName = "skewed keys spread", normalExplain = false)
+  public Integer getSkewedKeysSpreadExplain() {
+    return skewedKeysSpread > 0 ? skewedKeysSpread : null;
+  }
+
   public TableDesc getKeySerializeInfo() {
     return keySerializeInfo;
   }
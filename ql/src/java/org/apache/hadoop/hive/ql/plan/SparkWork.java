@@ -30,6 +30,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -44,7 +45,7 @@
 @SuppressWarnings("serial")
 @Explain(displayName = "Spark")
 public class SparkWork extends AbstractOperatorDesc {
-  private static int counter;
+  private static final AtomicInteger counter = new AtomicInteger();
   private final String name;
 
   private final Set<BaseWork> roots = new HashSet<BaseWork>();
@@ -62,7 +63,7 @@ public class SparkWork extends AbstractOperatorDesc {
   private Map<BaseWork, BaseWork> cloneToWork;
 
   public SparkWork(String name) {
-    this.name = name + ":" + (++counter);
+    this.name = name + ":" + counter.incrementAndGet();
     cloneToWork = new HashMap<BaseWork, BaseWork>();
   }
 
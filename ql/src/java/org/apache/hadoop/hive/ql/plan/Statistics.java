@@ -22,6 +22,7 @@
 import java.util.List;
 import java.util.Map;
 
+import org.apache.hadoop.hive.common.NumDistinctValueBitVectors;
 import org.apache.hadoop.hive.ql.stats.StatsUtils;
 
 import com.google.common.collect.Lists;
@@ -181,7 +182,17 @@ public void addToColumnStats(List<ColStatistics> colStats) {
             updatedCS = columnStats.get(key);
             updatedCS.setAvgColLen(Math.max(updatedCS.getAvgColLen(), cs.getAvgColLen()));
             updatedCS.setNumNulls(updatedCS.getNumNulls() + cs.getNumNulls());
-            updatedCS.setCountDistint(Math.max(updatedCS.getCountDistint(), cs.getCountDistint()));
+            // with the bit vectors of both sides the NDV of the union can be estimated,
+            // otherwise the max NDV is the best we can do
+            String bitVectors =
+                NumDistinctValueBitVectors.merge(updatedCS.getBitVectors(), cs.getBitVectors());
+            long countDistinct = Math.max(updatedCS.getCountDistint(), cs.getCountDistint());
+            if (bitVectors != null) {
+              countDistinct =
+                  Math.max(countDistinct, NumDistinctValueBitVectors.estimate(bitVectors));
+            }
+            updatedCS.setCountDistint(countDistinct);
+            updatedCS.setBitVectors(bitVectors);
             columnStats.put(key, updatedCS);
           } else {
             columnStats.put(key, cs);
@@ -39,6 +39,9 @@ public enum EdgeType {
   private int maxReducer;
   private long inputSizePerReducer;
 
+  // whether a SIMPLE_EDGE shuffles its records without sorting them
+  private boolean isUnsorted;
+
   public TezEdgeProperty(HiveConf hiveConf, EdgeType edgeType,
       int buckets) {
     this.hiveConf = hiveConf;
@@ -86,4 +89,12 @@ public int getMaxReducer() {
   public long getInputSizePerReducer() {
     return inputSizePerReducer;
   }
+
+  public boolean isUnsorted() {
+    return isUnsorted;
+  }
+
+  public void setUnsorted(boolean isUnsorted) {
+    this.isUnsorted = isUnsorted;
+  }
 }
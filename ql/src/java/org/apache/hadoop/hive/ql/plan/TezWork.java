@@ -29,6 +29,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -65,7 +66,7 @@ public static boolean isCustomInputType(VertexType vertex) {
 
   private static transient final Log LOG = LogFactory.getLog(TezWork.class);
 
-  private static int counter;
+  private static final AtomicInteger counter = new AtomicInteger();
   private final String name;
   private final Set<BaseWork> roots = new HashSet<BaseWork>();
   private final Set<BaseWork> leaves = new HashSet<BaseWork>();
@@ -76,7 +77,7 @@ public static boolean isCustomInputType(VertexType vertex) {
   private final Map<BaseWork, VertexType> workVertexTypeMap = new HashMap<BaseWork, VertexType>();
 
   public TezWork(String name) {
-    this.name = name + ":" + (++counter);
+    this.name = name + ":" + counter.incrementAndGet();
   }
 
   @Explain(displayName = "DagName")
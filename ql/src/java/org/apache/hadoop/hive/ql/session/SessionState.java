@@ -36,6 +36,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
@@ -50,6 +51,7 @@
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
 import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
+import org.apache.hadoop.hive.ql.CompiledPlanCache;
 import org.apache.hadoop.hive.ql.MapRedStats;
 import org.apache.hadoop.hive.ql.exec.Registry;
 import org.apache.hadoop.hive.ql.exec.Utilities;
@@ -125,6 +127,12 @@ public class SessionState {
    */
   private boolean isHiveServerQuery = false;
 
+  /**
+   * Serializes the compilation of the queries of this session, when the queries of different
+   * sessions can be compiled in parallel.
+   */
+  private final ReentrantLock compileLock = new ReentrantLock(true);
+
   /*
    * HiveHistory Object
    */
@@ -269,6 +277,12 @@ public class SessionState {
    */
   private Timestamp queryCurrentTimestamp;
 
+  /** Whether the current query read queryCurrentTimestamp, e.g. for current_date(). */
+  private boolean isQueryCurrentTimestampUsed = false;
+
+  /** The plans of the queries of this session, see hive.compiled.plan.cache.enabled. */
+  private CompiledPlanCache compiledPlanCache;
+
   /**
    * Get the lineage state stored in this session.
    *
@@ -321,6 +335,10 @@ public void setIsVerbose(boolean isVerbose) {
     this.isVerbose = isVerbose;
   }
 
+  public ReentrantLock getCompileLock() {
+    return compileLock;
+  }
+
   public void setIsHiveServerQuery(boolean isHiveServerQuery) {
     this.isHiveServerQuery = isHiveServerQuery;
   }
@@ -1493,6 +1511,7 @@ public String getNextValuesTempTableSuffix() {
    */
   public void setupQueryCurrentTimestamp() {
     queryCurrentTimestamp = new Timestamp(System.currentTimeMillis());
+    isQueryCurrentTimestampUsed = false;
 
     // Provide a facility to set current timestamp during tests
     if (conf.getBoolVar(ConfVars.HIVE_IN_TEST)) {
@@ -1509,6 +1528,29 @@ public void setupQueryCurrentTimestamp() {
    * @return
    */
   public Timestamp getQueryCurrentTimestamp() {
+    isQueryCurrentTimestampUsed = true;
     return queryCurrentTimestamp;
   }
+
+  /**
+   * @return Whether the result of the current query depends on its current timestamp, which
+   *         its plan may hold as a constant.
+   */
+  public boolean isQueryCurrentTimestampUsed() {
+    return isQueryCurrentTimestampUsed;
+  }
+
+  public synchronized CompiledPlanCache getCompiledPlanCache() {
+    if (compiledPlanCache == null) {
+      compiledPlanCache = new CompiledPlanCache(
+          conf.getIntVar(ConfVars.HIVE_COMPILED_PLAN_CACHE_MAX_ENTRIES));
+    }
+    return compiledPlanCache;
+  }
+
+  public synchronized void clearCompiledPlanCache() {
+    if (compiledPlanCache != null) {
+      compiledPlanCache.clear();
+    }
+  }
 }
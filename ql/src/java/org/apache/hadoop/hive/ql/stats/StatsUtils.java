@@ -539,21 +539,25 @@ public static ColStatistics getColStatistics(ColumnStatisticsObj cso, String tab
         || colType.equalsIgnoreCase(serdeConstants.SMALLINT_TYPE_NAME)
         || colType.equalsIgnoreCase(serdeConstants.INT_TYPE_NAME)) {
       cs.setCountDistint(csd.getLongStats().getNumDVs());
+      cs.setBitVectors(csd.getLongStats().getBitVectors());
       cs.setNumNulls(csd.getLongStats().getNumNulls());
       cs.setAvgColLen(JavaDataModel.get().primitive1());
       cs.setRange(csd.getLongStats().getLowValue(), csd.getLongStats().getHighValue());
     } else if (colType.equalsIgnoreCase(serdeConstants.BIGINT_TYPE_NAME)) {
       cs.setCountDistint(csd.getLongStats().getNumDVs());
+      cs.setBitVectors(csd.getLongStats().getBitVectors());
       cs.setNumNulls(csd.getLongStats().getNumNulls());
       cs.setAvgColLen(JavaDataModel.get().primitive2());
       cs.setRange(csd.getLongStats().getLowValue(), csd.getLongStats().getHighValue());
     } else if (colType.equalsIgnoreCase(serdeConstants.FLOAT_TYPE_NAME)) {
       cs.setCountDistint(csd.getDoubleStats().getNumDVs());
+      cs.setBitVectors(csd.getDoubleStats().getBitVectors());
       cs.setNumNulls(csd.getDoubleStats().getNumNulls());
       cs.setAvgColLen(JavaDataModel.get().primitive1());
       cs.setRange(csd.getDoubleStats().getLowValue(), csd.getDoubleStats().getHighValue());
     } else if (colType.equalsIgnoreCase(serdeConstants.DOUBLE_TYPE_NAME)) {
       cs.setCountDistint(csd.getDoubleStats().getNumDVs());
+      cs.setBitVectors(csd.getDoubleStats().getBitVectors());
       cs.setNumNulls(csd.getDoubleStats().getNumNulls());
       cs.setAvgColLen(JavaDataModel.get().primitive2());
       cs.setRange(csd.getDoubleStats().getLowValue(), csd.getDoubleStats().getHighValue());
@@ -561,6 +565,7 @@ public static ColStatistics getColStatistics(ColumnStatisticsObj cso, String tab
         || colType.startsWith(serdeConstants.CHAR_TYPE_NAME)
         || colType.startsWith(serdeConstants.VARCHAR_TYPE_NAME)) {
       cs.setCountDistint(csd.getStringStats().getNumDVs());
+      cs.setBitVectors(csd.getStringStats().getBitVectors());
       cs.setNumNulls(csd.getStringStats().getNumNulls());
       cs.setAvgColLen(csd.getStringStats().getAvgColLen());
     } else if (colType.equalsIgnoreCase(serdeConstants.BOOLEAN_TYPE_NAME)) {
@@ -581,6 +586,7 @@ public static ColStatistics getColStatistics(ColumnStatisticsObj cso, String tab
     } else if (colType.startsWith(serdeConstants.DECIMAL_TYPE_NAME)) {
       cs.setAvgColLen(JavaDataModel.get().lengthOfDecimal());
       cs.setCountDistint(csd.getDecimalStats().getNumDVs());
+      cs.setBitVectors(csd.getDecimalStats().getBitVectors());
       cs.setNumNulls(csd.getDecimalStats().getNumNulls());
       Decimal val = csd.getDecimalStats().getHighValue();
       BigDecimal maxVal = HiveDecimal.
@@ -29,8 +29,10 @@
 import org.apache.hadoop.hive.ql.parse.SemanticException;
 import org.apache.hadoop.hive.ql.util.JavaDataModel;
 import org.apache.hadoop.hive.serde2.io.DoubleWritable;
+import org.apache.hadoop.hive.serde2.objectinspector.ConstantObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorFactory;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspectorUtils;
 import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
 import org.apache.hadoop.hive.serde2.objectinspector.StructField;
 import org.apache.hadoop.hive.serde2.objectinspector.StructObjectInspector;
@@ -53,6 +55,40 @@ public class GenericUDAFComputeStats extends AbstractGenericUDAFResolver {
 
   static final Log LOG = LogFactory.getLog(GenericUDAFComputeStats.class.getName());
 
+  @Override
+  public GenericUDAFEvaluator getEvaluator(GenericUDAFParameterInfo info)
+      throws SemanticException {
+    TypeInfo[] parameters = info.getParameters();
+    if (parameters.length != 3) {
+      return getEvaluator(parameters);
+    }
+    // The optional third argument asks for the NDV bit vectors in the result.
+    ObjectInspector outputBitVectorsOI = info.getParameterObjectInspectors()[2];
+    if (!ObjectInspectorUtils.isConstantObjectInspector(outputBitVectorsOI)
+        || !(outputBitVectorsOI instanceof BooleanObjectInspector)) {
+      throw new UDFArgumentTypeException(2,
+          "The third argument must be a constant boolean, but "
+          + outputBitVectorsOI.getTypeName() + " was passed instead.");
+    }
+    Object outputBitVectors =
+        ((ConstantObjectInspector) outputBitVectorsOI).getWritableConstantValue();
+    GenericUDAFEvaluator eval = getEvaluator(new TypeInfo[] { parameters[0], parameters[1] });
+    if (outputBitVectors == null
+        || !((BooleanObjectInspector) outputBitVectorsOI).get(outputBitVectors)) {
+      return eval;
+    }
+    if (eval instanceof GenericUDAFLongStatsEvaluator) {
+      return new GenericUDAFLongStatsWithBitVectorsEvaluator();
+    } else if (eval instanceof GenericUDAFDoubleStatsEvaluator) {
+      return new GenericUDAFDoubleStatsWithBitVectorsEvaluator();
+    } else if (eval instanceof GenericUDAFStringStatsEvaluator) {
+      return new GenericUDAFStringStatsWithBitVectorsEvaluator();
+    } else if (eval instanceof GenericUDAFDecimalStatsEvaluator) {
+      return new GenericUDAFDecimalStatsWithBitVectorsEvaluator();
+    }
+    return eval; // No NDVs for this type.
+  }
+
   @Override
   public GenericUDAFEvaluator getEvaluator(TypeInfo[] parameters)
       throws SemanticException {
@@ -341,6 +377,14 @@ public Object terminate(AggregationBuffer agg) throws HiveException {
 
     protected abstract OI getValueObjectInspector();
 
+    /**
+     * Whether the final result also contains the serialized NDV bit vectors, so that the
+     * NDVs can be merged with the ones of other partitions later.
+     */
+    protected boolean isOutputBitVectors() {
+      return false;
+    }
+
     @Override
     public ObjectInspector init(Mode m, ObjectInspector[] parameters) throws HiveException {
       super.init(m, parameters);
@@ -410,10 +454,15 @@ public ObjectInspector init(Mode m, ObjectInspector[] parameters) throws HiveExc
         fname.add("countnulls");
         fname.add("numdistinctvalues");
 
-        result = new Object[5];
+        result = new Object[isOutputBitVectors() ? 6 : 5];
         result[0] = new Text();
         result[3] = new LongWritable(0);
         result[4] = new LongWritable(0);
+        if (isOutputBitVectors()) {
+          foi.add(PrimitiveObjectInspectorFactory.writableStringObjectInspector);
+          fname.add("ndvbitvector");
+          result[5] = new Text();
+        }
 
         return ObjectInspectorFactory.getStandardStructObjectInspector(fname,
             foi);
@@ -449,6 +498,9 @@ protected Object serialize(Object[] result) {
         serializeCommon(result);
         long dv = numDV != null ? numDV.estimateNumDistinctValues() : 0;
         ((LongWritable) result[4]).set(dv);
+        if (isOutputBitVectors()) {
+          ((Text) result[5]).set(numDV != null ? numDV.serialize() : new Text());
+        }
 
         return result;
       }
@@ -727,6 +779,14 @@ public static class GenericUDAFStringStatsEvaluator extends GenericUDAFEvaluator
      */
     private transient Object[] result;
 
+    /**
+     * Whether the final result also contains the serialized NDV bit vectors, so that the
+     * NDVs can be merged with the ones of other partitions later.
+     */
+    protected boolean isOutputBitVectors() {
+      return false;
+    }
+
     @Override
     public ObjectInspector init(Mode m, ObjectInspector[] parameters) throws HiveException {
       super.init(m, parameters);
@@ -804,12 +864,17 @@ public ObjectInspector init(Mode m, ObjectInspector[] parameters) throws HiveExc
         fname.add("countnulls");
         fname.add("numdistinctvalues");
 
-        result = new Object[5];
+        result = new Object[isOutputBitVectors() ? 6 : 5];
         result[0] = new Text();
         result[1] = new LongWritable(0);
         result[2] = new DoubleWritable(0);
         result[3] = new LongWritable(0);
         result[4] = new LongWritable(0);
+        if (isOutputBitVectors()) {
+          foi.add(PrimitiveObjectInspectorFactory.writableStringObjectInspector);
+          fname.add("ndvbitvector");
+          result[5] = new Text();
+        }
 
         return ObjectInspectorFactory.getStandardStructObjectInspector(fname,
             foi);
@@ -1004,6 +1069,9 @@ public Object terminate(AggregationBuffer agg) throws HiveException {
       ((DoubleWritable) result[2]).set(avgLength);
       ((LongWritable) result[3]).set(myagg.countNulls);
       ((LongWritable) result[4]).set(numDV);
+      if (isOutputBitVectors()) {
+        ((Text) result[5]).set(myagg.numBitVectors != 0 ? myagg.numDV.serialize() : new Text());
+      }
 
       return result;
     }
@@ -1314,4 +1382,36 @@ public void reset(AggregationBuffer agg) throws HiveException {
       ((NumericStatsAgg)agg).reset("Decimal");
     }
   }
+
+  public static class GenericUDAFLongStatsWithBitVectorsEvaluator
+      extends GenericUDAFLongStatsEvaluator {
+    @Override
+    protected boolean isOutputBitVectors() {
+      return true;
+    }
+  }
+
+  public static class GenericUDAFDoubleStatsWithBitVectorsEvaluator
+      extends GenericUDAFDoubleStatsEvaluator {
+    @Override
+    protected boolean isOutputBitVectors() {
+      return true;
+    }
+  }
+
+  public static class GenericUDAFStringStatsWithBitVectorsEvaluator
+      extends GenericUDAFStringStatsEvaluator {
+    @Override
+    protected boolean isOutputBitVectors() {
+      return true;
+    }
+  }
+
+  public static class GenericUDAFDecimalStatsWithBitVectorsEvaluator
+      extends GenericUDAFDecimalStatsEvaluator {
+    @Override
+    protected boolean isOutputBitVectors() {
+      return true;
+    }
+  }
 }
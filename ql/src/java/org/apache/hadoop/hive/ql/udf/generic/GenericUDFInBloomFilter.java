@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.udf.generic;
+
+import java.io.IOException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hive.ql.exec.Description;
+import org.apache.hadoop.hive.ql.exec.MapredContext;
+import org.apache.hadoop.hive.ql.exec.SemiJoinFilter;
+import org.apache.hadoop.hive.ql.exec.UDFArgumentException;
+import org.apache.hadoop.hive.ql.exec.UDFArgumentLengthException;
+import org.apache.hadoop.hive.ql.exec.UDFArgumentTypeException;
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.apache.hadoop.hive.serde2.objectinspector.ConstantObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.io.BooleanWritable;
+
+/**
+ * GenericUDFInBloomFilter: the semi join reduction of a table by the keys of the table it is
+ * joined with, replacing the synthetic "key IN (keys of the other table)" predicate on Tez.
+ *
+ * The filter of the keys is written by the Tez AM before the tasks of the table start. When
+ * there is none, because the other table had too many keys, all the rows pass.
+ */
+@Description(name = "in_bloom_filter",
+    value = "_FUNC_(key, path) - Returns false if the key is not in the filter at the given path")
+public class GenericUDFInBloomFilter extends GenericUDF {
+
+  private static final Log LOG = LogFactory.getLog(GenericUDFInBloomFilter.class.getName());
+
+  private final BooleanWritable result = new BooleanWritable();
+  private transient PrimitiveObjectInspector keyOI;
+  private transient Configuration conf;
+  private transient SemiJoinFilter filter;
+  private transient boolean isLoaded;
+  private transient String path;
+
+  @Override
+  public void configure(MapredContext context) {
+    conf = context.getJobConf();
+  }
+
+  @Override
+  public ObjectInspector initialize(ObjectInspector[] arguments) throws UDFArgumentException {
+    if (arguments.length != 2) {
+      throw new UDFArgumentLengthException("in_bloom_filter takes a key and a path");
+    }
+    if (!(arguments[0] instanceof PrimitiveObjectInspector) || !SemiJoinFilter.isSupported(
+        ((PrimitiveObjectInspector) arguments[0]).getPrimitiveCategory())) {
+      throw new UDFArgumentTypeException(0, "in_bloom_filter does not support keys of type "
+          + arguments[0].getTypeName());
+    }
+    if (!(arguments[1] instanceof ConstantObjectInspector)) {
+      throw new UDFArgumentTypeException(1, "The path of in_bloom_filter must be a constant");
+    }
+    keyOI = (PrimitiveObjectInspector) arguments[0];
+    path = ((ConstantObjectInspector) arguments[1]).getWritableConstantValue().toString();
+    return PrimitiveObjectInspectorFactory.writableBooleanObjectInspector;
+  }
+
+  @Override
+  public Object evaluate(DeferredObject[] arguments) throws HiveException {
+    if (!isLoaded) {
+      filter = loadFilter(path, conf);
+      isLoaded = true;
+    }
+    Object key = arguments[0].get();
+    result.set(filter == null ? key != null : filter.test(key, keyOI));
+    return result;
+  }
+
+  /**
+   * @return The filter at the given path, null if there is none.
+   */
+  public static SemiJoinFilter loadFilter(String path, Configuration conf) throws HiveException {
+    try {
+      SemiJoinFilter filter =
+          SemiJoinFilter.load(path, conf == null ? new Configuration() : conf);
+      LOG.info((filter == null ? "No semi join filter at " : "Loaded the semi join filter at ")
+          + path);
+      return filter;
+    } catch (IOException e) {
+      throw new HiveException("Failed to load the semi join filter at " + path, e);
+    }
+  }
+
+  @Override
+  public String getDisplayString(String[] children) {
+    assert (children.length == 2);
+    return "in_bloom_filter(" + children[0] + ")";
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.ql.hooks.ReadEntity;
+import org.apache.hadoop.hive.ql.metadata.Hive;
+import org.apache.hadoop.hive.ql.session.SessionState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestCompiledPlanCache {
+
+  private static final String QUERY = "select * from plan_cache_t where p = '1'";
+
+  private HiveConf conf;
+  private Driver driver;
+  private CompiledPlanCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new HiveConf(Driver.class);
+    conf.setBoolVar(ConfVars.HIVE_SUPPORT_CONCURRENCY, false);
+    conf.setBoolVar(ConfVars.HIVE_COMPILED_PLAN_CACHE_ENABLED, true);
+    conf.setVar(ConfVars.HIVEFETCHTASKCONVERSION, "more");
+    SessionState.start(conf);
+    driver = new Driver(conf);
+    driver.init();
+    run("drop table if exists plan_cache_t");
+    run("create table plan_cache_t (a int) partitioned by (p string)");
+    run("alter table plan_cache_t add partition (p = '1')");
+    cache = SessionState.get().getCompiledPlanCache();
+    // the last DDL time of the inputs is in seconds, plans are only cached once it's past
+    Thread.sleep(1100);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    driver.close();
+    run("drop table if exists plan_cache_t");
+  }
+
+  private void run(String command) throws Exception {
+    assertEquals(command, 0, driver.run(command).getResponseCode());
+  }
+
+  @Test
+  public void testReuse() throws Exception {
+    run(QUERY);
+    driver.close();
+    assertEquals(1, cache.size());
+
+    // the cached plan is taken out of the cache while it is used
+    assertEquals(0, driver.compile("select *  from plan_cache_t\nwhere p = '1'"));
+    assertEquals(0, cache.size());
+    assertEquals(0, driver.execute());
+    driver.close();
+    assertEquals(1, cache.size());
+
+    // a query that did not run doesn't return it
+    assertEquals(0, driver.compile(QUERY));
+    driver.close();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testInvalidation() throws Exception {
+    run("select * from plan_cache_t");
+    driver.close();
+    assertEquals(1, cache.size());
+
+    // a partition added behind the session's back is found by pruning the partitions again
+    Map<String, String> partSpec = new HashMap<String, String>();
+    partSpec.put("p", "2");
+    Hive db = Hive.get(conf);
+    db.createPartition(db.getTable("plan_cache_t"), partSpec);
+    assertEquals(0, driver.compile("select * from plan_cache_t"));
+    assertEquals(0, cache.size());
+    int partitions = 0;
+    for (ReadEntity input : driver.getPlan().getInputs()) {
+      if (input.getType() == ReadEntity.Type.PARTITION) {
+        partitions++;
+      }
+    }
+    assertEquals(2, partitions);
+    driver.close();
+
+    // statements other than queries clear the cache
+    run(QUERY);
+    driver.close();
+    assertEquals(1, cache.size());
+    run("alter table plan_cache_t add partition (p = '3')");
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testCacheKey() throws Exception {
+    String key = CompiledPlanCache.getCacheKey(conf, QUERY);
+    assertEquals(key, CompiledPlanCache.getCacheKey(conf, "  " + QUERY.replace(" ", "\t")));
+    conf.setVar(ConfVars.HIVEQUERYID, "another_query");
+    assertEquals(key, CompiledPlanCache.getCacheKey(conf, QUERY));
+
+    conf.setBoolVar(ConfVars.HIVEOPTPPD, !conf.getBoolVar(ConfVars.HIVEOPTPPD));
+    assertFalse(key.equals(CompiledPlanCache.getCacheKey(conf, QUERY)));
+
+    conf.setVar(ConfVars.SEMANTIC_ANALYZER_HOOK, "SomeHook");
+    assertNull(CompiledPlanCache.getCacheKey(conf, QUERY));
+  }
+}
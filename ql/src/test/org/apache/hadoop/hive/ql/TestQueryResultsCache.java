@@ -0,0 +1,169 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.security.PrivilegedExceptionAction;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestQueryResultsCache {
+
+  private HiveConf conf;
+  private FileSystem fs;
+  private Path testDir;
+  private int resultsCount = 0;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new HiveConf();
+    fs = FileSystem.getLocal(conf);
+    testDir = new Path(System.getProperty("test.tmp.dir",
+        System.getProperty("java.io.tmpdir")), "TestQueryResultsCache");
+    fs.delete(testDir, true);
+    conf.setVar(ConfVars.HIVE_QUERY_RESULTS_CACHE_DIRECTORY,
+        fs.makeQualified(new Path(testDir, "cache")).toString());
+    conf.setLongVar(ConfVars.HIVE_QUERY_RESULTS_CACHE_MAX_SIZE, 250);
+    conf.setLongVar(ConfVars.HIVE_QUERY_RESULTS_CACHE_MAX_ENTRY_SIZE, 150);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    fs.delete(testDir, true);
+  }
+
+  private Path writeResults(int size) throws IOException {
+    Path dir = fs.makeQualified(new Path(testDir, "results" + resultsCount++));
+    FSDataOutputStream out = fs.create(new Path(dir, "000000_0"));
+    out.write(new byte[size]);
+    out.close();
+    return dir;
+  }
+
+  @Test
+  public void testAddAndLookup() throws Exception {
+    QueryResultsCache cache = new QueryResultsCache(conf);
+    assertNull(cache.lookup("q1"));
+
+    Path results = writeResults(100);
+    QueryResultsCache.CacheEntry entry = cache.add("q1", results, conf);
+    assertNotNull(entry);
+    assertFalse(fs.exists(results));
+    assertTrue(fs.exists(entry.getResultsDir()));
+    entry.release();
+
+    QueryResultsCache.CacheEntry hit = cache.lookup("q1");
+    assertSame(entry, hit);
+    hit.release();
+    assertTrue(fs.exists(entry.getResultsDir()));
+
+    // too large results are left where they are
+    results = writeResults(200);
+    assertNull(cache.add("q2", results, conf));
+    assertTrue(fs.exists(results));
+    assertNull(cache.lookup("q2"));
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    QueryResultsCache cache = new QueryResultsCache(conf);
+    QueryResultsCache.CacheEntry entry1 = cache.add("q1", writeResults(100), conf);
+    entry1.release();
+    QueryResultsCache.CacheEntry entry2 = cache.add("q2", writeResults(100), conf);
+    entry2.release();
+    // q1 is now the most recently used one
+    cache.lookup("q1").release();
+
+    // q2 is evicted to make room, q1 is still being read from when it is evicted next
+    QueryResultsCache.CacheEntry reader = cache.lookup("q1");
+    QueryResultsCache.CacheEntry entry3 = cache.add("q3", writeResults(100), conf);
+    entry3.release();
+    assertNull(cache.lookup("q2"));
+    assertFalse(fs.exists(entry2.getResultsDir()));
+
+    QueryResultsCache.CacheEntry entry4 = cache.add("q4", writeResults(100), conf);
+    entry4.release();
+    assertNull(cache.lookup("q1"));
+    assertTrue(fs.exists(reader.getResultsDir()));
+    reader.release();
+    assertFalse(fs.exists(reader.getResultsDir()));
+  }
+
+  @Test
+  public void testExpiration() throws Exception {
+    conf.setTimeVar(ConfVars.HIVE_QUERY_RESULTS_CACHE_MAX_ENTRY_LIFETIME, 0, TimeUnit.SECONDS);
+    QueryResultsCache cache = new QueryResultsCache(conf);
+    QueryResultsCache.CacheEntry entry = cache.add("q1", writeResults(10), conf);
+    entry.release();
+    assertNull(cache.lookup("q1"));
+    assertFalse(fs.exists(entry.getResultsDir()));
+  }
+
+  @Test
+  public void testSessionClose() throws Exception {
+    // the cache is created by the first query, in the session of its user
+    UserGroupInformation ugi = UserGroupInformation.createRemoteUser("TestQueryResultsCache");
+    QueryResultsCache cache = ugi.doAs(new PrivilegedExceptionAction<QueryResultsCache>() {
+      @Override
+      public QueryResultsCache run() throws Exception {
+        QueryResultsCache created = new QueryResultsCache(conf);
+        created.add("q1", writeResults(10), conf).release();
+        return created;
+      }
+    });
+    FileSystem.closeAllForUGI(ugi);
+
+    QueryResultsCache.CacheEntry hit = cache.lookup("q1");
+    assertNotNull(hit);
+    assertTrue(fs.exists(hit.getResultsDir()));
+    hit.release();
+    QueryResultsCache.CacheEntry entry = cache.add("q2", writeResults(10), conf);
+    assertNotNull(entry);
+    entry.release();
+
+    Path cacheDir = entry.getResultsDir().getParent();
+    assertTrue(fs.exists(cacheDir));
+    cache.stop();
+    assertFalse(fs.exists(cacheDir));
+  }
+
+  @Test
+  public void testNormalizeQuery() {
+    assertEquals("select * from t where a = ' x  y '",
+        QueryResultsCache.normalizeQuery("  select *\n  from t\twhere a =  ' x  y '  "));
+    assertEquals("select 'it\\'s  ', \"a  b\"",
+        QueryResultsCache.normalizeQuery("select   'it\\'s  ',  \"a  b\""));
+  }
+}
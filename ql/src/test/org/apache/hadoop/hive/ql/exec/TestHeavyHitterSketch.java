@@ -0,0 +1,70 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestHeavyHitterSketch {
+
+  @Test
+  public void testFrequentValues() {
+    HeavyHitterSketch sketch = new HeavyHitterSketch(32, 0.05, 1000);
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      int r = random.nextInt(100);
+      if (r < 20) {
+        sketch.add(-1);
+      } else if (r < 30) {
+        sketch.add(-2);
+      } else {
+        // uniform over many values, none of them frequent
+        sketch.add(random.nextInt(100000));
+      }
+    }
+    assertEquals(100000, sketch.getTotal());
+    assertTrue(sketch.isFrequent(-1));
+    assertTrue(sketch.isFrequent(-2));
+    for (int i = 0; i < 100000; i++) {
+      assertFalse(sketch.isFrequent(i));
+    }
+  }
+
+  @Test
+  public void testMinTotal() {
+    HeavyHitterSketch sketch = new HeavyHitterSketch(4, 0.5, 10);
+    for (int i = 0; i < 9; i++) {
+      sketch.add(7);
+    }
+    // not enough values seen yet
+    assertFalse(sketch.isFrequent(7));
+    sketch.add(7);
+    assertTrue(sketch.isFrequent(7));
+    for (int i = 0; i < 20; i++) {
+      sketch.add(i);
+    }
+    // 10 out of 30 isn't half of them anymore
+    assertFalse(sketch.isFrequent(7));
+  }
+}
@@ -0,0 +1,121 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+public class TestSemiJoinFilter {
+
+  private static SemiJoinFilter roundTrip(SemiJoinFilter filter) throws Exception {
+    DataOutputBuffer out = new DataOutputBuffer();
+    filter.write(out);
+    return SemiJoinFilter.read(new DataInputStream(
+        new ByteArrayInputStream(out.getData(), 0, out.getLength())));
+  }
+
+  @Test
+  public void testLongKeys() throws Exception {
+    SemiJoinFilter filter = new SemiJoinFilter(PrimitiveCategory.INT, 1000);
+    assertTrue(filter.isEmpty());
+    assertFalse(filter.testLong(1));
+    for (int i = 100; i < 200; i += 2) {
+      filter.add(new IntWritable(i),
+          PrimitiveObjectInspectorFactory.writableIntObjectInspector);
+    }
+    filter.add(null, PrimitiveObjectInspectorFactory.writableIntObjectInspector);
+    assertEquals(100L, filter.getMin());
+    assertEquals(198L, filter.getMax());
+
+    SemiJoinFilter copy = roundTrip(filter);
+    int falsePositives = 0;
+    for (int i = 0; i < 300; i++) {
+      boolean expected = i >= 100 && i < 200 && i % 2 == 0;
+      if (expected) {
+        assertTrue(copy.testLong(i));
+      } else if (i < 100 || i > 198) {
+        // outside of the range of the keys
+        assertFalse(copy.testLong(i));
+      } else if (copy.testLong(i)) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 10);
+    assertFalse(copy.test(null, PrimitiveObjectInspectorFactory.writableIntObjectInspector));
+  }
+
+  @Test
+  public void testStringKeys() throws Exception {
+    SemiJoinFilter filter = new SemiJoinFilter(PrimitiveCategory.STRING, 100);
+    filter.add(new Text("banana"), PrimitiveObjectInspectorFactory.writableStringObjectInspector);
+    filter.add("cherry", PrimitiveObjectInspectorFactory.javaStringObjectInspector);
+
+    SemiJoinFilter copy = roundTrip(filter);
+    assertEquals("banana", copy.getMin());
+    assertEquals("cherry", copy.getMax());
+    byte[] bytes = "xxbananaxx".getBytes("UTF-8");
+    assertTrue(copy.testBytes(bytes, 2, 6));
+    assertTrue(copy.test("cherry", PrimitiveObjectInspectorFactory.javaStringObjectInspector));
+    assertFalse(copy.test("apple", PrimitiveObjectInspectorFactory.javaStringObjectInspector));
+    assertFalse(copy.test("date", PrimitiveObjectInspectorFactory.javaStringObjectInspector));
+  }
+
+  @Test
+  public void testMerge() throws Exception {
+    SemiJoinFilter filter = new SemiJoinFilter(PrimitiveCategory.DOUBLE, 100);
+    SemiJoinFilter other = new SemiJoinFilter(PrimitiveCategory.DOUBLE, 100);
+    SemiJoinFilter empty = new SemiJoinFilter(PrimitiveCategory.DOUBLE, 100);
+    filter.addDouble(1.5);
+    other.addDouble(-2.5);
+    filter.merge(roundTrip(empty));
+    filter.merge(roundTrip(other));
+    assertEquals(-2.5, filter.getMin());
+    assertEquals(1.5, filter.getMax());
+    assertTrue(filter.testDouble(1.5));
+    assertTrue(filter.testDouble(-2.5));
+    assertFalse(filter.testDouble(2.0));
+
+    SemiJoinFilter copy = roundTrip(empty);
+    assertTrue(copy.isEmpty());
+    assertNull(copy.getMin());
+    assertFalse(copy.testDouble(1.5));
+  }
+
+  @Test
+  public void testBitSetSize() throws Exception {
+    for (long entries : new long[] {1, 100, 12345, 1000000}) {
+      DataOutputBuffer out = new DataOutputBuffer();
+      new SemiJoinFilter(PrimitiveCategory.LONG, entries).write(out);
+      // kind, empty flag, number of hash functions and number of words
+      assertEquals(SemiJoinFilter.getBitSetSize(entries) + 10, out.getLength());
+    }
+  }
+}
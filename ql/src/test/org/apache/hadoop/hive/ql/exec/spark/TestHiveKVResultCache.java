@@ -18,10 +18,12 @@
 package org.apache.hadoop.hive.ql.exec.spark;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -57,9 +59,10 @@ public void testSimple() throws Exception {
 
   @Test
   public void testSpilling() throws Exception {
-    HiveKVResultCache cache = new HiveKVResultCache();
+    // A small buffer, for the rows to be written to disk
+    HiveKVResultCache cache = new HiveKVResultCache(1024);
 
-    final int recordCount = HiveKVResultCache.IN_MEMORY_NUM_ROWS * 3;
+    final int recordCount = 3000;
 
     // Test using the same cache where first n rows are inserted then cache is cleared.
     // Next reuse the same cache and insert another m rows and verify the cache stores correctly.
@@ -69,6 +72,53 @@ public void testSpilling() throws Exception {
     testSpillingHelper(cache, recordCount);
   }
 
+  @Test
+  public void testLargeRows() throws Exception {
+    HiveKVResultCache cache = new HiveKVResultCache(64);
+    byte[] large = new byte[1000];
+    Arrays.fill(large, (byte) 'x');
+    HiveKey key = new HiveKey("key".getBytes(), "key".hashCode());
+    key.setDistKeyLength(2);
+    for (int i = 0; i < 5; i++) {
+      cache.add(key, new BytesWritable(large));
+      cache.add(key, new BytesWritable("small".getBytes()));
+    }
+    for (int i = 0; i < 5; i++) {
+      Tuple2<HiveKey, BytesWritable> row = cache.next();
+      assertEquals(key, row._1());
+      assertEquals(key.hashCode(), row._1().hashCode());
+      assertEquals(2, row._1().getDistKeyLength());
+      assertEquals(new BytesWritable(large), row._2());
+      assertEquals("small", bytesWritableToString(cache.next()._2()));
+    }
+    assertFalse(cache.hasNext());
+    cache.clear();
+  }
+
+  @Test
+  public void testInterleaved() throws Exception {
+    // Rows added while the others are read come out in the order they were added
+    HiveKVResultCache cache = new HiveKVResultCache(256);
+    int added = 0;
+    int read = 0;
+    for (int round = 0; round < 50; round++) {
+      for (int i = 0; i < round * 7 % 40; i++, added++) {
+        String key = "key_" + added;
+        cache.add(new HiveKey(key.getBytes(), key.hashCode()),
+            new BytesWritable(("value_" + added).getBytes()));
+      }
+      for (int i = 0; i < round * 3 % 50 && cache.hasNext(); i++, read++) {
+        assertEquals("value_" + read, bytesWritableToString(cache.next()._2()));
+      }
+    }
+    while (cache.hasNext()) {
+      assertEquals("value_" + read, bytesWritableToString(cache.next()._2()));
+      read++;
+    }
+    assertEquals(added, read);
+    cache.clear();
+  }
+
   /** Helper method which inserts numRecords and retrieves them from cache and verifies */
   private void testSpillingHelper(HiveKVResultCache cache, int numRecords) {
     for(int i=0; i<numRecords; i++) {
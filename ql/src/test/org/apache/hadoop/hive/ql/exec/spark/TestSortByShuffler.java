@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.spark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.hadoop.hive.ql.io.HiveKey;
+import org.apache.hadoop.io.BytesWritable;
+import org.junit.Test;
+
+import scala.Tuple2;
+
+public class TestSortByShuffler {
+
+  private static Iterator<Tuple2<HiveKey, BytesWritable>> input(String... rows) {
+    List<Tuple2<HiveKey, BytesWritable>> list = new ArrayList<Tuple2<HiveKey, BytesWritable>>();
+    for (String row : rows) {
+      String[] kv = row.split("=");
+      byte[] key = kv[0].getBytes();
+      list.add(new Tuple2<HiveKey, BytesWritable>(
+          new HiveKey(key, kv[0].hashCode()), new BytesWritable(kv[1].getBytes())));
+    }
+    return list.iterator();
+  }
+
+  private static String read(Iterator<BytesWritable> values, int limit) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < limit && values.hasNext(); i++) {
+      BytesWritable value = values.next();
+      sb.append(new String(value.getBytes(), 0, value.getLength()));
+    }
+    return sb.toString();
+  }
+
+  private static String shuffle(boolean collectValues, int limit, String... rows)
+      throws Exception {
+    StringBuilder sb = new StringBuilder();
+    for (Tuple2<HiveKey, Iterable<BytesWritable>> group :
+        new SortByShuffler.ShuffleFunction(collectValues).call(input(rows))) {
+      HiveKey key = group._1();
+      sb.append(new String(key.getBytes(), 0, key.getLength())).append(':');
+      sb.append(read(group._2().iterator(), limit)).append(' ');
+    }
+    return sb.toString().trim();
+  }
+
+  @Test
+  public void testGroups() throws Exception {
+    String[] rows = {"a=1", "a=2", "b=3", "c=4", "c=5", "c=6"};
+    assertEquals("a:12 b:3 c:456", shuffle(false, Integer.MAX_VALUE, rows));
+    assertEquals("a:12 b:3 c:456", shuffle(true, Integer.MAX_VALUE, rows));
+    assertEquals("", shuffle(false, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testUnreadValues() throws Exception {
+    String[] rows = {"a=1", "a=2", "b=3", "c=4", "c=5", "c=6"};
+    // the values a reducer doesn't read are skipped
+    assertEquals("a:1 b:3 c:4", shuffle(false, 1, rows));
+    assertEquals("a: b: c:", shuffle(false, 0, rows));
+  }
+
+  @Test
+  public void testStreaming() throws Exception {
+    Iterator<Tuple2<HiveKey, BytesWritable>> in = input("a=1", "a=2", "b=3");
+    Iterator<Tuple2<HiveKey, Iterable<BytesWritable>>> groups =
+        new SortByShuffler.ShuffleFunction(false).call(in).iterator();
+    Iterator<BytesWritable> values = groups.next()._2().iterator();
+    // the values are read from the input as they are iterated
+    assertTrue(in.hasNext());
+    assertEquals("1", read(values, 1));
+    assertEquals("2", read(values, 1));
+    assertFalse(values.hasNext());
+    assertTrue(groups.hasNext());
+    assertEquals("3", read(groups.next()._2().iterator(), 1));
+    assertFalse(groups.hasNext());
+  }
+}
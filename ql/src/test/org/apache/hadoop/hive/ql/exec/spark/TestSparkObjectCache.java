@@ -0,0 +1,113 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.exec.spark;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hadoop.hive.ql.metadata.HiveException;
+import org.junit.Test;
+
+public class TestSparkObjectCache {
+
+  /** Creates a new object each time it is called, after the latch is released. */
+  private static class Creator implements Callable<Object> {
+    final AtomicInteger calls = new AtomicInteger();
+    final CountDownLatch latch;
+
+    Creator(CountDownLatch latch) {
+      this.latch = latch;
+    }
+
+    @Override
+    public Object call() throws Exception {
+      calls.incrementAndGet();
+      latch.await();
+      return new Object();
+    }
+  }
+
+  @Test
+  public void testSharedByTasks() throws Exception {
+    final CountDownLatch latch = new CountDownLatch(1);
+    final Creator creator = new Creator(latch);
+    ExecutorService pool = Executors.newFixedThreadPool(2);
+    try {
+      Callable<Object> task = new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          return new ObjectCache("query_1").retrieve("key", creator);
+        }
+      };
+      Future<Object> first = pool.submit(task);
+      Future<Object> second = pool.submit(task);
+      latch.countDown();
+      assertSame(first.get(), second.get());
+      assertEquals(1, creator.calls.get());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testReleasedByNextQuery() throws Exception {
+    Creator creator = new Creator(new CountDownLatch(0));
+    ObjectCache running = new ObjectCache("query_2");
+    Object value = running.retrieve("key", creator);
+
+    // the objects of a query are kept while one of its tasks is running
+    new ObjectCache("query_3").retrieve("key", creator);
+    ObjectCache next = new ObjectCache("query_2");
+    assertSame(value, next.retrieve("key", creator));
+    running.release("key");
+    next.release("key");
+    assertEquals(2, creator.calls.get());
+
+    new ObjectCache("query_4").retrieve("key", creator);
+    new ObjectCache("query_2").retrieve("key", creator);
+    assertEquals(4, creator.calls.get());
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    Callable<Object> failing = new Callable<Object>() {
+      @Override
+      public Object call() throws Exception {
+        throw new IllegalStateException("failed");
+      }
+    };
+    try {
+      new ObjectCache("query_5").retrieve("key", failing);
+      fail("Expected the creation of the object to fail");
+    } catch (HiveException e) {
+      // expected
+    }
+    // failures are not cached
+    Creator creator = new Creator(new CountDownLatch(0));
+    new ObjectCache("query_5").retrieve("key", creator);
+    assertEquals(1, creator.calls.get());
+  }
+}
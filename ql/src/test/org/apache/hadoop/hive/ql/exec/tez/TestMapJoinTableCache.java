@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.tez;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import org.apache.hadoop.hive.ql.exec.persistence.MapJoinTableContainer;
+import org.junit.Test;
+
+public class TestMapJoinTableCache {
+
+  @Test
+  public void testEviction() {
+    MapJoinTableCache cache = new MapJoinTableCache();
+    MapJoinTableContainer t1 = mock(MapJoinTableContainer.class);
+    MapJoinTableContainer t2 = mock(MapJoinTableContainer.class);
+    MapJoinTableContainer t3 = mock(MapJoinTableContainer.class);
+    cache.put("t1", t1, 40, 100);
+    cache.put("t2", t2, 40, 100);
+    assertSame(t1, cache.get("t1"));
+
+    // t2 is the least recently used one
+    cache.put("t3", t3, 40, 100);
+    assertEquals(2, cache.size());
+    assertNull(cache.get("t2"));
+    assertSame(t1, cache.get("t1"));
+    assertSame(t3, cache.get("t3"));
+
+    // tables larger than the cache aren't kept
+    cache.put("t2", t2, 101, 100);
+    assertNull(cache.get("t2"));
+    assertEquals(2, cache.size());
+
+    // replacing a table doesn't count it twice
+    cache.put("t3", t3, 60, 100);
+    assertSame(t1, cache.get("t1"));
+    assertSame(t3, cache.get("t3"));
+    cache.put("t2", t2, 100, 100);
+    assertEquals(1, cache.size());
+    assertSame(t2, cache.get("t2"));
+  }
+}
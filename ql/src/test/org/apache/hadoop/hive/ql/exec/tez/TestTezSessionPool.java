@@ -44,6 +44,11 @@ public TestTezSessionPoolManager() {
     public TezSessionState createSession(String sessionId) {
       return new SampleTezSessionState(sessionId);
     }
+
+    @Override
+    protected void runInBackground(Runnable task) {
+      task.run();
+    }
   }
 
   @Before
@@ -112,6 +117,63 @@ public void testSessionPoolGetInOrder() {
     }
   }
 
+  @Test
+  public void testElasticPool() throws Exception {
+    conf.setBoolVar(HiveConf.ConfVars.HIVE_SERVER2_ENABLE_DOAS, false);
+    conf.setVar(HiveConf.ConfVars.HIVE_SERVER2_TEZ_DEFAULT_QUEUES, "a,b");
+    conf.setIntVar(HiveConf.ConfVars.HIVE_SERVER2_TEZ_SESSIONS_PER_DEFAULT_QUEUE, 1);
+    conf.setIntVar(HiveConf.ConfVars.HIVE_SERVER2_TEZ_SESSIONS_MAX_PER_QUEUE, 2);
+    poolManager = new TestTezSessionPoolManager();
+    poolManager.setupPool(conf);
+    poolManager.startPool();
+    try {
+      TezSessionState a1 = poolManager.getSession(null, conf, true);
+      TezSessionState b1 = poolManager.getSession(null, conf, true);
+      assertEquals("a", a1.getQueueName());
+      assertEquals("b", b1.getQueueName());
+      // the last idle session was taken, a spare one was opened ahead of the next query
+      assertEquals(2, poolManager.getQueueSessions("a"));
+      TezSessionState a2 = poolManager.getSession(null, conf, true);
+      assertEquals("a", a2.getQueueName());
+      assertTrue(a2.isDefault());
+      assertEquals(2, poolManager.getQueueSessions("b"));
+      TezSessionState b2 = poolManager.getSession(null, conf, true);
+      assertEquals("b", b2.getQueueName());
+      poolManager.returnSession(a1);
+      assertSame(a1, poolManager.getSession(null, conf, true));
+
+      // the sessions of the queues users choose are pooled as well
+      HiveConf queueConf = new HiveConf(conf);
+      queueConf.set("tez.queue.name", "c");
+      TezSessionState c1 = poolManager.getSession(null, queueConf, true);
+      assertEquals("c", c1.getQueueName());
+      assertTrue(c1.isDefault());
+      poolManager.returnSession(c1);
+      assertEquals(2, poolManager.getQueueSessions("c"));
+      // and when the queue is at its maximum, a session of its own is opened
+      TezSessionState c2 = poolManager.getSession(null, queueConf, true);
+      TezSessionState c3 = poolManager.getSession(null, queueConf, true);
+      TezSessionState c4 = poolManager.getSession(null, queueConf, true);
+      assertFalse(c4.isDefault());
+      assertEquals(2, poolManager.getQueueSessions("c"));
+      poolManager.returnSession(c2);
+      poolManager.returnSession(c3);
+
+      // the idle sessions beyond the fixed ones are closed after the idle timeout
+      for (TezSessionState session : new TezSessionState[] {a1, a2, b1, b2}) {
+        poolManager.returnSession(session);
+      }
+      poolManager.maintainPool(System.currentTimeMillis());
+      assertEquals(2, poolManager.getQueueSessions("c"));
+      poolManager.maintainPool(System.currentTimeMillis() + 3600 * 1000);
+      assertEquals(1, poolManager.getQueueSessions("a"));
+      assertEquals(1, poolManager.getQueueSessions("b"));
+      assertEquals(0, poolManager.getQueueSessions("c"));
+    } finally {
+      poolManager.stop();
+    }
+  }
+
   public class SessionThread implements Runnable {
 
     @Override
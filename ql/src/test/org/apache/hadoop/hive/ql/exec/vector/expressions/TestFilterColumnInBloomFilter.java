@@ -0,0 +1,192 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.exec.vector.expressions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.ql.exec.SemiJoinFilter;
+import org.apache.hadoop.hive.ql.exec.vector.BytesColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.LongColumnVector;
+import org.apache.hadoop.hive.ql.exec.vector.VectorizedRowBatch;
+import org.apache.hadoop.hive.serde2.objectinspector.PrimitiveObjectInspector.PrimitiveCategory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for FilterColumnInBloomFilter. The filtered out keys are outside of the range of
+ * the keys of the filter, so that they are never false positives.
+ */
+public class TestFilterColumnInBloomFilter {
+
+  private FileSystem fs;
+  private Path testDir;
+
+  @Before
+  public void setUp() throws Exception {
+    fs = FileSystem.getLocal(new Configuration());
+    testDir = fs.makeQualified(new Path(System.getProperty("test.tmp.dir",
+        System.getProperty("java.io.tmpdir")), "TestFilterColumnInBloomFilter"));
+    fs.delete(testDir, true);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    fs.delete(testDir, true);
+  }
+
+  private String writeFilter(SemiJoinFilter filter) throws Exception {
+    Path path = new Path(testDir, "filter");
+    FSDataOutputStream out = fs.create(path);
+    filter.write(out);
+    out.close();
+    return path.toString();
+  }
+
+  private FilterColumnInBloomFilter longFilter() throws Exception {
+    SemiJoinFilter filter = new SemiJoinFilter(PrimitiveCategory.LONG, 100);
+    filter.addLong(10);
+    filter.addLong(20);
+    return new FilterColumnInBloomFilter(0, writeFilter(filter));
+  }
+
+  private static VectorizedRowBatch longBatch(long... values) {
+    VectorizedRowBatch batch = new VectorizedRowBatch(1);
+    LongColumnVector col = new LongColumnVector();
+    System.arraycopy(values, 0, col.vector, 0, values.length);
+    batch.cols[0] = col;
+    batch.size = values.length;
+    return batch;
+  }
+
+  @Test
+  public void testFilter() throws Exception {
+    VectorizedRowBatch batch = longBatch(5, 10, 100, 20);
+    longFilter().evaluate(batch);
+    assertTrue(batch.selectedInUse);
+    assertEquals(2, batch.size);
+    assertEquals(1, batch.selected[0]);
+    assertEquals(3, batch.selected[1]);
+
+    // all the keys may join
+    batch = longBatch(10, 20, 20);
+    longFilter().evaluate(batch);
+    assertFalse(batch.selectedInUse);
+    assertEquals(3, batch.size);
+  }
+
+  @Test
+  public void testSelectedInUse() throws Exception {
+    VectorizedRowBatch batch = longBatch(5, 10, 20, 100, 10);
+    batch.selectedInUse = true;
+    batch.selected[0] = 0;
+    batch.selected[1] = 2;
+    batch.selected[2] = 3;
+    batch.selected[3] = 4;
+    batch.size = 4;
+    longFilter().evaluate(batch);
+    assertTrue(batch.selectedInUse);
+    assertEquals(2, batch.size);
+    assertEquals(2, batch.selected[0]);
+    assertEquals(4, batch.selected[1]);
+  }
+
+  @Test
+  public void testNulls() throws Exception {
+    VectorizedRowBatch batch = longBatch(10, 10, 20);
+    batch.cols[0].noNulls = false;
+    batch.cols[0].isNull[1] = true;
+    longFilter().evaluate(batch);
+    assertTrue(batch.selectedInUse);
+    assertEquals(2, batch.size);
+    assertEquals(0, batch.selected[0]);
+    assertEquals(2, batch.selected[1]);
+  }
+
+  @Test
+  public void testRepeating() throws Exception {
+    VectorizedRowBatch batch = longBatch(10, 0, 0);
+    batch.cols[0].isRepeating = true;
+    longFilter().evaluate(batch);
+    assertFalse(batch.selectedInUse);
+    assertEquals(3, batch.size);
+
+    batch = longBatch(100, 0, 0);
+    batch.cols[0].isRepeating = true;
+    longFilter().evaluate(batch);
+    assertEquals(0, batch.size);
+
+    batch = longBatch(10, 0, 0);
+    batch.cols[0].isRepeating = true;
+    batch.cols[0].noNulls = false;
+    batch.cols[0].isNull[0] = true;
+    longFilter().evaluate(batch);
+    assertEquals(0, batch.size);
+  }
+
+  @Test
+  public void testNoFilter() throws Exception {
+    // without a filter, only the null keys are filtered out
+    String path = new Path(testDir, "missing").toString();
+    VectorizedRowBatch batch = longBatch(5, 10, 100);
+    new FilterColumnInBloomFilter(0, path).evaluate(batch);
+    assertFalse(batch.selectedInUse);
+    assertEquals(3, batch.size);
+
+    batch = longBatch(5, 10, 100);
+    batch.cols[0].noNulls = false;
+    batch.cols[0].isNull[1] = true;
+    new FilterColumnInBloomFilter(0, path).evaluate(batch);
+    assertTrue(batch.selectedInUse);
+    assertEquals(2, batch.size);
+    assertEquals(0, batch.selected[0]);
+    assertEquals(2, batch.selected[1]);
+  }
+
+  @Test
+  public void testStringKeys() throws Exception {
+    SemiJoinFilter filter = new SemiJoinFilter(PrimitiveCategory.STRING, 100);
+    byte[] banana = "banana".getBytes(StandardCharsets.UTF_8);
+    filter.addBytes(banana, 0, banana.length);
+    FilterColumnInBloomFilter expr = new FilterColumnInBloomFilter(0, writeFilter(filter));
+
+    // the keys are slices of one buffer, as they are when read
+    byte[] buffer = "applebananazebra".getBytes(StandardCharsets.UTF_8);
+    VectorizedRowBatch batch = new VectorizedRowBatch(1);
+    BytesColumnVector col = new BytesColumnVector();
+    col.initBuffer();
+    col.setRef(0, buffer, 0, 5);
+    col.setRef(1, buffer, 5, 6);
+    col.setRef(2, buffer, 11, 5);
+    batch.cols[0] = col;
+    batch.size = 3;
+    expr.evaluate(batch);
+    assertTrue(batch.selectedInUse);
+    assertEquals(1, batch.size);
+    assertEquals(1, batch.selected[0]);
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hadoop.hive.ql.optimizer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.ValidTxnList;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.metastore.api.hive_metastoreConstants;
+import org.apache.hadoop.hive.ql.metadata.Table;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestMapJoinInputSignature {
+
+  private HiveConf conf;
+  private FileSystem fs;
+  private Path tableDir;
+  private Table table;
+
+  @Before
+  public void setUp() throws Exception {
+    conf = new HiveConf();
+    fs = FileSystem.getLocal(conf);
+    tableDir = fs.makeQualified(new Path(System.getProperty("test.tmp.dir",
+        System.getProperty("java.io.tmpdir")), "TestMapJoinInputSignature"));
+    fs.delete(tableDir, true);
+    table = new Table("default", "small");
+    table.setDataLocation(tableDir);
+    writeFile("000000_0", 10);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    fs.delete(tableDir, true);
+  }
+
+  private void writeFile(String name, int size) throws IOException {
+    FSDataOutputStream out = fs.create(new Path(tableDir, name), true);
+    out.write(new byte[size]);
+    out.close();
+  }
+
+  private String getSignature() throws IOException {
+    return MapJoinInputSignature.getDataSignature(conf, table, null);
+  }
+
+  @Test
+  public void testFilesChange() throws Exception {
+    String signature = getSignature();
+    assertEquals(signature, getSignature());
+
+    writeFile("000000_0", 20);
+    String rewritten = getSignature();
+    assertFalse(signature.equals(rewritten));
+
+    writeFile("000001_0", 10);
+    assertFalse(rewritten.equals(getSignature()));
+  }
+
+  @Test
+  public void testTransactionsChange() throws Exception {
+    conf.set(ValidTxnList.VALID_TXNS_KEY, "5:");
+    String signature = getSignature();
+    conf.set(ValidTxnList.VALID_TXNS_KEY, "6:");
+    // the valid transactions don't matter to a table that isn't transactional
+    assertEquals(signature, getSignature());
+
+    table.setProperty(hive_metastoreConstants.TABLE_IS_TRANSACTIONAL, "true");
+    signature = getSignature();
+    assertEquals(signature, getSignature());
+    conf.set(ValidTxnList.VALID_TXNS_KEY, "7:");
+    assertFalse(signature.equals(getSignature()));
+    conf.set(ValidTxnList.VALID_TXNS_KEY, "7:6");
+    assertFalse(signature.equals(getSignature()));
+  }
+}
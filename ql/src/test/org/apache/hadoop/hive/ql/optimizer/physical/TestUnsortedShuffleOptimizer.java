@@ -0,0 +1,117 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hadoop.hive.ql.optimizer.physical;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.ql.exec.GroupByOperator;
+import org.apache.hadoop.hive.ql.exec.OperatorFactory;
+import org.apache.hadoop.hive.ql.exec.Task;
+import org.apache.hadoop.hive.ql.exec.tez.TezTask;
+import org.apache.hadoop.hive.ql.plan.AggregationDesc;
+import org.apache.hadoop.hive.ql.plan.GroupByDesc;
+import org.apache.hadoop.hive.ql.plan.ReduceSinkDesc;
+import org.apache.hadoop.hive.ql.plan.ReduceWork;
+import org.apache.hadoop.hive.ql.plan.Statistics;
+import org.apache.hadoop.hive.ql.plan.TableDesc;
+import org.apache.hadoop.hive.ql.plan.TezEdgeProperty;
+import org.apache.hadoop.hive.ql.plan.TezEdgeProperty.EdgeType;
+import org.apache.hadoop.hive.ql.plan.TezWork;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestUnsortedShuffleOptimizer {
+
+  private HiveConf conf;
+  private ReduceSinkDesc rsDesc;
+  private GroupByDesc gbyDesc;
+  private TezEdgeProperty edge;
+  private TezTask task;
+
+  @Before
+  public void setUp() {
+    conf = new HiveConf();
+    conf.setLongVar(ConfVars.TEZ_UNSORTED_SHUFFLE_MAX_SIZE, 1000L);
+
+    rsDesc = new ReduceSinkDesc();
+    rsDesc.setOutputName("Reducer 2");
+    ReduceWork parent = new ReduceWork("Reducer 1");
+    parent.setReducer(OperatorFactory.get(rsDesc));
+
+    gbyDesc = new GroupByDesc();
+    gbyDesc.setMode(GroupByDesc.Mode.MERGEPARTIAL);
+    gbyDesc.setAggregators(new ArrayList<AggregationDesc>());
+    gbyDesc.setStatistics(new Statistics(100, 1500));
+    ReduceWork child = new ReduceWork("Reducer 2");
+    child.setReducer(OperatorFactory.get(gbyDesc));
+    child.setTagToValueDesc(Collections.singletonList(new TableDesc()));
+    child.setNumReduceTasks(2);
+
+    TezWork tezWork = new TezWork("query");
+    tezWork.add(parent);
+    tezWork.add(child);
+    edge = new TezEdgeProperty(EdgeType.SIMPLE_EDGE);
+    tezWork.connect(parent, child, edge);
+    task = new TezTask();
+    task.setWork(tezWork);
+  }
+
+  private void optimize() throws Exception {
+    List<Task<? extends Serializable>> rootTasks = new ArrayList<Task<? extends Serializable>>();
+    rootTasks.add(task);
+    new UnsortedShuffleOptimizer().resolve(new PhysicalContext(conf, null, null, rootTasks, null));
+  }
+
+  @Test
+  public void testUnsorted() throws Exception {
+    optimize();
+    assertTrue(edge.isUnsorted());
+    assertTrue(gbyDesc.isUnsortedInput());
+  }
+
+  @Test
+  public void testTooLarge() throws Exception {
+    // each of the 2 reducers would keep 1500 / 2 bytes of groups
+    conf.setLongVar(ConfVars.TEZ_UNSORTED_SHUFFLE_MAX_SIZE, 500L);
+    optimize();
+    assertFalse(edge.isUnsorted());
+    assertFalse(gbyDesc.isUnsortedInput());
+  }
+
+  @Test
+  public void testOrderedInput() throws Exception {
+    // a top n reduce sink needs the order of the keys
+    rsDesc.setTopN(10);
+    optimize();
+    assertFalse(edge.isUnsorted());
+
+    rsDesc.setTopN(-1);
+    gbyDesc.setGroupingSetsPresent(true);
+    optimize();
+    assertFalse(edge.isUnsorted());
+    assertFalse(gbyDesc.isUnsortedInput());
+  }
+}
@@ -57,6 +57,9 @@ enum TProtocolVersion {
 
   // V7 adds support for delegation token based connection
   HIVE_CLI_SERVICE_PROTOCOL_V7
+
+  // V8 adds the profile of an operation, fetched with fetch type 2
+  HIVE_CLI_SERVICE_PROTOCOL_V8
 }
 
 enum TTypeId {
@@ -542,7 +545,7 @@ struct TOperationHandle {
 // which operations may be executed.
 struct TOpenSessionReq {
   // The version of the HiveServer2 protocol that the client is using.
-  1: required TProtocolVersion client_protocol = TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V7
+  1: required TProtocolVersion client_protocol = TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V8
 
   // Username and password for authentication.
   // Depending on the authentication scheme being used,
@@ -561,7 +564,7 @@ struct TOpenSessionResp {
   1: required TStatus status
 
   // The protocol version that the server is using.
-  2: required TProtocolVersion serverProtocolVersion = TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V7
+  2: required TProtocolVersion serverProtocolVersion = TProtocolVersion.HIVE_CLI_SERVICE_PROTOCOL_V8
 
   // Session Handle
   3: optional TSessionHandle sessionHandle
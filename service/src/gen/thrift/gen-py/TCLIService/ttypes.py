@@ -24,6 +24,7 @@ class TProtocolVersion:
   HIVE_CLI_SERVICE_PROTOCOL_V5 = 4
   HIVE_CLI_SERVICE_PROTOCOL_V6 = 5
   HIVE_CLI_SERVICE_PROTOCOL_V7 = 6
+  HIVE_CLI_SERVICE_PROTOCOL_V8 = 7
 
   _VALUES_TO_NAMES = {
     0: "HIVE_CLI_SERVICE_PROTOCOL_V1",
@@ -33,6 +34,7 @@ class TProtocolVersion:
     4: "HIVE_CLI_SERVICE_PROTOCOL_V5",
     5: "HIVE_CLI_SERVICE_PROTOCOL_V6",
     6: "HIVE_CLI_SERVICE_PROTOCOL_V7",
+    7: "HIVE_CLI_SERVICE_PROTOCOL_V8",
   }
 
   _NAMES_TO_VALUES = {
@@ -43,6 +45,7 @@ class TProtocolVersion:
     "HIVE_CLI_SERVICE_PROTOCOL_V5": 4,
     "HIVE_CLI_SERVICE_PROTOCOL_V6": 5,
     "HIVE_CLI_SERVICE_PROTOCOL_V7": 6,
+    "HIVE_CLI_SERVICE_PROTOCOL_V8": 7,
   }
 
 class TTypeId:
@@ -3245,7 +3248,7 @@ class TOpenSessionReq:
 
   thrift_spec = (
     None, # 0
-    (1, TType.I32, 'client_protocol', None,     6, ), # 1
+    (1, TType.I32, 'client_protocol', None,     7, ), # 1
     (2, TType.STRING, 'username', None, None, ), # 2
     (3, TType.STRING, 'password', None, None, ), # 3
     (4, TType.MAP, 'configuration', (TType.STRING,None,TType.STRING,None), None, ), # 4
@@ -3354,7 +3357,7 @@ class TOpenSessionResp:
   thrift_spec = (
     None, # 0
     (1, TType.STRUCT, 'status', (TStatus, TStatus.thrift_spec), None, ), # 1
-    (2, TType.I32, 'serverProtocolVersion', None,     6, ), # 2
+    (2, TType.I32, 'serverProtocolVersion', None,     7, ), # 2
     (3, TType.STRUCT, 'sessionHandle', (TSessionHandle, TSessionHandle.thrift_spec), None, ), # 3
     (4, TType.MAP, 'configuration', (TType.STRING,None,TType.STRING,None), None, ), # 4
   )
@@ -24,7 +24,8 @@
  */
 public enum FetchType {
   QUERY_OUTPUT((short)0),
-  LOG((short)1);
+  LOG((short)1),
+  PROFILE((short)2);
 
   private final short tFetchType;
 
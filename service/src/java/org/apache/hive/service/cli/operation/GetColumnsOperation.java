@@ -19,12 +19,16 @@
 package org.apache.hive.service.cli.operation;
 
 import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
 
+import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
 import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.apache.hive.service.cli.ColumnDescriptor;
 import org.apache.hive.service.cli.FetchOrientation;
@@ -128,45 +132,58 @@ public void runInternal() throws HiveSQLException {
         columnPattern = Pattern.compile(convertIdentifierPattern(columnName, false));
       }
 
-      List<String> dbNames = metastoreClient.getDatabases(schemaPattern);
-      Collections.sort(dbNames);
-      for (String dbName : dbNames) {
-        List<String> tableNames = metastoreClient.getTables(dbName, tablePattern);
-        Collections.sort(tableNames);
-        for (Table table : metastoreClient.getTableObjectsByName(dbName, tableNames)) {
-          TableSchema schema = new TableSchema(metastoreClient.getSchema(dbName, table.getTableName()));
-          for (ColumnDescriptor column : schema.getColumnDescriptors()) {
-            if (columnPattern != null && !columnPattern.matcher(column.getName()).matches()) {
-              continue;
+      HiveConf conf = getParentSession().getHiveConf();
+      Collection<String> serdesUsingMetastore =
+          conf.getStringCollection(ConfVars.SERDESUSINGMETASTOREFORSCHEMA.varname);
+      TableBatchFetcher fetcher = new TableBatchFetcher(metastoreClient, conf);
+      try {
+        List<String> dbNames = metastoreClient.getDatabases(schemaPattern);
+        Collections.sort(dbNames);
+        for (String dbName : dbNames) {
+          List<String> tableNames = metastoreClient.getTables(dbName, tablePattern);
+          Collections.sort(tableNames);
+          fetcher.add(dbName, tableNames);
+        }
+        List<Table> tables;
+        while ((tables = fetcher.next()) != null) {
+          for (Table table : tables) {
+            TableSchema schema =
+                new TableSchema(getSchema(metastoreClient, table, serdesUsingMetastore));
+            for (ColumnDescriptor column : schema.getColumnDescriptors()) {
+              if (columnPattern != null && !columnPattern.matcher(column.getName()).matches()) {
+                continue;
+              }
+              Object[] rowData = new Object[] {
+                  null,  // TABLE_CAT
+                  table.getDbName(), // TABLE_SCHEM
+                  table.getTableName(), // TABLE_NAME
+                  column.getName(), // COLUMN_NAME
+                  column.getType().toJavaSQLType(), // DATA_TYPE
+                  column.getTypeName(), // TYPE_NAME
+                  column.getTypeDescriptor().getColumnSize(), // COLUMN_SIZE
+                  null, // BUFFER_LENGTH, unused
+                  column.getTypeDescriptor().getDecimalDigits(), // DECIMAL_DIGITS
+                  column.getType().getNumPrecRadix(), // NUM_PREC_RADIX
+                  DatabaseMetaData.columnNullable, // NULLABLE
+                  column.getComment(), // REMARKS
+                  null, // COLUMN_DEF
+                  null, // SQL_DATA_TYPE
+                  null, // SQL_DATETIME_SUB
+                  null, // CHAR_OCTET_LENGTH
+                  column.getOrdinalPosition(), // ORDINAL_POSITION
+                  "YES", // IS_NULLABLE
+                  null, // SCOPE_CATALOG
+                  null, // SCOPE_SCHEMA
+                  null, // SCOPE_TABLE
+                  null, // SOURCE_DATA_TYPE
+                  "NO", // IS_AUTO_INCREMENT
+              };
+              rowSet.addRow(rowData);
             }
-            Object[] rowData = new Object[] {
-                null,  // TABLE_CAT
-                table.getDbName(), // TABLE_SCHEM
-                table.getTableName(), // TABLE_NAME
-                column.getName(), // COLUMN_NAME
-                column.getType().toJavaSQLType(), // DATA_TYPE
-                column.getTypeName(), // TYPE_NAME
-                column.getTypeDescriptor().getColumnSize(), // COLUMN_SIZE
-                null, // BUFFER_LENGTH, unused
-                column.getTypeDescriptor().getDecimalDigits(), // DECIMAL_DIGITS
-                column.getType().getNumPrecRadix(), // NUM_PREC_RADIX
-                DatabaseMetaData.columnNullable, // NULLABLE
-                column.getComment(), // REMARKS
-                null, // COLUMN_DEF
-                null, // SQL_DATA_TYPE
-                null, // SQL_DATETIME_SUB
-                null, // CHAR_OCTET_LENGTH
-                column.getOrdinalPosition(), // ORDINAL_POSITION
-                "YES", // IS_NULLABLE
-                null, // SCOPE_CATALOG
-                null, // SCOPE_SCHEMA
-                null, // SCOPE_TABLE
-                null, // SOURCE_DATA_TYPE
-                "NO", // IS_AUTO_INCREMENT
-            };
-            rowSet.addRow(rowData);
           }
         }
+      } finally {
+        fetcher.cancel();
       }
       setState(OperationState.FINISHED);
     } catch (Exception e) {
@@ -176,6 +193,22 @@ public void runInternal() throws HiveSQLException {
 
   }
 
+  /**
+   * @return The columns of the table, as returned by IMetaStoreClient.getSchema(), without
+   *         calling the metastore again unless they come from the deserializer of the table.
+   */
+  private static List<FieldSchema> getSchema(IMetaStoreClient metastoreClient, Table table,
+      Collection<String> serdesUsingMetastore) throws Exception {
+    String serializationLib = table.getSd().getSerdeInfo().getSerializationLib();
+    if (serializationLib != null && !serdesUsingMetastore.contains(serializationLib)) {
+      return metastoreClient.getSchema(table.getDbName(), table.getTableName());
+    }
+    List<FieldSchema> schema = new ArrayList<FieldSchema>(table.getSd().getCols());
+    if (table.getPartitionKeys() != null) {
+      schema.addAll(table.getPartitionKeys());
+    }
+    return schema;
+  }
 
   /* (non-Javadoc)
    * @see org.apache.hive.service.cli.Operation#getResultSetSchema()
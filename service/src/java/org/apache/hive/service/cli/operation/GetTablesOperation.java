@@ -78,21 +78,30 @@ public void runInternal() throws HiveSQLException {
       IMetaStoreClient metastoreClient = getParentSession().getMetaStoreClient();
       String schemaPattern = convertSchemaPattern(schemaName);
       String tablePattern = convertIdentifierPattern(tableName, true);
-      for (String dbName : metastoreClient.getDatabases(schemaPattern)) {
-        List<String> tableNames = metastoreClient.getTables(dbName, tablePattern);
-        for (Table table : metastoreClient.getTableObjectsByName(dbName, tableNames)) {
-          Object[] rowData = new Object[] {
-              DEFAULT_HIVE_CATALOG,
-              table.getDbName(),
-              table.getTableName(),
-              tableTypeMapping.mapToClientType(table.getTableType()),
-              table.getParameters().get("comment")
-              };
-          if (tableTypes.isEmpty() || tableTypes.contains(
-                tableTypeMapping.mapToClientType(table.getTableType()))) {
-            rowSet.addRow(rowData);
+      TableBatchFetcher fetcher =
+          new TableBatchFetcher(metastoreClient, getParentSession().getHiveConf());
+      try {
+        for (String dbName : metastoreClient.getDatabases(schemaPattern)) {
+          fetcher.add(dbName, metastoreClient.getTables(dbName, tablePattern));
+        }
+        List<Table> tables;
+        while ((tables = fetcher.next()) != null) {
+          for (Table table : tables) {
+            Object[] rowData = new Object[] {
+                DEFAULT_HIVE_CATALOG,
+                table.getDbName(),
+                table.getTableName(),
+                tableTypeMapping.mapToClientType(table.getTableType()),
+                table.getParameters().get("comment")
+                };
+            if (tableTypes.isEmpty() || tableTypes.contains(
+                  tableTypeMapping.mapToClientType(table.getTableType()))) {
+              rowSet.addRow(rowData);
+            }
           }
         }
+      } finally {
+        fetcher.cancel();
       }
       setState(OperationState.FINISHED);
     } catch (Exception e) {
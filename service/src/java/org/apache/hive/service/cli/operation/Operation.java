@@ -20,6 +20,8 @@
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.EnumSet;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
@@ -287,6 +289,14 @@ public RowSet getNextRowSet() throws HiveSQLException {
     return getNextRowSet(FetchOrientation.FETCH_NEXT, DEFAULT_FETCH_MAX_ROWS);
   }
 
+  /**
+   * @return The profile of the operation: how long its steps took and what they used, by name.
+   *         Empty unless the operation collects one.
+   */
+  public Map<String, Long> getProfile() {
+    return new TreeMap<String, Long>();
+  }
+
   /**
    * Verify if the given fetch orientation is part of the default orientation types.
    * @param orientation
@@ -40,6 +40,7 @@
 import org.apache.hive.service.cli.RowSet;
 import org.apache.hive.service.cli.RowSetFactory;
 import org.apache.hive.service.cli.TableSchema;
+import org.apache.hive.service.cli.Type;
 import org.apache.hive.service.cli.session.HiveSession;
 import org.apache.log4j.Appender;
 import org.apache.log4j.ConsoleAppender;
@@ -54,6 +55,10 @@
 public class OperationManager extends AbstractService {
   private final Log LOG = LogFactory.getLog(OperationManager.class.getName());
 
+  private static final TableSchema PROFILE_SCHEMA = new TableSchema()
+      .addStringColumn("name", "Name of the profiled value")
+      .addPrimitiveColumn("value", Type.BIGINT_TYPE, "Value, times are in ms");
+
   private HiveConf hiveConf;
   private final Map<OperationHandle, Operation> handleToOperation =
       new HashMap<OperationHandle, Operation>();
@@ -278,6 +283,18 @@ public RowSet getOperationLogRowSet(OperationHandle opHandle,
     return rowSet;
   }
 
+  /**
+   * @return The whole profile of the operation, as (name, value) rows.
+   */
+  public RowSet getOperationProfileRowSet(OperationHandle opHandle) throws HiveSQLException {
+    Operation operation = getOperation(opHandle);
+    RowSet rowSet = RowSetFactory.create(PROFILE_SCHEMA, operation.getProtocolVersion());
+    for (Map.Entry<String, Long> entry : operation.getProfile().entrySet()) {
+      rowSet.addRow(new Object[] {entry.getKey(), entry.getValue()});
+    }
+    return rowSet;
+  }
+
   private boolean isFetchFirst(FetchOrientation fetchOrientation) {
     //TODO: Since OperationLog is moved to package o.a.h.h.ql.session,
     // we may add a Enum there and map FetchOrientation to it.
@@ -27,18 +27,24 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.hadoop.hive.common.metrics.Metrics;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.Schema;
 import org.apache.hadoop.hive.ql.CommandNeedRetryException;
 import org.apache.hadoop.hive.ql.Driver;
+import org.apache.hadoop.hive.ql.QueryProfile;
 import org.apache.hadoop.hive.ql.exec.ExplainTask;
 import org.apache.hadoop.hive.ql.exec.Task;
 import org.apache.hadoop.hive.ql.metadata.Hive;
+import org.apache.hadoop.hive.ql.log.PerfLogger;
 import org.apache.hadoop.hive.ql.metadata.HiveException;
 import org.apache.hadoop.hive.ql.parse.VariableSubstitution;
 import org.apache.hadoop.hive.ql.processors.CommandProcessorResponse;
@@ -76,6 +82,27 @@ public class SQLOperation extends ExecuteStatementOperation {
   private Schema mResultSchema = null;
   private SerDe serde = null;
   private boolean fetchStarted = false;
+  // Whether the operation finished while the driver completes the query in the background
+  private volatile boolean resultsAvailable = false;
+  // How long closing such an operation waits for the query to complete before interrupting it
+  private static final long COMPLETION_TIMEOUT_MS = 30000;
+
+  // The profile of the query, and of the operation around it
+  private QueryProfile queryProfile = null;
+  private volatile long waitTime = 0;
+  private volatile long fetchCalls = 0;
+  private volatile long fetchRows = 0;
+  private volatile long fetchTime = 0;
+
+  /** The profile values also tracked by the metrics of HiveServer2, when they are enabled. */
+  private static final String[] PROFILE_METRICS = {
+    "time." + PerfLogger.COMPILE,
+    "time." + PerfLogger.ACQUIRE_READ_WRITE_LOCKS,
+    "time." + PerfLogger.RUN_TASKS,
+    "time." + PerfLogger.RELEASE_LOCKS,
+    "operation.wait_ms",
+    "fetch.time_ms"
+  };
 
   public SQLOperation(HiveSession parentSession, String statement, Map<String,
       String> confOverlay, boolean runInBackground) {
@@ -112,6 +139,7 @@ public void prepare(HiveConf sqlOperationConf) throws HiveSQLException {
         throw toSQLException("Error while compiling statement", response);
       }
 
+      queryProfile = driver.getQueryProfile();
       mResultSchema = driver.getSchema();
 
       // hasResultSet should be true only if the query has a FetchTask
@@ -163,15 +191,39 @@ private void runQuery(HiveConf sqlOperationConf) throws HiveSQLException {
       if (getStatus().getState() == OperationState.CANCELED) {
         return;
       }
+      else if (resultsAvailable) {
+        LOG.warn("Error completing the query after its results were available", e);
+        return;
+      }
       else {
         setState(OperationState.ERROR);
         throw e;
       }
     } catch (Exception e) {
+      if (resultsAvailable) {
+        LOG.warn("Error completing the query after its results were available", e);
+        return;
+      }
       setState(OperationState.ERROR);
       throw new HiveSQLException("Error running query: " + e.toString(), e);
     }
-    setState(OperationState.FINISHED);
+    if (!resultsAvailable) {
+      setState(OperationState.FINISHED);
+    }
+  }
+
+  /**
+   * Reports the operation finished as soon as its results can be fetched, while the driver
+   * runs the post-execution hooks and releases the locks of the query in the background.
+   */
+  private void setResultsAvailable() {
+    try {
+      setState(OperationState.FINISHED);
+      resultsAvailable = true;
+    } catch (HiveSQLException e) {
+      // the operation was cancelled or closed in the meantime
+      LOG.debug("Not reporting the results of the operation available", e);
+    }
   }
 
   @Override
@@ -182,6 +234,15 @@ public void runInternal() throws HiveSQLException {
     if (!shouldRunAsync()) {
       runQuery(opConfig);
     } else {
+      if (opConfig.getBoolVar(HiveConf.ConfVars.HIVE_SERVER2_EARLY_FETCH)
+          && driver.getPlan().getFetchTask() != null) {
+        driver.setResultsListener(new Driver.ResultsListener() {
+          @Override
+          public void resultsAvailable() {
+            setResultsAvailable();
+          }
+        });
+      }
       // We'll pass ThreadLocals in the background thread from the foreground (handler) thread
       final SessionState parentSessionState = SessionState.get();
       // ThreadLocal Hive object needs to be set in background thread.
@@ -190,6 +251,7 @@ public void runInternal() throws HiveSQLException {
       // Current UGI will get used by metastore when metsatore is in embedded mode
       // So this needs to get passed to the new background thread
       final UserGroupInformation currentUGI = getCurrentUGI(opConfig);
+      final long submitTime = System.currentTimeMillis();
       // Runnable impl to call runInternal asynchronously,
       // from a different thread
       Runnable backgroundOperation = new Runnable() {
@@ -198,6 +260,7 @@ public void run() {
           PrivilegedExceptionAction<Object> doAsAction = new PrivilegedExceptionAction<Object>() {
             @Override
             public Object run() throws HiveSQLException {
+              waitTime = System.currentTimeMillis() - submitTime;
               Hive.set(parentHive);
               SessionState.setCurrentSessionState(parentSessionState);
               // Set current OperationLog in this async thread for keeping on saving query log.
@@ -237,12 +300,16 @@ public Object run() throws HiveSQLException {
       try {
         // This submit blocks if no background threads are available to run this operation
         Future<?> backgroundHandle =
-            getParentSession().getSessionManager().submitBackgroundOperation(backgroundOperation);
+            getParentSession().getSessionManager().submitBackgroundOperation(backgroundOperation,
+                getParentSession().getUserName(), opConfig);
         setBackgroundHandle(backgroundHandle);
       } catch (RejectedExecutionException rejected) {
         setState(OperationState.ERROR);
         throw new HiveSQLException("The background threadpool cannot accept" +
             " new task for execution, please retry the operation", rejected);
+      } catch (HiveSQLException e) {
+        setState(OperationState.ERROR);
+        throw e;
       }
     }
   }
@@ -290,7 +357,23 @@ private void cleanup(OperationState state) throws HiveSQLException {
     setState(state);
     if (shouldRunAsync()) {
       Future<?> backgroundHandle = getBackgroundHandle();
-      if (backgroundHandle != null) {
+      boolean cancel = backgroundHandle != null;
+      if (backgroundHandle != null && resultsAvailable) {
+        // let the query complete rather than interrupt its post-execution hooks
+        try {
+          backgroundHandle.get(COMPLETION_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+          cancel = false;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+          LOG.warn("Error completing the query", e);
+          cancel = false;
+        } catch (TimeoutException e) {
+          LOG.warn("The query did not complete within " + COMPLETION_TIMEOUT_MS
+              + " ms of closing the operation, interrupting it");
+        }
+      }
+      if (cancel) {
         backgroundHandle.cancel(true);
       }
     }
@@ -313,10 +396,32 @@ public void cancel() throws HiveSQLException {
 
   @Override
   public void close() throws HiveSQLException {
+    if (isFinished()) {
+      Map<String, Long> profile = getProfile();
+      for (String name : PROFILE_METRICS) {
+        Long value = profile.get(name);
+        if (value != null) {
+          Metrics.updateHistogram("hive.server2.query." + name, value);
+        }
+      }
+    }
     cleanup(OperationState.CLOSED);
     cleanupOperationLog();
   }
 
+  @Override
+  public Map<String, Long> getProfile() {
+    Map<String, Long> profile = super.getProfile();
+    if (queryProfile != null) {
+      profile.putAll(queryProfile.getValues());
+    }
+    profile.put("operation.wait_ms", waitTime);
+    profile.put("fetch.calls", fetchCalls);
+    profile.put("fetch.rows", fetchRows);
+    profile.put("fetch.time_ms", fetchTime);
+    return profile;
+  }
+
   @Override
   public TableSchema getResultSetSchema() throws HiveSQLException {
     assertState(OperationState.FINISHED);
@@ -335,6 +440,7 @@ public RowSet getNextRowSet(FetchOrientation orientation, long maxRows) throws H
 
     RowSet rowSet = RowSetFactory.create(resultSchema, getProtocolVersion());
 
+    long startTime = System.currentTimeMillis();
     try {
       /* if client is requesting fetch-from-start and its not the first time reading from this operation
        * then reset the fetch position to beginning
@@ -345,8 +451,9 @@ public RowSet getNextRowSet(FetchOrientation orientation, long maxRows) throws H
       fetchStarted = true;
       driver.setMaxRows((int) maxRows);
       if (driver.getResults(convey)) {
-        return decode(convey, rowSet);
+        decode(convey, rowSet);
       }
+      fetchRows += rowSet.numRows();
       return rowSet;
     } catch (IOException e) {
       throw new HiveSQLException(e);
@@ -356,6 +463,8 @@ public RowSet getNextRowSet(FetchOrientation orientation, long maxRows) throws H
       throw new HiveSQLException(e);
     } finally {
       convey.clear();
+      fetchCalls++;
+      fetchTime += System.currentTimeMillis() - startTime;
     }
   }
 
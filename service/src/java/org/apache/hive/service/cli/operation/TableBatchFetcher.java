@@ -0,0 +1,153 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hive.service.cli.operation;
+
+import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.shims.Utils;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.hive.service.server.ThreadFactoryWithGarbageCleanup;
+
+/**
+ * TableBatchFetcher: gets the table objects of the metadata operations from the metastore, by
+ * batches of hive.metastore.batch.retrieve.max tables rather than one table at a time.
+ *
+ * With a pool of metastore connections (hive.metastore.client.pool.enabled), the client of the
+ * session can be used by several threads at once, and up to hive.server2.metadata.fetch.threads
+ * batches are fetched in parallel, by a pool of at most hive.server2.metadata.fetch.pool.size
+ * threads shared by all the operations. When they are all busy, the operation fetches the batch
+ * itself. The batches are still returned in the order they were
+ * added, as soon as each of them arrives, so that the operation builds its rows while the next
+ * batches are being fetched.
+ */
+class TableBatchFetcher {
+
+  private static ThreadPoolExecutor fetchPool = null;
+
+  private final IMetaStoreClient metastoreClient;
+  private final int batchSize;
+  private final int parallelism;
+  private final UserGroupInformation ugi;
+  private final ExecutorService pool;
+
+  private final LinkedList<Callable<List<Table>>> pending = new LinkedList<Callable<List<Table>>>();
+  private final LinkedList<Future<List<Table>>> running = new LinkedList<Future<List<Table>>>();
+
+  TableBatchFetcher(IMetaStoreClient metastoreClient, HiveConf conf) throws Exception {
+    this.metastoreClient = metastoreClient;
+    this.batchSize = Math.max(1, conf.getIntVar(ConfVars.METASTORE_BATCH_RETRIEVE_MAX));
+    boolean concurrentClient = conf.getBoolVar(ConfVars.METASTORE_CLIENT_POOL_ENABLED)
+        && !conf.getVar(ConfVars.METASTOREURIS).trim().isEmpty();
+    this.parallelism = concurrentClient
+        ? Math.max(1, conf.getIntVar(ConfVars.HIVE_SERVER2_METADATA_FETCH_THREADS)) : 1;
+    // the pooled connections are chosen by the user the calls are made as
+    this.ugi = Utils.getUGI();
+    this.pool = parallelism == 1 ? null : getFetchPool(
+        Math.max(1, conf.getIntVar(ConfVars.HIVE_SERVER2_METADATA_FETCH_POOL_SIZE)));
+  }
+
+  private static synchronized ExecutorService getFetchPool(int poolSize) {
+    if (fetchPool == null) {
+      // a fetch that no thread is free to run runs in the thread of the operation
+      fetchPool = new ThreadPoolExecutor(0, poolSize, 60, TimeUnit.SECONDS,
+          new SynchronousQueue<Runnable>(),
+          new ThreadFactoryWithGarbageCleanup("HiveServer2-Metadata-Pool"),
+          new ThreadPoolExecutor.CallerRunsPolicy());
+    } else if (fetchPool.getMaximumPoolSize() != poolSize) {
+      fetchPool.setMaximumPoolSize(poolSize);
+    }
+    return fetchPool;
+  }
+
+  /**
+   * Adds the given tables of a database to the tables to fetch.
+   */
+  void add(final String dbName, List<String> tableNames) {
+    for (int i = 0; i < tableNames.size(); i += batchSize) {
+      final List<String> batch = new ArrayList<String>(
+          tableNames.subList(i, Math.min(i + batchSize, tableNames.size())));
+      pending.add(new Callable<List<Table>>() {
+        @Override
+        public List<Table> call() throws Exception {
+          return metastoreClient.getTableObjectsByName(dbName, batch);
+        }
+      });
+    }
+  }
+
+  /**
+   * @return The next batch of tables, in the order they were added, or null once all of them
+   *         were returned.
+   */
+  List<Table> next() throws Exception {
+    if (parallelism == 1) {
+      return pending.isEmpty() ? null : pending.removeFirst().call();
+    }
+    while (running.size() < parallelism && !pending.isEmpty()) {
+      final Callable<List<Table>> fetch = pending.removeFirst();
+      running.add(pool.submit(new Callable<List<Table>>() {
+        @Override
+        public List<Table> call() throws Exception {
+          return ugi.doAs(new PrivilegedExceptionAction<List<Table>>() {
+            @Override
+            public List<Table> run() throws Exception {
+              return fetch.call();
+            }
+          });
+        }
+      }));
+    }
+    if (running.isEmpty()) {
+      return null;
+    }
+    try {
+      return running.removeFirst().get();
+    } catch (ExecutionException e) {
+      cancel();
+      throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+    } catch (InterruptedException e) {
+      cancel();
+      throw e;
+    }
+  }
+
+  /**
+   * Cancels the batches still being fetched.
+   */
+  void cancel() {
+    pending.clear();
+    for (Future<List<Table>> future : running) {
+      future.cancel(true);
+    }
+    running.clear();
+  }
+}
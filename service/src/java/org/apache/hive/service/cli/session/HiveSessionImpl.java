@@ -660,6 +660,9 @@ public RowSet fetchResults(OperationHandle opHandle, FetchOrientation orientatio
       if (fetchType == FetchType.QUERY_OUTPUT) {
         return operationManager.getOperationNextRowSet(opHandle, orientation, maxRows);
       }
+      if (fetchType == FetchType.PROFILE) {
+        return operationManager.getOperationProfileRowSet(opHandle);
+      }
       return operationManager.getOperationLogRowSet(opHandle, orientation, maxRows);
     } finally {
       release(true);
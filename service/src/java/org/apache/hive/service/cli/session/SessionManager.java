@@ -33,6 +33,7 @@
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.common.metrics.Metrics;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
 import org.apache.hadoop.hive.ql.hooks.HookUtils;
@@ -57,6 +58,8 @@ public class SessionManager extends CompositeService {
       new ConcurrentHashMap<SessionHandle, HiveSession>();
   private final OperationManager operationManager = new OperationManager();
   private ThreadPoolExecutor backgroundOperationPool;
+  // Admission control of the background operations, if hive.server2.workload.queues is set
+  private WorkloadManager workloadManager;
   private boolean isOperationLogEnabled;
   private File operationLogRootDir;
 
@@ -75,6 +78,15 @@ public SessionManager(HiveServer2 hiveServer2) {
   @Override
   public synchronized void init(HiveConf hiveConf) {
     this.hiveConf = hiveConf;
+    if (hiveConf.getBoolVar(ConfVars.HIVE_SERVER2_METRICS_ENABLED)) {
+      try {
+        Metrics.init();
+      } catch (Exception e) {
+        // log exception, but ignore inability to start
+        LOG.error("Error initializing metrics: " + e.getClass().getName() + " "
+            + e.getMessage(), e);
+      }
+    }
     //Create operation log root directory, if operation logging is enabled
     if (hiveConf.getBoolVar(ConfVars.HIVE_SERVER2_LOGGING_OPERATION_ENABLED)) {
       initOperationLogRootDir();
@@ -103,6 +115,10 @@ private void createBackgroundOperationPool() {
         new ThreadFactoryWithGarbageCleanup(threadPoolName));
     backgroundOperationPool.allowCoreThreadTimeOut(true);
 
+    if (!hiveConf.getVar(ConfVars.HIVE_SERVER2_WORKLOAD_QUEUES).trim().isEmpty()) {
+      workloadManager = new WorkloadManager(hiveConf, backgroundOperationPool, poolSize);
+    }
+
     checkInterval = HiveConf.getTimeVar(
         hiveConf, ConfVars.HIVE_SERVER2_SESSION_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
     sessionTimeout = HiveConf.getTimeVar(
@@ -376,6 +392,19 @@ public Future<?> submitBackgroundOperation(Runnable r) {
     return backgroundOperationPool.submit(r);
   }
 
+  /**
+   * Submits an operation of the given user to run in the background, once its workload queue
+   * has room for it.
+   * @param opConf The configuration of the operation, which may choose its workload queue.
+   */
+  public Future<?> submitBackgroundOperation(Runnable r, String userName, HiveConf opConf)
+      throws HiveSQLException {
+    if (workloadManager == null) {
+      return backgroundOperationPool.submit(r);
+    }
+    return workloadManager.submit(r, userName, opConf);
+  }
+
   public int getOpenSessionCount() {
     return handleToSession.size();
   }
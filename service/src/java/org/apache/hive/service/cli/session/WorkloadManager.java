@@ -0,0 +1,308 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hive.service.cli.session;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.hadoop.hive.common.metrics.Metrics;
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.apache.hive.service.cli.HiveSQLException;
+
+/**
+ * WorkloadManager: admission control of the async operations of HiveServer2, configured by
+ * hive.server2.workload.queues.
+ *
+ * Each operation waits in a queue, chosen by the session configuration or by its user and
+ * groups, until both the queue and the async thread pool have room for it. Operations don't
+ * wait in the thread pool itself: when one of them ends, the next one to run is the oldest
+ * waiting operation of the queue with the highest priority that is below its concurrency
+ * limit, so that a queue full of long ETL queries can't hold back the queries of another one.
+ */
+class WorkloadManager {
+  private static final Log LOG = LogFactory.getLog(WorkloadManager.class);
+
+  static final String DEFAULT_QUEUE = "default";
+  private static final String QUEUE_PREFIX = "hive.server2.workload.queue.";
+
+  private final Executor executor;
+  private final int maxRunning;
+  /** The queues, highest priority first. */
+  private final List<Queue> queues = new ArrayList<Queue>();
+  private int running = 0;
+  /** Whether any queue is chosen by the groups of the user. */
+  private boolean hasGroups = false;
+
+  private class Queue {
+    final String name;
+    final Set<String> users;
+    final Set<String> groups;
+    final int maxConcurrent;
+    final int maxWaiting;
+    final int priority;
+    final LinkedList<Operation> waiting = new LinkedList<Operation>();
+    int running = 0;
+
+    Queue(HiveConf conf, String name) {
+      this.name = name;
+      users = getNames(conf, QUEUE_PREFIX + name + ".users");
+      groups = getNames(conf, QUEUE_PREFIX + name + ".groups");
+      maxConcurrent = Math.max(1, conf.getInt(QUEUE_PREFIX + name + ".max.concurrent",
+          conf.getIntVar(ConfVars.HIVE_SERVER2_ASYNC_EXEC_THREADS)));
+      maxWaiting = conf.getInt(QUEUE_PREFIX + name + ".max.waiting",
+          conf.getIntVar(ConfVars.HIVE_SERVER2_ASYNC_EXEC_WAIT_QUEUE_SIZE));
+      priority = conf.getInt(QUEUE_PREFIX + name + ".priority", 0);
+    }
+
+    boolean isAllowed(String userName, Set<String> userGroups) {
+      if (users.isEmpty() && groups.isEmpty()) {
+        return true;
+      }
+      if (users.contains(userName)) {
+        return true;
+      }
+      for (String group : userGroups) {
+        if (groups.contains(group)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private class Operation implements Runnable {
+    final Queue queue;
+    final FutureTask<Object> task;
+    final long submitTime = System.currentTimeMillis();
+
+    Operation(Queue queue, Runnable r) {
+      this.queue = queue;
+      this.task = new FutureTask<Object>(r, null);
+    }
+
+    @Override
+    public void run() {
+      try {
+        task.run();
+      } finally {
+        finished(this);
+      }
+    }
+  }
+
+  WorkloadManager(HiveConf conf, Executor executor, int maxRunning) {
+    this.executor = executor;
+    this.maxRunning = maxRunning;
+    Map<String, Queue> byName = new LinkedHashMap<String, Queue>();
+    for (String name : getNames(conf, ConfVars.HIVE_SERVER2_WORKLOAD_QUEUES.varname)) {
+      byName.put(name, new Queue(conf, name));
+    }
+    if (!byName.containsKey(DEFAULT_QUEUE)) {
+      byName.put(DEFAULT_QUEUE, new Queue(conf, DEFAULT_QUEUE));
+    }
+    for (Queue queue : byName.values()) {
+      int i = 0;
+      while (i < queues.size() && queues.get(i).priority >= queue.priority) {
+        i++;
+      }
+      queues.add(i, queue);
+      hasGroups |= !queue.groups.isEmpty();
+      LOG.info("HiveServer2: Workload queue " + queue.name + " with priority " + queue.priority
+          + ", at most " + queue.maxConcurrent + " running and " + queue.maxWaiting
+          + " waiting operations");
+    }
+  }
+
+  private static Set<String> getNames(HiveConf conf, String name) {
+    Set<String> names = new LinkedHashSet<String>();
+    for (String value : conf.getTrimmedStringCollection(name)) {
+      if (!value.isEmpty()) {
+        names.add(value);
+      }
+    }
+    return names;
+  }
+
+  /**
+   * Runs the given operation once the queue it goes to has room for it.
+   * @param userName The user running the operation.
+   * @param opConf The configuration of the operation, which may choose its queue.
+   * @return The future of the operation, which can be cancelled while it is waiting.
+   */
+  Future<?> submit(Runnable r, String userName, HiveConf opConf) throws HiveSQLException {
+    Operation operation = new Operation(getQueue(userName, opConf), r);
+    synchronized (this) {
+      Queue queue = operation.queue;
+      if (queue.waiting.size() >= queue.maxWaiting && !canRun(queue)) {
+        incrementCounter(queue, "rejected");
+        throw new RejectedExecutionException("The workload queue " + queue.name + " has "
+            + queue.waiting.size() + " operations waiting already");
+      }
+      queue.waiting.add(operation);
+      dispatch();
+    }
+    return operation.task;
+  }
+
+  private Queue getQueue(String userName, HiveConf opConf) throws HiveSQLException {
+    Set<String> userGroups = getGroups(userName);
+    String name = opConf.getVar(ConfVars.HIVE_SERVER2_WORKLOAD_QUEUE).trim();
+    if (!name.isEmpty()) {
+      for (Queue queue : queues) {
+        if (queue.name.equals(name)) {
+          if (!queue.isAllowed(userName, userGroups)) {
+            throw new HiveSQLException("User " + userName + " is not allowed to use the "
+                + "workload queue " + name);
+          }
+          return queue;
+        }
+      }
+      throw new HiveSQLException("Unknown workload queue " + name + " in "
+          + ConfVars.HIVE_SERVER2_WORKLOAD_QUEUE.varname);
+    }
+    Queue defaultQueue = null;
+    for (Queue queue : queues) {
+      if (queue.name.equals(DEFAULT_QUEUE)) {
+        defaultQueue = queue;
+      } else if (queue.users.contains(userName) || !isDisjoint(queue.groups, userGroups)) {
+        return queue;
+      }
+    }
+    return defaultQueue;
+  }
+
+  private Set<String> getGroups(String userName) {
+    if (userName == null || !hasGroups) {
+      return new HashSet<String>();
+    }
+    return new HashSet<String>(
+        Arrays.asList(UserGroupInformation.createRemoteUser(userName).getGroupNames()));
+  }
+
+  private static boolean isDisjoint(Set<String> a, Set<String> b) {
+    for (String value : a) {
+      if (b.contains(value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean canRun(Queue queue) {
+    return running < maxRunning && queue.running < queue.maxConcurrent;
+  }
+
+  private synchronized void finished(Operation operation) {
+    --running;
+    --operation.queue.running;
+    setGauges(operation.queue);
+    dispatch();
+  }
+
+  /**
+   * Hands the waiting operations to the executor, for as long as the thread pool and their
+   * queue have room for them.
+   */
+  private void dispatch() {
+    while (running < maxRunning) {
+      Operation next = null;
+      for (Queue queue : queues) {
+        // cancelled operations don't need to run
+        while (!queue.waiting.isEmpty() && queue.waiting.getFirst().task.isCancelled()) {
+          queue.waiting.removeFirst();
+        }
+        if (!queue.waiting.isEmpty() && canRun(queue)) {
+          next = queue.waiting.removeFirst();
+          break;
+        }
+      }
+      if (next == null) {
+        break;
+      }
+      long waitTime = System.currentTimeMillis() - next.submitTime;
+      try {
+        executor.execute(next);
+      } catch (RejectedExecutionException e) {
+        // the pool is shutting down
+        LOG.warn("Failed to start an operation of the workload queue " + next.queue.name, e);
+        next.task.cancel(false);
+        continue;
+      }
+      ++running;
+      ++next.queue.running;
+      setGauges(next.queue);
+      Metrics.updateHistogram(QUEUE_PREFIX + next.queue.name + ".wait_time", waitTime);
+      if (waitTime >= 1000) {
+        LOG.info("HiveServer2: Operation waited " + waitTime + "ms in workload queue "
+            + next.queue.name);
+      }
+    }
+  }
+
+  private void setGauges(Queue queue) {
+    try {
+      Metrics.set(QUEUE_PREFIX + queue.name + ".running", Long.valueOf(queue.running));
+      Metrics.set(QUEUE_PREFIX + queue.name + ".waiting", Long.valueOf(queue.waiting.size()));
+    } catch (IOException e) {
+      LOG.debug("Failed to update the metrics of workload queue " + queue.name, e);
+    }
+  }
+
+  private void incrementCounter(Queue queue, String counter) {
+    try {
+      Metrics.incrementCounter(QUEUE_PREFIX + queue.name + "." + counter);
+    } catch (IOException e) {
+      LOG.debug("Failed to update the metrics of workload queue " + queue.name, e);
+    }
+  }
+
+  synchronized int getRunning(String queueName) {
+    for (Queue queue : queues) {
+      if (queue.name.equals(queueName)) {
+        return queue.running;
+      }
+    }
+    return 0;
+  }
+
+  synchronized int getWaiting(String queueName) {
+    for (Queue queue : queues) {
+      if (queue.name.equals(queueName)) {
+        return queue.waiting.size();
+      }
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,507 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hive.service.cli.thrift;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.thrift.TException;
+import org.apache.thrift.TProcessor;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.server.TServer;
+import org.apache.thrift.transport.TSocket;
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+
+/**
+ * TSaslNonblockingServer: a thrift server that doesn't hold a thread for each connection, for
+ * the binary mode of HiveServer2 with SASL authentication.
+ *
+ * The SASL handshake of a new connection runs on a worker thread with a blocking socket, using
+ * the transport factory of the server (e.g. TSaslServerTransport.Factory), so every mechanism
+ * and QOP of the thread pool server is supported. The connection is then handed to a selector
+ * thread. After the handshake, TSaslTransport exchanges length-prefixed frames: a selector
+ * thread reads each request frame without blocking, a worker thread processes it through the
+ * SASL transport, which reads the frame from memory and writes the response frame to memory,
+ * and the selector thread writes the response back. Since the transport and the underlying
+ * TSocket are the same as with the thread pool server, the processors that look them up (e.g.
+ * for the user name and IP address of the client) work unchanged.
+ */
+public class TSaslNonblockingServer extends TServer {
+  private static final Log LOG = LogFactory.getLog(TSaslNonblockingServer.class);
+
+  public static class Args extends AbstractServerArgs<Args> {
+    private final InetSocketAddress bindAddress;
+    private int selectorThreads = 2;
+    private ExecutorService executorService;
+    private int maxFrameSize = Integer.MAX_VALUE;
+    private int loginTimeoutMs = 0;
+
+    public Args(InetSocketAddress bindAddress) {
+      super(null);
+      this.bindAddress = bindAddress;
+    }
+
+    public Args selectorThreads(int selectorThreads) {
+      this.selectorThreads = selectorThreads;
+      return this;
+    }
+
+    /**
+     * The workers running the SASL handshakes and processing the requests.
+     */
+    public Args executorService(ExecutorService executorService) {
+      this.executorService = executorService;
+      return this;
+    }
+
+    public Args maxFrameSize(int maxFrameSize) {
+      this.maxFrameSize = maxFrameSize;
+      return this;
+    }
+
+    public Args loginTimeout(int timeout, TimeUnit unit) {
+      this.loginTimeoutMs = (int) unit.toMillis(timeout);
+      return this;
+    }
+  }
+
+  private final InetSocketAddress bindAddress;
+  private final ExecutorService executorService;
+  private final int maxFrameSize;
+  private final int loginTimeoutMs;
+  private final List<SelectorThread> selectorThreads = new ArrayList<SelectorThread>();
+  private ServerSocketChannel serverChannel;
+  private volatile boolean stopped = false;
+
+  public TSaslNonblockingServer(Args args) {
+    super(args);
+    bindAddress = args.bindAddress;
+    executorService = args.executorService;
+    maxFrameSize = args.maxFrameSize;
+    loginTimeoutMs = args.loginTimeoutMs;
+    for (int i = 0; i < Math.max(1, args.selectorThreads); i++) {
+      selectorThreads.add(new SelectorThread("HiveServer2-Selector-" + i));
+    }
+  }
+
+  @Override
+  public void serve() {
+    try {
+      serverChannel = ServerSocketChannel.open();
+      serverChannel.socket().setReuseAddress(true);
+      serverChannel.socket().bind(bindAddress);
+      for (SelectorThread thread : selectorThreads) {
+        thread.start();
+      }
+    } catch (IOException e) {
+      LOG.error("Could not listen on " + bindAddress, e);
+      return;
+    }
+    setServing(true);
+
+    int next = 0;
+    while (!stopped) {
+      SocketChannel channel;
+      try {
+        channel = serverChannel.accept();
+      } catch (ClosedChannelException e) {
+        break;
+      } catch (IOException e) {
+        if (!stopped) {
+          LOG.warn("Error accepting a connection", e);
+        }
+        continue;
+      }
+      SelectorThread selectorThread = selectorThreads.get(next++ % selectorThreads.size());
+      try {
+        executorService.execute(new Login(channel, selectorThread));
+      } catch (RejectedExecutionException e) {
+        LOG.warn("Closing a new connection, no worker thread can take it: " + e);
+        closeQuietly(channel);
+      }
+    }
+
+    for (SelectorThread thread : selectorThreads) {
+      thread.selector.wakeup();
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    executorService.shutdown();
+    setServing(false);
+  }
+
+  @Override
+  public void stop() {
+    stopped = true;
+    if (serverChannel != null) {
+      closeQuietly(serverChannel);
+    }
+    for (SelectorThread thread : selectorThreads) {
+      thread.selector.wakeup();
+    }
+  }
+
+  private static void closeQuietly(Channel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      LOG.debug("Error closing a channel", e);
+    }
+  }
+
+  /**
+   * A TSocket over a socket channel: blocking during the SASL handshake, then reading the
+   * current request frame and writing the response from and to memory.
+   */
+  private static class ChannelSocket extends TSocket {
+    private boolean isFramed = false;
+    private ByteBuffer input;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    ChannelSocket(SocketChannel channel) throws TTransportException {
+      super(channel.socket());
+    }
+
+    void startFraming() {
+      isFramed = true;
+    }
+
+    void setInput(ByteBuffer frame) {
+      input = frame;
+    }
+
+    byte[] takeOutput() {
+      byte[] bytes = output.toByteArray();
+      output.reset();
+      return bytes;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws TTransportException {
+      if (!isFramed) {
+        return super.read(buf, off, len);
+      }
+      if (input == null || !input.hasRemaining()) {
+        throw new TTransportException(TTransportException.END_OF_FILE,
+            "Read past the end of the request frame");
+      }
+      int n = Math.min(len, input.remaining());
+      input.get(buf, off, n);
+      return n;
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) throws TTransportException {
+      if (!isFramed) {
+        super.write(buf, off, len);
+      } else {
+        output.write(buf, off, len);
+      }
+    }
+
+    @Override
+    public void flush() throws TTransportException {
+      if (!isFramed) {
+        super.flush();
+      }
+    }
+  }
+
+  /**
+   * Runs the SASL handshake of a new connection on a worker thread.
+   */
+  private class Login implements Runnable {
+    private final SocketChannel channel;
+    private final SelectorThread selectorThread;
+
+    Login(SocketChannel channel, SelectorThread selectorThread) {
+      this.channel = channel;
+      this.selectorThread = selectorThread;
+    }
+
+    @Override
+    public void run() {
+      try {
+        channel.socket().setSoTimeout(loginTimeoutMs);
+        ChannelSocket socket = new ChannelSocket(channel);
+        // The SASL transport factories open the transport, i.e. run the handshake.
+        TTransport inputTransport = inputTransportFactory_.getTransport(socket);
+        TTransport outputTransport = outputTransportFactory_.getTransport(socket);
+        TProcessor processor = processorFactory_.getProcessor(inputTransport);
+        channel.socket().setSoTimeout(0);
+        socket.startFraming();
+        selectorThread.register(new Connection(channel, socket, processor,
+            inputProtocolFactory_.getProtocol(inputTransport),
+            outputProtocolFactory_.getProtocol(outputTransport)));
+      } catch (Exception e) {
+        // e.g. a RuntimeException wrapping the failure of the handshake
+        LOG.warn("Error setting up a connection: " + e);
+        closeQuietly(channel);
+      }
+    }
+  }
+
+  /**
+   * A connection past its SASL handshake. Its requests are read and its responses written by
+   * its selector thread; it runs on a worker thread to process each request.
+   */
+  private class Connection implements Runnable {
+    private final SocketChannel channel;
+    private final ChannelSocket socket;
+    private final TProcessor processor;
+    private final TProtocol inputProtocol;
+    private final TProtocol outputProtocol;
+    private final ByteBuffer frameSize = ByteBuffer.allocate(4);
+    private ByteBuffer frame;
+    private ByteBuffer response;
+    private SelectorThread selectorThread;
+    private SelectionKey key;
+
+    Connection(SocketChannel channel, ChannelSocket socket, TProcessor processor,
+        TProtocol inputProtocol, TProtocol outputProtocol) {
+      this.channel = channel;
+      this.socket = socket;
+      this.processor = processor;
+      this.inputProtocol = inputProtocol;
+      this.outputProtocol = outputProtocol;
+    }
+
+    /**
+     * Reads what is available of the next request, and processes it once it is complete.
+     * @return false if the connection is to be closed
+     */
+    boolean read() throws IOException {
+      if (frame == null) {
+        if (channel.read(frameSize) < 0) {
+          return false;
+        }
+        if (frameSize.hasRemaining()) {
+          return true;
+        }
+        int size = frameSize.getInt(0);
+        frameSize.clear();
+        if (size < 0 || size > maxFrameSize) {
+          LOG.warn("Closing a connection that sent a frame of " + size + " bytes, more than the "
+              + "maximum of " + maxFrameSize);
+          return false;
+        }
+        // TSaslTransport reads the frame size too
+        frame = ByteBuffer.allocate(4 + size);
+        frame.putInt(size);
+      }
+      if (channel.read(frame) < 0) {
+        return false;
+      }
+      if (frame.hasRemaining()) {
+        return true;
+      }
+      frame.flip();
+      // clients send one request at a time, the next one is read once this one is answered
+      key.interestOps(0);
+      try {
+        executorService.execute(this);
+      } catch (RejectedExecutionException e) {
+        LOG.warn("Closing a connection, no worker thread can process its request: " + e);
+        return false;
+      }
+      return true;
+    }
+
+    /**
+     * Processes the current request on a worker thread.
+     */
+    @Override
+    public void run() {
+      socket.setInput(frame);
+      frame = null;
+      byte[] output = null;
+      try {
+        processor.process(inputProtocol, outputProtocol);
+        output = socket.takeOutput();
+      } catch (TTransportException e) {
+        LOG.debug("Error processing a request", e);
+      } catch (TException e) {
+        LOG.error("Thrift error occurred during processing of message.", e);
+      } catch (Exception e) {
+        LOG.error("Error occurred during processing of message.", e);
+      }
+      socket.setInput(null);
+      selectorThread.respond(this, output);
+    }
+
+    /**
+     * Writes what the connection can take of the current response.
+     * @return false if the connection is to be closed
+     */
+    boolean write() throws IOException {
+      channel.write(response);
+      if (response.hasRemaining()) {
+        key.interestOps(SelectionKey.OP_WRITE);
+      } else {
+        response = null;
+        key.interestOps(SelectionKey.OP_READ);
+      }
+      return true;
+    }
+
+    void close() {
+      if (key != null) {
+        key.cancel();
+      }
+      inputProtocol.getTransport().close();
+      if (outputProtocol.getTransport() != inputProtocol.getTransport()) {
+        outputProtocol.getTransport().close();
+      }
+      closeQuietly(channel);
+    }
+  }
+
+  private class SelectorThread extends Thread {
+    private final Selector selector;
+    private final ConcurrentLinkedQueue<Connection> registrations =
+        new ConcurrentLinkedQueue<Connection>();
+    private final ConcurrentLinkedQueue<Object[]> responses =
+        new ConcurrentLinkedQueue<Object[]>();
+
+    SelectorThread(String name) {
+      super(name);
+      setDaemon(true);
+      try {
+        selector = Selector.open();
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not open a selector", e);
+      }
+    }
+
+    void register(Connection connection) {
+      registrations.add(connection);
+      selector.wakeup();
+    }
+
+    /**
+     * Hands the response to a request back to the selector thread, or null if the request
+     * failed and the connection is to be closed.
+     */
+    void respond(Connection connection, byte[] output) {
+      responses.add(new Object[] {connection, output});
+      selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+      try {
+        while (!stopped) {
+          selector.select();
+          addRegistrations();
+          addResponses();
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            Connection connection = (Connection) key.attachment();
+            boolean isOpen = key.isValid();
+            try {
+              if (isOpen && key.isReadable()) {
+                isOpen = connection.read();
+              } else if (isOpen && key.isWritable()) {
+                isOpen = connection.write();
+              }
+            } catch (IOException e) {
+              LOG.debug("Error reading or writing a connection", e);
+              isOpen = false;
+            }
+            if (!isOpen) {
+              connection.close();
+            }
+          }
+        }
+      } catch (Throwable t) {
+        LOG.error("Selector thread " + getName() + " failed", t);
+      } finally {
+        for (SelectionKey key : selector.keys()) {
+          ((Connection) key.attachment()).close();
+        }
+        Connection connection;
+        while ((connection = registrations.poll()) != null) {
+          connection.close();
+        }
+        try {
+          selector.close();
+        } catch (IOException e) {
+          LOG.debug("Error closing a selector", e);
+        }
+      }
+    }
+
+    private void addRegistrations() {
+      Connection connection;
+      while ((connection = registrations.poll()) != null) {
+        try {
+          connection.channel.configureBlocking(false);
+          connection.selectorThread = this;
+          connection.key = connection.channel.register(selector, SelectionKey.OP_READ,
+              connection);
+        } catch (IOException e) {
+          LOG.warn("Error registering a connection: " + e);
+          connection.close();
+        }
+      }
+    }
+
+    private void addResponses() {
+      Object[] response;
+      while ((response = responses.poll()) != null) {
+        Connection connection = (Connection) response[0];
+        byte[] output = (byte[]) response[1];
+        if (output == null || !connection.key.isValid()) {
+          connection.close();
+          continue;
+        }
+        connection.response = ByteBuffer.wrap(output);
+        try {
+          connection.write();
+        } catch (IOException e) {
+          LOG.debug("Error writing a connection", e);
+          connection.close();
+        }
+      }
+    }
+  }
+}
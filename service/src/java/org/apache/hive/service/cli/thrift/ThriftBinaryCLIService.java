@@ -18,9 +18,11 @@
 
 package org.apache.hive.service.cli.thrift;
 
+import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -47,6 +49,11 @@ public ThriftBinaryCLIService(CLIService cliService) {
   @Override
   public void run() {
     try {
+      if (useNonblockingServer()) {
+        runNonblockingServer();
+        return;
+      }
+
       // Server thread pool
       String threadPoolName = "HiveServer2-Handler-Pool";
       ExecutorService executorService = new ThreadPoolExecutor(minWorkerThreads, maxWorkerThreads,
@@ -104,4 +111,51 @@ public void run() {
     }
   }
 
+  private boolean useNonblockingServer() {
+    if (!hiveConf.getBoolVar(ConfVars.HIVE_SERVER2_THRIFT_NONBLOCKING)) {
+      return false;
+    }
+    // The nonblocking server relies on the frames of the SASL transport
+    if (hiveConf.getBoolVar(ConfVars.HIVE_SERVER2_USE_SSL)
+        || HiveAuthFactory.AuthTypes.NOSASL.getAuthName().equalsIgnoreCase(
+            hiveConf.getVar(ConfVars.HIVE_SERVER2_AUTHENTICATION))) {
+      LOG.warn(ConfVars.HIVE_SERVER2_THRIFT_NONBLOCKING.varname + " is not supported with SSL or "
+          + "NOSASL authentication, using a worker thread per connection");
+      return false;
+    }
+    return true;
+  }
+
+  private void runNonblockingServer() throws Exception {
+    // Requests wait for a worker thread rather than being rejected, since they don't come with
+    // a thread of their own.
+    String threadPoolName = "HiveServer2-Handler-Pool";
+    ThreadPoolExecutor executorService = new ThreadPoolExecutor(maxWorkerThreads,
+        maxWorkerThreads, workerKeepAliveTime, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), new ThreadFactoryWithGarbageCleanup(threadPoolName));
+    executorService.allowCoreThreadTimeOut(true);
+
+    hiveAuthFactory = new HiveAuthFactory(hiveConf);
+    int maxMessageSize = hiveConf.getIntVar(HiveConf.ConfVars.HIVE_SERVER2_THRIFT_MAX_MESSAGE_SIZE);
+    int loginTimeout = (int) hiveConf.getTimeVar(
+        HiveConf.ConfVars.HIVE_SERVER2_THRIFT_LOGIN_TIMEOUT, TimeUnit.SECONDS);
+    InetSocketAddress bindAddress = (hiveHost == null || hiveHost.isEmpty())
+        ? new InetSocketAddress(portNum) : new InetSocketAddress(hiveHost, portNum);
+    TSaslNonblockingServer.Args sargs = new TSaslNonblockingServer.Args(bindAddress)
+        .processorFactory(hiveAuthFactory.getAuthProcFactory(this))
+        .transportFactory(hiveAuthFactory.getAuthTransFactory())
+        .protocolFactory(new TBinaryProtocol.Factory())
+        .inputProtocolFactory(new TBinaryProtocol.Factory(true, true, maxMessageSize, maxMessageSize))
+        .selectorThreads(hiveConf.getIntVar(ConfVars.HIVE_SERVER2_THRIFT_SELECTOR_THREADS))
+        .executorService(executorService)
+        .maxFrameSize(maxMessageSize)
+        .loginTimeout(loginTimeout, TimeUnit.SECONDS);
+
+    server = new TSaslNonblockingServer(sargs);
+    LOG.info("Starting " + ThriftBinaryCLIService.class.getSimpleName() + " on port " + portNum
+        + " with " + hiveConf.getIntVar(ConfVars.HIVE_SERVER2_THRIFT_SELECTOR_THREADS)
+        + " selector threads and at most " + maxWorkerThreads + " worker threads");
+    server.serve();
+  }
+
 }
@@ -40,6 +40,7 @@
 import org.apache.hadoop.hive.common.LogUtils.LogInitializationException;
 import org.apache.hadoop.hive.conf.HiveConf;
 import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.ql.QueryResultsCache;
 import org.apache.hadoop.hive.ql.exec.spark.session.SparkSessionManagerImpl;
 import org.apache.hadoop.hive.ql.exec.tez.TezSessionPoolManager;
 import org.apache.hadoop.hive.ql.util.ZooKeeperHiveHelper;
@@ -295,6 +296,8 @@ public synchronized void stop() {
         LOG.error("Spark session pool manager failed to stop during HiveServer2 shutdown.", ex);
       }
     }
+
+    QueryResultsCache.shutdown();
   }
 
   private static void startHiveServer2() throws Throwable {
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hive.service.cli.operation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.ql.hooks.ExecuteWithHookContext;
+import org.apache.hadoop.hive.ql.hooks.HookContext;
+import org.apache.hive.service.cli.OperationHandle;
+import org.apache.hive.service.cli.OperationState;
+import org.apache.hive.service.cli.RowSet;
+import org.apache.hive.service.cli.SessionHandle;
+import org.apache.hive.service.cli.thrift.EmbeddedThriftBinaryCLIService;
+import org.apache.hive.service.cli.thrift.ThriftCLIServiceClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * TestSQLOperationEarlyFetch.
+ * Test fetching the results of a query while its post-execution hooks run.
+ */
+public class TestSQLOperationEarlyFetch {
+  private static final String TABLE_NAME = "testSQLOperationEarlyFetch_table";
+
+  private ThriftCLIServiceClient client;
+  private SessionHandle sessionHandle;
+
+  /** A post-execution hook blocked until the test releases it. */
+  public static class BlockingHook implements ExecuteWithHookContext {
+    static CountDownLatch release;
+    static volatile boolean finished;
+
+    @Override
+    public void run(HookContext hookContext) throws Exception {
+      release.await(100, TimeUnit.SECONDS);
+      finished = true;
+    }
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    HiveConf hiveConf = new HiveConf();
+    hiveConf.setBoolVar(ConfVars.HIVE_SUPPORT_CONCURRENCY, false);
+    hiveConf.setBoolVar(ConfVars.HIVE_SERVER2_EARLY_FETCH, true);
+    File dataFile = new File(hiveConf.get("test.data.files"), "kv1.txt");
+    EmbeddedThriftBinaryCLIService service = new EmbeddedThriftBinaryCLIService();
+    service.init(hiveConf);
+    client = new ThriftCLIServiceClient(service);
+    sessionHandle = client.openSession("testuser", "testpassword");
+    client.executeStatement(sessionHandle, "DROP TABLE IF EXISTS " + TABLE_NAME, null);
+    client.executeStatement(sessionHandle,
+        "CREATE TABLE " + TABLE_NAME + " (key int, value string)", null);
+    client.executeStatement(sessionHandle, "LOAD DATA LOCAL INPATH '"
+        + dataFile.toString().replace("\\", "\\\\") + "' INTO TABLE " + TABLE_NAME, null);
+    BlockingHook.release = new CountDownLatch(1);
+    BlockingHook.finished = false;
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    BlockingHook.release.countDown();
+    client.executeStatement(sessionHandle, "DROP TABLE " + TABLE_NAME, null);
+    client.closeSession(sessionHandle);
+  }
+
+  @Test
+  public void testFetchBeforeCompletion() throws Exception {
+    Map<String, String> confOverlay = new HashMap<String, String>();
+    confOverlay.put(ConfVars.POSTEXECHOOKS.varname, BlockingHook.class.getName());
+    OperationHandle opHandle = client.executeStatementAsync(sessionHandle,
+        "SELECT * FROM " + TABLE_NAME + " LIMIT 10", confOverlay);
+
+    long pollTimeout = System.currentTimeMillis() + 100000;
+    OperationState state = client.getOperationStatus(opHandle).getState();
+    while (state != OperationState.FINISHED && !state.isTerminal()
+        && System.currentTimeMillis() < pollTimeout) {
+      Thread.sleep(100);
+      state = client.getOperationStatus(opHandle).getState();
+    }
+    assertEquals(OperationState.FINISHED, state);
+
+    // the results are available while the post-execution hook is still running
+    RowSet rowSet = client.fetchResults(opHandle);
+    assertEquals(10, rowSet.numRows());
+    assertFalse(BlockingHook.finished);
+
+    // closing the operation waits for the query to complete
+    BlockingHook.release.countDown();
+    client.closeOperation(opHandle);
+    assertTrue(BlockingHook.finished);
+  }
+}
@@ -0,0 +1,133 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.hive.service.cli.operation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hadoop.hive.metastore.IMetaStoreClient;
+import org.apache.hadoop.hive.metastore.api.Table;
+import org.junit.Test;
+
+public class TestTableBatchFetcher {
+
+  /** A metastore client that answers getTableObjectsByName, the later batches first. */
+  private static class FakeClient implements InvocationHandler {
+    final List<List<String>> calls = Collections.synchronizedList(new ArrayList<List<String>>());
+    final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+      if (!method.getName().equals("getTableObjectsByName")) {
+        throw new UnsupportedOperationException(method.getName());
+      }
+      String dbName = (String) args[0];
+      List<String> tableNames = (List<String>) args[1];
+      calls.add(tableNames);
+      threads.add(Thread.currentThread().getName());
+      // make the first batches the slowest to arrive
+      Thread.sleep(tableNames.get(0).endsWith("0") ? 200 : 0);
+      List<Table> tables = new ArrayList<Table>();
+      for (String tableName : tableNames) {
+        Table table = new Table();
+        table.setDbName(dbName);
+        table.setTableName(tableName);
+        tables.add(table);
+      }
+      return tables;
+    }
+  }
+
+  private List<String> fetchAll(HiveConf conf, FakeClient fake) throws Exception {
+    IMetaStoreClient client = (IMetaStoreClient) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] {IMetaStoreClient.class}, fake);
+    TableBatchFetcher fetcher = new TableBatchFetcher(client, conf);
+    fetcher.add("db1", Arrays.asList("t0", "t1", "t2", "t3", "t4"));
+    fetcher.add("db2", Arrays.asList("u0", "u1"));
+    List<String> names = new ArrayList<String>();
+    List<Table> tables;
+    while ((tables = fetcher.next()) != null) {
+      for (Table table : tables) {
+        names.add(table.getDbName() + "." + table.getTableName());
+      }
+    }
+    assertNull(fetcher.next());
+    return names;
+  }
+
+  @Test
+  public void testBatches() throws Exception {
+    HiveConf conf = new HiveConf();
+    conf.setIntVar(ConfVars.METASTORE_BATCH_RETRIEVE_MAX, 2);
+    FakeClient fake = new FakeClient();
+    assertEquals("[db1.t0, db1.t1, db1.t2, db1.t3, db1.t4, db2.u0, db2.u1]",
+        fetchAll(conf, fake).toString());
+    assertEquals("[[t0, t1], [t2, t3], [t4], [u0, u1]]", fake.calls.toString());
+  }
+
+  @Test
+  public void testParallelBatches() throws Exception {
+    HiveConf conf = new HiveConf();
+    conf.setIntVar(ConfVars.METASTORE_BATCH_RETRIEVE_MAX, 2);
+    conf.setBoolVar(ConfVars.METASTORE_CLIENT_POOL_ENABLED, true);
+    conf.setVar(ConfVars.METASTOREURIS, "thrift://localhost:9083");
+    conf.setIntVar(ConfVars.HIVE_SERVER2_METADATA_FETCH_THREADS, 3);
+    FakeClient fake = new FakeClient();
+    // the batches are returned in order, whatever order they arrive in
+    assertEquals("[db1.t0, db1.t1, db1.t2, db1.t3, db1.t4, db2.u0, db2.u1]",
+        fetchAll(conf, fake).toString());
+    assertEquals(4, fake.calls.size());
+  }
+
+  @Test
+  public void testSaturatedPool() throws Exception {
+    HiveConf conf = new HiveConf();
+    conf.setIntVar(ConfVars.METASTORE_BATCH_RETRIEVE_MAX, 2);
+    conf.setBoolVar(ConfVars.METASTORE_CLIENT_POOL_ENABLED, true);
+    conf.setVar(ConfVars.METASTOREURIS, "thrift://localhost:9083");
+    conf.setIntVar(ConfVars.HIVE_SERVER2_METADATA_FETCH_THREADS, 3);
+    conf.setIntVar(ConfVars.HIVE_SERVER2_METADATA_FETCH_POOL_SIZE, 1);
+    FakeClient fake = new FakeClient();
+    assertEquals("[db1.t0, db1.t1, db1.t2, db1.t3, db1.t4, db2.u0, db2.u1]",
+        fetchAll(conf, fake).toString());
+    assertEquals(4, fake.calls.size());
+    // the batches the only thread of the pool was too busy for were fetched by the caller
+    assertTrue(fake.threads.contains(Thread.currentThread().getName()));
+    int poolThreads = 0;
+    for (String thread : fake.threads) {
+      if (thread.startsWith("HiveServer2-Metadata-Pool")) {
+        poolThreads++;
+      }
+    }
+    assertTrue(poolThreads <= 1);
+  }
+}
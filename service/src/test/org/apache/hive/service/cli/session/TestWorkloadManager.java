@@ -0,0 +1,160 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.hive.service.cli.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.hadoop.hive.conf.HiveConf;
+import org.apache.hadoop.hive.conf.HiveConf.ConfVars;
+import org.apache.hive.service.cli.HiveSQLException;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestWorkloadManager {
+
+  /** Runs the submitted operations when asked to, in order. */
+  private static class ManualExecutor implements Executor {
+    final LinkedList<Runnable> started = new LinkedList<Runnable>();
+
+    @Override
+    public void execute(Runnable command) {
+      started.add(command);
+    }
+
+    void finishNext() {
+      started.removeFirst().run();
+    }
+  }
+
+  private static class Recorder implements Runnable {
+    final List<String> ran;
+    final String name;
+
+    Recorder(List<String> ran, String name) {
+      this.ran = ran;
+      this.name = name;
+    }
+
+    @Override
+    public void run() {
+      ran.add(name);
+    }
+  }
+
+  private HiveConf conf;
+  private ManualExecutor executor;
+  private List<String> ran;
+
+  @Before
+  public void setUp() {
+    conf = new HiveConf();
+    conf.setVar(ConfVars.HIVE_SERVER2_WORKLOAD_QUEUES, "etl,bi");
+    conf.set("hive.server2.workload.queue.etl.users", "etl_user");
+    conf.setInt("hive.server2.workload.queue.etl.max.concurrent", 1);
+    conf.setInt("hive.server2.workload.queue.etl.max.waiting", 2);
+    conf.set("hive.server2.workload.queue.bi.users", "bi_user");
+    conf.setInt("hive.server2.workload.queue.bi.priority", 10);
+    executor = new ManualExecutor();
+    ran = new ArrayList<String>();
+  }
+
+  private Future<?> submit(WorkloadManager manager, String name, String user)
+      throws HiveSQLException {
+    return manager.submit(new Recorder(ran, name), user, conf);
+  }
+
+  @Test
+  public void testConcurrencyLimit() throws Exception {
+    WorkloadManager manager = new WorkloadManager(conf, executor, 10);
+    submit(manager, "etl1", "etl_user");
+    submit(manager, "etl2", "etl_user");
+    submit(manager, "other", "someone");
+    assertEquals(1, manager.getRunning("etl"));
+    assertEquals(1, manager.getWaiting("etl"));
+    assertEquals(1, manager.getRunning(WorkloadManager.DEFAULT_QUEUE));
+
+    executor.finishNext();
+    assertEquals(1, manager.getRunning("etl"));
+    assertEquals(0, manager.getWaiting("etl"));
+    executor.finishNext();
+    executor.finishNext();
+    assertEquals("[etl1, other, etl2]", ran.toString());
+
+    // once the queue is full, new operations are rejected
+    submit(manager, "etl3", "etl_user");
+    submit(manager, "etl4", "etl_user");
+    submit(manager, "etl5", "etl_user");
+    try {
+      submit(manager, "etl6", "etl_user");
+      fail("Expected the operation to be rejected");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testPriority() throws Exception {
+    WorkloadManager manager = new WorkloadManager(conf, executor, 1);
+    submit(manager, "other1", "someone");
+    submit(manager, "other2", "someone");
+    submit(manager, "etl", "etl_user");
+    Future<?> cancelled = submit(manager, "bi1", "bi_user");
+    submit(manager, "bi2", "bi_user");
+    cancelled.cancel(true);
+    while (!executor.started.isEmpty()) {
+      executor.finishNext();
+    }
+    // the queues are served by priority, listed order breaking ties
+    assertEquals("[other1, bi2, etl, other2]", ran.toString());
+    assertTrue(cancelled.isDone());
+  }
+
+  @Test
+  public void testChosenQueue() throws Exception {
+    WorkloadManager manager = new WorkloadManager(conf, executor, 10);
+    conf.setVar(ConfVars.HIVE_SERVER2_WORKLOAD_QUEUE, "bi");
+    submit(manager, "bi", "bi_user");
+    assertEquals(1, manager.getRunning("bi"));
+    try {
+      submit(manager, "etl", "etl_user");
+      fail("Expected the user not to be allowed in the queue");
+    } catch (HiveSQLException e) {
+      // expected
+    }
+    conf.setVar(ConfVars.HIVE_SERVER2_WORKLOAD_QUEUE, "unknown");
+    try {
+      submit(manager, "bi", "bi_user");
+      fail("Expected the queue not to exist");
+    } catch (HiveSQLException e) {
+      // expected
+    }
+    conf.setVar(ConfVars.HIVE_SERVER2_WORKLOAD_QUEUE, WorkloadManager.DEFAULT_QUEUE);
+    submit(manager, "etl", "etl_user");
+    assertEquals(1, manager.getRunning(WorkloadManager.DEFAULT_QUEUE));
+  }
+}